@@ -31,6 +31,9 @@ public class EurlerProblem6
         // squared sum - sum of squares
         int answer1 = square().apply(range(1, 101).reduce(sum())) - range(1, 101).map(square()).reduce(sum());
 
+        // ranges know their sums without iterating
+        long answer3 = square().apply((int) range(1, 101).sum()) - range(1, 101).sumOfSquares();
+
         // now using straight Java
         int sum = 0;
         int sumOfSquares = 0;
@@ -42,6 +45,7 @@ public class EurlerProblem6
 
         System.out.println("Iterate: " + answer1);
         System.out.println("Java: " + answer2);
+        System.out.println("Closed form: " + answer3);
 
         System.out.println(answer1 + (answer1 == answer2 ? " == " : " != ") + answer2);
 
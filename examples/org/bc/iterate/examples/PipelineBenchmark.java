@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.examples;
+
+import org.bc.iterate.Condition;
+import org.bc.iterate.Function;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Strings;
+import org.bc.iterate.iterable.FilterIterable;
+import org.bc.iterate.iterable.FunctionalIterable;
+import org.bc.iterate.visitor.Count;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.bc.iterate.Conditions.not;
+import static org.bc.iterate.Iterate.each;
+
+/**
+ * Rough comparison of a six stage {@link Iterate} pipeline, whose {@code where} and {@code map} stages are fused into
+ * a single iterator, with the same pipeline built by hand from one nested {@link Iterable} per stage, with the fused
+ * pipeline run over batches of items, and with the fused pipeline run in parallel.
+ */
+public class PipelineBenchmark
+{
+    private static final int LINES = 2000000;
+    private static final int RUNS = 10;
+
+    public static void main(String[] args)
+    {
+        final List<String> lines = new ArrayList<String>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            lines.add((i % 7 == 0 ? "ERROR " : "INFO ") + i + " request took " + (i % 1000) + "ms");
+        }
+
+        final Condition<String> notComment = not(Strings.contains("#"));
+        final Condition<String> isError = Strings.contains("ERROR");
+        final Function<String, String> trim = Strings.trim();
+        final Function<String, Integer> length = Strings.length();
+        final Condition<Integer> isLong = new Condition<Integer>()
+        {
+            public boolean eval(Integer i)
+            {
+                return i > 30;
+            }
+        };
+        final Function<Integer, Integer> twice = new Function<Integer, Integer>()
+        {
+            public Integer apply(Integer i)
+            {
+                return i * 2;
+            }
+        };
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            final int fused = each(lines).where(notComment).where(isError).map(trim).map(length).where(isLong).map(twice)
+                    .visit(new Count<Integer>()).getCount();
+            final long fusedTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final int unfused = each(new FunctionalIterable<Integer, Integer>(
+                    new FilterIterable<Integer>(
+                            new FunctionalIterable<String, Integer>(
+                                    new FunctionalIterable<String, String>(
+                                            new FilterIterable<String>(
+                                                    new FilterIterable<String>(lines, notComment), isError), trim),
+                                    length), isLong), twice))
+                    .visit(new Count<Integer>()).getCount();
+            final long unfusedTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final int batched = each(lines).where(notComment).where(isError).map(trim).map(length).where(isLong)
+                    .map(twice).batched().visit(new Count<Integer>()).getCount();
+            final long batchedTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final int parallel = each(lines).parallel().where(notComment).where(isError).map(trim).map(length)
+                    .where(isLong).map(twice).visit(new Count<Integer>()).getCount();
+            final long parallelTime = System.nanoTime() - start;
+
+            System.out.println("run " + run + ": fused " + (fusedTime / 1000000) + "ms, unfused " +
+                               (unfusedTime / 1000000) + "ms, batched " + (batchedTime / 1000000) + "ms, parallel " +
+                               (parallelTime / 1000000) + "ms" +
+                               (fused == unfused && fused == batched && fused == parallel ? "" : " (MISMATCH)"));
+        }
+    }
+}
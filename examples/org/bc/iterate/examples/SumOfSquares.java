@@ -19,6 +19,7 @@ import org.bc.iterate.BinaryFunction;
 import org.bc.iterate.Function;
 import org.bc.iterate.Integers;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.primitive.Ints;
 
 import static org.bc.iterate.Functions.compose;
 import static org.bc.iterate.Integers.*;
@@ -60,5 +61,11 @@ public class SumOfSquares
 
         // And finally, the most compact, but most LISP-like
         System.out.println(range(1, 101).reduce(compose(square(), sum())));
+
+        // Using the primitive int pipeline, which never boxes the integers
+        System.out.println(range(1, 101).ints().map(Ints.square()).sum());
+
+        // Using the closed form on the range itself, which does not iterate at all
+        System.out.println(range(1, 101).sumOfSquares());
     }
 }
@@ -18,6 +18,7 @@ package org.bc.iterate;
 
 import org.bc.iterate.relational.Join;
 import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
 import org.bc.iterate.util.Pair;
 import org.bc.iterate.visitor.Count;
 
@@ -72,7 +73,7 @@ public class Algorithms
      */
     public static <X, Y> Map<Y, X> asMap(final Iterable<X> items, final Function<X, Y> mapFunction)
     {
-        return asMap(items, new HashMap<Y, X>(Iterate.estimateSize(items)), mapFunction);
+        return asMap(items, new HashMap<Y, X>(Size.hashCapacity(Iterate.estimateSize(items))), mapFunction);
     }
 
     /**
@@ -439,7 +440,8 @@ public class Algorithms
     {
         // Use an inner join to correlate exampleOrder and itemsToSort to only items with appear in itemsToSort, but
         // preserving the order provided in exampleOrder.
-        return Iterate.each(exampleOrder).join(Join.inner(xKeyFunction, yKeyFunction), itemsToSort)
+        return Iterate.each(exampleOrder)
+                .join(Join.ordered(JoinType.INNER, xKeyFunction, yKeyFunction), itemsToSort)
                 .map(Pair.<X, Y>y()).add(new ArrayList<Y>(Iterate.estimateSize(itemsToSort)));
     }
 
@@ -15,6 +15,8 @@
  */
 package org.bc.iterate;
 
+import org.bc.iterate.iterable.FusedIterable;
+
 import java.util.Iterator;
 
 public class BasicIterateImpl<X> extends Iterate<X>
@@ -50,6 +52,25 @@ public class BasicIterateImpl<X> extends Iterate<X>
         return iterable.iterator();
     }
 
+    @Override
+    public boolean traverse(Sink<? super X> sink)
+    {
+        return Iterables.traverse(iterable, sink);
+    }
+
+    @Override
+    protected FusedIterable<?, X> fuse()
+    {
+        //noinspection unchecked
+        return iterable instanceof FusedIterable ? (FusedIterable<?, X>) iterable : super.fuse();
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return Size.of(iterable);
+    }
+
     public String toString()
     {
         return iterable.toString();
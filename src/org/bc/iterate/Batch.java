@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+/**
+ * A fixed-capacity chunk of items processed together by batched pipelines (see {@link Iterate#batched()}) and
+ * delivered to {@link BatchVisitor}s.  Rather than pushing each item through every stage in turn, a batched pipeline
+ * runs each stage over a whole {@link Batch} in one tight loop, e.g. {@link #where(Condition)}, {@link #map(Function)},
+ * so each loop calls a single {@link Condition} or {@link Function}, which the JIT can inline, unroll and keep in
+ * cache.
+ * <p/>
+ * Items rejected by {@link #where(Condition)} are not moved.  Instead, the {@link Batch} keeps a selection vector of
+ * the indexes of the items still selected, and {@link #get(int)} reads through it.
+ * <p/>
+ * A {@link Batch} is reused for successive chunks of a pipeline, so {@link BatchVisitor}s must copy any items they
+ * want to keep rather than holding onto the {@link Batch}.
+ *
+ * @author Brian Cavalier
+ * @param <X> item type
+ */
+@SuppressWarnings({"unchecked"})
+public final class Batch<X>
+{
+    public static final int DEFAULT_SIZE = 1024;
+
+    private final Object[] items;
+    private final int[] selection;
+    private int count = 0;
+    private int size = 0;
+
+    /**
+     * @param capacity maximum number of items
+     */
+    public Batch(int capacity)
+    {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+
+        this.items = new Object[capacity];
+        this.selection = new int[capacity];
+    }
+
+    /**
+     * Adds an item and selects it.  Items can only be added before any stage has been applied.
+     *
+     * @param x item to add
+     *
+     * @return {@code true} if there is room for more items, {@code false} if this {@link Batch} is now full
+     */
+    public boolean add(X x)
+    {
+        if (size != count) {
+            throw new IllegalStateException("Cannot add items after items have been deselected");
+        }
+
+        items[count] = x;
+        selection[count] = count;
+        size = ++count;
+        return count < items.length;
+    }
+
+    /**
+     * Removes all items, so that the {@link Batch} can be refilled
+     */
+    public void clear()
+    {
+        count = size = 0;
+    }
+
+    /**
+     * @return {@code true} if any items have been added since the last {@link #clear()}, even if none is selected
+     */
+    public boolean isFilled()
+    {
+        return count > 0;
+    }
+
+    /**
+     * @return number of selected items
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public int capacity()
+    {
+        return items.length;
+    }
+
+    /**
+     * @param i index of a selected item, {@code 0 <= i < size()}
+     *
+     * @return the {@code i}th selected item
+     */
+    public X get(int i)
+    {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i + " >= " + size);
+        }
+        return (X) items[selection[i]];
+    }
+
+    /**
+     * Deselects items for which {@code c.eval(item) == false}
+     *
+     * @param c {@link Condition} to evaluate for each selected item
+     *
+     * @return this {@link Batch}
+     */
+    public Batch<X> where(Condition<? super X> c)
+    {
+        final Object[] items = this.items;
+        final int[] selection = this.selection;
+        int selected = 0;
+        for (int i = 0, n = size; i < n; i++) {
+            final int index = selection[i];
+            if (c.eval((X) items[index])) {
+                selection[selected++] = index;
+            }
+        }
+        size = selected;
+
+        return this;
+    }
+
+    /**
+     * Replaces each selected item with the result of applying {@code f} to it
+     *
+     * @param f {@link Function} to apply to each selected item
+     *
+     * @return this {@link Batch}, whose items are now of type {@code Y}
+     */
+    public <Y> Batch<Y> map(Function<? super X, ? extends Y> f)
+    {
+        final Object[] items = this.items;
+        final int[] selection = this.selection;
+        for (int i = 0, n = size; i < n; i++) {
+            final int index = selection[i];
+            items[index] = f.apply((X) items[index]);
+        }
+
+        return (Batch<Y>) this;
+    }
+
+    /**
+     * Deselects the first selected item for which {@code c.eval(item) == true} and all items after it
+     *
+     * @param c {@link Condition} to evaluate for each selected item
+     *
+     * @return {@code false} if an item matched {@code c}, i.e. if the pipeline should end after this {@link Batch},
+     *         {@code true} otherwise
+     */
+    public boolean until(Condition<? super X> c)
+    {
+        final Object[] items = this.items;
+        final int[] selection = this.selection;
+        for (int i = 0, n = size; i < n; i++) {
+            if (c.eval((X) items[selection[i]])) {
+                size = i;
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Pushes each selected item into {@code sink}, in order
+     *
+     * @param sink {@link Sink} to which to push items
+     *
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    public boolean traverse(Sink<? super X> sink)
+    {
+        final Object[] items = this.items;
+        final int[] selection = this.selection;
+        for (int i = 0, n = size; i < n; i++) {
+            if (!sink.accept((X) items[selection[i]])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
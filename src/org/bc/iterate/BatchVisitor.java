@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+/**
+ * A {@code BatchVisitor} processes items a {@link Batch} at a time, rather than one at a time like a {@link Visitor},
+ * using {@link Iterate#visit(BatchVisitor)}.
+ *
+ * @author Brian Cavalier
+ * @param <T> type of item to visit
+ */
+public interface BatchVisitor<T>
+{
+    /**
+     * Process the selected items in {@code batch}, i.e. {@code batch.get(0)} to {@code batch.get(batch.size() - 1)}.
+     * {@code batch} is reused after this method returns, so it must not be retained.
+     *
+     * @param batch items to visit
+     */
+    void visit(Batch<? extends T> batch);
+}
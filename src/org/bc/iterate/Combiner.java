@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+/**
+ * A {@code Combiner} is an associative {@link BinaryFunction} with an identity value, i.e. a monoid in the algebraic
+ * sense: {@code apply(x, apply(y, z))} equals {@code apply(apply(x, y), z)}, and {@code apply(identity(), x)} and
+ * {@code apply(x, identity())} both equal {@code x}.  Because the grouping of items does not matter, a reduction
+ * using a {@code Combiner} can be split into partial reductions of separate chunks of items that are then combined.
+ * {@link ParallelIterate#reduce(BinaryFunction, Object)} does this in parallel.
+ * <p/>
+ * Floating point addition and multiplication, e.g. {@link Doubles#sum()} and {@link Floats#sum()}, are only
+ * approximately associative: each operation rounds, so the result depends on the grouping.  A parallel reduction with
+ * them groups the items by chunk, and so may return a different result from a sequential one, and from one run to
+ * another with a different parallelism.  The difference is usually in the last few bits, but can be much larger when
+ * values of very different magnitudes, or of opposite signs, are combined.
+ *
+ * @author Brian Cavalier
+ * @param <T> argument and result type
+ */
+public interface Combiner<T> extends BinaryFunction<T, T, T>
+{
+    /**
+     * @return the identity value, e.g. {@code 0} for addition or {@code 1} for multiplication
+     */
+    T identity();
+}
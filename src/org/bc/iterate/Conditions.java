@@ -16,6 +16,7 @@
 
 package org.bc.iterate;
 
+import org.bc.iterate.condition.Comparison;
 import org.bc.iterate.condition.FunctionCondition;
 import org.bc.iterate.condition.RegexMatch;
 
@@ -68,13 +69,7 @@ public class Conditions
      */
     public static <X> Condition<X> eq(final Comparable<X> comparable)
     {
-        return new Condition<X>()
-        {
-            public boolean eval(X x)
-            {
-                return comparable.compareTo(x) == 0;
-            }
-        };
+        return new Comparison<X>(Comparison.Operator.EQ, comparable);
     }
 
     /**
@@ -85,13 +80,7 @@ public class Conditions
      */
     public static <X> Condition<X> neq(final Comparable<X> comparable)
     {
-        return new Condition<X>()
-        {
-            public boolean eval(X x)
-            {
-                return comparable.compareTo(x) != 0;
-            }
-        };
+        return new Comparison<X>(Comparison.Operator.NEQ, comparable);
     }
 
     /**
@@ -102,19 +91,7 @@ public class Conditions
      */
     public static <X> Condition<X> gt(final Comparable<X> comparable)
     {
-        return new Condition<X>()
-        {
-            public boolean eval(X x)
-            {
-                return comparable.compareTo(x) < 0;
-            }
-
-            @Override
-            public String toString()
-            {
-                return "> " + comparable;
-            }
-        };
+        return new Comparison<X>(Comparison.Operator.GT, comparable);
     }
 
     /**
@@ -125,13 +102,7 @@ public class Conditions
      */
     public static <X> Condition<X> lt(final Comparable<X> comparable)
     {
-        return new Condition<X>()
-        {
-            public boolean eval(X x)
-            {
-                return comparable.compareTo(x) > 0;
-            }
-        };
+        return new Comparison<X>(Comparison.Operator.LT, comparable);
     }
 
     /**
@@ -166,13 +137,7 @@ public class Conditions
      */
     public static <X> Condition<X> gte(final Comparable<X> comparable)
     {
-        return new Condition<X>()
-        {
-            public boolean eval(X x)
-            {
-                return comparable.compareTo(x) <= 0;
-            }
-        };
+        return new Comparison<X>(Comparison.Operator.GTE, comparable);
     }
 
     /**
@@ -183,13 +148,7 @@ public class Conditions
      */
     public static <X> Condition<X> lte(final Comparable<X> comparable)
     {
-        return new Condition<X>()
-        {
-            public boolean eval(X x)
-            {
-                return comparable.compareTo(x) >= 0;
-            }
-        };
+        return new Comparison<X>(Comparison.Operator.LTE, comparable);
     }
 
     /**
@@ -16,6 +16,9 @@
 package org.bc.iterate;
 
 import org.bc.iterate.iterable.AbstractIterator;
+import org.bc.iterate.iterable.RandomIterable;
+
+import org.bc.iterate.primitive.SplitMix64;
 
 import java.util.Iterator;
 import java.util.Random;
@@ -43,10 +46,21 @@ public class Doubles
         };
     }
 
-    public static BinaryFunction<Double, Double, Double> sum()
+    /**
+     * Floating point addition is not exactly associative, so a parallel sum may differ from a sequential one, see
+     * {@link Combiner}.
+     *
+     * @return a {@link Combiner} that returns the result of adding its two arguments, i.e. {@code x + y}
+     */
+    public static Combiner<Double> sum()
     {
-        return new BinaryFunction<Double, Double, Double>()
+        return new Combiner<Double>()
         {
+            public Double identity()
+            {
+                return 0.0;
+            }
+
             public Double apply(Double i1, Double i2)
             {
                 return i1 + i2;
@@ -54,10 +68,21 @@ public class Doubles
         };
     }
 
-    public static BinaryFunction<Double, Double, Double> multiply()
+    /**
+     * Floating point multiplication is not exactly associative, so a parallel product may differ from a sequential
+     * one, see {@link Combiner}.
+     *
+     * @return a {@link Combiner} that returns the result of multiplying its two arguments, i.e. {@code x * y}
+     */
+    public static Combiner<Double> multiply()
     {
-        return new BinaryFunction<Double, Double, Double>()
+        return new Combiner<Double>()
         {
+            public Double identity()
+            {
+                return 1.0;
+            }
+
             public Double apply(Double i1, Double i2)
             {
                 return i1 * i2;
@@ -99,12 +124,25 @@ public class Doubles
     }
 
     /**
-     * @return a inexhaustable {@link Iterable} of random {@link Double}s. See {@link java.util.Random#nextDouble()} for
-     *         numeric range of returned values.
+     * @return a inexhaustable {@link Iterable} of random {@link Double}s from {@code 0.0} to {@code 1.0}, drawn from a
+     *         new {@link SplitMix64} on each pass, so each pass produces different {@link Double}s
      */
     public static Iterate<Double> random()
     {
-        return random(new Random());
+        return Iterate.each(RandomIterable.doubles(null, -1));
+    }
+
+    /**
+     * @param random {@link SplitMix64} from whose current position to draw the {@link Double}s.  It does not advance.
+     * @param count  number of random {@link Double}s
+     *
+     * @return an {@link Iterate} of {@code count} random {@link Double}s, which are the same on every pass, and, since
+     *         they can be split, the same when processed in parallel
+     * @see RandomIterable
+     */
+    public static Iterate<Double> random(SplitMix64 random, int count)
+    {
+        return Iterate.each(RandomIterable.doubles(random, count));
     }
 
     /**
@@ -43,10 +43,21 @@ public class Floats
         };
     }
 
-    public static BinaryFunction<Float, Float, Float> sum()
+    /**
+     * Floating point addition is not exactly associative, so a parallel sum may differ from a sequential one, see
+     * {@link Combiner}.
+     *
+     * @return a {@link Combiner} that returns the result of adding its two arguments, i.e. {@code x + y}
+     */
+    public static Combiner<Float> sum()
     {
-        return new BinaryFunction<Float, Float, Float>()
+        return new Combiner<Float>()
         {
+            public Float identity()
+            {
+                return 0.0f;
+            }
+
             public Float apply(Float i1, Float i2)
             {
                 return i1 + i2;
@@ -54,10 +65,21 @@ public class Floats
         };
     }
 
-    public static BinaryFunction<Float, Float, Float> multiply()
+    /**
+     * Floating point multiplication is not exactly associative, so a parallel product may differ from a sequential
+     * one, see {@link Combiner}.
+     *
+     * @return a {@link Combiner} that returns the result of multiplying its two arguments, i.e. {@code x * y}
+     */
+    public static Combiner<Float> multiply()
     {
-        return new BinaryFunction<Float, Float, Float>()
+        return new Combiner<Float>()
         {
+            public Float identity()
+            {
+                return 1.0f;
+            }
+
             public Float apply(Float i1, Float i2)
             {
                 return i1 * i2;
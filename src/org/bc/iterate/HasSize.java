@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+/**
+ * Implemented by {@link Iterable}s that know, or can derive from their sources, how many items they contain.  {@link
+ * #getEstimatedSize()} remains a hint used when the {@link Size} is unknown.
+ *
+ * @author Brian Cavalier
+ */
+public interface HasSize extends HasEstimatedSize
+{
+    /**
+     * @return the exact number of items, an upper bound on it, or {@link Size#unknown()}
+     */
+    Size getSize();
+}
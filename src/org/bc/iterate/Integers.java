@@ -17,6 +17,8 @@ package org.bc.iterate;
 
 import org.bc.iterate.iterable.AbstractIterator;
 import org.bc.iterate.iterable.IntegerRange;
+import org.bc.iterate.iterable.RandomIterable;
+import org.bc.iterate.primitive.SplitMix64;
 
 import java.util.Iterator;
 import java.util.Random;
@@ -53,10 +55,15 @@ public class Integers
     /**
      * @return a {@link BinaryFunction} that returns the result of adding its two arguments, i.e. {@code x + y}
      */
-    public static BinaryFunction<Integer, Integer, Integer> sum()
+    public static Combiner<Integer> sum()
     {
-        return new BinaryFunction<Integer, Integer, Integer>()
+        return new Combiner<Integer>()
         {
+            public Integer identity()
+            {
+                return 0;
+            }
+
             public Integer apply(Integer i1, Integer i2)
             {
                 return i1 + i2;
@@ -74,10 +81,15 @@ public class Integers
      *
      * @return a {@link BinaryFunction} that returns the result of multiplying its two arguments, i.e. {@code x * y}
      */
-    public static BinaryFunction<Integer, Integer, Integer> multiply()
+    public static Combiner<Integer> multiply()
     {
-        return new BinaryFunction<Integer, Integer, Integer>()
+        return new Combiner<Integer>()
         {
+            public Integer identity()
+            {
+                return 1;
+            }
+
             public Integer apply(Integer i1, Integer i2)
             {
                 return i1 * i2;
@@ -135,11 +147,27 @@ public class Integers
     /**
      * @param maxValueExclusive random integers strictly less than this value will be returned by the {@link Iterable}
      *
-     * @return a inexhaustable {@link Iterable} of random integers from {@code 0} to {@code maxValueExclusive}
+     * @return a inexhaustable {@link Iterable} of random integers from {@code 0} to {@code maxValueExclusive}, drawn
+     *         from a new {@link SplitMix64} on each pass, so each pass produces different integers
      */
     public static Iterable<Integer> random(final int maxValueExclusive)
     {
-        return random(new Random(), maxValueExclusive);
+        return Iterate.each(RandomIterable.ints(null, maxValueExclusive, -1));
+    }
+
+    /**
+     * @param random            {@link SplitMix64} from whose current position to draw the integers.  It does not
+     *                          advance.
+     * @param maxValueExclusive random integers strictly less than this value will be returned by the {@link Iterable}
+     * @param count             number of random integers
+     *
+     * @return an {@link Iterate} of {@code count} random integers from {@code 0} to {@code maxValueExclusive}, which
+     *         are the same on every pass, and, since they can be split, the same when processed in parallel
+     * @see RandomIterable
+     */
+    public static Iterate<Integer> random(SplitMix64 random, int maxValueExclusive, int count)
+    {
+        return Iterate.each(RandomIterable.ints(random, maxValueExclusive, count));
     }
 
     /**
@@ -174,11 +202,12 @@ public class Integers
     }
 
     /**
-     * @return a inexhaustable {@link Iterable} of random integers from {@code 0} to {@link Integer#MAX_VALUE}
+     * @return a inexhaustable {@link Iterable} of random integers, drawn from a new {@link SplitMix64} on each pass, so
+     *         each pass produces different integers
      */
     public static Iterable<Integer> random()
     {
-        return random(new Random());
+        return Iterate.each(RandomIterable.ints(null, -1));
     }
 
     /**
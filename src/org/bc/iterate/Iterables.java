@@ -16,6 +16,9 @@
 package org.bc.iterate;
 
 import org.bc.iterate.iterable.*;
+import org.bc.iterate.primitive.ToDoubleFunction;
+import org.bc.iterate.primitive.ToIntFunction;
+import org.bc.iterate.primitive.ToLongFunction;
 
 import java.util.*;
 
@@ -167,12 +170,12 @@ public class Iterables
 
     public static <X> Iterable<X> sorted(Iterable<X> iterable, Comparator<X> comparator)
     {
-        return new ComparatorSortIterable<X>(iterable, comparator);
+        return Optimizer.sort(iterable, comparator);
     }
 
     public static <X extends Comparable<X>> Iterable<X> sorted(Iterable<X> iterable)
     {
-        return new NaturalSortIterable<X>(iterable);
+        return Optimizer.sort(iterable);
     }
 
     /**
@@ -190,6 +193,65 @@ public class Iterables
         return collection;
     }
 
+    /**
+     * Pushes each item in {@code items} into {@code sink} until all items have been pushed, or until {@code sink}
+     * returns {@code false}.  {@link Traversable}s push their own items, {@link RandomAccess} {@link List}s are
+     * traversed by index, and any other {@link Iterable} is traversed using its {@link Iterator}.
+     *
+     * @param items items to push into {@code sink}
+     * @param sink  {@link Sink} to which items will be pushed
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <X> boolean traverse(Iterable<X> items, Sink<? super X> sink)
+    {
+        if (items instanceof Traversable) {
+            return ((Traversable<X>) items).traverse(sink);
+        }
+
+        if (items instanceof RandomAccess && items instanceof List) {
+            final List<X> list = (List<X>) items;
+            for (int i = 0, n = list.size(); i < n; i++) {
+                if (!sink.accept(list.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (X x : items) {
+            if (!sink.accept(x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a {@link Splittable} view of {@code items} if they can be split without copying: {@link Splittable}s
+     * with a known size, {@link RandomAccess} {@link List}s, and {@link Iterate}s over either of those.
+     *
+     * @param items items to split
+     * @return a {@link Splittable} view of {@code items}, or {@code null} if {@code items} cannot be split without
+     *         copying
+     */
+    @SuppressWarnings({"unchecked", "ChainOfInstanceofChecks"})
+    public static <X> Splittable<X> splittable(Iterable<X> items)
+    {
+        while (items instanceof BasicIterateImpl) {
+            items = ((BasicIterateImpl<X>) items).iterable;
+        }
+
+        if (items instanceof Splittable) {
+            final Splittable<X> splittable = (Splittable<X>) items;
+            return splittable.size() < 0 ? null : splittable;
+        } else if (items instanceof RandomAccess && items instanceof List) {
+            return new RandomAccessListIterable<X>((List<X>) items);
+        }
+
+        return null;
+    }
+
     public static <X> Function<Iterable<X>, Iterable<X>> prepend(final Iterable<X> toPrepend)
     {
         return new Function<Iterable<X>, Iterable<X>>()
@@ -218,7 +280,7 @@ public class Iterables
         {
             public Iterable<X> apply(Iterable<X> xIterable)
             {
-                return new SliceIterable<X>(xIterable, start, end);
+                return Optimizer.slice(xIterable, start, end);
             }
         };
     }
@@ -229,7 +291,7 @@ public class Iterables
         {
             public Iterable<X> apply(Iterable<X> xIterable)
             {
-                return new SliceIterable<X>(xIterable, start);
+                return Optimizer.slice(xIterable, start, -1);
             }
         };
     }
@@ -240,9 +302,7 @@ public class Iterables
         {
             public Iterable<X> apply(Iterable<X> xIterable)
             {
-                final List<X> buffer = addAll(new ArrayList<X>(Iterate.estimateSize(xIterable)), xIterable);
-                Collections.sort(buffer);
-                return buffer;
+                return Optimizer.sort(xIterable);
             }
         };
     }
@@ -253,9 +313,125 @@ public class Iterables
         {
             public Iterable<X> apply(Iterable<X> xIterable)
             {
-                final List<X> buffer = addAll(new ArrayList<X>(Iterate.estimateSize(xIterable)), xIterable);
-                Collections.sort(buffer, comparator);
-                return buffer;
+                return Optimizer.sort(xIterable, comparator);
+            }
+        };
+    }
+
+    /**
+     * Selects the {@code k} greatest items, greatest first, in {@code O(n log k)} time and {@code O(k)} space rather
+     * than sorting all of them.  Equal items keep their relative order.  The items of a {@link ParallelIterate} are
+     * selected from in parallel.
+     *
+     * @param k number of items to select
+     * @return a {@link Function} that selects the {@code k} greatest items
+     * @see TopKIterable
+     */
+    public static <X extends Comparable<? super X>> Function<Iterable<X>, Iterable<X>> top(int k)
+    {
+        return bottom(k, Collections.<X>reverseOrder());
+    }
+
+    /**
+     * @return a {@link Function} that selects the {@code k} greatest items in the order defined by {@code comparator},
+     *         greatest first
+     */
+    public static <X> Function<Iterable<X>, Iterable<X>> top(int k, Comparator<? super X> comparator)
+    {
+        return bottom(k, Collections.reverseOrder(comparator));
+    }
+
+    /**
+     * Selects the {@code k} least items, least first, i.e. the same items as a {@link #sort()} followed by a {@link
+     * #slice(int, int) slice(0, k)}, in {@code O(n log k)} time and {@code O(k)} space.
+     *
+     * @param k number of items to select
+     * @return a {@link Function} that selects the {@code k} least items
+     * @see #top(int)
+     */
+    public static <X extends Comparable<? super X>> Function<Iterable<X>, Iterable<X>> bottom(int k)
+    {
+        return bottom(k, null);
+    }
+
+    public static <X> Function<Iterable<X>, Iterable<X>> bottom(final int k, final Comparator<? super X> comparator)
+    {
+        return new Function<Iterable<X>, Iterable<X>>()
+        {
+            public Iterable<X> apply(Iterable<X> xIterable)
+            {
+                return Optimizer.top(xIterable, comparator, k);
+            }
+        };
+    }
+
+    /**
+     * Sorts items by a key computed from each item.  Unlike {@link #sort(Comparator)} with a comparator that computes
+     * keys, each item's key is computed exactly once.  Items with equal keys keep their relative order.
+     *
+     * @param key computes the key of each item
+     * @return a {@link Function} that sorts items by {@code key}
+     * @see KeySortIterable
+     */
+    public static <X, K extends Comparable<? super K>> Function<Iterable<X>, Iterable<X>> sortBy(
+            final Function<? super X, K> key)
+    {
+        return sortBy(key, null);
+    }
+
+    public static <X, K> Function<Iterable<X>, Iterable<X>> sortBy(final Function<? super X, K> key,
+                                                                  final Comparator<? super K> comparator)
+    {
+        return new Function<Iterable<X>, Iterable<X>>()
+        {
+            public Iterable<X> apply(Iterable<X> xIterable)
+            {
+                return KeySortIterable.of(Optimizer.unwrap(xIterable), key, comparator);
+            }
+        };
+    }
+
+    /**
+     * Sorts items by an unboxed {@code int} key computed once from each item.  Items with equal keys keep their
+     * relative order.
+     */
+    public static <X> Function<Iterable<X>, Iterable<X>> sortByInt(final ToIntFunction<? super X> key)
+    {
+        return new Function<Iterable<X>, Iterable<X>>()
+        {
+            public Iterable<X> apply(Iterable<X> xIterable)
+            {
+                return KeySortIterable.ofInts(Optimizer.unwrap(xIterable), key);
+            }
+        };
+    }
+
+    /**
+     * Sorts items by an unboxed {@code long} key computed once from each item.  Items with equal keys keep their
+     * relative order.
+     */
+    public static <X> Function<Iterable<X>, Iterable<X>> sortByLong(final ToLongFunction<? super X> key)
+    {
+        return new Function<Iterable<X>, Iterable<X>>()
+        {
+            public Iterable<X> apply(Iterable<X> xIterable)
+            {
+                return KeySortIterable.ofLongs(Optimizer.unwrap(xIterable), key);
+            }
+        };
+    }
+
+    /**
+     * Sorts items by an unboxed {@code double} key computed once from each item, ordered as by {@link
+     * Double#compare(double, double)}.  Items with equal keys keep their relative order.
+     */
+    public static <X> Function<Iterable<X>, Iterable<X>> sortByDouble(final ToDoubleFunction<? super X> key)
+    {
+        return new Function<Iterable<X>, Iterable<X>>()
+        {
+            public Iterable<X> apply(Iterable<X> xIterable)
+            {
+                return KeySortIterable.ofDoubles(Optimizer.unwrap(xIterable), key);
             }
         };
     }
@@ -292,9 +468,7 @@ public class Iterables
         {
             public Iterable<X> apply(Iterable<X> xIterable)
             {
-                final List<X> buffer = addAll(new ArrayList<X>(Iterate.estimateSize(xIterable)), xIterable);
-                Collections.reverse(buffer);
-                return buffer;
+                return Optimizer.reverse(xIterable);
             }
         };
     }
@@ -19,6 +19,7 @@ package org.bc.iterate;
 import org.bc.iterate.function.RegexFind;
 import org.bc.iterate.iterable.*;
 import org.bc.iterate.net.Urls;
+import org.bc.iterate.primitive.*;
 import org.bc.iterate.relational.JoinResult;
 import org.bc.iterate.relational.JoinStrategy;
 import org.bc.iterate.visitor.*;
@@ -29,6 +30,7 @@ import java.net.MalformedURLException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 /**
@@ -39,7 +41,7 @@ import java.util.regex.Pattern;
  * @author Brian Cavalier
  */
 @SuppressWarnings({"ClassReferencesSubclass"})
-public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
+public abstract class Iterate<X> implements Iterable<X>, Traversable<X>, HasSize
 {
     public static final int DEFAULT_ESTIMATED_SIZE = 128;
     private int estimatedSize;
@@ -113,7 +115,7 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
      */
     public Iterate<X> where(Condition<? super X> c)
     {
-        return new BasicIterateImpl<X>(new FilterIterable<X>(this, c));
+        return each(fuse().where(c));
     }
 
     /**
@@ -138,7 +140,7 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
      */
     public Iterate<X> until(Condition<? super X> c)
     {
-        return each(new UntilIterable<X>(this, c));
+        return each(fuse().until(c));
     }
 
     /**
@@ -161,7 +163,7 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
 
     public <Y> Iterate<Y> map(Function<? super X, ? extends Y> f)
     {
-        return each(new FunctionalIterable<X, Y>(this, f));
+        return each(fuse().map(f));
     }
 
     public <Y, Z> Iterate<Y> map(BinaryFunction<? super X, ? super Z, Y> f, Z referenceData)
@@ -169,6 +171,128 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
         return each(new BinaryFunctionalIterable<X, Y, Z>(this, referenceData, f));
     }
 
+    /**
+     * Maps each item to an unboxed {@code int}, continuing the pipeline as an {@link IntIterate} whose stages and
+     * terminal operations do not box their items.
+     *
+     * @param f {@link ToIntFunction} to apply to each item
+     *
+     * @return {@link IntIterate} over the results of applying {@code f} to each item
+     */
+    public IntIterate mapToInt(ToIntFunction<? super X> f)
+    {
+        return IntIterate.map(this, f);
+    }
+
+    /**
+     * Maps each item to an unboxed {@code long}, continuing the pipeline as a {@link LongIterate} whose stages and
+     * terminal operations do not box their items.
+     *
+     * @param f {@link ToLongFunction} to apply to each item
+     *
+     * @return {@link LongIterate} over the results of applying {@code f} to each item
+     */
+    public LongIterate mapToLong(ToLongFunction<? super X> f)
+    {
+        return LongIterate.map(this, f);
+    }
+
+    /**
+     * Maps each item to an unboxed {@code double}, continuing the pipeline as a {@link DoubleIterate} whose stages and
+     * terminal operations do not box their items.
+     *
+     * @param f {@link ToDoubleFunction} to apply to each item
+     *
+     * @return {@link DoubleIterate} over the results of applying {@code f} to each item
+     */
+    public DoubleIterate mapToDouble(ToDoubleFunction<? super X> f)
+    {
+        return DoubleIterate.map(this, f);
+    }
+
+    /**
+     * @return a {@link ParallelIterate} that evaluates the {@code where} and {@code map} stages of this pipeline, and
+     *         any added after it, in parallel on {@link ParallelIterate#defaultExecutor()}
+     */
+    public ParallelIterate<X> parallel()
+    {
+        return parallel(ParallelIterate.defaultExecutor());
+    }
+
+    /**
+     * @param executor {@link Executor} on which to evaluate stages
+     *
+     * @return a {@link ParallelIterate} that evaluates the {@code where} and {@code map} stages of this pipeline, and
+     *         any added after it, in parallel on {@code executor}, dividing the work for as many threads as there are
+     *         available processors
+     */
+    public ParallelIterate<X> parallel(Executor executor)
+    {
+        return parallel(executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param executor    {@link Executor} on which to evaluate stages
+     * @param parallelism number of threads among which to divide the work
+     *
+     * @return a {@link ParallelIterate} that evaluates the {@code where} and {@code map} stages of this pipeline, and
+     *         any added after it, in parallel on {@code executor}
+     */
+    public ParallelIterate<X> parallel(Executor executor, int parallelism)
+    {
+        return new ParallelIterate<X>(fuse(), executor, parallelism, true);
+    }
+
+    /**
+     * @return a {@link Plan} describing the operators of this pipeline, e.g. which stages are fused or run in parallel,
+     *         and the {@link Size} of the output of each
+     */
+    public Plan explain()
+    {
+        return Plan.of(this);
+    }
+
+    /**
+     * Rules that never change the results, e.g. pushing a {@code slice} below {@code map} stages or turning a {@code
+     * sort} followed by a {@code slice} into a top-k selection, are applied automatically as a pipeline is assembled.
+     * This method additionally allows adjacent {@code where} stages at the end of this pipeline to be reordered by
+     * their measured cost and selectivity, see {@link FusedIterable#adaptive()}.  Only use it when none of those
+     * conditions relies on an earlier one having been evaluated first.
+     *
+     * @return an {@link Iterate} that produces the same items as this one, reordering adjacent {@code where} stages
+     */
+    public Iterate<X> optimize()
+    {
+        return each(fuse().adaptive());
+    }
+
+    /**
+     * @return an {@link Iterate} that runs the {@code where}, {@code map} and {@code until} stages at the end of this
+     *         pipeline over {@link Batch}es of {@link Batch#DEFAULT_SIZE} items
+     *
+     * @see #batched(int)
+     */
+    public Iterate<X> batched()
+    {
+        return batched(Batch.DEFAULT_SIZE);
+    }
+
+    /**
+     * Rather than running each item through every stage in turn, a batched pipeline reads {@code batchSize} items at a
+     * time and runs each stage over all of them in one loop, passing the items still selected from stage to stage in
+     * a selection vector.  This pays off for long pipelines of cheap stages, whose cost is otherwise dominated by
+     * calling a different stage for each item.  See {@link FusedIterable} for the restrictions on batched stages.
+     *
+     * @param batchSize number of items per {@link Batch}
+     *
+     * @return an {@link Iterate} that runs the {@code where}, {@code map} and {@code until} stages at the end of this
+     *         pipeline over {@link Batch}es of {@code batchSize} items
+     */
+    public Iterate<X> batched(int batchSize)
+    {
+        return each(fuse().batched(batchSize));
+    }
+
     /**
      * Uses the supplied {@link JoinStrategy} to perform a relational join on iterate items and {@code itemsToJoin}
      *
@@ -186,47 +310,74 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
         return each(((JoinStrategy<K, X, Y>) strategy).join(this, itemsToJoin));
     }
 
-    public <V extends Visitor<? super X>> V visit(V visitor)
+    public <V extends Visitor<? super X>> V visit(final V visitor)
     {
-        for (X x : this) {
-            visitor.visit(x);
-        }
+        traverse(new Sink<X>()
+        {
+            public boolean accept(X x)
+            {
+                visitor.visit(x);
+                return true;
+            }
+        });
 
         return visitor;
     }
 
-    public <Y> Y visit(BinaryVisitor<? super X, ? super Y> visitor, Y parameter)
+    /**
+     * Visits the items a {@link Batch} at a time.  If this pipeline is {@link #batched(int) batched}, its {@link
+     * Batch}es are passed to {@code visitor} directly, otherwise items are collected into {@link Batch}es of {@link
+     * Batch#DEFAULT_SIZE} items.
+     *
+     * @param visitor {@link BatchVisitor} to which to pass each {@link Batch}
+     *
+     * @return {@code visitor}
+     */
+    public <V extends BatchVisitor<? super X>> V visit(final V visitor)
     {
-        for (X x : this) {
-            visitor.visit(x, parameter);
-        }
+        final FusedIterable<?, X> fused = fuse();
+        fused.traverseBatches(fused.getBatchSize() > 0 ? fused.getBatchSize() : Batch.DEFAULT_SIZE,
+                              new Sink<Batch<X>>()
+                              {
+                                  public boolean accept(Batch<X> batch)
+                                  {
+                                      visitor.visit(batch);
+                                      return true;
+                                  }
+                              });
+
+        return visitor;
+    }
+
+    public <Y> Y visit(final BinaryVisitor<? super X, ? super Y> visitor, final Y parameter)
+    {
+        traverse(new Sink<X>()
+        {
+            public boolean accept(X x)
+            {
+                visitor.visit(x, parameter);
+                return true;
+            }
+        });
 
         return parameter;
     }
 
     public <Y> Y reduce(BinaryFunction<? super X, ? super Y, ? extends Y> f, Y startingValue)
     {
-        Y result = startingValue;
-        for (X x : this) {
-            result = f.apply(x, result);
-        }
+        final Fold<X, Y> fold = new Fold<X, Y>(f, startingValue);
+        traverse(fold);
 
-        return result;
+        return fold.result;
     }
 
     public X reduce(BinaryFunction<? super X, ? super X, ? extends X> f)
     {
-        final Iterator<X> i = this.iterator();
-        if (i.hasNext()) {
-            X result = i.next();
-            while (i.hasNext()) {
-                result = f.apply(i.next(), result);
-            }
+        final Fold<X, X> fold = new Fold<X, X>(f, null);
+        fold.empty = true;
+        traverse(fold);
 
-            return result;
-        }
-
-        return null;
+        return fold.result;
     }
 
     /**
@@ -278,7 +429,7 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
      */
     public Iterate<X> slice(int start, int end)
     {
-        return each(new SliceIterable<X>(this, start, end));
+        return each(Optimizer.slice(this, start, end));
     }
 
     /**
@@ -290,11 +441,43 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
      */
     public Iterate<X> slice(int start)
     {
-        return each(new SliceIterable<X>(this, start));
+        return each(Optimizer.slice(this, start, -1));
     }
 
     public abstract Iterator<X> iterator();
 
+    /**
+     * Pushes each item into {@code sink}.  The terminal operations {@code visit}, {@code reduce}, {@code add}, {@code
+     * list}, and {@code set} are all driven by this method rather than by {@link #iterator()}, so subclasses that can
+     * push their items more efficiently than an {@link Iterator} can pull them should override it.
+     *
+     * @param sink {@link Sink} to which to push items
+     *
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    public boolean traverse(Sink<? super X> sink)
+    {
+        for (X x : this) {
+            if (!sink.accept(x)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the {@link FusedIterable} to which {@code where}, {@code map}, and {@code until} stages are appended.
+     * Subclasses whose items already come from a {@link FusedIterable} should return it, so that adjacent stages are
+     * evaluated in a single loop rather than by a chain of nested iterators.
+     *
+     * @return a {@link FusedIterable} over the items of this {@link Iterate}
+     */
+    protected FusedIterable<?, X> fuse()
+    {
+        return new FusedIterable<X, X>(this);
+    }
+
     /**
      * Returns an {@link Iterable} which will group items in {@code items} into groups of size {@code groupSize} and
      * return each group as a {@code List}.  For example, if the supplied {@link Iterable} ({@code items}) has the
@@ -654,7 +837,7 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
 
     public Set<X> set()
     {
-        return add(new HashSet<X>(estimateSize(this)));
+        return add(new HashSet<X>(Size.hashCapacity(estimateSize(this))));
     }
 
     public <A extends Appendable> A append(A a) throws IOException
@@ -692,7 +875,8 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
     /**
      * Attempts to estimate the number of items in {@code items} by checking its type to see if it is a type with a
      * known size: <ul> <li>a {@link Collection} or {@link Map}: {@link Collection#size()} or {@link Map#size()}</li>
-     * <li>an {@link Iterate}: {@link #estimatedSize}</li> <li>any other type of {@link Iterable}: {@link
+     * <li>a {@link HasSize} whose {@link Size} is known: {@link Size#capacity(int)}</li> <li>an {@link Iterate} or
+     * other {@link HasEstimatedSize}: {@link HasEstimatedSize#getEstimatedSize()}</li> <li>any other type of {@link Iterable}: {@link
      * #DEFAULT_ESTIMATED_SIZE}</li> <li>a {@link String}: {@link String#length()} <li>an array (e.g. int[], etc.):
      * {@link Array#getLength(Object)}</li> <li>{@code null}: {@code 0} <li>anything else: {@code 1} </ul>
      *
@@ -712,6 +896,9 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
             sizeEstimate = ((Collection) items).size();
         } else if (items instanceof Map) {
             sizeEstimate = ((Map) items).size();
+        } else if (items instanceof HasSize) {
+            final Size size = ((HasSize) items).getSize();
+            sizeEstimate = size.isBounded() ? size.capacity(0) : ((HasSize) items).getEstimatedSize();
         } else if (items instanceof HasEstimatedSize) {
             sizeEstimate = ((HasEstimatedSize) items).getEstimatedSize();
         } else if (items instanceof Iterable) {
@@ -735,4 +922,42 @@ public abstract class Iterate<X> implements Iterable<X>, HasEstimatedSize
     {
         return estimatedSize;
     }
+
+    /**
+     * @return {@link Size#unknown()}.  Subclasses that know, or can derive, the number of items override this.
+     */
+    @Override
+    public Size getSize()
+    {
+        return Size.unknown();
+    }
+
+    /**
+     * {@link Sink} that left-folds each item into {@code result}.  If {@code empty} is initially {@code true}, the
+     * first item becomes the starting value.
+     */
+    private static class Fold<X, Y> implements Sink<X>
+    {
+        private final BinaryFunction<? super X, ? super Y, ? extends Y> f;
+        private Y result;
+        private boolean empty = false;
+
+        private Fold(BinaryFunction<? super X, ? super Y, ? extends Y> f, Y startingValue)
+        {
+            this.f = f;
+            this.result = startingValue;
+        }
+
+        public boolean accept(X x)
+        {
+            if (empty) {
+                //noinspection unchecked
+                result = (Y) x;
+                empty = false;
+            } else {
+                result = f.apply(x, result);
+            }
+            return true;
+        }
+    }
 }
@@ -16,6 +16,9 @@
 package org.bc.iterate;
 
 import org.bc.iterate.iterable.AbstractIterator;
+import org.bc.iterate.iterable.RandomIterable;
+import org.bc.iterate.primitive.LongRange;
+import org.bc.iterate.primitive.SplitMix64;
 
 import java.util.Iterator;
 import java.util.Random;
@@ -43,10 +46,15 @@ public class Longs
         };
     }
 
-    public static BinaryFunction<Long, Long, Long> sum()
+    public static Combiner<Long> sum()
     {
-        return new BinaryFunction<Long, Long, Long>()
+        return new Combiner<Long>()
         {
+            public Long identity()
+            {
+                return 0L;
+            }
+
             public Long apply(Long i1, Long i2)
             {
                 return i1 + i2;
@@ -54,10 +62,15 @@ public class Longs
         };
     }
 
-    public static BinaryFunction<Long, Long, Long> multiply()
+    public static Combiner<Long> multiply()
     {
-        return new BinaryFunction<Long, Long, Long>()
+        return new Combiner<Long>()
         {
+            public Long identity()
+            {
+                return 1L;
+            }
+
             public Long apply(Long i1, Long i2)
             {
                 return i1 * i2;
@@ -99,12 +112,25 @@ public class Longs
     }
 
     /**
-     * @return a inexhaustable {@link Iterable} of random {@link Long}s. See {@link java.util.Random#nextLong()} for
-     *         numeric range of returned values.
+     * @return a inexhaustable {@link Iterable} of random {@link Long}s, drawn from a new {@link SplitMix64} on each
+     *         pass, so each pass produces different {@link Long}s
      */
     public static Iterate<Long> random()
     {
-        return random(new Random());
+        return Iterate.each(RandomIterable.longs(null, -1));
+    }
+
+    /**
+     * @param random {@link SplitMix64} from whose current position to draw the {@link Long}s.  It does not advance.
+     * @param count  number of random {@link Long}s
+     *
+     * @return an {@link Iterate} of {@code count} random {@link Long}s, which are the same on every pass, and, since
+     *         they can be split, the same when processed in parallel
+     * @see RandomIterable
+     */
+    public static Iterate<Long> random(SplitMix64 random, int count)
+    {
+        return Iterate.each(RandomIterable.longs(random, count));
     }
 
     /**
@@ -138,4 +164,15 @@ public class Longs
         });
     }
 
-}
\ No newline at end of file
+    /**
+     * @param start first long value
+     * @param end   exclusive last long value
+     *
+     * @return a {@link LongRange} which will iterate, without boxing, over the longs from {@code start} (inclusive) to
+     *         {@code end} (exclusive)
+     */
+    public static LongRange range(long start, long end)
+    {
+        return new LongRange(start, end);
+    }
+}
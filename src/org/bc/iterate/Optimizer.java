@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+import org.bc.iterate.iterable.ComparatorSortIterable;
+import org.bc.iterate.iterable.FusedIterable;
+import org.bc.iterate.iterable.IntegerRange;
+import org.bc.iterate.iterable.NaturalSortIterable;
+import org.bc.iterate.iterable.SliceIterable;
+import org.bc.iterate.iterable.TopKIterable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rewrite rules applied as pipelines are assembled, i.e. before anything is iterated.  Each rule produces exactly the
+ * same items in the same order as the pipeline it replaces:
+ * <ul>
+ * <li>a {@code slice} of {@code map} stages is moved below them, so that sliced-off items are never mapped</li>
+ * <li>a {@code slice(start, end)} of a {@code sort} becomes a bounded heap selection of the first {@code end}
+ * items</li>
+ * <li>a {@code sort} of items already sorted by the same ordering is dropped</li>
+ * <li>a {@code slice}, {@code sort} or {@code reverse} of an {@link IntegerRange} is another range</li>
+ * </ul>
+ * A {@code slice} of a random access source is also taken directly by index when iterated, see {@link
+ * SliceIterable}.
+ *
+ * @author Brian Cavalier
+ */
+final class Optimizer
+{
+    private Optimizer()
+    {
+    }
+
+    /**
+     * @param items items to slice
+     * @param start inclusive start index
+     * @param end   exclusive end index, or {@code -1} for no end
+     *
+     * @return an {@link Iterable} over the items from {@code start} to {@code end}
+     */
+    @SuppressWarnings({"ChainOfInstanceofChecks", "unchecked"})
+    static <X> Iterable<X> slice(Iterable<X> items, int start, int end)
+    {
+        final Iterable<X> operator = unwrap(items);
+        if (operator instanceof FusedIterable && ((FusedIterable) operator).isOneToOne()) {
+            return sliceSource((FusedIterable<?, X>) operator, start, end);
+        } else if (operator instanceof IntegerRange && start >= 0 && (end == -1 || start < end)) {
+            final IntegerRange range = (IntegerRange) operator;
+            return (Iterable<X>) (end == -1 ? range.slice(start) : range.slice(start, end));
+        } else if (end != -1 && start < end) {
+            if (operator instanceof NaturalSortIterable) {
+                return top(((NaturalSortIterable) operator).getSource(), null, start, end);
+            } else if (operator instanceof ComparatorSortIterable) {
+                final ComparatorSortIterable<X> sort = (ComparatorSortIterable<X>) operator;
+                return top(sort.getSource(), sort.getComparator(), start, end);
+            }
+        }
+
+        return end == -1 ? new SliceIterable<X>(items, start) : new SliceIterable<X>(items, start, end);
+    }
+
+    private static <S, X> Iterable<X> sliceSource(FusedIterable<S, X> fused, int start, int end)
+    {
+        return fused.withSource(slice(fused.getSource(), start, end));
+    }
+
+    private static <X> Iterable<X> top(Iterable<X> items, Comparator<? super X> comparator, int start, int end)
+    {
+        final Iterable<X> top = top(items, comparator, end);
+        return start == 0 ? top : new SliceIterable<X>(top, start, end);
+    }
+
+    /**
+     * @param items      items from which to select
+     * @param comparator ordering, or {@code null} for the natural order
+     * @param k          number of items to select
+     *
+     * @return an {@link Iterable} over the first {@code k} items in the order defined by {@code comparator}
+     */
+    static <X> Iterable<X> top(Iterable<X> items, Comparator<? super X> comparator, int k)
+    {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be >= 0");
+        }
+
+        return k == 0 ? Collections.<X>emptyList() : new TopKIterable<X>(items, comparator, k);
+    }
+
+    /**
+     * @param items items to sort
+     *
+     * @return an {@link Iterable} over {@code items} in their natural order
+     */
+    @SuppressWarnings({"unchecked"})
+    static <X extends Comparable<X>> Iterable<X> sort(Iterable<X> items)
+    {
+        final Iterable<X> operator = unwrap(items);
+        if (operator instanceof IntegerRange) {
+            return (Iterable<X>) ((IntegerRange) operator).sorted();
+        }
+        return operator instanceof NaturalSortIterable ? items : new NaturalSortIterable<X>(items);
+    }
+
+    /**
+     * @param items      items to sort
+     * @param comparator ordering
+     *
+     * @return an {@link Iterable} over {@code items} in the order defined by {@code comparator}
+     */
+    static <X> Iterable<X> sort(Iterable<X> items, Comparator<X> comparator)
+    {
+        final Iterable<X> operator = unwrap(items);
+        if (operator instanceof ComparatorSortIterable) {
+            // a null comparator is natural order
+            final Comparator<?> sorted = ((ComparatorSortIterable) operator).getComparator();
+            if (comparator == null ? sorted == null : comparator.equals(sorted)) {
+                return items;
+            }
+        }
+
+        return new ComparatorSortIterable<X>(items, comparator);
+    }
+
+    /**
+     * @param items items to reverse
+     *
+     * @return an {@link Iterable} over {@code items} in reverse order
+     */
+    @SuppressWarnings({"unchecked"})
+    static <X> Iterable<X> reverse(Iterable<X> items)
+    {
+        final Iterable<X> operator = unwrap(items);
+        if (operator instanceof IntegerRange) {
+            return (Iterable<X>) ((IntegerRange) operator).reverse();
+        }
+
+        final List<X> buffer = Iterables.addAll(new ArrayList<X>(Iterate.estimateSize(items)), items);
+        Collections.reverse(buffer);
+        return buffer;
+    }
+
+    /**
+     * @return the operator underneath the {@link Iterate} wrappers that {@code Iterate.each} adds at each step
+     */
+    static <X> Iterable<X> unwrap(Iterable<X> items)
+    {
+        while (items instanceof BasicIterateImpl) {
+            items = ((BasicIterateImpl<X>) items).iterable;
+        }
+
+        return items;
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+import org.bc.iterate.iterable.AbstractIterator;
+import org.bc.iterate.iterable.FusedIterable;
+import org.bc.iterate.iterable.TopKIterable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link Iterate} whose {@code where} and {@code map} stages are evaluated in parallel.  The source is divided
+ * into chunks, each chunk is run through the stages by a task on an {@link Executor}, and the results are pushed to
+ * the terminal operation ({@code visit}, {@code reduce}, {@code list}, etc.) on the calling thread.  Terminal
+ * {@link Visitor}s and {@link BinaryFunction}s therefore never need to be thread-safe, but the {@link Condition}s and
+ * {@link Function}s used as stages must be, since they are evaluated by many threads at once.
+ * <p/>
+ * Sources that can be split without copying (see {@link Iterables#splittable(Iterable)}) are divided into evenly
+ * sized views.  Other sources are read on the calling thread in batches of {@link #DEFAULT_BATCH_SIZE} items.
+ * <p/>
+ * In ordered mode (the default) results are delivered in encounter order.  In unordered mode, results of each chunk
+ * are delivered as soon as it completes, so a slow chunk never holds up the ones after it.
+ * <p/>
+ * {@code reduce} with a {@link Combiner}, such as {@link Integers#sum()}, also reduces each chunk in parallel, and
+ * combines the partial results on the calling thread.  A {@link #batched(int) batched} {@link ParallelIterate} runs
+ * the stages over {@link Batch}es within each chunk.
+ * <p/>
+ * Only {@code where}, {@code map}, the internal iteration terminal operations, top-k selections (see {@link
+ * #select(Comparator, int)}) and large sorts by a {@link Comparator} (see {@link
+ * org.bc.iterate.iterable.ComparatorSortIterable}) run in parallel.  Any other operation, for example {@code until},
+ * {@code slice} or {@code join}, iterates the pipeline sequentially.  An {@code until} stage must see the items in
+ * order, so if the stages made parallel include any, those up to and including the last of them run sequentially, on
+ * the calling thread, and only the stages after it run in parallel.
+ *
+ * @author Brian Cavalier
+ */
+public class ParallelIterate<X> extends Iterate<X>
+{
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * Number of chunks per thread.  More than one so that threads that finish early can pick up more work.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final FusedIterable<?, X> pipeline;
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean ordered;
+
+    protected ParallelIterate(FusedIterable<?, X> pipeline, Executor executor, int parallelism, boolean ordered)
+    {
+        super(estimateSize(pipeline));
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1");
+        }
+
+        // Stages up to the last until stage must see all items in order, so they feed the parallel stages sequentially
+        this.pipeline = pipeline.splitAtUntil();
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    /**
+     * @return a shared {@link Executor} with one daemon thread per available processor
+     */
+    public static Executor defaultExecutor()
+    {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    @Override
+    public ParallelIterate<X> where(Condition<? super X> c)
+    {
+        return new ParallelIterate<X>(pipeline.where(c), executor, parallelism, ordered);
+    }
+
+    @Override
+    public <Y> ParallelIterate<Y> map(Function<? super X, ? extends Y> f)
+    {
+        return new ParallelIterate<Y>(pipeline.map(f), executor, parallelism, ordered);
+    }
+
+    @Override
+    public ParallelIterate<X> parallel(Executor executor, int parallelism)
+    {
+        return new ParallelIterate<X>(pipeline, executor, parallelism, ordered);
+    }
+
+    /**
+     * @return a {@link ParallelIterate} with the same stages as this one that delivers results in encounter order
+     */
+    public ParallelIterate<X> ordered()
+    {
+        return ordered ? this : new ParallelIterate<X>(pipeline, executor, parallelism, true);
+    }
+
+    /**
+     * @return a {@link ParallelIterate} with the same stages as this one that delivers the results of each chunk as
+     *         soon as it is complete, regardless of encounter order
+     */
+    public ParallelIterate<X> unordered()
+    {
+        return ordered ? new ParallelIterate<X>(pipeline, executor, parallelism, false) : this;
+    }
+
+    public boolean isOrdered()
+    {
+        return ordered;
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    @Override
+    public ParallelIterate<X> batched(int batchSize)
+    {
+        return new ParallelIterate<X>(pipeline.batched(batchSize), executor, parallelism, ordered);
+    }
+
+    @Override
+    public ParallelIterate<X> optimize()
+    {
+        return new ParallelIterate<X>(pipeline.adaptive(), executor, parallelism, ordered);
+    }
+
+    /**
+     * Sequential {@link Iterator} over the results of the stages, in encounter order.  Only the internal iteration
+     * methods, e.g. {@code visit}, {@code reduce}, and {@code list}, evaluate the stages in parallel.
+     *
+     * @return a sequential {@link Iterator} over the results of the stages
+     */
+    @Override
+    public Iterator<X> iterator()
+    {
+        return pipeline.iterator();
+    }
+
+    @Override
+    protected FusedIterable<?, X> fuse()
+    {
+        return pipeline;
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return pipeline.getSize();
+    }
+
+    @Override
+    public boolean traverse(final Sink<? super X> sink)
+    {
+        return execute(pipeline, ordered, new Job<X, List<X>>()
+        {
+            public List<X> process(FusedIterable<?, X> chunk)
+            {
+                final List<X> results = new ArrayList<X>(estimateSize(chunk));
+                chunk.traverse(new Sink<X>()
+                {
+                    public boolean accept(X x)
+                    {
+                        results.add(x);
+                        return true;
+                    }
+                });
+                return results;
+            }
+
+            public boolean consume(List<X> results)
+            {
+                for (X x : results) {
+                    if (!sink.accept(x)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * If {@code f} is a {@link Combiner}, each chunk is reduced to a partial result in parallel, starting from {@link
+     * Combiner#identity()}, and the partial results are combined in encounter order on the calling thread.  Otherwise,
+     * the stages are evaluated in parallel and {@code f} is applied to each result on the calling thread, exactly as
+     * {@link Iterate#reduce(BinaryFunction, Object)} does.
+     */
+    @Override
+    public <Y> Y reduce(BinaryFunction<? super X, ? super Y, ? extends Y> f, Y startingValue)
+    {
+        if (!(f instanceof Combiner)) {
+            return super.reduce(f, startingValue);
+        }
+
+        //noinspection unchecked
+        final Combiner<Y> combiner = (Combiner<Y>) f;
+        final Partial<Y> total = combine(combiner);
+        return total.empty ? startingValue : combiner.apply(total.result, startingValue);
+    }
+
+    /**
+     * If {@code f} is a {@link Combiner}, chunks are reduced in parallel, as in {@link #reduce(BinaryFunction,
+     * Object)}.
+     */
+    @Override
+    public X reduce(BinaryFunction<? super X, ? super X, ? extends X> f)
+    {
+        if (!(f instanceof Combiner)) {
+            return super.reduce(f);
+        }
+
+        //noinspection unchecked
+        final Partial<X> total = combine((Combiner<X>) f);
+        return total.empty ? null : total.result;
+    }
+
+    /**
+     * Selects the first {@code k} items in sorted order, the same items as slicing a stable sort to {@code [0, k)}.
+     * Each chunk keeps its own bounded heap of {@code k} items, in parallel, and the selections from the chunks are
+     * merged in encounter order on the calling thread, so at most {@code k} items per chunk in flight are ever held.
+     *
+     * @param comparator ordering of the items, or {@code null} for their natural ordering
+     * @param k          number of items to select
+     *
+     * @return the first {@code k} items in sorted order
+     * @throws IllegalArgumentException if {@code k < 0}
+     * @see TopKIterable
+     */
+    public List<X> select(final Comparator<? super X> comparator, final int k)
+    {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be >= 0");
+        }
+        if (k == 0) {
+            return Collections.emptyList();
+        }
+
+        final Selection<X> selection = new Selection<X>(comparator, k);
+        execute(pipeline, true, selection);
+        return selection.selected;
+    }
+
+    private <Y> Partial<Y> combine(final Combiner<Y> combiner)
+    {
+        final Partial<Y> total = new Partial<Y>(combiner);
+        // Partial results are always combined in encounter order, since combiners need not be commutative
+        execute(pipeline, true, new Job<X, Partial<Y>>()
+        {
+            public Partial<Y> process(FusedIterable<?, X> chunk)
+            {
+                final Partial<Y> partial = new Partial<Y>(combiner);
+                chunk.traverse(partial);
+                return partial;
+            }
+
+            public boolean consume(Partial<Y> partial)
+            {
+                total.combine(partial);
+                return true;
+            }
+        });
+        return total;
+    }
+
+    /**
+     * Divides the source of {@code pipeline} into chunks, runs {@link Job#process(FusedIterable)} for each chunk on the
+     * {@link Executor}, and passes each result to {@link Job#consume(Object)} on the calling thread.
+     *
+     * @return {@code false} if {@link Job#consume(Object)} returned {@code false}, {@code true} otherwise
+     */
+    private <S, R> boolean execute(final FusedIterable<S, X> pipeline, boolean ordered, final Job<X, R> job)
+    {
+        final Iterator<Iterable<S>> chunks = chunks(pipeline.getSource(), parallelism * CHUNKS_PER_THREAD);
+        final CompletionService<R> completion = ordered ? null : new ExecutorCompletionService<R>(executor);
+        final LinkedList<Future<R>> inFlight = new LinkedList<Future<R>>();
+        final int window = parallelism * CHUNKS_PER_THREAD;
+
+        try {
+            while (true) {
+                // Keep a bounded number of chunks in flight so that results of a huge source are not all buffered
+                while (inFlight.size() < window && chunks.hasNext()) {
+                    final FusedIterable<S, X> chunk = pipeline.withSource(chunks.next());
+                    final Callable<R> task = new Callable<R>()
+                    {
+                        public R call()
+                        {
+                            return job.process(chunk);
+                        }
+                    };
+                    inFlight.add(ordered ? submit(task) : completion.submit(task));
+                }
+
+                if (inFlight.isEmpty()) {
+                    return true;
+                }
+
+                final Future<R> next;
+                if (ordered) {
+                    next = inFlight.removeFirst();
+                } else {
+                    next = completion.take();
+                    inFlight.remove(next);
+                }
+
+                if (!job.consume(next.get())) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parallel results", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<R> f : inFlight) {
+                f.cancel(false);
+            }
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task)
+    {
+        final FutureTask<T> future = new FutureTask<T>(task);
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * Divides {@code source} into roughly {@code count} chunks.  Splittable sources are divided into views, anything
+     * else is copied into batches as the returned {@link Iterator} is consumed.
+     */
+    private static <S> Iterator<Iterable<S>> chunks(Iterable<S> source, final int count)
+    {
+        final Splittable<S> splittable = Iterables.splittable(source);
+        if (splittable != null) {
+            return new ChunkIterator<S>(splittable.size(), count)
+            {
+                @Override
+                protected Iterable<S> chunk(int start, int end)
+                {
+                    return splittable.split(start, end);
+                }
+            };
+        }
+
+        final Iterator<S> items = source.iterator();
+        return new AbstractIterator<Iterable<S>>()
+        {
+            public boolean hasNext()
+            {
+                return items.hasNext();
+            }
+
+            public Iterable<S> next()
+            {
+                final List<S> batch = new ArrayList<S>(DEFAULT_BATCH_SIZE);
+                while (batch.size() < DEFAULT_BATCH_SIZE && items.hasNext()) {
+                    batch.add(items.next());
+                }
+                return batch;
+            }
+        };
+    }
+
+    /**
+     * Iterates over {@code count} contiguous, evenly sized index ranges covering {@code 0} to {@code size}
+     */
+    private abstract static class ChunkIterator<S> extends AbstractIterator<Iterable<S>>
+    {
+        private final int size;
+        private final int grain;
+        private int start = 0;
+
+        private ChunkIterator(int size, int count)
+        {
+            this.size = size;
+            this.grain = Math.max(1, (int) (((long) size + count - 1) / count));
+        }
+
+        public boolean hasNext()
+        {
+            return start < size;
+        }
+
+        public Iterable<S> next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final int end = (int) Math.min(size, (long) start + grain);
+            final Iterable<S> chunk = chunk(start, end);
+            start = end;
+            return chunk;
+        }
+
+        protected abstract Iterable<S> chunk(int start, int end);
+    }
+
+    /**
+     * Work done for each chunk by {@link #execute(FusedIterable, boolean, Job)}
+     */
+    private interface Job<X, R>
+    {
+        /**
+         * Called on a worker thread.
+         *
+         * @param chunk stages to run over one chunk of the source
+         *
+         * @return the result for {@code chunk}
+         */
+        R process(FusedIterable<?, X> chunk);
+
+        /**
+         * Called on the calling thread with the result of each chunk.
+         *
+         * @return {@code false} to stop processing, {@code true} to continue
+         */
+        boolean consume(R result);
+    }
+
+    /**
+     * Folds items with a {@link Combiner}, starting from its identity
+     */
+    private static class Partial<Y> implements Sink<Object>
+    {
+        private final Combiner<Y> combiner;
+        private Y result;
+        private boolean empty = true;
+
+        private Partial(Combiner<Y> combiner)
+        {
+            this.combiner = combiner;
+            this.result = combiner.identity();
+        }
+
+        public boolean accept(Object x)
+        {
+            //noinspection unchecked
+            result = combiner.apply((Y) x, result);
+            empty = false;
+            return true;
+        }
+
+        private void combine(Partial<Y> partial)
+        {
+            if (!partial.empty) {
+                result = combiner.apply(partial.result, result);
+                empty = false;
+            }
+        }
+    }
+
+    /**
+     * Selects from each chunk with a bounded heap, and merges the selections of the chunks in encounter order
+     */
+    private static class Selection<X> implements Job<X, List<X>>
+    {
+        private final Comparator<? super X> comparator;
+        private final int k;
+        private List<X> selected = Collections.emptyList();
+
+        private Selection(Comparator<? super X> comparator, int k)
+        {
+            this.comparator = comparator;
+            this.k = k;
+        }
+
+        public List<X> process(FusedIterable<?, X> chunk)
+        {
+            final TopKIterable.Selector<X> selector = new TopKIterable.Selector<X>(comparator, k);
+            chunk.traverse(selector);
+            return selector.toList();
+        }
+
+        public boolean consume(List<X> result)
+        {
+            selected = TopKIterable.merge(selected, result, comparator, k);
+            return true;
+        }
+    }
+
+    private static class DefaultExecutor
+    {
+        private static final ExecutorService INSTANCE =
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+                {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread(Runnable r)
+                    {
+                        final Thread t = new Thread(r, "iterate-parallel-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+    }
+}
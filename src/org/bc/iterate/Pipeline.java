@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+import org.bc.iterate.iterable.FusedIterable;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinStrategy;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A reusable template of an {@link Iterate} pipeline that is defined once and then bound to a new source each time it
+ * is run, e.g.
+ * <pre>
+ * private static final Pipeline&lt;String, Integer&gt; LENGTHS =
+ *     Pipeline.of(String.class).where(not(Strings.blank())).map(Strings.length());
+ * ...
+ * List&lt;Integer&gt; lengths = LENGTHS.each(request.getLines()).list();
+ * </pre>
+ * The stages are created, and adjacent {@code where}, {@code map}, and {@code until} stages are fused, only once, when
+ * the {@link Pipeline} is defined.  Binding a source with {@link #each(Iterable)} only creates the few small objects
+ * that connect the shared stages to it, and iterating creates the iterators.
+ * <p/>
+ * {@link Pipeline}s are immutable, so they can be shared by any number of threads, as long as the {@link Condition}s,
+ * {@link Function}s, and other stages they are built from are themselves thread-safe.
+ *
+ * @author Brian Cavalier
+ * @param <S> source item type
+ * @param <X> result item type
+ */
+public abstract class Pipeline<S, X> implements Function<Iterable<S>, Iterate<X>>
+{
+    private Pipeline()
+    {
+    }
+
+    /**
+     * @param sourceType type of source items, only used to help type inference
+     *
+     * @return a {@link Pipeline} that passes source items through unchanged, to which stages can be added
+     */
+    public static <S> Pipeline<S, S> of(Class<S> sourceType)
+    {
+        return identity();
+    }
+
+    /**
+     * @return a {@link Pipeline} that passes source items through unchanged, to which stages can be added
+     */
+    public static <S> Pipeline<S, S> identity()
+    {
+        return new Source<S>();
+    }
+
+    /**
+     * @param source items to feed through the pipeline
+     *
+     * @return the {@link Iterable} formed by feeding {@code source} through the stages of this {@link Pipeline}
+     */
+    protected abstract Iterable<X> bind(Iterable<S> source);
+
+    /**
+     * @param source items to feed through the pipeline
+     *
+     * @return an {@link Iterate} over the results of feeding {@code source} through the stages of this {@link
+     *         Pipeline}
+     */
+    public Iterate<X> each(Iterable<S> source)
+    {
+        return Iterate.each(bind(source));
+    }
+
+    /**
+     * Same as {@link #each(Iterable)}, so that a {@link Pipeline} can be used wherever a {@link Function} is expected
+     */
+    public Iterate<X> apply(Iterable<S> source)
+    {
+        return each(source);
+    }
+
+    /**
+     * Feeds {@code source} through the stages of this {@link Pipeline}, pushing each result to {@code sink}
+     *
+     * @param source items to feed through the pipeline
+     * @param sink   {@link Sink} to which to push results
+     *
+     * @return {@code true} if all results were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    public boolean traverse(Iterable<S> source, Sink<? super X> sink)
+    {
+        return Iterables.traverse(bind(source), sink);
+    }
+
+    /**
+     * @param source items to feed through the pipeline
+     *
+     * @return a {@link List} of the results of feeding {@code source} through the stages of this {@link Pipeline}
+     */
+    public List<X> list(Iterable<S> source)
+    {
+        return each(source).list();
+    }
+
+    public Pipeline<S, X> where(Condition<? super X> c)
+    {
+        return new Stages<S, X, X>(this, new FusedIterable<X, X>(null).where(c));
+    }
+
+    public Pipeline<S, X> until(Condition<? super X> c)
+    {
+        return new Stages<S, X, X>(this, new FusedIterable<X, X>(null).until(c));
+    }
+
+    public <Y> Pipeline<S, Y> map(Function<? super X, ? extends Y> f)
+    {
+        return new Stages<S, X, Y>(this, new FusedIterable<X, X>(null).map(f));
+    }
+
+    /**
+     * @param batchSize number of items per {@link Batch}
+     *
+     * @return a {@link Pipeline} that runs the {@code where}, {@code map} and {@code until} stages at its end in
+     *         batches, see {@link Iterate#batched(int)}
+     */
+    public Pipeline<S, X> batched(int batchSize)
+    {
+        return new Stages<S, X, X>(this, new FusedIterable<X, X>(null).batched(batchSize));
+    }
+
+    /**
+     * @return a {@link Pipeline} that reorders the adjacent {@code where} stages at its end, see {@link
+     *         Iterate#optimize()}
+     */
+    public Pipeline<S, X> optimize()
+    {
+        return new Stages<S, X, X>(this, new FusedIterable<X, X>(null).adaptive());
+    }
+
+    /**
+     * @param transformFunction {@link Function} to apply to the results of the stages so far, e.g. {@link
+     *                          Iterables#sort()}.  It is applied once per source.
+     *
+     * @return a {@link Pipeline} that applies {@code transformFunction} to the results of this one
+     */
+    public <Y> Pipeline<S, Y> transform(final Function<Iterable<X>, Iterable<Y>> transformFunction)
+    {
+        return new Transform<S, X, Y>(this, transformFunction);
+    }
+
+    public Pipeline<S, X> slice(int start, int end)
+    {
+        return transform(Iterables.<X>slice(start, end));
+    }
+
+    public Pipeline<S, X> slice(int start)
+    {
+        return transform(Iterables.<X>slice(start));
+    }
+
+    /**
+     * @param strategy    {@link JoinStrategy} that provides the join algorithm
+     * @param itemsToJoin right side items to join with the results of this {@link Pipeline} each time it is run
+     *
+     * @return a {@link Pipeline} that joins the results of this one with {@code itemsToJoin}
+     */
+    public <K, Y> Pipeline<S, JoinResult<K, X, Y>> join(final JoinStrategy<K, ? super X, ? super Y> strategy,
+                                                        final Iterable<Y> itemsToJoin)
+    {
+        return transform(new Function<Iterable<X>, Iterable<JoinResult<K, X, Y>>>()
+        {
+            public Iterable<JoinResult<K, X, Y>> apply(Iterable<X> items)
+            {
+                //noinspection unchecked
+                return ((JoinStrategy<K, X, Y>) strategy).join(items, itemsToJoin);
+            }
+        });
+    }
+
+    /**
+     * @return a {@link Pipeline} whose {@code where} and {@code map} stages, including those added after this one, run
+     *         in parallel on {@link ParallelIterate#defaultExecutor()}, see {@link Iterate#parallel()}
+     */
+    public Pipeline<S, X> parallel()
+    {
+        return parallel(ParallelIterate.defaultExecutor(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param executor    {@link Executor} on which to evaluate stages
+     * @param parallelism number of threads among which to divide the work
+     *
+     * @return a {@link Pipeline} whose {@code where} and {@code map} stages, including those added after this one, run
+     *         in parallel on {@code executor}, see {@link Iterate#parallel(Executor, int)}
+     */
+    public Pipeline<S, X> parallel(Executor executor, int parallelism)
+    {
+        return new Parallel<S, X>(this, executor, parallelism);
+    }
+
+    private static final class Source<S> extends Pipeline<S, S>
+    {
+        @Override
+        protected Iterable<S> bind(Iterable<S> source)
+        {
+            return source;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "source";
+        }
+    }
+
+    /**
+     * Fused {@code where}, {@code map}, and {@code until} stages, which are extended rather than wrapped as more stages
+     * are added
+     */
+    private static final class Stages<S, T, X> extends Pipeline<S, X>
+    {
+        private final Pipeline<S, T> upstream;
+        private final FusedIterable<T, X> stages;
+
+        private Stages(Pipeline<S, T> upstream, FusedIterable<T, X> stages)
+        {
+            this.upstream = upstream;
+            this.stages = stages;
+        }
+
+        @Override
+        protected Iterable<X> bind(Iterable<S> source)
+        {
+            return stages.withSource(upstream.bind(source));
+        }
+
+        @Override
+        public Pipeline<S, X> where(Condition<? super X> c)
+        {
+            return new Stages<S, T, X>(upstream, stages.where(c));
+        }
+
+        @Override
+        public Pipeline<S, X> until(Condition<? super X> c)
+        {
+            return new Stages<S, T, X>(upstream, stages.until(c));
+        }
+
+        @Override
+        public <Y> Pipeline<S, Y> map(Function<? super X, ? extends Y> f)
+        {
+            return new Stages<S, T, Y>(upstream, stages.<Y>map(f));
+        }
+
+        @Override
+        public Pipeline<S, X> batched(int batchSize)
+        {
+            return new Stages<S, T, X>(upstream, stages.batched(batchSize));
+        }
+
+        @Override
+        public Pipeline<S, X> optimize()
+        {
+            return new Stages<S, T, X>(upstream, stages.adaptive());
+        }
+
+        @Override
+        public String toString()
+        {
+            return upstream + " | " + stages.describeStages();
+        }
+    }
+
+    private static final class Transform<S, T, X> extends Pipeline<S, X>
+    {
+        private final Pipeline<S, T> upstream;
+        private final Function<Iterable<T>, Iterable<X>> f;
+
+        private Transform(Pipeline<S, T> upstream, Function<Iterable<T>, Iterable<X>> f)
+        {
+            this.upstream = upstream;
+            this.f = f;
+        }
+
+        @Override
+        protected Iterable<X> bind(Iterable<S> source)
+        {
+            return f.apply(upstream.bind(source));
+        }
+
+        @Override
+        public String toString()
+        {
+            return upstream + " | transform " + f;
+        }
+    }
+
+    /**
+     * Runs the fused stages at the end of the upstream {@link Pipeline} in parallel.  Stages added to a {@link
+     * Parallel} are added to the upstream {@link Pipeline}, so that they run in parallel too.
+     */
+    private static final class Parallel<S, X> extends Pipeline<S, X>
+    {
+        private final Pipeline<S, X> upstream;
+        private final Executor executor;
+        private final int parallelism;
+
+        private Parallel(Pipeline<S, X> upstream, Executor executor, int parallelism)
+        {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be >= 1");
+            }
+
+            this.upstream = upstream;
+            this.executor = executor;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected Iterable<X> bind(Iterable<S> source)
+        {
+            return each(source);
+        }
+
+        @Override
+        public Iterate<X> each(Iterable<S> source)
+        {
+            return upstream.each(source).parallel(executor, parallelism);
+        }
+
+        @Override
+        public Pipeline<S, X> where(Condition<? super X> c)
+        {
+            return new Parallel<S, X>(upstream.where(c), executor, parallelism);
+        }
+
+        @Override
+        public <Y> Pipeline<S, Y> map(Function<? super X, ? extends Y> f)
+        {
+            return new Parallel<S, Y>(upstream.<Y>map(f), executor, parallelism);
+        }
+
+        @Override
+        public Pipeline<S, X> batched(int batchSize)
+        {
+            return new Parallel<S, X>(upstream.batched(batchSize), executor, parallelism);
+        }
+
+        @Override
+        public Pipeline<S, X> optimize()
+        {
+            return new Parallel<S, X>(upstream.optimize(), executor, parallelism);
+        }
+
+        @Override
+        public String toString()
+        {
+            return upstream + " | parallel(" + parallelism + ')';
+        }
+    }
+}
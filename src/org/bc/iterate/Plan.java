@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+import org.bc.iterate.iterable.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes the operators of a pipeline as a tree, from the last operator down to its sources, along with the {@link
+ * Size} of the output of each operator.  Returned by {@link Iterate#explain()}.  {@link #toString()} renders the
+ * tree one operator per line, e.g.
+ * <pre>
+ * parallel(4, ordered) size=&lt;=1000
+ *   fused(where &gt; 10 | map f) size=&lt;=1000
+ *     source [0..1000] size=1000
+ * </pre>
+ *
+ * @author Brian Cavalier
+ */
+public final class Plan
+{
+    private final String operator;
+    private final Size size;
+    private final List<Plan> inputs;
+
+    private Plan(String operator, Iterable<?> items, List<Plan> inputs)
+    {
+        this.operator = operator;
+        this.size = Size.of(items);
+        this.inputs = Collections.unmodifiableList(inputs);
+    }
+
+    /**
+     * @param items pipeline to describe
+     *
+     * @return a {@link Plan} describing the operators of {@code items}
+     */
+    @SuppressWarnings({"ChainOfInstanceofChecks"})
+    public static Plan of(Iterable<?> items)
+    {
+        final Iterable<?> operator = Optimizer.unwrap(items);
+        if (operator instanceof ParallelIterate) {
+            final ParallelIterate<?> parallel = (ParallelIterate<?>) operator;
+            return new Plan("parallel(" + parallel.getParallelism() + ", "
+                            + (parallel.isOrdered() ? "ordered" : "unordered") + ')', operator, of(parallel.fuse()));
+        } else if (operator instanceof FusedIterable) {
+            final FusedIterable<?, ?> fused = (FusedIterable<?, ?>) operator;
+            return new Plan("fused(" + fused.describeStages() + ')' + (fused.isAdaptive() ? " adaptive" : "")
+                            + (fused.getBatchSize() > 0 ? " batched(" + fused.getBatchSize() + ')' : ""),
+                            operator, of(fused.getSource()));
+        } else if (operator instanceof SliceIterable) {
+            final SliceIterable<?> slice = (SliceIterable<?>) operator;
+            return new Plan("slice(" + slice.getStart() + (slice.getEnd() == -1 ? "" : ", " + slice.getEnd()) + ')',
+                            operator, of(slice.getSource()));
+        } else if (operator instanceof TopKIterable) {
+            final TopKIterable<?> top = (TopKIterable<?>) operator;
+            return new Plan("top(" + top.getK() + (top.getComparator() == null ? "" : ", " + top.getComparator()) + ')',
+                            operator, of(top.getSource()));
+        } else if (operator instanceof NaturalSortIterable) {
+            return new Plan("sort", operator, of(((NaturalSortIterable<?>) operator).getSource()));
+        } else if (operator instanceof ComparatorSortIterable) {
+            final ComparatorSortIterable<?> sort = (ComparatorSortIterable<?>) operator;
+            return new Plan("sort(" + sort.getComparator() + ')', operator, of(sort.getSource()));
+        } else if (operator instanceof GroupIterable) {
+            final GroupIterable<?> group = (GroupIterable<?>) operator;
+            return new Plan("group(" + group.getGroupSize() + ')', operator, of(group.getSource()));
+        } else if (operator instanceof ConcatIterable) {
+            final List<Plan> inputs = new ArrayList<Plan>();
+            for (Iterable<?> nested : ((ConcatIterable<?>) operator).getNested()) {
+                inputs.add(of(nested));
+            }
+            return new Plan("concat", operator, inputs);
+        }
+
+        return new Plan("source " + describeSource(operator), operator, Collections.<Plan>emptyList());
+    }
+
+    private Plan(String operator, Iterable<?> items, Plan input)
+    {
+        this(operator, items, Collections.singletonList(input));
+    }
+
+    /**
+     * Ranges describe themselves concisely, but the {@code toString()} of e.g. a {@link java.util.Collection} lists
+     * every item, so only the type is used for anything else.
+     */
+    private static String describeSource(Iterable<?> source)
+    {
+        if (source instanceof IntegerRange) {
+            return source.toString();
+        }
+
+        final String name = source.getClass().getSimpleName();
+        return name.length() == 0 ? source.getClass().getName() : name;
+    }
+
+    /**
+     * @return description of the operator, e.g. {@code "slice(0, 10)"}
+     */
+    public String getOperator()
+    {
+        return operator;
+    }
+
+    /**
+     * @return {@link Size} of the output of the operator
+     */
+    public Size getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return {@link Plan}s of the operator's inputs, empty for sources
+     */
+    public List<Plan> getInputs()
+    {
+        return inputs;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder s = new StringBuilder();
+        append(s, 0);
+        return s.toString();
+    }
+
+    private void append(StringBuilder s, int depth)
+    {
+        for (int i = 0; i < depth; i++) {
+            s.append("  ");
+        }
+        s.append(operator).append(" size=").append(size).append('\n');
+
+        for (Plan input : inputs) {
+            input.append(s, depth + 1);
+        }
+    }
+}
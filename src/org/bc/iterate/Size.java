@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Describes what is known about the number of items in an {@link Iterable}: either the exact number, an upper bound,
+ * or nothing at all.  Operators derive the {@link Size} of their results from the {@link Size} of their sources, e.g.
+ * {@code map} preserves it, {@code where} turns it into an upper bound, {@code slice} clamps it, and {@code concat}
+ * adds the sizes of its parts, so that terminal operations like {@link Iterate#list()} can allocate once at the right
+ * capacity.
+ * <p/>
+ * {@link Size}s are immutable.
+ *
+ * @author Brian Cavalier
+ */
+public final class Size
+{
+    private enum Kind
+    {
+        EXACT, AT_MOST, UNKNOWN
+    }
+
+    private static final Size UNKNOWN = new Size(Kind.UNKNOWN, -1);
+    private static final Size ZERO = new Size(Kind.EXACT, 0);
+
+    private final Kind kind;
+    private final int count;
+
+    private Size(Kind kind, int count)
+    {
+        this.kind = kind;
+        this.count = count;
+    }
+
+    /**
+     * @param count exact number of items
+     *
+     * @return a {@link Size} of exactly {@code count} items
+     */
+    public static Size exactly(int count)
+    {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0");
+        }
+        return count == 0 ? ZERO : new Size(Kind.EXACT, count);
+    }
+
+    /**
+     * @param count maximum number of items
+     *
+     * @return a {@link Size} of at most {@code count} items
+     */
+    public static Size atMost(int count)
+    {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0");
+        }
+        return count == 0 ? ZERO : new Size(Kind.AT_MOST, count);
+    }
+
+    /**
+     * @return a {@link Size} about which nothing is known
+     */
+    public static Size unknown()
+    {
+        return UNKNOWN;
+    }
+
+    /**
+     * Determines the {@link Size} of {@code items} from its type: <ul> <li>a {@link Collection} or {@link Map}: exactly
+     * {@link Collection#size()} or {@link Map#size()}</li> <li>a {@link HasSize}: {@link HasSize#getSize()}</li>
+     * <li>a {@link CharSequence}: exactly {@link CharSequence#length()}</li> <li>an array: exactly its length</li>
+     * <li>{@code null}: exactly {@code 0}</li> <li>anything else: unknown</li> </ul>
+     *
+     * @param items thing whose {@link Size} will be determined
+     *
+     * @return {@link Size} of {@code items}, based on rules above.
+     */
+    @SuppressWarnings({"ChainOfInstanceofChecks"})
+    public static Size of(Object items)
+    {
+        if (items == null) {
+            return ZERO;
+        } else if (items instanceof Collection) {
+            return exactly(((Collection) items).size());
+        } else if (items instanceof Map) {
+            return exactly(((Map) items).size());
+        } else if (items instanceof HasSize) {
+            return ((HasSize) items).getSize();
+        } else if (items instanceof CharSequence) {
+            return exactly(((CharSequence) items).length());
+        } else if (items instanceof Object[]) {
+            return exactly(((Object[]) items).length);
+        } else if (items.getClass().isArray()) {
+            return exactly(Array.getLength(items));
+        }
+
+        return UNKNOWN;
+    }
+
+    /**
+     * @param expectedSize number of entries that will be added to a {@link java.util.HashMap} or {@link
+     *                     java.util.HashSet}
+     *
+     * @return initial capacity for a {@link java.util.HashMap} or {@link java.util.HashSet} with the default load
+     *         factor that will hold {@code expectedSize} entries without rehashing
+     */
+    public static int hashCapacity(int expectedSize)
+    {
+        return expectedSize < 3 ? expectedSize + 1 : (int) Math.min(Integer.MAX_VALUE, expectedSize / 3L * 4L + 4L);
+    }
+
+    /**
+     * @return {@code true} if the exact number of items is known
+     */
+    public boolean isExact()
+    {
+        return kind == Kind.EXACT;
+    }
+
+    /**
+     * @return {@code true} if the exact number of items, or an upper bound on it, is known
+     */
+    public boolean isBounded()
+    {
+        return kind != Kind.UNKNOWN;
+    }
+
+    /**
+     * @return the exact number of items, or the upper bound, or {@code -1} if unknown
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Initial capacity for a collection that will hold the items.  Exact sizes are used as is, while upper bounds are
+     * capped at {@link Iterate#DEFAULT_ESTIMATED_SIZE}, since a large bound (e.g. of a {@code where} over a large
+     * source) is usually a poor estimate.
+     *
+     * @param defaultCapacity capacity to use if the {@link Size} is unknown
+     *
+     * @return initial capacity for a collection that will hold the items
+     */
+    public int capacity(int defaultCapacity)
+    {
+        return kind == Kind.EXACT ? count
+               : kind == Kind.AT_MOST ? Math.min(count, Iterate.DEFAULT_ESTIMATED_SIZE)
+               : defaultCapacity;
+    }
+
+    /**
+     * @return a {@link Size} of at most this many items, e.g. the {@link Size} of the result of filtering items
+     */
+    public Size atMost()
+    {
+        return kind == Kind.EXACT && count > 0 ? new Size(Kind.AT_MOST, count) : this;
+    }
+
+    /**
+     * @param start inclusive start index
+     * @param end   exclusive end index, or {@code -1} for no end
+     *
+     * @return the {@link Size} of the items from {@code start} to {@code end}
+     */
+    public Size slice(int start, int end)
+    {
+        if (kind == Kind.UNKNOWN) {
+            return end < 0 ? UNKNOWN : atMost(end - start);
+        }
+
+        final int sliceEnd = end < 0 ? count : Math.min(end, count);
+        final int sliceCount = Math.max(0, sliceEnd - start);
+        return kind == Kind.EXACT ? exactly(sliceCount) : atMost(sliceCount);
+    }
+
+    /**
+     * @param other {@link Size} of items following these items
+     *
+     * @return the {@link Size} of these items followed by {@code other} items
+     */
+    public Size plus(Size other)
+    {
+        if (kind == Kind.UNKNOWN || other.kind == Kind.UNKNOWN) {
+            return UNKNOWN;
+        }
+
+        final long sum = (long) count + other.count;
+        if (sum > Integer.MAX_VALUE) {
+            return UNKNOWN;
+        }
+        return kind == Kind.EXACT && other.kind == Kind.EXACT ? exactly((int) sum) : atMost((int) sum);
+    }
+
+    /**
+     * @param groupSize number of items per group
+     *
+     * @return the {@link Size} of the result of partitioning these items into groups of {@code groupSize}
+     */
+    public Size groups(int groupSize)
+    {
+        if (kind == Kind.UNKNOWN) {
+            return UNKNOWN;
+        }
+
+        final int groups = (int) (((long) count + groupSize - 1) / groupSize);
+        return kind == Kind.EXACT ? exactly(groups) : atMost(groups);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Size)) {
+            return false;
+        }
+
+        final Size size = (Size) o;
+        return count == size.count && kind == size.kind;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * kind.hashCode() + count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return kind == Kind.EXACT ? String.valueOf(count) : kind == Kind.AT_MOST ? "<=" + count : "?";
+    }
+}
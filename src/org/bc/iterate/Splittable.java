@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+/**
+ * A {@code Splittable} is an {@link Iterable} that knows exactly how many items it has, and can create views of any
+ * contiguous range of its items in constant time without copying them.  {@link ParallelIterate} uses this to divide
+ * the work of a pipeline evenly across threads.
+ * <p/>
+ * Some {@code Splittable}s, such as {@link org.bc.iterate.iterable.ConcatIterable} and {@link
+ * org.bc.iterate.iterable.SliceIterable}, are only splittable when the {@link Iterable}s they wrap are.  Those return
+ * a negative {@link #size()} when they cannot be split.
+ *
+ * @author Brian Cavalier
+ * @param <X> item type
+ * @see Iterables#splittable(Iterable)
+ */
+public interface Splittable<X> extends Iterable<X>, HasSize
+{
+    /**
+     * @return the exact number of items, or {@code -1} if the number of items is not known, in which case this
+     *         {@code Splittable} cannot be split.
+     */
+    int size();
+
+    /**
+     * @param start inclusive index of the first item of the view, {@code 0 <= start <= end}
+     * @param end   exclusive index of the last item of the view, {@code start <= end <= size()}
+     *
+     * @return a {@code Splittable} view over the items at positions {@code start} (inclusive) to {@code end}
+     *         (exclusive)
+     */
+    Splittable<X> split(int start, int end);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate;
+
+/**
+ * A {@code Traversable} can push its items into a {@link Sink} using a tight internal loop, rather than having each
+ * item pulled through the {@link java.util.Iterator} protocol.  {@link Iterate#visit(Visitor)}, {@link
+ * Iterate#reduce(BinaryFunction, Object)}, and the other terminal operations use this whenever possible.
+ *
+ * @author Brian Cavalier
+ * @param <X> type of item to push
+ * @see Iterables#traverse(Iterable, Sink)
+ */
+public interface Traversable<X>
+{
+    /**
+     * Pushes each item, in iteration order, into {@code sink} until all items have been pushed, or until {@code sink}
+     * returns {@code false}.
+     *
+     * @param sink {@link Sink} to which to push items
+     * @return {@code true} if all items were pushed, {@code false} if the traversal was ended early
+     */
+    boolean traverse(Sink<? super X> sink);
+}
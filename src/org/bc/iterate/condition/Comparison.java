@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.condition;
+
+import org.bc.iterate.Condition;
+
+/**
+ * A {@link Condition} that compares each item to a fixed value, e.g. {@code item > 10}.  The {@code eq}, {@code neq},
+ * {@code gt}, {@code gte}, {@code lt}, and {@code lte} methods of {@link org.bc.iterate.Conditions} return {@link
+ * Comparison}s, so that sources which know the order of their items, such as {@link
+ * org.bc.iterate.iterable.IntegerRange}, can recognize them and narrow themselves rather than evaluate the condition
+ * for every item.
+ *
+ * @author Brian Cavalier
+ */
+public class Comparison<X> implements Condition<X>
+{
+    public enum Operator
+    {
+        EQ("=="), NEQ("!="), GT(">"), GTE(">="), LT("<"), LTE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol)
+        {
+            this.symbol = symbol;
+        }
+
+        @Override
+        public String toString()
+        {
+            return symbol;
+        }
+    }
+
+    private final Comparable<X> value;
+    private final Operator operator;
+
+    /**
+     * @param operator comparison to make
+     * @param value    value to which each item is compared
+     */
+    public Comparison(Operator operator, Comparable<X> value)
+    {
+        this.value = value;
+        this.operator = operator;
+    }
+
+    public Operator getOperator()
+    {
+        return operator;
+    }
+
+    public Comparable<X> getValue()
+    {
+        return value;
+    }
+
+    public boolean eval(X x)
+    {
+        // value.compareTo(x) compares in the opposite direction to e.g. x > value
+        final int c = value.compareTo(x);
+        switch (operator) {
+            case EQ:
+                return c == 0;
+            case NEQ:
+                return c != 0;
+            case GT:
+                return c < 0;
+            case GTE:
+                return c <= 0;
+            case LT:
+                return c > 0;
+            default:
+                return c >= 0;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return operator + " " + value;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes items to, and reads them back from, a stream, for example when a join spills items that do not fit in
+ * memory to disk.  See {@link Serializers} for common implementations.
+ *
+ * @author Brian Cavalier
+ * @param <T> type of item to serialize
+ */
+public interface Serializer<T>
+{
+    /**
+     * @param item item to write
+     * @param out  stream to which to write {@code item}
+     *
+     * @throws IOException if {@code out} cannot be written
+     */
+    void write(T item, DataOutput out) throws IOException;
+
+    /**
+     * @param in stream from which to read an item written by {@link #write(Object, DataOutput)}
+     *
+     * @return the item
+     * @throws IOException if {@code in} cannot be read
+     */
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.io;
+
+import java.io.*;
+
+/**
+ * Common {@link Serializer}s
+ *
+ * @author Brian Cavalier
+ */
+public class Serializers
+{
+    /**
+     * Uses Java serialization, so it can serialize any {@link Serializable} item, but only to and from streams that
+     * are an {@link ObjectOutput} and an {@link ObjectInput}, such as those used by {@link
+     * org.bc.iterate.iterable.SpillingHashJoinIterable}.
+     *
+     * @return a {@link Serializer} that uses Java serialization
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <T extends Serializable> Serializer<T> java()
+    {
+        return (Serializer) JAVA;
+    }
+
+    private static final Serializer<Object> JAVA = new Serializer<Object>()
+    {
+        public void write(Object item, DataOutput out) throws IOException
+        {
+            if (!(out instanceof ObjectOutput)) {
+                throw new NotSerializableException("Java serialization needs an ObjectOutput, not " + out);
+            }
+            ((ObjectOutput) out).writeObject(item);
+        }
+
+        public Object read(DataInput in) throws IOException
+        {
+            if (!(in instanceof ObjectInput)) {
+                throw new NotSerializableException("Java serialization needs an ObjectInput, not " + in);
+            }
+            try {
+                return ((ObjectInput) in).readObject();
+            } catch (ClassNotFoundException e) {
+                final InvalidClassException invalid = new InvalidClassException(e.getMessage());
+                invalid.initCause(e);
+                throw invalid;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "java";
+        }
+    };
+
+    /**
+     * @return a {@link Serializer} for {@link String}s of any length, including {@code null}
+     */
+    public static Serializer<String> strings()
+    {
+        return STRINGS;
+    }
+
+    private static final Serializer<String> STRINGS = new Serializer<String>()
+    {
+        public void write(String item, DataOutput out) throws IOException
+        {
+            // A length of -1 marks null.  Unlike writeUTF, this allows strings longer than 65535 bytes.
+            if (item == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(item.length());
+                out.writeChars(item);
+            }
+        }
+
+        public String read(DataInput in) throws IOException
+        {
+            final int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+
+            final char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = in.readChar();
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "strings";
+        }
+    };
+
+    /**
+     * @return a {@link Serializer} for non-{@code null} {@link Integer}s
+     */
+    public static Serializer<Integer> integers()
+    {
+        return INTEGERS;
+    }
+
+    private static final Serializer<Integer> INTEGERS = new Serializer<Integer>()
+    {
+        public void write(Integer item, DataOutput out) throws IOException
+        {
+            out.writeInt(item);
+        }
+
+        public Integer read(DataInput in) throws IOException
+        {
+            return in.readInt();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "integers";
+        }
+    };
+
+    /**
+     * @return a {@link Serializer} for non-{@code null} {@link Long}s
+     */
+    public static Serializer<Long> longs()
+    {
+        return LONGS;
+    }
+
+    private static final Serializer<Long> LONGS = new Serializer<Long>()
+    {
+        public void write(Long item, DataOutput out) throws IOException
+        {
+            out.writeLong(item);
+        }
+
+        public Long read(DataInput in) throws IOException
+        {
+            return in.readLong();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "longs";
+        }
+    };
+}
@@ -21,8 +21,6 @@ import java.util.Iterator;
 
 public class AfterIterable<X> extends FilterIterable<X>
 {
-    private boolean found = false;
-
     public AfterIterable(Iterable<X> items, Condition<? super X> condition)
     {
         super(items, condition);
@@ -36,23 +34,21 @@ public class AfterIterable<X> extends FilterIterable<X>
 
     private class AfterIterator extends FilterIterator
     {
+        private boolean found = false;
+
         @SuppressWarnings({"RefusedBequest"})
         @Override
         protected X findNext()
         {
-            if (!found && iterator.hasNext()) {
-                found = filter.eval(iterator.next());
-            }
-
-            X nextX = end();
-            while (iterator.hasNext()) {
-                nextX = iterator.next();
-                if (filter.eval(nextX)) {
-                    nextX = end();
+            while (!found && iterator.hasNext()) {
+                final X x = iterator.next();
+                if (filter.eval(x)) {
                     found = true;
+                    return x;
                 }
             }
-            return nextX;
+
+            return found && iterator.hasNext() ? iterator.next() : end();
         }
     }
 }
@@ -16,12 +16,16 @@
 
 package org.bc.iterate.iterable;
 
-import org.bc.iterate.HasEstimatedSize;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.Traversable;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-public class ArrayIterable<X> implements Iterable<X>, HasEstimatedSize
+public class ArrayIterable<X> implements Splittable<X>, Traversable<X>, HasSize
 {
     private final X[] array;
     private final int end;
@@ -52,12 +56,43 @@ public class ArrayIterable<X> implements Iterable<X>, HasEstimatedSize
         return new ArrayIterator();
     }
 
+    @Override
+    public int size()
+    {
+        return end - start;
+    }
+
+    @Override
+    public ArrayIterable<X> split(int start, int end)
+    {
+        return new ArrayIterable<X>(array, this.start + start, this.start + end);
+    }
+
+    @Override
+    public boolean traverse(Sink<? super X> sink)
+    {
+        final X[] array = this.array;
+        for (int i = start, end = this.end; i < end; i++) {
+            if (!sink.accept(array[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public String toString()
     {
         return "[" + array[0] + ".." + array[array.length-1] + ']';
     }
 
+    @Override
+    public Size getSize()
+    {
+        return Size.exactly(size());
+    }
+
     @Override
     public int getEstimatedSize()
     {
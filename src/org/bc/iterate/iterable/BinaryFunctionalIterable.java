@@ -23,7 +23,7 @@ public class BinaryFunctionalIterable<X, Y, Z> implements Iterable<Y>
 {
     private final Iterable<X> iterable;
 
-    private Z param;
+    private final Z param;
 
     private final BinaryFunction<? super X, ? super Z, Y> f;
 
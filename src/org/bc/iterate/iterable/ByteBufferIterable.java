@@ -28,7 +28,7 @@ import java.util.Iterator;
 
 public class ByteBufferIterable extends Iterate<ByteBuffer> implements Closeable
 {
-    private boolean close = false;
+    private volatile boolean close = false;
 
     private final ReadableByteChannel channel;
     private final int maxBytesPerIteration;
@@ -15,34 +15,79 @@
  */
 package org.bc.iterate.iterable;
 
+import org.bc.iterate.HasSize;
 import org.bc.iterate.Iterables;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.ParallelIterate;
+import org.bc.iterate.Size;
+import org.bc.iterate.util.Sorting;
 
 import java.util.*;
 
 /**
- * An {@link Iterable} that presents a sorted view of the items in another {@link Iterable} using a {@link Comparator}
+ * An {@link Iterable} that presents a sorted view of the items in another {@link Iterable} using a {@link Comparator}.
+ * If the source is a {@link ParallelIterate}, large inputs are sorted in parallel on its {@link
+ * java.util.concurrent.Executor}, see {@link Sorting#sort(List, Comparator, java.util.concurrent.Executor, int)}, so
+ * the {@link Comparator} must be thread-safe, as the stages of a {@link ParallelIterate} must be.  Otherwise they are
+ * sorted on the calling thread.
  *
  * @author Brian Cavalier
  */
-public class ComparatorSortIterable<X> implements Iterable<X>
+public class ComparatorSortIterable<X> implements Iterable<X>, HasSize
 {
-    private List<X> sorted;
     private final Iterable<X> source;
     private final Comparator<X> comparator;
 
+    /**
+     * Sorted once, by the first iteration, and then shared by all iterations
+     */
+    private final Lazy<List<X>> sorted = new Lazy<List<X>>()
+    {
+        @Override
+        protected List<X> compute()
+        {
+            final List<X> tmp = Iterables.addAll(new ArrayList<X>(Iterate.estimateSize(source)), source);
+            if (source instanceof ParallelIterate) {
+                final ParallelIterate<X> parallel = (ParallelIterate<X>) source;
+                Sorting.sort(tmp, comparator, parallel.getExecutor(), parallel.getParallelism());
+            } else {
+                Sorting.sort(tmp, comparator);
+            }
+            // Ensure that underlying sorted list cannot be modified via Iterator.remove()
+            return Collections.unmodifiableList(tmp);
+        }
+    };
+
     public ComparatorSortIterable(final Iterable<X> source, final Comparator<X> comparator)
     {
         this.source = source;
         this.comparator = comparator;
     }
 
+    public Iterable<X> getSource()
+    {
+        return source;
+    }
+
+    public Comparator<X> getComparator()
+    {
+        return comparator;
+    }
+
     public Iterator<X> iterator()
     {
-        if (sorted == null) {
-            sorted = Iterables.addAll(new ArrayList<X>(Iterate.estimateSize(source)), source);
-            Collections.sort(sorted, comparator);
-        }
-        return sorted.iterator();
+        return sorted.get().iterator();
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return sorted.isComputed() ? Size.exactly(sorted.get().size()) : Size.of(source);
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return sorted.isComputed() ? sorted.get().size() : Iterate.estimateSize(source);
     }
 }
\ No newline at end of file
@@ -15,20 +15,31 @@
  */
 package org.bc.iterate.iterable;
 
-import org.bc.iterate.HasEstimatedSize;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.Traversable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * An {@link Iterable} over items in each of the supplied {@link Iterable}s, which return items from the
  * first {@link Iterable} until exhausted followed by items from the second {@link Iterable} until exhausted, and
  * so on.
+ * <p/>
+ * A {@link ConcatIterable} is {@link Splittable} when all of the supplied {@link Iterable}s are splittable, see
+ * {@link Iterables#splittable(Iterable)}.  A view across several of them is split on their boundaries.
  *
  * @author Brian Cavalier
  */
-public class ConcatIterable<X> implements Iterable<X>, HasEstimatedSize
+public class ConcatIterable<X> implements Splittable<X>, Traversable<X>, HasSize
 {
     private final Iterable<? extends Iterable<X>> nested;
 
@@ -42,12 +53,79 @@ public class ConcatIterable<X> implements Iterable<X>, HasEstimatedSize
         this(Arrays.asList(nested));
     }
 
+    public Iterable<? extends Iterable<X>> getNested()
+    {
+        return nested;
+    }
+
     @Override
     public Iterator<X> iterator()
     {
         return new ConcatIterator();
     }
 
+    @Override
+    public int size()
+    {
+        long size = 0;
+        for (Iterable<X> iterable : nested) {
+            final Splittable<X> splittable = Iterables.splittable(iterable);
+            if (splittable == null) {
+                return -1;
+            }
+            size += splittable.size();
+        }
+
+        return size > Integer.MAX_VALUE ? -1 : (int) size;
+    }
+
+    @Override
+    public ConcatIterable<X> split(int start, int end)
+    {
+        final List<Iterable<X>> parts = new ArrayList<Iterable<X>>();
+        int offset = 0;
+        for (Iterable<X> iterable : nested) {
+            if (offset >= end) {
+                break;
+            }
+
+            final Splittable<X> splittable = Iterables.splittable(iterable);
+            final int size = splittable.size();
+            if (offset + size > start) {
+                parts.add(splittable.split(Math.max(0, start - offset), Math.min(size, end - offset)));
+            }
+            offset += size;
+        }
+
+        return new ConcatIterable<X>(parts);
+    }
+
+    @Override
+    public boolean traverse(Sink<? super X> sink)
+    {
+        for (Iterable<X> iterable : nested) {
+            if (!Iterables.traverse(iterable, sink)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Size getSize()
+    {
+        Size size = Size.exactly(0);
+        for (Iterable<X> iterable : nested) {
+            size = size.plus(Size.of(iterable));
+            if (!size.isBounded()) {
+                break;
+            }
+        }
+
+        return size;
+    }
+
     @Override
     public int getEstimatedSize()
     {
@@ -63,7 +141,8 @@ public class ConcatIterable<X> implements Iterable<X>, HasEstimatedSize
     private class ConcatIterator implements Iterator<X>
     {
         private final Iterator<? extends Iterable<X>> nestedIter = nested.iterator();
-        private Iterator<X> current = nestedIter.next().iterator();
+        private Iterator<X> current = nestedIter.hasNext() ? nestedIter.next().iterator()
+                                                           : Collections.<X>emptyList().iterator();
 
         public boolean hasNext()
         {
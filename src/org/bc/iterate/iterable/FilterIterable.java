@@ -17,12 +17,13 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Condition;
-import org.bc.iterate.HasEstimatedSize;
+import org.bc.iterate.HasSize;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
 
 import java.util.Iterator;
 
-public class FilterIterable<X> implements Iterable<X>, HasEstimatedSize
+public class FilterIterable<X> implements Iterable<X>, HasSize
 {
     protected final Condition<? super X> filter;
     protected final Iterable<X> iterable;
@@ -45,6 +46,12 @@ public class FilterIterable<X> implements Iterable<X>, HasEstimatedSize
         return iterable.toString() + ' ' + filter;
     }
 
+    @Override
+    public Size getSize()
+    {
+        return Size.of(iterable).atMost();
+    }
+
     @Override
     public int getEstimatedSize()
     {
@@ -16,104 +16,23 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Function;
-import org.bc.iterate.Iterate;
-import org.bc.iterate.relational.JoinResult;
-
-import java.util.*;
+import org.bc.iterate.relational.JoinType;
 
 /**
  * Performs a full outer join, using a <a href="http://en.wikipedia.org/wiki/Hash_join">hash join</a>, yielding
  * the joined {@link org.bc.iterate.util.Pair}s as its iterator's items.  The join is done incrementally rather than as
- * a batch operation.
+ * a batch operation.  See {@link HashJoinIterable} for which side the hash table is built from, and the order of the
+ * results.
  *
  * @author Brian Cavalier
  */
-public class FullIncrementalHashJoinIterable<K, X, Y> extends IncrementalJoinIterable<K, X, Y>
+public class FullIncrementalHashJoinIterable<K, X, Y> extends HashJoinIterable<K, X, Y>
 {
-    private final Iterable<X> leftIterable;
-    private final Function<? super X, K> xKeyFunction;
-    private final Iterable<Y> rightIterable;
-    private final Function<? super Y, K> yKeyFunction;
-    private Map<K, List<Y>> rightMap;
-    private Iterator<JoinResult<K, X, Y>> currentJoinIterator;
-    private boolean left = true;
-    private Iterator<Y> rightIterator;
-
     public FullIncrementalHashJoinIterable(Iterable<X> left,
                                            Function<? super X, K> xKeyFunction,
                                            Iterable<Y> right,
                                            Function<? super Y, K> yKeyFunction)
     {
-        this.leftIterable = left;
-        this.xKeyFunction = xKeyFunction;
-        this.rightIterable = right;
-        this.yKeyFunction = yKeyFunction;
-    }
-
-    @Override
-    protected IncrementalJoinIterator createIterator()
-    {
-        return new FullIncrementalHashJoinIterator();
-    }
-
-    private class FullIncrementalHashJoinIterator extends IncrementalJoinIterator
-    {
-        private final Iterator<X> leftIterator = leftIterable.iterator();
-
-        @Override
-        protected void prepareJoin()
-        {
-            final int rightSize = Iterate.estimateSize(rightIterable);
-            rightMap = new HashMap<K, List<Y>>(rightSize);
-            Set<Y> rightItems = new LinkedHashSet<Y>(rightSize);
-            for (final Y item : rightIterable) {
-                rightItems.add(item);
-                put(rightMap, yKeyFunction.apply(item), item);
-            }
-
-            rightIterator = rightItems.iterator();
-        }
-
-        private <K, X, Y> Iterator<JoinResult<K, X, Y>> buildLeftJoinIterator(K key, X x, List<Y> yList)
-        {
-            final ArrayList<JoinResult<K, X, Y>> currentJoinList = new ArrayList<JoinResult<K, X, Y>>(yList.size());
-            for (Y y : yList) {
-                currentJoinList.add(new JoinResult<K, X, Y>(key, x, y));
-            }
-            return currentJoinList.iterator();
-        }
-
-        @Override
-        protected JoinResult<K, X, Y> findNext()
-        {
-            if (left) {
-                if (currentJoinIterator == null || !currentJoinIterator.hasNext()) {
-                    // First do left join until all left items exhausted
-                    final X item = leftIterator.next();
-                    final K key = xKeyFunction.apply(item);
-
-                    // Switch to right join mode if all left items have been joined.
-                    left = leftIterator.hasNext();
-
-                    List<Y> currentYList = rightMap.remove(key);
-                    if (currentYList != null) {
-                        currentJoinIterator = buildLeftJoinIterator(key, item, currentYList);
-                    } else {
-                        return new JoinResult<K, X, Y>(key, item, null);
-                    }
-                }
-                return currentJoinIterator != null && currentJoinIterator.hasNext() ? currentJoinIterator.next() : end();
-            } else {
-                // Do right join until all right items exhausted
-                while (rightIterator.hasNext()) {
-                    final Y item = rightIterator.next();
-                    final K key = yKeyFunction.apply(item);
-                    if (rightMap.containsKey(key)) {
-                        return new JoinResult<K, X, Y>(key, null, item);
-                    }
-                }
-                return end();
-            }
-        }
+        super(JoinType.FULL, left, xKeyFunction, right, yKeyFunction, false);
     }
-}
\ No newline at end of file
+}
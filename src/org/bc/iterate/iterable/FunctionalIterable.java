@@ -16,10 +16,13 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Function;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
 
 import java.util.Iterator;
 
-public class FunctionalIterable<X, Y> implements Iterable<Y>
+public class FunctionalIterable<X, Y> implements Iterable<Y>, HasSize
 {
     private final Iterable<X> iterable;
 
@@ -37,6 +40,18 @@ public class FunctionalIterable<X, Y> implements Iterable<Y>
         return new FunctionalIterator();
     }
 
+    @Override
+    public Size getSize()
+    {
+        return Size.of(iterable);
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return Iterate.estimateSize(iterable);
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,655 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Batch;
+import org.bc.iterate.Condition;
+import org.bc.iterate.Function;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Traversable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link Iterable} that applies a chain of {@link Condition} and {@link Function} stages to the items of a source
+ * {@link Iterable} using a single iterator.  {@link Iterate} fuses adjacent {@code where}, {@code map}, and {@code
+ * until} stages into one {@link FusedIterable} rather than wrapping each stage around the previous one, so each item
+ * passes through one loop body instead of one {@link Iterator} per stage.  When traversed, the source pushes its
+ * items through the stages, and an {@code until} stage ends the traversal.
+ * <p/>
+ * {@link FusedIterable}s are immutable.  Adding a stage returns a new {@link FusedIterable} over the same source.
+ * <p/>
+ * An {@link #adaptive()} {@link FusedIterable} measures the cost and selectivity of each {@code where} stage over the
+ * first {@link #SAMPLE_SIZE} items of each iteration, and then reorders adjacent {@code where} stages so that cheap,
+ * selective conditions run first.  Since the order in which the conditions are evaluated changes, this is only safe
+ * when no condition relies on an earlier one, e.g. a {@code where(notNull)} guarding a condition that would fail on
+ * {@code null}.
+ * <p/>
+ * A {@link #batched(int)} {@link FusedIterable} collects source items into {@link Batch}es and runs each stage over a
+ * whole {@link Batch} before the next stage, rather than running each item through all stages.  Stages should
+ * therefore be free of side effects, since they see items in a different order, and since items following the end
+ * of an {@code until} stage in the same {@link Batch} may already have been evaluated by earlier stages.  Source
+ * items are likewise read a whole {@link Batch} at a time, so a source that must not be read past the end of an
+ * {@code until} stage should not be batched.
+ *
+ * @author Brian Cavalier
+ * @param <S> source item type
+ * @param <X> result item type, after all stages have been applied
+ */
+@SuppressWarnings({"unchecked"})
+public class FusedIterable<S, X> implements Iterable<X>, Traversable<X>, HasSize
+{
+    /**
+     * Number of items over which an {@link #adaptive()} {@link FusedIterable} measures its {@code where} stages
+     */
+    public static final int SAMPLE_SIZE = 1024;
+
+    private static final int WHERE = 0;
+    private static final int MAP = 1;
+    private static final int UNTIL = 2;
+
+    /**
+     * Returned by {@link Stages#evaluate(Object)} when an item is rejected by a {@code where} stage
+     */
+    private static final Object SKIP = new Object();
+
+    /**
+     * Returned by {@link Stages#evaluate(Object)} when an {@code until} stage has ended iteration
+     */
+    private static final Object STOP = new Object();
+
+    private final Iterable<S> source;
+    private final Stages stages;
+    private final boolean adaptive;
+    private final int batchSize;
+
+    public FusedIterable(Iterable<S> source)
+    {
+        this(source, Stages.none(), false, 0);
+    }
+
+    private FusedIterable(Iterable<S> source, Stages stages, boolean adaptive, int batchSize)
+    {
+        this.source = source;
+        this.stages = stages;
+        this.adaptive = adaptive;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param c {@link Condition} to evaluate for each item
+     *
+     * @return a new {@link FusedIterable} that will additionally skip items for which {@code c.eval(item) == false}
+     */
+    public FusedIterable<S, X> where(Condition<? super X> c)
+    {
+        return append(WHERE, c, null);
+    }
+
+    /**
+     * @param c {@link Condition} to evaluate for each item
+     *
+     * @return a new {@link FusedIterable} that will additionally end iteration at the first item for which {@code
+     *         c.eval(item) == true}
+     */
+    public FusedIterable<S, X> until(Condition<? super X> c)
+    {
+        return append(UNTIL, c, null);
+    }
+
+    /**
+     * @param f {@link Function} to apply to each item
+     *
+     * @return a new {@link FusedIterable} that will additionally apply {@code f} to each item
+     */
+    public <Y> FusedIterable<S, Y> map(Function<? super X, ? extends Y> f)
+    {
+        return append(MAP, null, f);
+    }
+
+    private <Y> FusedIterable<S, Y> append(int kind, Condition<?> c, Function<?, ?> f)
+    {
+        return new FusedIterable<S, Y>(source, stages.append(kind, c, f), adaptive, batchSize);
+    }
+
+    /**
+     * @param source items to feed through the stages
+     *
+     * @return a new {@link FusedIterable} that applies the same stages as this one to the items in {@code source}
+     */
+    public FusedIterable<S, X> withSource(Iterable<S> source)
+    {
+        return new FusedIterable<S, X>(source, stages, adaptive, batchSize);
+    }
+
+    /**
+     * @return a new {@link FusedIterable} with the same stages as this one that reorders adjacent {@code where} stages
+     *         by their measured cost and selectivity
+     */
+    public FusedIterable<S, X> adaptive()
+    {
+        return adaptive ? this : new FusedIterable<S, X>(source, stages, true, batchSize);
+    }
+
+    public boolean isAdaptive()
+    {
+        return adaptive;
+    }
+
+    /**
+     * @param batchSize number of source items per {@link Batch}
+     *
+     * @return a new {@link FusedIterable} with the same stages as this one that runs them over {@link Batch}es of
+     *         {@code batchSize} items when traversed
+     */
+    public FusedIterable<S, X> batched(int batchSize)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1");
+        }
+        return new FusedIterable<S, X>(source, stages, adaptive, batchSize);
+    }
+
+    /**
+     * @return number of source items per {@link Batch}, or {@code 0} if this {@link FusedIterable} is not batched
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * @return the {@link Iterable} whose items are fed through the fused stages
+     */
+    public Iterable<S> getSource()
+    {
+        return source;
+    }
+
+    /**
+     * @return the number of fused stages
+     */
+    public int getStageCount()
+    {
+        return stages.kinds.length;
+    }
+
+    /**
+     * @return {@code true} if every source item produces exactly one result, i.e. if all stages are {@code map}
+     *         stages
+     */
+    public boolean isOneToOne()
+    {
+        for (int kind : stages.kinds) {
+            if (kind != MAP) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * An {@code until} stage ends the iteration at the first item it accepts, so it, and every stage before it, must
+     * see all items in order.  The stages after the last {@code until} stage see each item independently, so they can
+     * be run over parts of the source separately, e.g. in parallel.
+     *
+     * @return a {@link FusedIterable} equivalent to this one whose source is this one's source run through all stages
+     *         up to and including the last {@code until} stage, and whose stages are the rest, or this {@link
+     *         FusedIterable} if it has no {@code until} stages
+     */
+    public FusedIterable<?, X> splitAtUntil()
+    {
+        final int[] kinds = stages.kinds;
+        int end = kinds.length;
+        while (end > 0 && kinds[end - 1] != UNTIL) {
+            end--;
+        }
+        if (end == 0) {
+            return this;
+        }
+
+        final FusedIterable<S, Object> head = new FusedIterable<S, Object>(source, stages.slice(0, end), adaptive,
+                                                                           batchSize);
+        return new FusedIterable<Object, X>(head, stages.slice(end, kinds.length), adaptive, batchSize);
+    }
+
+    @Override
+    public Iterator<X> iterator()
+    {
+        return new FusedIterator();
+    }
+
+    @Override
+    public boolean traverse(final Sink<? super X> sink)
+    {
+        if (batchSize > 0) {
+            return traverseBatches(batchSize, new Sink<Batch<X>>()
+            {
+                public boolean accept(Batch<X> batch)
+                {
+                    return batch.traverse(sink);
+                }
+            });
+        }
+
+        final Stages stages = stagesForIteration();
+        return Iterables.traverse(source, new Sink<S>()
+        {
+            public boolean accept(S s)
+            {
+                final Object result = stages.evaluate(s);
+                return result == SKIP || (result != STOP && sink.accept((X) result));
+            }
+        });
+    }
+
+    /**
+     * Reads source items into a {@link Batch}, runs each stage over the whole {@link Batch} in turn, and pushes the
+     * {@link Batch} into {@code sink}, until the source is exhausted.  The same {@link Batch} is reused each time, and
+     * is only pushed if any items remain selected.
+     *
+     * @param batchSize number of source items per {@link Batch}
+     * @param sink      {@link Sink} to which to push each {@link Batch}
+     *
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} or an {@code until} stage ended the
+     *         traversal early
+     */
+    public boolean traverseBatches(int batchSize, Sink<? super Batch<X>> sink)
+    {
+        final BatchingSink batching = new BatchingSink(new Batch<Object>(batchSize), sink);
+        if (Iterables.traverse(source, batching) && batching.batch.isFilled()) {
+            batching.flush();
+        }
+
+        return !batching.stopped;
+    }
+
+    /**
+     * Adaptive stages keep per-iteration statistics and may be reordered, so each iteration gets its own copy
+     */
+    private Stages stagesForIteration()
+    {
+        return adaptive ? new AdaptiveStages(stages) : stages;
+    }
+
+    /**
+     * @return the {@link Size} of the source, which is an upper bound rather than exact if there are any {@code where}
+     *         or {@code until} stages
+     */
+    @Override
+    public Size getSize()
+    {
+        final Size size = Size.of(source);
+        return isOneToOne() ? size : size.atMost();
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return Iterate.estimateSize(source);
+    }
+
+    /**
+     * @return the stages, separated by {@code " | "}, e.g. {@code "where x | map f"}
+     */
+    public String describeStages()
+    {
+        final StringBuilder s = new StringBuilder();
+        for (int i = 0; i < stages.kinds.length; i++) {
+            if (i > 0) {
+                s.append(" | ");
+            }
+            final int kind = stages.kinds[i];
+            s.append(kind == WHERE ? "where " : kind == MAP ? "map " : "until ")
+                    .append(kind == MAP ? stages.functions[i] : stages.conditions[i]);
+        }
+
+        return s.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return stages.kinds.length == 0 ? String.valueOf(source) : source + " | " + describeStages();
+    }
+
+    private class BatchingSink implements Sink<S>
+    {
+        private final Stages stages = stagesForIteration();
+        private final Batch<Object> batch;
+        private final Sink<? super Batch<X>> sink;
+        private boolean stopped = false;
+
+        private BatchingSink(Batch<Object> batch, Sink<? super Batch<X>> sink)
+        {
+            this.batch = batch;
+            this.sink = sink;
+        }
+
+        public boolean accept(S s)
+        {
+            return batch.add(s) || flush();
+        }
+
+        private boolean flush()
+        {
+            final boolean more = stages.evaluate(batch);
+            if ((batch.size() > 0 && !sink.accept((Batch<X>) batch)) || !more) {
+                stopped = true;
+                return false;
+            }
+
+            batch.clear();
+            return true;
+        }
+    }
+
+    private static class Stages
+    {
+        protected final int[] kinds;
+        protected final Condition<Object>[] conditions;
+        protected final Function<Object, Object>[] functions;
+
+        private Stages(int[] kinds, Condition<Object>[] conditions, Function<Object, Object>[] functions)
+        {
+            this.kinds = kinds;
+            this.conditions = conditions;
+            this.functions = functions;
+        }
+
+        @SuppressWarnings({"unchecked"})
+        private static Stages none()
+        {
+            return new Stages(new int[0], (Condition<Object>[]) new Condition<?>[0],
+                              (Function<Object, Object>[]) new Function<?, ?>[0]);
+        }
+
+        /**
+         * @return these stages followed by one more, of which only {@code c} or {@code f} is used, depending on {@code
+         *         kind}.  Items are only ever passed to a stage after the stages before it, so the types line up.
+         */
+        @SuppressWarnings({"unchecked"})
+        private Stages append(int kind, Condition<?> c, Function<?, ?> f)
+        {
+            final int n = kinds.length;
+            final int[] newKinds = Arrays.copyOf(kinds, n + 1);
+            final Condition<Object>[] newConditions = Arrays.copyOf(conditions, n + 1);
+            final Function<Object, Object>[] newFunctions = Arrays.copyOf(functions, n + 1);
+            newKinds[n] = kind;
+            newConditions[n] = (Condition<Object>) c;
+            newFunctions[n] = (Function<Object, Object>) f;
+            return new Stages(newKinds, newConditions, newFunctions);
+        }
+
+        /**
+         * @return the stages from {@code start} to {@code end} (exclusive)
+         */
+        private Stages slice(int start, int end)
+        {
+            return new Stages(Arrays.copyOfRange(kinds, start, end), Arrays.copyOfRange(conditions, start, end),
+                              Arrays.copyOfRange(functions, start, end));
+        }
+
+        /**
+         * Runs {@code item} through all stages in order.
+         *
+         * @param item source item
+         *
+         * @return the result of applying all stages to {@code item}, or {@link #SKIP} if a {@code where} stage
+         *         rejected it, or {@link #STOP} if an {@code until} stage ended iteration.
+         */
+        protected Object evaluate(Object item)
+        {
+            final int[] kinds = this.kinds;
+            for (int i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case WHERE:
+                        if (!conditions[i].eval(item)) {
+                            return SKIP;
+                        }
+                        break;
+                    case MAP:
+                        item = functions[i].apply(item);
+                        break;
+                    default:
+                        if (conditions[i].eval(item)) {
+                            return STOP;
+                        }
+                }
+            }
+
+            return item;
+        }
+
+        /**
+         * Runs each stage over all selected items of {@code batch} in turn.
+         *
+         * @param batch items to evaluate
+         *
+         * @return {@code false} if an {@code until} stage ended iteration, {@code true} otherwise
+         */
+        protected boolean evaluate(Batch<Object> batch)
+        {
+            final int[] kinds = this.kinds;
+            boolean more = true;
+            for (int i = 0; i < kinds.length && batch.size() > 0; i++) {
+                switch (kinds[i]) {
+                    case WHERE:
+                        batch.where(conditions[i]);
+                        break;
+                    case MAP:
+                        batch.map(functions[i]);
+                        break;
+                    default:
+                        more &= batch.until(conditions[i]);
+                }
+            }
+
+            return more;
+        }
+    }
+
+    /**
+     * {@link Stages} that time each {@code where} stage and count the items it rejects over the first {@link
+     * #SAMPLE_SIZE} items, then sort each run of adjacent {@code where} stages by expected cost per rejected item, so
+     * that the stage most likely to cheaply reject an item runs first.
+     */
+    private static final class AdaptiveStages extends Stages
+    {
+        private final long[] nanos;
+        private final int[] evaluated;
+        private final int[] rejected;
+        private int sampled = 0;
+
+        private AdaptiveStages(Stages stages)
+        {
+            super(stages.kinds.clone(), stages.conditions.clone(), stages.functions.clone());
+            this.nanos = new long[kinds.length];
+            this.evaluated = new int[kinds.length];
+            this.rejected = new int[kinds.length];
+        }
+
+        @Override
+        protected Object evaluate(Object item)
+        {
+            if (sampled >= SAMPLE_SIZE) {
+                return super.evaluate(item);
+            }
+
+            final Object result = measure(item);
+            if (++sampled == SAMPLE_SIZE) {
+                reorder();
+            }
+            return result;
+        }
+
+        @Override
+        protected boolean evaluate(Batch<Object> batch)
+        {
+            if (sampled >= SAMPLE_SIZE) {
+                return super.evaluate(batch);
+            }
+
+            sampled += batch.size();
+            boolean more = true;
+            for (int i = 0; i < kinds.length && batch.size() > 0; i++) {
+                switch (kinds[i]) {
+                    case WHERE:
+                        final int selected = batch.size();
+                        final long start = System.nanoTime();
+                        batch.where(conditions[i]);
+                        nanos[i] += System.nanoTime() - start;
+                        evaluated[i] += selected;
+                        rejected[i] += selected - batch.size();
+                        break;
+                    case MAP:
+                        batch.map(functions[i]);
+                        break;
+                    default:
+                        more &= batch.until(conditions[i]);
+                }
+            }
+
+            if (sampled >= SAMPLE_SIZE) {
+                reorder();
+            }
+            return more;
+        }
+
+        private Object measure(Object item)
+        {
+            for (int i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case WHERE:
+                        final long start = System.nanoTime();
+                        final boolean accepted = conditions[i].eval(item);
+                        nanos[i] += System.nanoTime() - start;
+                        evaluated[i]++;
+                        if (!accepted) {
+                            rejected[i]++;
+                            return SKIP;
+                        }
+                        break;
+                    case MAP:
+                        item = functions[i].apply(item);
+                        break;
+                    default:
+                        if (conditions[i].eval(item)) {
+                            return STOP;
+                        }
+                }
+            }
+
+            return item;
+        }
+
+        private void reorder()
+        {
+            int i = 0;
+            while (i < kinds.length) {
+                int end = i;
+                while (end < kinds.length && kinds[end] == WHERE) {
+                    end++;
+                }
+
+                // Insertion sort is stable, so stages with no measurable difference keep their order
+                for (int j = i + 1; j < end; j++) {
+                    for (int k = j; k > i && rank(k) < rank(k - 1); k--) {
+                        swap(k, k - 1);
+                    }
+                }
+
+                i = Math.max(end, i + 1);
+            }
+        }
+
+        /**
+         * @return expected cost to reject one item.  Rejection rates are smoothed so that stages that never reject
+         *         sort last rather than dividing by zero.
+         */
+        private double rank(int i)
+        {
+            if (evaluated[i] == 0) {
+                return Double.MAX_VALUE;
+            }
+            return ((double) nanos[i] / evaluated[i]) / ((rejected[i] + 1.0) / (evaluated[i] + 1.0));
+        }
+
+        private void swap(int i, int j)
+        {
+            final Condition<Object> c = conditions[i];
+            conditions[i] = conditions[j];
+            conditions[j] = c;
+            final long n = nanos[i];
+            nanos[i] = nanos[j];
+            nanos[j] = n;
+            final int e = evaluated[i];
+            evaluated[i] = evaluated[j];
+            evaluated[j] = e;
+            final int r = rejected[i];
+            rejected[i] = rejected[j];
+            rejected[j] = r;
+        }
+    }
+
+    private class FusedIterator extends AbstractIterator<X>
+    {
+        private final Iterator<S> iterator = source.iterator();
+        private final Stages stages = stagesForIteration();
+        private boolean ready = false;
+        private boolean done = false;
+        private X next;
+
+        public boolean hasNext()
+        {
+            if (!ready && !done) {
+                while (iterator.hasNext()) {
+                    final Object result = stages.evaluate(iterator.next());
+                    if (result == STOP) {
+                        break;
+                    } else if (result != SKIP) {
+                        next = (X) result;
+                        ready = true;
+                        return true;
+                    }
+                }
+                done = true;
+            }
+
+            return ready;
+        }
+
+        public X next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final X current = next;
+            next = null;
+            ready = false;
+            return current;
+        }
+    }
+}
@@ -17,8 +17,12 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Function;
-import org.bc.iterate.HasEstimatedSize;
+import org.bc.iterate.HasSize;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.Traversable;
 
 import java.util.Iterator;
 
@@ -27,14 +31,21 @@ import java.util.Iterator;
  *  
  * @author Brian Cavalier
  */
-public class GeneratorIterable<X> implements Iterable<X>, HasEstimatedSize
+public class GeneratorIterable<X> implements Splittable<X>, Traversable<X>, HasSize
 {
+    private final int start;
     private final int end;
     private final Function<Integer, X> generator;
 
     public GeneratorIterable(int n, Function<Integer, X> generator)
     {
-        this.end = n;
+        this(0, n, generator);
+    }
+
+    private GeneratorIterable(int start, int end, Function<Integer, X> generator)
+    {
+        this.start = start;
+        this.end = end;
         this.generator = generator;
     }
 
@@ -44,15 +55,45 @@ public class GeneratorIterable<X> implements Iterable<X>, HasEstimatedSize
         return new GeneratorIterator();
     }
 
+    @Override
+    public boolean traverse(Sink<? super X> sink)
+    {
+        for (int i = start, end = this.end; i < end; i++) {
+            if (!sink.accept(generator.apply(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int size()
+    {
+        return end - start;
+    }
+
+    @Override
+    public GeneratorIterable<X> split(int start, int end)
+    {
+        return new GeneratorIterable<X>(this.start + start, this.start + end, generator);
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return Size.exactly(size());
+    }
+
     @Override
     public int getEstimatedSize()
     {
-        return end;
+        return end - start;
     }
 
     private class GeneratorIterator extends AbstractIterator<X>
     {
-        private int index = 0;
+        private int index = start;
 
         public boolean hasNext()
         {
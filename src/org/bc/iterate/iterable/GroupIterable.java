@@ -17,6 +17,7 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,6 +36,22 @@ public class GroupIterable<X> extends Iterate<Collection<X>>
         this.groupSize = groupSize;
     }
 
+    public Iterable<X> getSource()
+    {
+        return iterable;
+    }
+
+    public int getGroupSize()
+    {
+        return groupSize;
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return Size.of(iterable).groups(groupSize);
+    }
+
     @Override
     public Iterator<Collection<X>> iterator()
     {
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+import org.bc.iterate.util.Multimap;
+
+import java.util.Iterator;
+
+/**
+ * Performs an inner, left, right, or full join, using a <a href="http://en.wikipedia.org/wiki/Hash_join">hash
+ * join</a>, yielding the joined {@link org.bc.iterate.util.Pair}s as its iterator's items.  The join is done
+ * incrementally rather than as a batch operation.
+ * <p/>
+ * The hash table is built from one side, the build side, and then probed with each item of the other side.  By
+ * default a right join builds on the left side and the other joins build on the right side, but unless the join is
+ * {@code ordered}, if the sizes of both sides are known exactly (see {@link Size#of(Object)}) and the other side is
+ * smaller, the table is built from that side instead, which takes less memory and time.  Either way the join produces the same
+ * pairs, but the order differs:
+ * <ul>
+ * <li>building on the right, the pairs are produced in the order of the left items, each paired with its matching
+ * right items in their order, and then, for a full join, the unmatched right items in their order</li>
+ * <li>building on the left, the same, with left and right swapped</li>
+ * </ul>
+ * The build side is chosen, and the table built, by the first iteration, and then shared read-only by all iterations.
+ * The table is a {@link Multimap}, so neither building nor probing it allocates anything per key or per match.
+ *
+ * @author Brian Cavalier
+ */
+public class HashJoinIterable<K, X, Y> extends IncrementalJoinIterable<K, X, Y>
+{
+    private final JoinType type;
+    private final Iterable<X> leftIterable;
+    private final Function<? super X, K> xKeyFunction;
+    private final Iterable<Y> rightIterable;
+    private final Function<? super Y, K> yKeyFunction;
+    private final boolean ordered;
+    private final Multimap<K, Y> index;
+
+    private final Lazy<Table<K>> joinTable = new Lazy<Table<K>>()
+    {
+        @Override
+        @SuppressWarnings({"unchecked"})
+        protected Table<K> compute()
+        {
+            if (index != null) {
+                return new Table<K>(false, (Multimap<K, Object>) (Multimap) index, isOuter(false));
+            }
+            final boolean buildLeft = ordered ? type == JoinType.RIGHT : isBuildLeft(type, leftIterable, rightIterable);
+            return buildLeft
+                   ? new Table<K>(true, leftIterable, (Function<Object, K>) xKeyFunction, isOuter(true))
+                   : new Table<K>(false, rightIterable, (Function<Object, K>) yKeyFunction, isOuter(false));
+        }
+    };
+
+    /**
+     * @param type         kind of join
+     * @param left         left items
+     * @param xKeyFunction computes the keys of the left items
+     * @param right        right items
+     * @param yKeyFunction computes the keys of the right items
+     * @param ordered      {@code true} to always build on the right side, or the left side for a right join, so that
+     *                     the pairs are produced in the order of the left, or right, items
+     */
+    public HashJoinIterable(JoinType type,
+                            Iterable<X> left, Function<? super X, K> xKeyFunction,
+                            Iterable<Y> right, Function<? super Y, K> yKeyFunction,
+                            boolean ordered)
+    {
+        this.type = type;
+        this.leftIterable = left;
+        this.xKeyFunction = xKeyFunction;
+        this.rightIterable = right;
+        this.yKeyFunction = yKeyFunction;
+        this.ordered = ordered;
+        this.index = null;
+    }
+
+    /**
+     * Joins {@code left} with the items of a prebuilt table, which is then the build side, so that many joins can share
+     * one table rather than each building its own.  The pairs are produced in the order of the left items.
+     *
+     * @param type         kind of join
+     * @param left         left items
+     * @param xKeyFunction computes the keys of the left items
+     * @param right        right items, by key
+     */
+    public HashJoinIterable(JoinType type, Iterable<X> left, Function<? super X, K> xKeyFunction, Multimap<K, Y> right)
+    {
+        this.type = type;
+        this.leftIterable = left;
+        this.xKeyFunction = xKeyFunction;
+        this.rightIterable = null;
+        this.yKeyFunction = null;
+        this.ordered = true;
+        this.index = right;
+    }
+
+    public JoinType getType()
+    {
+        return type;
+    }
+
+    public boolean isOrdered()
+    {
+        return ordered;
+    }
+
+    /**
+     * @return {@code true} if the hash table should be built from the left items
+     */
+    static boolean isBuildLeft(JoinType type, Iterable<?> left, Iterable<?> right)
+    {
+        final boolean buildLeft = type == JoinType.RIGHT;
+        final int buildSize = exactSize(buildLeft ? left : right);
+        final int probeSize = exactSize(buildLeft ? right : left);
+        return buildSize >= 0 && probeSize >= 0 && probeSize < buildSize ? !buildLeft : buildLeft;
+    }
+
+    /**
+     * @return the exact number of {@code items}, or {@code -1} if unknown.  An upper bound, e.g. of a {@code where}
+     *         over a large source, says too little about the actual number to choose a side by.
+     */
+    private static int exactSize(Iterable<?> items)
+    {
+        final Size size = Size.of(items);
+        return size.isExact() ? size.getCount() : -1;
+    }
+
+    /**
+     * @return {@code true} if unmatched items of the left, or the right, side are also produced
+     */
+    private boolean isOuter(boolean left)
+    {
+        return type == JoinType.FULL || type == (left ? JoinType.LEFT : JoinType.RIGHT);
+    }
+
+    @Override
+    protected IncrementalJoinIterator createIterator()
+    {
+        return new HashJoinIterator();
+    }
+
+    /**
+     * The build side: its items, chained by key in a compact {@link Multimap}
+     */
+    private static final class Table<K>
+    {
+        private final boolean left;
+        private final boolean outer;
+        private final Multimap<K, Object> items;
+
+        private Table(boolean left, Iterable<?> build, Function<Object, K> keyFunction, boolean outer)
+        {
+            this(left, Multimap.of(build, keyFunction, Iterate.estimateSize(build)), outer);
+        }
+
+        private Table(boolean left, Multimap<K, Object> items, boolean outer)
+        {
+            this.left = left;
+            this.outer = outer;
+            this.items = items;
+        }
+    }
+
+    private class HashJoinIterator extends IncrementalJoinIterator
+    {
+        private Table<K> table;
+        private Iterator<?> probeIterator;
+        private Function<Object, K> probeKeyFunction;
+        private boolean probeOuter;
+
+        /**
+         * The current probe item, and the index of the next build item matching it to produce, or {@code -1}
+         */
+        private Object probe;
+        private K probeKey;
+        private int match = -1;
+
+        /**
+         * If unmatched build items are produced, whether this iteration has matched each key of the shared table,
+         * indexed by the first build item with that key
+         */
+        private boolean[] matched;
+        private int unmatched;
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        protected void prepareJoin()
+        {
+            table = joinTable.get();
+            probeIterator = (table.left ? rightIterable : leftIterable).iterator();
+            probeKeyFunction = (Function<Object, K>) (table.left ? yKeyFunction : xKeyFunction);
+            probeOuter = isOuter(!table.left);
+            if (table.outer) {
+                matched = new boolean[table.items.size()];
+            }
+        }
+
+        @SuppressWarnings({"unchecked"})
+        private JoinResult<K, X, Y> result(K key, Object probe, Object build)
+        {
+            return table.left
+                   ? new JoinResult<K, X, Y>(key, (X) build, (Y) probe)
+                   : new JoinResult<K, X, Y>(key, (X) probe, (Y) build);
+        }
+
+        @Override
+        protected JoinResult<K, X, Y> findNext()
+        {
+            final Multimap<K, Object> items = table.items;
+            while (true) {
+                if (match >= 0) {
+                    final int i = match;
+                    match = items.next(i);
+                    return result(probeKey, probe, items.get(i));
+                }
+
+                // An inner join of an empty table has nothing to probe for
+                if (!probeIterator.hasNext() || !probeOuter && items.size() == 0) {
+                    break;
+                }
+                final Object item = probeIterator.next();
+                final K key = probeKeyFunction.apply(item);
+                final int first = items.first(key);
+                if (first >= 0) {
+                    if (matched != null) {
+                        matched[first] = true;
+                    }
+                    probe = item;
+                    probeKey = key;
+                    match = first;
+                } else if (probeOuter) {
+                    return result(key, item, null);
+                }
+            }
+
+            if (matched != null) {
+                while (unmatched < items.size()) {
+                    final int i = unmatched++;
+                    final K key = items.getKey(i);
+                    if (!matched[items.first(key)]) {
+                        return result(key, null, items.get(i));
+                    }
+                }
+            }
+
+            return end();
+        }
+    }
+}
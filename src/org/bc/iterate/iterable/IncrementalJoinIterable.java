@@ -18,10 +18,7 @@ package org.bc.iterate.iterable;
 
 import org.bc.iterate.relational.JoinResult;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Base template class for incremental join implementations.
@@ -49,14 +46,4 @@ public abstract class IncrementalJoinIterable<K, X, Y> implements Iterable<JoinR
          */
         protected abstract void prepareJoin();
     }
-
-    protected static <K, T> void put(Map<K, List<T>> multimap, K key, T x)
-    {
-        List<T> items = multimap.get(key);
-        if(items == null) {
-            items = new ArrayList<T>(16);
-            multimap.put(key, items);
-        }
-        items.add(x);
-    }
 }
@@ -16,14 +16,22 @@
 
 package org.bc.iterate.iterable;
 
+import org.bc.iterate.Condition;
+import org.bc.iterate.Iterables;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.condition.Comparison;
+import org.bc.iterate.primitive.IntRange;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-public class IntegerRange extends Iterate<Integer>
+public class IntegerRange extends Iterate<Integer> implements Splittable<Integer>
 {
-    protected int start;
+    protected final int start;
     protected final int end;
 
     public IntegerRange()
@@ -49,11 +57,239 @@ public class IntegerRange extends Iterate<Integer>
         return new StepIntegerRange(start, end, step);
     }
 
+    /**
+     * @return an {@link IntRange} over the same {@code int}s, which produces them without boxing
+     */
+    public IntRange ints()
+    {
+        return new IntRange(start, end);
+    }
+
+    public int getStart()
+    {
+        return start;
+    }
+
+    public int getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * @return distance between consecutive items, which is always positive, whichever the direction of the range
+     */
+    public int getStep()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the sum of the items, computed in constant time
+     */
+    public long sum()
+    {
+        return ints().sum();
+    }
+
+    /**
+     * @return the sum of the squares of the items, computed in constant time
+     *
+     * @see IntRange#sumOfSquares()
+     */
+    public long sumOfSquares()
+    {
+        return ints().sumOfSquares();
+    }
+
+    /**
+     * @param x value
+     *
+     * @return {@code true} if {@code x} is one of the items, computed in constant time
+     */
+    public boolean contains(int x)
+    {
+        return ints().contains(x);
+    }
+
+    /**
+     * Narrows this range to a sub-range when {@code c} is one of the ordering comparisons from {@link
+     * org.bc.iterate.Conditions}, such as {@code gt(10)} or {@code lte(20)}, rather than testing each item.
+     */
+    @SuppressWarnings({"unchecked"})
+    @Override
+    public Iterate<Integer> where(Condition<? super Integer> c)
+    {
+        final long count = ints().count();
+        if (c instanceof Comparison && ((Comparison) c).getValue() instanceof Integer && count <= Integer.MAX_VALUE) {
+            final Comparison.Operator operator = ((Comparison) c).getOperator();
+            final int value = (Integer) ((Comparison) c).getValue();
+            final int n = (int) count;
+
+            // distance from the first item to value, measured in the direction of the range (so that a descending
+            // range finds the items greater than value before it), and the indexes of the first items at or past it
+            final boolean ascending = start <= end;
+            final long distance = ascending ? (long) value - start : (long) start - value;
+            final long step = getStep();
+            final long firstAtOrAfter = distance <= 0 ? 0 : (distance + step - 1) / step;
+            final long firstAfter = distance < 0 ? 0 : distance / step + 1;
+            switch (operator) {
+                case EQ:
+                    return sub(firstAtOrAfter, firstAfter);
+                case GT:
+                    return ascending ? sub(firstAfter, n) : sub(0, firstAtOrAfter);
+                case GTE:
+                    return ascending ? sub(firstAtOrAfter, n) : sub(0, firstAfter);
+                case LT:
+                    return ascending ? sub(0, firstAtOrAfter) : sub(firstAfter, n);
+                case LTE:
+                    return ascending ? sub(0, firstAfter) : sub(firstAtOrAfter, n);
+            }
+        }
+
+        return super.where(c);
+    }
+
+    private IntegerRange sub(long from, long to)
+    {
+        final long n = ints().count();
+        if (from >= Math.min(to, n)) {
+            return create(start, start, getStep());
+        }
+        return split((int) from, (int) Math.min(to, n));
+    }
+
+    /**
+     * @param start inclusive start index
+     * @param end   exclusive end index
+     *
+     * @return the sub-range between the {@code start}th and {@code end}th items, without iterating
+     */
+    @Override
+    public Iterate<Integer> slice(int start, int end)
+    {
+        final long count = ints().count();
+        if (start < 0 || start >= end || count > Integer.MAX_VALUE) {
+            return super.slice(start, end);
+        }
+        return sub(start, end);
+    }
+
+    /**
+     * @param start inclusive start index
+     *
+     * @return the sub-range from the {@code start}th item on, without iterating
+     */
+    @Override
+    public Iterate<Integer> slice(int start)
+    {
+        final long count = ints().count();
+        if (start < 0 || count > Integer.MAX_VALUE) {
+            return super.slice(start);
+        }
+        return sub(start, count);
+    }
+
+    /**
+     * @return the items of this range in reverse order, as a range going the other way when its end can be represented
+     *         as an {@code int}
+     */
+    public Iterate<Integer> reverse()
+    {
+        final IntRange ints = ints();
+        final long count = ints.count();
+        if (count == 0) {
+            return this;
+        }
+
+        final boolean ascending = start <= end;
+        final int first = start;
+        final int last = ascending ? ints.max() : ints.min();
+        final long reverseEnd = ascending ? (long) first - getStep() : (long) first + getStep();
+        if (reverseEnd >= Integer.MIN_VALUE && reverseEnd <= Integer.MAX_VALUE) {
+            return create(last, (int) reverseEnd, getStep());
+        }
+
+        // the first item is too close to the int bound to end a reversed range after it, so end the range at the first
+        // item and add it back on
+        return create(last, first, getStep()).transform(Iterables.append(Collections.singletonList(first)));
+    }
+
+    /**
+     * @return the items of this range in ascending order, which is this range itself if it is already ascending
+     */
+    public Iterate<Integer> sorted()
+    {
+        return start <= end ? this : reverse();
+    }
+
+    protected static IntegerRange create(int start, int end, int step)
+    {
+        return step == 1 ? new IntegerRange(start, end) : new StepIntegerRange(start, end, step);
+    }
+
     public Iterator<Integer> iterator()
     {
         return (start <= end) ? new AscendingIntegerRangeIterator() : new DescendingIntegerRangeIterator();
     }
 
+    /**
+     * @return the number of items, or {@code -1} if there are more than {@link Integer#MAX_VALUE}, in which case this
+     *         range cannot be split
+     */
+    @Override
+    public int size()
+    {
+        final long count = ints().count();
+        return count > Integer.MAX_VALUE ? -1 : (int) count;
+    }
+
+    @Override
+    public Size getSize()
+    {
+        final int size = size();
+        return size < 0 ? Size.unknown() : Size.exactly(size);
+    }
+
+    /**
+     * @return the number of items, or {@link #DEFAULT_ESTIMATED_SIZE} if there are too many to presize a collection
+     *         for them
+     */
+    @Override
+    public int getEstimatedSize()
+    {
+        final int size = size();
+        return size < 0 ? DEFAULT_ESTIMATED_SIZE : size;
+    }
+
+    @Override
+    public IntegerRange split(int start, int end)
+    {
+        return (this.start <= this.end)
+               ? new IntegerRange(this.start + start, this.start + end)
+               : new IntegerRange(this.start - start, this.start - end);
+    }
+
+    @Override
+    public boolean traverse(Sink<? super Integer> sink)
+    {
+        final int end = this.end;
+        if (start <= end) {
+            for (int i = start; i < end; i++) {
+                if (!sink.accept(i)) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = start; i > end; i--) {
+                if (!sink.accept(i)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public String toString()
     {
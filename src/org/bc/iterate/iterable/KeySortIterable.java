@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
+import org.bc.iterate.primitive.ToDoubleFunction;
+import org.bc.iterate.primitive.ToIntFunction;
+import org.bc.iterate.primitive.ToLongFunction;
+import org.bc.iterate.util.Sorting;
+
+import java.util.*;
+
+/**
+ * An {@link Iterable} that presents the items in another {@link Iterable} sorted by a key computed from each item.
+ * Each key is computed exactly once, rather than each time two items are compared, and then the indexes of the keys
+ * are sorted, so that the items themselves move only once.  {@code int}, {@code long} and {@code double} keys are kept
+ * unboxed and radix sorted, see {@link Sorting#order(int[])}.  Items with equal keys keep their relative order.
+ *
+ * @author Brian Cavalier
+ */
+public abstract class KeySortIterable<X> implements Iterable<X>, HasSize
+{
+    private final Iterable<X> source;
+
+    /**
+     * Sorted once, by the first iteration, and then shared by all iterations
+     */
+    private final Lazy<List<X>> sorted = new Lazy<List<X>>()
+    {
+        @Override
+        @SuppressWarnings({"unchecked"})
+        protected List<X> compute()
+        {
+            final Object[] items = Iterables.addAll(new ArrayList<X>(Iterate.estimateSize(source)), source).toArray();
+            final int[] order = order((X[]) items);
+            final List<X> tmp = new ArrayList<X>(items.length);
+            for (int index : order) {
+                tmp.add((X) items[index]);
+            }
+            // Ensure that underlying sorted list cannot be modified via Iterator.remove()
+            return Collections.unmodifiableList(tmp);
+        }
+    };
+
+    protected KeySortIterable(final Iterable<X> source)
+    {
+        this.source = source;
+    }
+
+    /**
+     * @param source     items to sort
+     * @param key        computes the key of each item
+     * @param comparator ordering of the keys, or {@code null} for their natural order
+     *
+     * @return the items in {@code source}, sorted by key
+     */
+    public static <X, K> KeySortIterable<X> of(final Iterable<X> source, final Function<? super X, ? extends K> key,
+                                                final Comparator<? super K> comparator)
+    {
+        return new KeySortIterable<X>(source)
+        {
+            @Override
+            @SuppressWarnings({"unchecked"})
+            protected int[] order(X[] items)
+            {
+                final K[] keys = (K[]) new Object[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    keys[i] = key.apply(items[i]);
+                }
+                return Sorting.order(keys, comparator);
+            }
+        };
+    }
+
+    /**
+     * @param source items to sort
+     * @param key    computes the unboxed {@code int} key of each item
+     *
+     * @return the items in {@code source}, sorted by key
+     */
+    public static <X> KeySortIterable<X> ofInts(final Iterable<X> source, final ToIntFunction<? super X> key)
+    {
+        return new KeySortIterable<X>(source)
+        {
+            @Override
+            protected int[] order(X[] items)
+            {
+                final int[] keys = new int[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    keys[i] = key.apply(items[i]);
+                }
+                return Sorting.order(keys);
+            }
+        };
+    }
+
+    /**
+     * @param source items to sort
+     * @param key    computes the unboxed {@code long} key of each item
+     *
+     * @return the items in {@code source}, sorted by key
+     */
+    public static <X> KeySortIterable<X> ofLongs(final Iterable<X> source, final ToLongFunction<? super X> key)
+    {
+        return new KeySortIterable<X>(source)
+        {
+            @Override
+            protected int[] order(X[] items)
+            {
+                final long[] keys = new long[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    keys[i] = key.apply(items[i]);
+                }
+                return Sorting.order(keys);
+            }
+        };
+    }
+
+    /**
+     * Doubles are ordered as by {@link Double#compare(double, double)}: {@code -0.0} before {@code 0.0}, and {@code
+     * NaN} last.
+     *
+     * @param source items to sort
+     * @param key    computes the unboxed {@code double} key of each item
+     *
+     * @return the items in {@code source}, sorted by key
+     */
+    public static <X> KeySortIterable<X> ofDoubles(final Iterable<X> source, final ToDoubleFunction<? super X> key)
+    {
+        return new KeySortIterable<X>(source)
+        {
+            @Override
+            protected int[] order(X[] items)
+            {
+                final double[] keys = new double[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    keys[i] = key.apply(items[i]);
+                }
+                return Sorting.order(keys);
+            }
+        };
+    }
+
+    /**
+     * Computes the key of each item once, and sorts them
+     *
+     * @param items items, which must not be modified
+     *
+     * @return the indexes of {@code items} in sorted order
+     */
+    protected abstract int[] order(X[] items);
+
+    public Iterable<X> getSource()
+    {
+        return source;
+    }
+
+    public Iterator<X> iterator()
+    {
+        return sorted.get().iterator();
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return sorted.isComputed() ? Size.exactly(sorted.get().size()) : Size.of(source);
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return sorted.isComputed() ? sorted.get().size() : Iterate.estimateSize(source);
+    }
+}
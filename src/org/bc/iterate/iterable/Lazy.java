@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+/**
+ * A value that is computed the first time it is needed, by whichever thread needs it first, and then safely published
+ * to and shared by all threads.  Used by {@link Iterable}s whose iterators share expensive, read-only state, such as a
+ * sorted list or a join's hash table, so that concurrent iterations reuse it rather than each computing their own.
+ *
+ * @author Brian Cavalier
+ * @param <T> value type
+ */
+abstract class Lazy<T>
+{
+    private volatile T value;
+
+    /**
+     * @return the value, computing it if this is the first call
+     */
+    public final T get()
+    {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = compute();
+                    value = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return {@code true} if the value has been computed
+     */
+    public final boolean isComputed()
+    {
+        return value != null;
+    }
+
+    /**
+     * Computes the value.  Called at most once.
+     *
+     * @return the value, which must not be {@code null}
+     */
+    protected abstract T compute();
+}
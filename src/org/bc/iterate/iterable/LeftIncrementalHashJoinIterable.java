@@ -16,77 +16,23 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Function;
-import org.bc.iterate.Iterate;
-import org.bc.iterate.relational.JoinResult;
-
-import java.util.*;
+import org.bc.iterate.relational.JoinType;
 
 /**
  * Performs a left outer join, using a <a href="http://en.wikipedia.org/wiki/Hash_join">hash join</a>, yielding
  * the joined {@link org.bc.iterate.util.Pair}s as its iterator's items.  The join is done incrementally rather than as
- * a batch operation.
+ * a batch operation.  See {@link HashJoinIterable} for which side the hash table is built from, and the order of the
+ * results.
  *
  * @author Brian Cavalier
  */
-public class LeftIncrementalHashJoinIterable<K, X, Y> extends IncrementalJoinIterable<K, X, Y>
+public class LeftIncrementalHashJoinIterable<K, X, Y> extends HashJoinIterable<K, X, Y>
 {
-    private final Iterable<X> leftIterable;
-    private final Function<? super X, K> xKeyFunction;
-    private final Iterable<Y> rightIterable;
-    private final Function<? super Y, K> yKeyFunction;
-    private Map<K, List<Y>> joinMap;
-    private Iterator<JoinResult<K, X, Y>> currentJoinIterator;
-
     public LeftIncrementalHashJoinIterable(Iterable<X> left,
                                            Function<? super X, K> xKeyFunction,
                                            Iterable<Y> right,
                                            Function<? super Y, K> yKeyFunction)
     {
-        this.leftIterable = left;
-        this.xKeyFunction = xKeyFunction;
-        this.rightIterable = right;
-        this.yKeyFunction = yKeyFunction;
-    }
-
-    @Override
-    protected IncrementalJoinIterator createIterator()
-    {
-        return new LeftIncrementalHashJoinIterator();
-    }    
-
-    private class LeftIncrementalHashJoinIterator extends IncrementalJoinIterator
-    {
-        private final Iterator<X> leftIterator = leftIterable.iterator();
-
-        @Override
-        protected void prepareJoin()
-        {
-            joinMap = new HashMap<K, List<Y>>(Iterate.estimateSize(rightIterable));
-            for (final Y item : rightIterable) {
-                put(joinMap, yKeyFunction.apply(item), item);
-            }
-        }
-
-        @Override
-        protected JoinResult<K, X, Y> findNext()
-        {
-            if (currentJoinIterator == null || (!currentJoinIterator.hasNext() && leftIterator.hasNext())) {
-                final X x = leftIterator.next();
-                final K key = xKeyFunction.apply(x);
-                List<Y> currentYList = joinMap.get(key);
-                if (currentYList != null) {
-                    final ArrayList<JoinResult<K, X, Y>> currentJoinList =
-                            new ArrayList<JoinResult<K, X, Y>>(currentYList.size());
-                    for (Y y : currentYList) {
-                        currentJoinList.add(new JoinResult<K, X, Y>(key, x, y));
-                    }
-                    currentJoinIterator = currentJoinList.iterator();
-                } else {
-                    return new JoinResult<K, X, Y>(key, x, null);
-                }
-            }
-
-            return currentJoinIterator != null && currentJoinIterator.hasNext() ? currentJoinIterator.next() : end();
-        }
+        super(JoinType.LEFT, left, xKeyFunction, right, yKeyFunction, false);
     }
 }
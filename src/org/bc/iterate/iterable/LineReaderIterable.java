@@ -28,7 +28,7 @@ public class LineReaderIterable extends Iterate<String> implements Closeable
 {
     private BufferedReader reader;
 
-    private boolean close;
+    private volatile boolean close;
 
     public LineReaderIterable(Reader reader)
     {
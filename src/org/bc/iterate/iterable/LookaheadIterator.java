@@ -36,7 +36,7 @@ public abstract class LookaheadIterator<T> extends AbstractIterator<T>
     @Override
     public final T next()
     {
-        if (next == null) {
+        if (!hasNext()) {
             throw new NoSuchElementException();
         }
 
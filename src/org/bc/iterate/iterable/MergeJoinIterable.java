@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Performs an inner, left, right, or full join using a <a
+ * href="http://en.wikipedia.org/wiki/Sort-merge_join">sort-merge join</a>, which streams both sides in one pass, in key
+ * order, holding only the current run of items with equal keys from one side.  Unlike a hash join, neither side is ever
+ * loaded into memory as a whole, so sides that are already sorted by key, such as date ordered log files, can be joined
+ * however large they are.
+ * <p/>
+ * Each side must be sorted by key: the keys are checked as the sides are streamed, and an iteration that finds a key
+ * out of order fails with an {@link IllegalStateException}.  Alternatively, with {@code sortIfNeeded}, before the first
+ * iteration each side is read once to check that it is sorted, and a side that isn't is sorted, with its keys computed
+ * once per item, by a {@link KeySortIterable}, which does hold all of its items in memory.  Both checks and any sorts
+ * are shared by all iterations.  Since that reads each side twice, it only suits sides that can be iterated more than
+ * once, e.g. {@link java.util.Collection}s, not streams such as the lines of a {@link java.io.Reader}.
+ * <p/>
+ * Items are produced in key order.  Within a key, an inner or left join produces the pairs in the order of the left
+ * items, and then of the right items, and a right join the other way around, just as the corresponding ordered
+ * hash joins, see {@link HashJoinIterable}, do.  A full join produces unmatched right items in key order among the
+ * others, rather than after them.
+ *
+ * @author Brian Cavalier
+ */
+public class MergeJoinIterable<K, X, Y> extends IncrementalJoinIterable<K, X, Y>
+{
+    private final JoinType type;
+    private final Comparator<? super K> comparator;
+
+    private final Lazy<Iterable<?>> probeIterable;
+    private final Function<Object, K> probeKeyFunction;
+    private final Lazy<Iterable<?>> buildIterable;
+    private final Function<Object, K> buildKeyFunction;
+
+    /**
+     * @param type         kind of join
+     * @param left         left items, sorted by key
+     * @param xKeyFunction computes the keys of the left items
+     * @param right        right items, sorted by key
+     * @param yKeyFunction computes the keys of the right items
+     * @param comparator   ordering of the keys, or {@code null} for their natural ordering
+     */
+    public MergeJoinIterable(JoinType type,
+                             Iterable<X> left, Function<? super X, K> xKeyFunction,
+                             Iterable<Y> right, Function<? super Y, K> yKeyFunction,
+                             Comparator<? super K> comparator)
+    {
+        this(type, left, xKeyFunction, right, yKeyFunction, comparator, false);
+    }
+
+    /**
+     * @param type         kind of join
+     * @param left         left items, preferably sorted by key
+     * @param xKeyFunction computes the keys of the left items
+     * @param right        right items, preferably sorted by key
+     * @param yKeyFunction computes the keys of the right items
+     * @param comparator   ordering of the keys, or {@code null} for their natural ordering
+     * @param sortIfNeeded {@code true} to read each side once first, and sort it if it is not sorted
+     */
+    @SuppressWarnings({"unchecked"})
+    public MergeJoinIterable(JoinType type,
+                             Iterable<X> left, Function<? super X, K> xKeyFunction,
+                             Iterable<Y> right, Function<? super Y, K> yKeyFunction,
+                             Comparator<? super K> comparator, boolean sortIfNeeded)
+    {
+        this.type = type;
+        this.comparator = comparator;
+
+        // A right join pairs each right item with the run of left items, the others each left item with the run of
+        // right items
+        final boolean buildLeft = type == JoinType.RIGHT;
+        this.probeKeyFunction = (Function<Object, K>) (buildLeft ? yKeyFunction : xKeyFunction);
+        this.probeIterable = sorted((Iterable<Object>) (buildLeft ? right : left), probeKeyFunction, sortIfNeeded);
+        this.buildKeyFunction = (Function<Object, K>) (buildLeft ? xKeyFunction : yKeyFunction);
+        this.buildIterable = sorted((Iterable<Object>) (buildLeft ? left : right), buildKeyFunction, sortIfNeeded);
+    }
+
+    public JoinType getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return {@code items} if they are sorted by key, or are not to be checked, otherwise a sorted copy of them,
+     *         checked and, if need be, sorted the first time it is needed
+     */
+    private Lazy<Iterable<?>> sorted(final Iterable<Object> items, final Function<Object, K> keyFunction,
+                                     final boolean sortIfNeeded)
+    {
+        return new Lazy<Iterable<?>>()
+        {
+            @Override
+            protected Iterable<?> compute()
+            {
+                if (!sortIfNeeded) {
+                    return items;
+                }
+                K previous = null;
+                boolean first = true;
+                for (Object item : items) {
+                    final K key = keyFunction.apply(item);
+                    if (!first && compare(previous, key) > 0) {
+                        return KeySortIterable.of(items, keyFunction, comparator);
+                    }
+                    previous = key;
+                    first = false;
+                }
+                return items;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private int compare(K k1, K k2)
+    {
+        return comparator == null ? ((Comparable<? super K>) k1).compareTo(k2) : comparator.compare(k1, k2);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private JoinResult<K, X, Y> result(K key, Object probe, Object build)
+    {
+        return type == JoinType.RIGHT
+               ? new JoinResult<K, X, Y>(key, (X) build, (Y) probe)
+               : new JoinResult<K, X, Y>(key, (X) probe, (Y) build);
+    }
+
+    @Override
+    protected IncrementalJoinIterator createIterator()
+    {
+        return new MergeJoinIterator();
+    }
+
+    /**
+     * One side of the join, looking ahead one item and its key
+     */
+    private final class Cursor
+    {
+        private final Iterator<?> items;
+        private final Function<Object, K> keyFunction;
+        private boolean valid = false;
+        private Object item;
+        private K key;
+
+        private Cursor(Iterable<?> items, Function<Object, K> keyFunction)
+        {
+            this.items = items.iterator();
+            this.keyFunction = keyFunction;
+            advance();
+        }
+
+        private void advance()
+        {
+            if (!items.hasNext()) {
+                valid = false;
+                item = null;
+                key = null;
+                return;
+            }
+
+            final Object nextItem = items.next();
+            final K nextKey = keyFunction.apply(nextItem);
+            if (valid && compare(key, nextKey) > 0) {
+                throw new IllegalStateException("Join items are not sorted by key: " + nextKey + " follows "
+                                                + key);
+            }
+            valid = true;
+            item = nextItem;
+            key = nextKey;
+        }
+    }
+
+    private class MergeJoinIterator extends IncrementalJoinIterator
+    {
+        private Cursor probe;
+        private Cursor build;
+
+        /**
+         * The run of build items with the key {@code runKey}, each of which is paired with {@code runProbe} and then
+         * each later probe item having the same key
+         */
+        private final List<Object> run = new ArrayList<Object>();
+        private K runKey;
+        private Object runProbe;
+        private int runIndex = -1;
+
+        @Override
+        protected void prepareJoin()
+        {
+            probe = new Cursor(probeIterable.get(), probeKeyFunction);
+            build = new Cursor(buildIterable.get(), buildKeyFunction);
+        }
+
+        @Override
+        protected JoinResult<K, X, Y> findNext()
+        {
+            while (true) {
+                if (runIndex >= 0) {
+                    if (runIndex < run.size()) {
+                        return result(runKey, runProbe, run.get(runIndex++));
+                    }
+
+                    probe.advance();
+                    if (probe.valid && compare(probe.key, runKey) == 0) {
+                        runProbe = probe.item;
+                        runIndex = 0;
+                        continue;
+                    }
+                    run.clear();
+                    runIndex = -1;
+                }
+
+                // Only a full join needs the rest of either side once the other is exhausted
+                if (!probe.valid && (type != JoinType.FULL || !build.valid) || !build.valid && type == JoinType.INNER) {
+                    return end();
+                }
+
+                final int c = !probe.valid ? 1 : !build.valid ? -1 : compare(probe.key, build.key);
+                if (c < 0) {
+                    final Object item = probe.item;
+                    final K key = probe.key;
+                    probe.advance();
+                    if (type != JoinType.INNER) {
+                        return result(key, item, null);
+                    }
+                } else if (c > 0) {
+                    final Object item = build.item;
+                    final K key = build.key;
+                    build.advance();
+                    if (type == JoinType.FULL) {
+                        return result(key, null, item);
+                    }
+                } else {
+                    runKey = build.key;
+                    while (build.valid && compare(build.key, runKey) == 0) {
+                        run.add(build.item);
+                        build.advance();
+                    }
+                    runProbe = probe.item;
+                    runIndex = 0;
+                }
+            }
+        }
+    }
+}
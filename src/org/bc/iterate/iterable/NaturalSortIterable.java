@@ -15,9 +15,11 @@
  */
 package org.bc.iterate.iterable;
 
-import org.bc.iterate.HasEstimatedSize;
+import org.bc.iterate.HasSize;
 import org.bc.iterate.Iterables;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
+import org.bc.iterate.util.Sorting;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,36 +28,54 @@ import java.util.List;
 
 /**
  * An {@link Iterable} that presents a sorted view of the items in another {@link Iterable} using a the items'
- * natural ordering.
+ * natural ordering.  {@link Integer}s, {@link Long}s, and {@link String}s are sorted with the specialized algorithms in
+ * {@link Sorting}.
  *
  * @author Brian Cavalier
  */
-public class NaturalSortIterable<X extends Comparable<X>> implements Iterable<X>, HasEstimatedSize
+public class NaturalSortIterable<X extends Comparable<X>> implements Iterable<X>, HasSize
 {
-    private List<X> sorted;
-    private Iterable<X> source;
+    private final Iterable<X> source;
+
+    /**
+     * Sorted once, by the first iteration, and then shared by all iterations
+     */
+    private final Lazy<List<X>> sorted = new Lazy<List<X>>()
+    {
+        @Override
+        protected List<X> compute()
+        {
+            final List<X> tmp = Iterables.addAll(new ArrayList<X>(Iterate.estimateSize(source)), source);
+            Sorting.sort(tmp);
+            // Ensure that underlying sorted list cannot be modified via Iterator.remove()
+            return Collections.unmodifiableList(tmp);
+        }
+    };
 
     public NaturalSortIterable(final Iterable<X> source)
     {
         this.source = source;
     }
 
+    public Iterable<X> getSource()
+    {
+        return source;
+    }
+
     public Iterator<X> iterator()
     {
-        // This method and getEstimatedSize() may need to be synchronized
-        if (sorted == null) {
-            final List<X> tmp = Iterables.addAll(new ArrayList<X>(Iterate.estimateSize(source)), source);
-            Collections.sort(tmp);
-            // Ensure that underlying sorted list cannot be modified via Iterator.remove()
-            sorted = Collections.unmodifiableList(tmp);
-        }
+        return sorted.get().iterator();
+    }
 
-        return sorted.iterator();
+    @Override
+    public Size getSize()
+    {
+        return sorted.isComputed() ? Size.exactly(sorted.get().size()) : Size.of(source);
     }
 
     @Override
     public int getEstimatedSize()
     {
-        return sorted == null ? Iterate.estimateSize(source) : sorted.size();
+        return sorted.isComputed() ? sorted.get().size() : Iterate.estimateSize(source);
     }
 }
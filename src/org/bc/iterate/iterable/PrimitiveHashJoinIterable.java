@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Iterate;
+import org.bc.iterate.primitive.LongMultimap;
+import org.bc.iterate.primitive.ToIntFunction;
+import org.bc.iterate.primitive.ToLongFunction;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+
+import java.util.Iterator;
+
+/**
+ * Performs an inner, left, right, or full join on {@code int} or {@code long} keys, using a <a
+ * href="http://en.wikipedia.org/wiki/Hash_join">hash join</a> whose table is a {@link LongMultimap}, so that neither
+ * building nor probing the table boxes a key.  Keys are only boxed for the {@link JoinResult}s, once per probe item
+ * that produces any.
+ * <p/>
+ * The items are produced in the same order as by the corresponding join on boxed keys, e.g. {@link
+ * InnerIncrementalHashJoinIterable}, since the table is built from the same side, see {@link HashJoinIterable}.
+ *
+ * @author Brian Cavalier
+ */
+public class PrimitiveHashJoinIterable<K, X, Y> extends IncrementalJoinIterable<K, X, Y>
+{
+    private final JoinType type;
+    private final boolean intKeys;
+    private final Iterable<X> leftIterable;
+    private final ToLongFunction<? super X> xKeyFunction;
+    private final Iterable<Y> rightIterable;
+    private final ToLongFunction<? super Y> yKeyFunction;
+
+    /**
+     * Built once, by the first iteration, and then shared read-only by all iterations
+     */
+    private final Lazy<Table> joinTable = new Lazy<Table>()
+    {
+        @Override
+        @SuppressWarnings({"unchecked"})
+        protected Table compute()
+        {
+            final boolean buildLeft = HashJoinIterable.isBuildLeft(type, leftIterable, rightIterable);
+            final Iterable<Object> buildIterable = (Iterable<Object>) (buildLeft ? leftIterable : rightIterable);
+            final ToLongFunction<Object> buildKeyFunction =
+                    (ToLongFunction<Object>) (buildLeft ? xKeyFunction : yKeyFunction);
+            return new Table(buildLeft,
+                             LongMultimap.of(buildIterable, buildKeyFunction, Iterate.estimateSize(buildIterable)));
+        }
+    };
+
+    private PrimitiveHashJoinIterable(JoinType type, boolean intKeys,
+                                      Iterable<X> left, ToLongFunction<? super X> xKeyFunction,
+                                      Iterable<Y> right, ToLongFunction<? super Y> yKeyFunction)
+    {
+        this.type = type;
+        this.intKeys = intKeys;
+        this.leftIterable = left;
+        this.xKeyFunction = xKeyFunction;
+        this.rightIterable = right;
+        this.yKeyFunction = yKeyFunction;
+    }
+
+    /**
+     * @return a join of {@code left} and {@code right} on {@code long} keys
+     */
+    public static <X, Y> PrimitiveHashJoinIterable<Long, X, Y> longs(JoinType type,
+                                                                       Iterable<X> left,
+                                                                       ToLongFunction<? super X> xKeyFunction,
+                                                                       Iterable<Y> right,
+                                                                       ToLongFunction<? super Y> yKeyFunction)
+    {
+        return new PrimitiveHashJoinIterable<Long, X, Y>(type, false, left, xKeyFunction, right, yKeyFunction);
+    }
+
+    /**
+     * @return a join of {@code left} and {@code right} on {@code int} keys
+     */
+    public static <X, Y> PrimitiveHashJoinIterable<Integer, X, Y> ints(JoinType type,
+                                                                         Iterable<X> left,
+                                                                         ToIntFunction<? super X> xKeyFunction,
+                                                                         Iterable<Y> right,
+                                                                         ToIntFunction<? super Y> yKeyFunction)
+    {
+        return new PrimitiveHashJoinIterable<Integer, X, Y>(type, true, left, widen(xKeyFunction),
+                                                            right, widen(yKeyFunction));
+    }
+
+    private static <X> ToLongFunction<X> widen(final ToIntFunction<X> f)
+    {
+        return new ToLongFunction<X>()
+        {
+            public long apply(X x)
+            {
+                return f.apply(x);
+            }
+        };
+    }
+
+    @Override
+    protected IncrementalJoinIterator createIterator()
+    {
+        return new PrimitiveHashJoinIterator();
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private K box(long key)
+    {
+        final Object boxed = intKeys ? (Object) (int) key : (Object) key;
+        return (K) boxed;
+    }
+
+    /**
+     * The build side: its items, by key, and whether they are the left items
+     */
+    private static final class Table
+    {
+        private final boolean left;
+        private final LongMultimap<Object> items;
+
+        private Table(boolean left, LongMultimap<Object> items)
+        {
+            this.left = left;
+            this.items = items;
+        }
+    }
+
+    private class PrimitiveHashJoinIterator extends IncrementalJoinIterator
+    {
+        private LongMultimap<Object> table;
+        private boolean tableLeft;
+        private Iterator<?> probeIterator;
+        private ToLongFunction<Object> probeKeyFunction;
+        private boolean probeOuter;
+
+        private Object probe;
+        private K probeKey;
+        private int match = -1;
+
+        /**
+         * If unmatched build items are produced, whether this iteration has joined each key of the shared table,
+         * indexed by the first value with the key
+         */
+        private boolean[] matched;
+        private int unmatched;
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        protected void prepareJoin()
+        {
+            final Table built = joinTable.get();
+            table = built.items;
+            tableLeft = built.left;
+            probeIterator = (tableLeft ? rightIterable : leftIterable).iterator();
+            probeKeyFunction = (ToLongFunction<Object>) (tableLeft ? yKeyFunction : xKeyFunction);
+            probeOuter = type == JoinType.FULL || type == (tableLeft ? JoinType.RIGHT : JoinType.LEFT);
+            if (type == JoinType.FULL || type == (tableLeft ? JoinType.LEFT : JoinType.RIGHT)) {
+                matched = new boolean[table.size()];
+            }
+        }
+
+        @SuppressWarnings({"unchecked"})
+        private JoinResult<K, X, Y> result(K key, Object probe, Object build)
+        {
+            return tableLeft
+                   ? new JoinResult<K, X, Y>(key, (X) build, (Y) probe)
+                   : new JoinResult<K, X, Y>(key, (X) probe, (Y) build);
+        }
+
+        @Override
+        protected JoinResult<K, X, Y> findNext()
+        {
+            while (true) {
+                if (match >= 0) {
+                    final int i = match;
+                    match = table.next(i);
+                    return result(probeKey, probe, table.get(i));
+                }
+
+                if (!probeIterator.hasNext() || !probeOuter && table.size() == 0) {
+                    break;
+                }
+                final Object item = probeIterator.next();
+                final long key = probeKeyFunction.apply(item);
+                final int first = table.first(key);
+                if (first >= 0) {
+                    if (matched != null) {
+                        matched[first] = true;
+                    }
+                    probe = item;
+                    probeKey = box(key);
+                    match = first;
+                } else if (probeOuter) {
+                    return result(box(key), item, null);
+                }
+            }
+
+            if (matched != null) {
+                while (unmatched < table.size()) {
+                    final int i = unmatched++;
+                    final long key = table.getKey(i);
+                    if (!matched[table.first(key)]) {
+                        return result(box(key), null, table.get(i));
+                    }
+                }
+            }
+
+            return end();
+        }
+    }
+}
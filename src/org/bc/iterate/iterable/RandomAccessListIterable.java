@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.Traversable;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link Splittable} view of a {@link java.util.RandomAccess} {@link List}.  Views are created using {@link
+ * List#subList(int, int)}, and items are traversed by index.
+ *
+ * @author Brian Cavalier
+ */
+public class RandomAccessListIterable<X> implements Splittable<X>, Traversable<X>, HasSize
+{
+    private final List<X> list;
+
+    public RandomAccessListIterable(List<X> list)
+    {
+        this.list = list;
+    }
+
+    @Override
+    public Iterator<X> iterator()
+    {
+        return list.iterator();
+    }
+
+    @Override
+    public int size()
+    {
+        return list.size();
+    }
+
+    @Override
+    public RandomAccessListIterable<X> split(int start, int end)
+    {
+        return new RandomAccessListIterable<X>(list.subList(start, end));
+    }
+
+    @Override
+    public boolean traverse(Sink<? super X> sink)
+    {
+        final List<X> list = this.list;
+        for (int i = 0, n = list.size(); i < n; i++) {
+            if (!sink.accept(list.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return Size.exactly(size());
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return list.size();
+    }
+
+    @Override
+    public String toString()
+    {
+        return list.toString();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.Traversable;
+import org.bc.iterate.primitive.SplitMix64;
+
+import java.util.Iterator;
+
+/**
+ * {@link Iterable} of random items drawn from a {@link SplitMix64} generator, either a specified number of them or
+ * inexhaustibly.  Each pass starts over from the same position of the generator, so every pass produces the same
+ * items.  Without a generator, each pass instead draws from a new, randomly seeded, {@link SplitMix64}, so every pass
+ * produces different items.
+ * <p/>
+ * Each item consumes exactly one step of the generator, so a sized {@link RandomIterable} is {@link Splittable}: a
+ * view over the items from {@code start} to {@code end} starts at {@link SplitMix64#jump(long) jump(start)} and
+ * produces exactly the items that iterating the whole {@link RandomIterable} produces at those positions.  A parallel
+ * pipeline over a seeded {@link RandomIterable} is therefore as reproducible as a sequential one, however it is
+ * divided among threads.
+ *
+ * @author Brian Cavalier
+ * @see org.bc.iterate.Integers#random(SplitMix64, int, int)
+ * @see org.bc.iterate.Longs#random(SplitMix64, int)
+ * @see org.bc.iterate.Doubles#random(SplitMix64, int)
+ */
+public class RandomIterable<X> implements Splittable<X>, Traversable<X>, HasSize
+{
+    private final SplitMix64 origin;
+    private final int size;
+    private final Function<SplitMix64, X> draw;
+
+    private RandomIterable(SplitMix64 origin, int size, Function<SplitMix64, X> draw)
+    {
+        this.origin = origin;
+        this.size = size;
+        this.draw = draw;
+    }
+
+    /**
+     * @param random generator from whose current position to draw the items, which does not advance, or {@code null}
+     *               to draw each pass from a new generator
+     * @param bound  exclusive upper bound of the items, which must be positive
+     * @param size   number of items, or {@code -1} for an inexhaustible {@link RandomIterable}
+     *
+     * @return a {@link RandomIterable} of {@code int}s from {@code 0} (inclusive) to {@code bound} (exclusive)
+     */
+    public static RandomIterable<Integer> ints(SplitMix64 random, final int bound, int size)
+    {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+
+        return new RandomIterable<Integer>(jump(random, 0), size, new Function<SplitMix64, Integer>()
+        {
+            public Integer apply(SplitMix64 random)
+            {
+                return random.nextInt(bound);
+            }
+        });
+    }
+
+    /**
+     * @param random generator from whose current position to draw the items, which does not advance, or {@code null}
+     *               to draw each pass from a new generator
+     * @param size   number of items, or {@code -1} for an inexhaustible {@link RandomIterable}
+     *
+     * @return a {@link RandomIterable} of {@code int}s
+     */
+    public static RandomIterable<Integer> ints(SplitMix64 random, int size)
+    {
+        return new RandomIterable<Integer>(jump(random, 0), size, new Function<SplitMix64, Integer>()
+        {
+            public Integer apply(SplitMix64 random)
+            {
+                return random.nextInt();
+            }
+        });
+    }
+
+    /**
+     * @param random generator from whose current position to draw the items, which does not advance, or {@code null}
+     *               to draw each pass from a new generator
+     * @param size   number of items, or {@code -1} for an inexhaustible {@link RandomIterable}
+     *
+     * @return a {@link RandomIterable} of {@code long}s
+     */
+    public static RandomIterable<Long> longs(SplitMix64 random, int size)
+    {
+        return new RandomIterable<Long>(jump(random, 0), size, new Function<SplitMix64, Long>()
+        {
+            public Long apply(SplitMix64 random)
+            {
+                return random.nextLong();
+            }
+        });
+    }
+
+    /**
+     * @param random generator from whose current position to draw the items, which does not advance, or {@code null}
+     *               to draw each pass from a new generator
+     * @param size   number of items, or {@code -1} for an inexhaustible {@link RandomIterable}
+     *
+     * @return a {@link RandomIterable} of {@code double}s from {@code 0.0} (inclusive) to {@code 1.0} (exclusive)
+     */
+    public static RandomIterable<Double> doubles(SplitMix64 random, int size)
+    {
+        return new RandomIterable<Double>(jump(random, 0), size, new Function<SplitMix64, Double>()
+        {
+            public Double apply(SplitMix64 random)
+            {
+                return random.nextDouble();
+            }
+        });
+    }
+
+    /**
+     * @return a generator positioned {@code n} values after {@code random}, or {@code null} if {@code random} is
+     *         {@code null}
+     */
+    private static SplitMix64 jump(SplitMix64 random, long n)
+    {
+        return random == null ? null : random.jump(n);
+    }
+
+    /**
+     * @return the generator for one pass
+     */
+    private SplitMix64 generator()
+    {
+        return origin == null ? new SplitMix64() : origin.jump(0);
+    }
+
+    @Override
+    public Iterator<X> iterator()
+    {
+        return new RandomIterator();
+    }
+
+    @Override
+    public boolean traverse(Sink<? super X> sink)
+    {
+        final SplitMix64 random = generator();
+        if (size < 0) {
+            while (sink.accept(draw.apply(random))) {
+            }
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!sink.accept(draw.apply(random))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of items, or {@code -1} if this {@link RandomIterable} is inexhaustible, in which case it
+     *         cannot be split
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public RandomIterable<X> split(int start, int end)
+    {
+        return new RandomIterable<X>(jump(origin, start), end - start, draw);
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return size < 0 ? Size.unknown() : Size.exactly(size);
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return size < 0 ? Iterate.DEFAULT_ESTIMATED_SIZE : size;
+    }
+
+    private class RandomIterator extends AbstractIterator<X>
+    {
+        private final SplitMix64 random = generator();
+        private int remaining = size;
+
+        public boolean hasNext()
+        {
+            return remaining != 0;
+        }
+
+        @SuppressWarnings({"IteratorNextCanNotThrowNoSuchElementException"})
+        public X next()
+        {
+            if (remaining > 0) {
+                remaining--;
+            }
+            return draw.apply(random);
+        }
+    }
+}
@@ -22,11 +22,18 @@ import java.util.Iterator;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
+/**
+ * An {@link Iterable} over the matches of a regular expression in a {@link Readable}.  Since the input can only be read
+ * once, all iterators share one {@link Scanner}: each match is found only once in total, and concurrent iterators
+ * each receive a different subset of the matches.
+ *
+ * @author Brian Cavalier
+ */
 public class RegexMatchIterable extends Iterate<String>
 {
     private final Scanner scanner;
     private final Pattern pattern;
-    private int maxLookahead;
+    private volatile int maxLookahead;
 
     @Override
     public Iterator<String> iterator()
@@ -59,7 +66,9 @@ public class RegexMatchIterable extends Iterate<String>
         @Override
         protected String findNext()
         {
-            return scanner.findWithinHorizon(pattern, horizon);
+            synchronized (scanner) {
+                return scanner.findWithinHorizon(pattern, horizon);
+            }
         }
     }
 }
@@ -15,13 +15,27 @@
  */
 package org.bc.iterate.iterable;
 
-import org.bc.iterate.HasEstimatedSize;
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
 import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.Splittable;
+import org.bc.iterate.Traversable;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-public class SliceIterable<X> implements Iterable<X>, HasEstimatedSize
+/**
+ * An {@link Iterable} over the items of another {@link Iterable} from inclusive {@code start} to exclusive {@code end}.
+ * <p/>
+ * A {@link SliceIterable} over a splittable {@link Iterable} (see {@link Iterables#splittable(Iterable)}) is itself
+ * {@link Splittable}, and its views are created directly on the underlying items rather than by skipping items.
+ * Likewise, iterating a slice of a splittable {@link Iterable} starts directly at {@code start}.
+ *
+ * @author Brian Cavalier
+ */
+public class SliceIterable<X> implements Splittable<X>, Traversable<X>, HasSize
 {
     private final Iterable<X> items;
     private final int start;
@@ -49,21 +63,102 @@ public class SliceIterable<X> implements Iterable<X>, HasEstimatedSize
         this.end = -1;
     }
 
+    public Iterable<X> getSource()
+    {
+        return items;
+    }
+
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * @return exclusive end index, or {@code -1} if this slice extends to the end of the source
+     */
+    public int getEnd()
+    {
+        return end;
+    }
+
     @Override
     public Iterator<X> iterator()
     {
-        return new SliceIterator();
+        final Splittable<X> view = view();
+        return view == null ? new SliceIterator() : view.iterator();
+    }
+
+    /**
+     * @return a view of the slice on the underlying items, if they are splittable, otherwise {@code null}
+     */
+    private Splittable<X> view()
+    {
+        final Splittable<X> splittable = Iterables.splittable(items);
+        if (splittable == null) {
+            return null;
+        }
+
+        final int size = splittable.size();
+        final int viewStart = Math.min(start, size);
+        return splittable.split(viewStart, Math.max(viewStart, end == -1 ? size : Math.min(end, size)));
+    }
+
+    @Override
+    public int size()
+    {
+        final Splittable<X> splittable = Iterables.splittable(items);
+        if (splittable == null) {
+            return -1;
+        }
+
+        final int sourceSize = splittable.size();
+        return Math.max(0, (end == -1 ? sourceSize : Math.min(end, sourceSize)) - Math.min(start, sourceSize));
+    }
+
+    @Override
+    public Splittable<X> split(int start, int end)
+    {
+        return Iterables.splittable(items).split(this.start + start, this.start + end);
+    }
+
+    @Override
+    public boolean traverse(final Sink<? super X> sink)
+    {
+        final Splittable<X> view = view();
+        if (view != null) {
+            return Iterables.traverse(view, sink);
+        }
+
+        final boolean[] stopped = { false };
+        Iterables.traverse(items, new Sink<X>()
+        {
+            private int index = 0;
+
+            public boolean accept(X x)
+            {
+                if (index++ >= start && !sink.accept(x)) {
+                    stopped[0] = true;
+                    return false;
+                }
+
+                return index != end;
+            }
+        });
+
+        return !stopped[0];
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return Size.of(items).slice(start, end);
     }
 
     @Override
     public int getEstimatedSize()
     {
-        final int sourceSize = Iterate.estimateSize(items);
-        // If end > 0 use the tighter bound, either end - start, or estimated size - start
-        // If end < 0 try to use the estimated size - start
-        return end > 0
-               ? end < sourceSize ? end - start : sourceSize - start
-               : sourceSize < start ? sourceSize - start : 0;
+        final Size size = getSize();
+        return size.isBounded() ? size.getCount() : Math.max(0, Iterate.estimateSize(items) - start);
     }
 
     private class SliceIterator extends AbstractIterator<X>
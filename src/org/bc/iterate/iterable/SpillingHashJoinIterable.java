@@ -0,0 +1,555 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.io.Serializer;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Performs an inner, left, right, or full join using a <a href="http://en.wikipedia.org/wiki/Hash_join">hybrid hash
+ * join</a>, which holds at most a fixed number of items of the build side in memory, however large it is.
+ * <p/>
+ * As the build side is read, its items are hash partitioned by key.  While they fit within the memory budget, all
+ * partitions are kept in memory.  Once they don't, the largest partition is spilled to a temporary file, along with
+ * every later build item that belongs to it, until the rest fit again.  Probe items whose partition is in memory are
+ * then joined as they are read, and those whose partition was spilled are written to a second temporary file.
+ * Finally each pair of spilled partitions is joined in the same way, repartitioning by other bits of the key's hash if
+ * a partition is still too large.  Partitions whose items all have the same key can never be split, so after a few
+ * levels of repartitioning they are joined in memory regardless of the budget.
+ * <p/>
+ * As in {@link PrimitiveHashJoinIterable}, a right join builds from the left items and probes with the right items,
+ * and the other joins do the opposite.  Items are produced in the order of the probe side for partitions that fit in
+ * memory, then (for a full join) unmatched build items of those partitions, and then the results of each spilled
+ * partition in turn, so unlike an in-memory hash join, the order depends on the memory budget.
+ * <p/>
+ * Spilled items are written and read with {@link Serializer}s, to and from an {@link ObjectOutputStream}, so {@link
+ * org.bc.iterate.io.Serializers#java()} may be used.  Each iteration partitions the sides anew and deletes its files as
+ * soon as it has joined them.  An iteration that is abandoned before its iterator is exhausted keeps its files, and
+ * the streams open on them, until the iterator is closed: the iterators are {@link Closeable}, e.g.
+ * <pre>
+ * final Iterator&lt;JoinResult&lt;K, X, Y&gt;&gt; results = join.iterator();
+ * try {
+ *     ...
+ * } finally {
+ *     ((Closeable) results).close();
+ * }
+ * </pre>
+ *
+ * @author Brian Cavalier
+ */
+public class SpillingHashJoinIterable<K, X, Y> extends IncrementalJoinIterable<K, X, Y>
+{
+    /**
+     * Number of partitions into which each side is hashed at each level, which must be a power of two
+     */
+    private static final int PARTITION_BITS = 5;
+    private static final int PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Partitions that still do not fit after this many levels of repartitioning are joined in memory
+     */
+    private static final int MAX_LEVEL = 4;
+
+    /**
+     * Spill streams are reset after this many items, so that neither they nor the streams reading them back hold
+     * references to every item they have seen
+     */
+    private static final int RESET_INTERVAL = 1024;
+
+    private final JoinType type;
+    private final Iterable<?> probeIterable;
+    private final Function<Object, K> probeKeyFunction;
+    private final Serializer<Object> probeSerializer;
+    private final Iterable<?> buildIterable;
+    private final Function<Object, K> buildKeyFunction;
+    private final Serializer<Object> buildSerializer;
+    private final int memoryBudget;
+    private final File directory;
+    private final int level;
+
+    /**
+     * @param type          kind of join
+     * @param left          left items
+     * @param xKeyFunction  computes the keys of the left items
+     * @param xSerializer   serializes left items that are spilled
+     * @param right         right items
+     * @param yKeyFunction  computes the keys of the right items
+     * @param ySerializer   serializes right items that are spilled
+     * @param memoryBudget  maximum number of build items, not bytes, to hold in memory
+     * @param directory     directory in which to create temporary files, or {@code null} for the default temporary
+     *                      directory
+     */
+    @SuppressWarnings({"unchecked"})
+    public SpillingHashJoinIterable(JoinType type,
+                                    Iterable<X> left, Function<? super X, K> xKeyFunction, Serializer<X> xSerializer,
+                                    Iterable<Y> right, Function<? super Y, K> yKeyFunction, Serializer<Y> ySerializer,
+                                    int memoryBudget, File directory)
+    {
+        this(type,
+             type == JoinType.RIGHT ? right : left,
+             (Function<Object, K>) (type == JoinType.RIGHT ? yKeyFunction : xKeyFunction),
+             (Serializer<Object>) (type == JoinType.RIGHT ? ySerializer : xSerializer),
+             type == JoinType.RIGHT ? left : right,
+             (Function<Object, K>) (type == JoinType.RIGHT ? xKeyFunction : yKeyFunction),
+             (Serializer<Object>) (type == JoinType.RIGHT ? xSerializer : ySerializer),
+             memoryBudget, directory, 0);
+    }
+
+    private SpillingHashJoinIterable(JoinType type,
+                                     Iterable<?> probe, Function<Object, K> probeKeyFunction,
+                                     Serializer<Object> probeSerializer,
+                                     Iterable<?> build, Function<Object, K> buildKeyFunction,
+                                     Serializer<Object> buildSerializer,
+                                     int memoryBudget, File directory, int level)
+    {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget must be >= 0");
+        }
+
+        this.type = type;
+        this.probeIterable = probe;
+        this.probeKeyFunction = probeKeyFunction;
+        this.probeSerializer = probeSerializer;
+        this.buildIterable = build;
+        this.buildKeyFunction = buildKeyFunction;
+        this.buildSerializer = buildSerializer;
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+        this.level = level;
+    }
+
+    public JoinType getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return maximum number of build items, not bytes, to hold in memory
+     */
+    public int getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    @Override
+    protected IncrementalJoinIterator createIterator()
+    {
+        return new SpillingHashJoinIterator();
+    }
+
+    /**
+     * Each level partitions by the next {@link #PARTITION_BITS} bits of the hash, so that a partition that is too large
+     * at one level is split up at the next
+     */
+    private int partition(K key)
+    {
+        final long hash = (key == null ? 0 : key.hashCode()) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (64 - PARTITION_BITS * (level + 1))) & (PARTITIONS - 1);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private JoinResult<K, X, Y> result(K key, Object probe, Object build)
+    {
+        return type == JoinType.RIGHT
+               ? new JoinResult<K, X, Y>(key, (X) build, (Y) probe)
+               : new JoinResult<K, X, Y>(key, (X) probe, (Y) build);
+    }
+
+    private static IllegalStateException failed(IOException e)
+    {
+        return new IllegalStateException("Could not spill join items", e);
+    }
+
+    /**
+     * The build items with one key, and whether any probe item has matched them
+     */
+    private static final class Bucket<K>
+    {
+        private final K key;
+        private final List<Object> items = new ArrayList<Object>(4);
+        private boolean matched = false;
+
+        private Bucket(K key)
+        {
+            this.key = key;
+        }
+    }
+
+    private final class Partition
+    {
+        private Map<K, Bucket<K>> table = new HashMap<K, Bucket<K>>();
+        private int size = 0;
+        private Spill buildSpill;
+        private Spill probeSpill;
+
+        /**
+         * @return {@code true} if {@code item} was added to the table, {@code false} if it was spilled
+         */
+        private boolean add(Object item, K key)
+        {
+            if (buildSpill != null) {
+                buildSpill.write(item);
+                return false;
+            }
+
+            Bucket<K> bucket = table.get(key);
+            if (bucket == null) {
+                bucket = new Bucket<K>(key);
+                table.put(key, bucket);
+            }
+            bucket.items.add(item);
+            size++;
+            return true;
+        }
+
+        private void spill()
+        {
+            buildSpill = new Spill(buildSerializer);
+            probeSpill = new Spill(probeSerializer);
+            for (Bucket<K> bucket : table.values()) {
+                for (Object item : bucket.items) {
+                    buildSpill.write(item);
+                }
+            }
+            table = null;
+            size = 0;
+        }
+
+        private boolean isSpilled()
+        {
+            return buildSpill != null;
+        }
+
+        private void delete()
+        {
+            buildSpill.delete();
+            probeSpill.delete();
+        }
+    }
+
+    /**
+     * A temporary file to which items are written, and then from which they are read back
+     */
+    private final class Spill implements Iterable<Object>
+    {
+        private final Serializer<Object> serializer;
+        private final File file;
+        private ObjectOutputStream out;
+        private ObjectInputStream in;
+        private int count = 0;
+
+        private Spill(Serializer<Object> serializer)
+        {
+            this.serializer = serializer;
+            try {
+                file = File.createTempFile("join", ".spill", directory);
+                out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            } catch (IOException e) {
+                throw failed(e);
+            }
+        }
+
+        private void write(Object item)
+        {
+            try {
+                serializer.write(item, out);
+                if (++count % RESET_INTERVAL == 0) {
+                    out.reset();
+                }
+            } catch (IOException e) {
+                throw failed(e);
+            }
+        }
+
+        private void close()
+        {
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+                if (in != null) {
+                    in.close();
+                    in = null;
+                }
+            } catch (IOException e) {
+                throw failed(e);
+            }
+        }
+
+        private void delete()
+        {
+            close();
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+
+        /**
+         * Each {@link Spill} is read only once, so opening a new iterator closes the previous one
+         */
+        public Iterator<Object> iterator()
+        {
+            close();
+            try {
+                in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            } catch (IOException e) {
+                throw failed(e);
+            }
+
+            return new AbstractIterator<Object>()
+            {
+                private int read = 0;
+
+                public boolean hasNext()
+                {
+                    return read < count;
+                }
+
+                public Object next()
+                {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    try {
+                        final Object item = serializer.read(in);
+                        if (++read == count) {
+                            close();
+                        }
+                        return item;
+                    } catch (IOException e) {
+                        throw failed(e);
+                    }
+                }
+            };
+        }
+    }
+
+    private class SpillingHashJoinIterator extends IncrementalJoinIterator implements Closeable
+    {
+        private final List<Partition> partitions = new ArrayList<Partition>(PARTITIONS);
+        private Iterator<?> probeIterator;
+        private boolean closed = false;
+
+        /**
+         * The build items matching the current probe item, and the next of them to produce
+         */
+        private Object probe;
+        private K probeKey;
+        private List<Object> matches;
+        private int match;
+
+        /**
+         * For a full join, the build items of partitions held in memory that no probe item matched
+         */
+        private Iterator<Partition> unmatchedPartitions;
+        private Iterator<Bucket<K>> unmatchedBuckets;
+        private Bucket<K> unmatched;
+        private int unmatchedIndex;
+
+        /**
+         * The results of joining each spilled partition in turn
+         */
+        private Iterator<Partition> spilledPartitions;
+        private Partition spilled;
+        private Iterator<JoinResult<K, X, Y>> spilledResults;
+
+        @Override
+        protected void prepareJoin()
+        {
+            for (int i = 0; i < PARTITIONS; i++) {
+                partitions.add(new Partition());
+            }
+
+            final boolean canSpill = level < MAX_LEVEL;
+            int inMemory = 0;
+            for (Object item : buildIterable) {
+                final K key = buildKeyFunction.apply(item);
+                if (partitions.get(partition(key)).add(item, key)) {
+                    inMemory++;
+                }
+
+                while (inMemory > memoryBudget && canSpill) {
+                    Partition largest = null;
+                    for (Partition p : partitions) {
+                        if (!p.isSpilled() && (largest == null || p.size > largest.size)) {
+                            largest = p;
+                        }
+                    }
+                    //noinspection ConstantConditions
+                    inMemory -= largest.size;
+                    largest.spill();
+                }
+            }
+
+            for (Partition p : partitions) {
+                if (p.isSpilled()) {
+                    p.buildSpill.close();
+                }
+            }
+            probeIterator = probeIterable.iterator();
+        }
+
+        /**
+         * Deletes the files of this iteration and closes the streams open on them, after which it produces no more
+         * items.  Called when the iteration is exhausted, so only needed if it is abandoned before then.
+         */
+        public void close()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            next = null;
+            probeIterator = null;
+            unmatchedPartitions = null;
+            spilledPartitions = null;
+            try {
+                if (spilledResults instanceof Closeable) {
+                    ((Closeable) spilledResults).close();
+                }
+            } catch (IOException e) {
+                throw failed(e);
+            } finally {
+                spilledResults = null;
+                spilled = null;
+                for (Partition p : partitions) {
+                    if (p.isSpilled()) {
+                        p.delete();
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected JoinResult<K, X, Y> findNext()
+        {
+            if (closed) {
+                return end();
+            }
+            while (probeIterator != null) {
+                if (matches != null) {
+                    if (match < matches.size()) {
+                        return result(probeKey, probe, matches.get(match++));
+                    }
+                    matches = null;
+                }
+
+                if (!probeIterator.hasNext()) {
+                    probeIterator = null;
+                    probe = null;
+                    unmatchedPartitions = partitions.iterator();
+                    break;
+                }
+
+                final Object item = probeIterator.next();
+                final K key = probeKeyFunction.apply(item);
+                final Partition p = partitions.get(partition(key));
+                if (p.isSpilled()) {
+                    p.probeSpill.write(item);
+                } else {
+                    final Bucket<K> bucket = p.table.get(key);
+                    if (bucket != null) {
+                        bucket.matched = true;
+                        probe = item;
+                        probeKey = key;
+                        matches = bucket.items;
+                        match = 0;
+                    } else if (type != JoinType.INNER) {
+                        return result(key, item, null);
+                    }
+                }
+            }
+
+            if (unmatchedPartitions != null) {
+                if (type == JoinType.FULL) {
+                    final JoinResult<K, X, Y> result = nextUnmatched();
+                    if (result != null) {
+                        return result;
+                    }
+                }
+
+                // Free the memory of the partitions that have been joined before joining the spilled ones
+                unmatchedPartitions = null;
+                unmatchedBuckets = null;
+                for (Partition p : partitions) {
+                    p.table = null;
+                }
+                spilledPartitions = partitions.iterator();
+            }
+
+            return nextSpilled();
+        }
+
+        private JoinResult<K, X, Y> nextUnmatched()
+        {
+            while (true) {
+                if (unmatched != null && unmatchedIndex < unmatched.items.size()) {
+                    return result(unmatched.key, null, unmatched.items.get(unmatchedIndex++));
+                }
+                unmatched = null;
+
+                if (unmatchedBuckets != null && unmatchedBuckets.hasNext()) {
+                    final Bucket<K> bucket = unmatchedBuckets.next();
+                    if (!bucket.matched) {
+                        unmatched = bucket;
+                        unmatchedIndex = 0;
+                    }
+                } else if (unmatchedPartitions.hasNext()) {
+                    final Partition p = unmatchedPartitions.next();
+                    unmatchedBuckets = p.isSpilled() ? null : p.table.values().iterator();
+                } else {
+                    return null;
+                }
+            }
+        }
+
+        private JoinResult<K, X, Y> nextSpilled()
+        {
+            while (true) {
+                if (spilledResults != null && spilledResults.hasNext()) {
+                    return spilledResults.next();
+                }
+                if (spilled != null) {
+                    spilled.delete();
+                    spilled = null;
+                    spilledResults = null;
+                }
+
+                if (!spilledPartitions.hasNext()) {
+                    close();
+                    return end();
+                }
+                final Partition p = spilledPartitions.next();
+                if (p.isSpilled()) {
+                    spilled = p;
+                    // Without probe items, only a full join produces anything
+                    spilledResults = p.probeSpill.count == 0 && type != JoinType.FULL
+                                     ? Collections.<JoinResult<K, X, Y>>emptyList().iterator()
+                                     : new SpillingHashJoinIterable<K, X, Y>(
+                                             type, p.probeSpill, probeKeyFunction, probeSerializer,
+                                             p.buildSpill, buildKeyFunction, buildSerializer,
+                                             memoryBudget, directory, level + 1).iterator();
+                }
+            }
+        }
+    }
+}
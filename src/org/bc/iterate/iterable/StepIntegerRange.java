@@ -16,27 +16,46 @@
 
 package org.bc.iterate.iterable;
 
+import org.bc.iterate.Sink;
+import org.bc.iterate.primitive.IntRange;
+
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 public class StepIntegerRange extends IntegerRange
 {
-    private int step = 1;
+    private final int step;
 
     public StepIntegerRange(int start)
     {
         super(start);
+        this.step = 1;
     }
 
     public StepIntegerRange(int start, int end, int step)
     {
         super(start, end);
+        if (step <= 0) {
+            throw new IllegalArgumentException("step must be > 0");
+        }
         this.step = step;
     }
 
     public StepIntegerRange by(int step)
     {
-        this.step = step;
-        return this;
+        return new StepIntegerRange(start, end, step);
+    }
+
+    @Override
+    public int getStep()
+    {
+        return step;
+    }
+
+    @Override
+    public IntRange ints()
+    {
+        return new IntRange(start, end, step);
     }
 
     @SuppressWarnings({"RefusedBequest"})
@@ -46,6 +65,39 @@ public class StepIntegerRange extends IntegerRange
         return (start <= end) ? new StepAscendingIntegerRangeInterator() : new StepDescendingIntegerRangeIterator();
     }
 
+    @Override
+    public StepIntegerRange split(int start, int end)
+    {
+        // Clamp the new end to this range's end so that the last step of the view cannot overshoot it
+        return (this.start <= this.end)
+               ? new StepIntegerRange((int) (this.start + (long) start * step),
+                                      (int) Math.min(this.end, this.start + (long) end * step), step)
+               : new StepIntegerRange((int) (this.start - (long) start * step),
+                                      (int) Math.max(this.end, this.start - (long) end * step), step);
+    }
+
+    @SuppressWarnings({"RefusedBequest"})
+    @Override
+    public boolean traverse(Sink<? super Integer> sink)
+    {
+        // long index so that stepping past Integer.MAX_VALUE or Integer.MIN_VALUE ends the loop instead of wrapping
+        if (start <= end) {
+            for (long i = start; i < end; i += step) {
+                if (!sink.accept((int) i)) {
+                    return false;
+                }
+            }
+        } else {
+            for (long i = start; i > end; i -= step) {
+                if (!sink.accept((int) i)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public String toString()
     {
@@ -54,24 +106,32 @@ public class StepIntegerRange extends IntegerRange
 
     private class StepAscendingIntegerRangeInterator extends AscendingIntegerRangeIterator
     {
-        @SuppressWarnings({"IteratorNextCanNotThrowNoSuchElementException", "RefusedBequest"})
+        @SuppressWarnings({"RefusedBequest"})
         @Override
         public Integer next()
         {
-            int current = index;
-            index += step;
+            if (index >= end) {
+                throw new NoSuchElementException("Reached end value " + end);
+            }
+            final int current = index;
+            // Clamp to end, as traverse does, so that stepping past Integer.MAX_VALUE ends the iteration
+            index = (int) Math.min(end, (long) index + step);
             return current;
         }
     }
 
     private class StepDescendingIntegerRangeIterator extends DescendingIntegerRangeIterator
     {
-        @SuppressWarnings({"IteratorNextCanNotThrowNoSuchElementException", "RefusedBequest"})
+        @SuppressWarnings({"RefusedBequest"})
         @Override
         public Integer next()
         {
-            int current = index;
-            index -= step;
+            if (index <= end) {
+                throw new NoSuchElementException("Reached end value " + end);
+            }
+            final int current = index;
+            // Clamp to end, as traverse does, so that stepping past Integer.MIN_VALUE ends the iteration
+            index = (int) Math.max(end, (long) index - step);
             return current;
         }        
     }
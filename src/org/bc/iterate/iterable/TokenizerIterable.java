@@ -20,6 +20,13 @@ import java.util.Iterator;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
+/**
+ * An {@link Iterable} over the tokens read from a {@link Readable}.  Since the input can only be read once, all
+ * iterators share one {@link Scanner}: the tokens are read only once in total, and concurrent iterators each receive
+ * a different subset of them.
+ *
+ * @author Brian Cavalier
+ */
 public class TokenizerIterable implements Iterable<String>
 {
     private final Scanner scanner;
@@ -35,16 +42,15 @@ public class TokenizerIterable implements Iterable<String>
         this.scanner = new Scanner(input).useDelimiter(delimiter);
     }
 
-    private class TokenizerIterator extends AbstractIterator<String>
+    private class TokenizerIterator extends LookaheadIterator<String>
     {
-        public boolean hasNext()
-        {
-            return scanner.hasNext();
-        }
-
-        public String next()
+        @Override
+        protected String findNext()
         {
-            return scanner.next();
+            // Checking for and reading the next token must be atomic, since another iterator may take it in between
+            synchronized (scanner) {
+                return scanner.hasNext() ? scanner.next() : end();
+            }
         }
     }
 }
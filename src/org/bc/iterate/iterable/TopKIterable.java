@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.ParallelIterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+
+import java.util.*;
+
+/**
+ * An {@link Iterable} over the first {@code k} items of another {@link Iterable} in sorted order, i.e. the same
+ * items, in the same order, as slicing a stable sort of all the items to {@code [0, k)}.  Rather than sorting all
+ * {@code n} items, it keeps the {@code k} smallest seen so far in a bounded heap, which takes {@code O(n log k)} time
+ * and {@code O(k)} space.
+ * <p/>
+ * The items are selected each time {@link #iterator()} is called, so a {@link TopKIterable} reflects changes to its
+ * source and can be iterated by several threads at once.
+ *
+ * @author Brian Cavalier
+ */
+public class TopKIterable<X> implements Iterable<X>, HasSize
+{
+    private final Iterable<X> source;
+    private final Comparator<? super X> comparator;
+    private final int k;
+
+    /**
+     * @param source     items from which to select
+     * @param comparator ordering of the items, or {@code null} for their natural ordering
+     * @param k          number of items to select
+     */
+    public TopKIterable(Iterable<X> source, Comparator<? super X> comparator, int k)
+    {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be >= 1");
+        }
+
+        this.source = source;
+        this.comparator = comparator;
+        this.k = k;
+    }
+
+    public Iterable<X> getSource()
+    {
+        return source;
+    }
+
+    /**
+     * @return ordering of the items, or {@code null} for their natural ordering
+     */
+    public Comparator<? super X> getComparator()
+    {
+        return comparator;
+    }
+
+    public int getK()
+    {
+        return k;
+    }
+
+    /**
+     * If the source is a {@link ParallelIterate}, its chunks are selected from in parallel, see {@link
+     * ParallelIterate#select(Comparator, int)}.
+     */
+    @Override
+    public Iterator<X> iterator()
+    {
+        if (source instanceof ParallelIterate) {
+            return Collections.unmodifiableList(((ParallelIterate<X>) source).select(comparator, k)).iterator();
+        }
+
+        final Selector<X> selector = new Selector<X>(comparator, k);
+        Iterate.each(source).traverse(selector);
+        return Collections.unmodifiableList(selector.toList()).iterator();
+    }
+
+    /**
+     * Merges two selections, each in sorted order, into the first {@code k} items of both.  Equal items are taken from
+     * {@code first} before {@code second}, so merging the selections from consecutive parts of some items, in
+     * encounter order, gives the same items as selecting from all of them at once.
+     *
+     * @param first      selection from the earlier items
+     * @param second     selection from the later items
+     * @param comparator ordering of the items, or {@code null} for their natural ordering
+     * @param k          maximum number of items to keep
+     *
+     * @return the first {@code k} items of {@code first} and {@code second}, in sorted order
+     */
+    public static <X> List<X> merge(List<X> first, List<X> second, Comparator<? super X> comparator, int k)
+    {
+        final List<X> merged = new ArrayList<X>(Math.min(k, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < k && (i < first.size() || j < second.size())) {
+            if (j == second.size() || i < first.size() && compare(comparator, second.get(j), first.get(i)) >= 0) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+
+        return merged;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private static <X> int compare(Comparator<? super X> comparator, X x1, X x2)
+    {
+        return comparator == null ? ((Comparable<? super X>) x1).compareTo(x2) : comparator.compare(x1, x2);
+    }
+
+    @Override
+    public Size getSize()
+    {
+        return Size.of(source).slice(0, k);
+    }
+
+    @Override
+    public int getEstimatedSize()
+    {
+        return Math.min(k, Iterate.estimateSize(source));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "top " + k + " of " + source;
+    }
+
+    /**
+     * A {@link Sink} that keeps the first {@code k} of the items pushed to it in a bounded binary heap, whose head is
+     * the last of them, i.e. the next one to evict.  Ties are broken by the order in which items are pushed, so that
+     * the selection is the same as the first {@code k} items of a stable sort.
+     */
+    public static final class Selector<X> implements Sink<X>
+    {
+        private final Comparator<? super X> comparator;
+        private final int k;
+        private Object[] items;
+        private long[] ranks;
+        private int size = 0;
+        private long pushed = 0;
+
+        /**
+         * @param comparator ordering of the items, or {@code null} for their natural ordering
+         * @param k          number of items to select
+         * @throws IllegalArgumentException if {@code k < 0}
+         */
+        public Selector(Comparator<? super X> comparator, int k)
+        {
+            if (k < 0) {
+                throw new IllegalArgumentException("k must be >= 0");
+            }
+
+            this.comparator = comparator;
+            this.k = k;
+            this.items = new Object[Math.min(k, 16)];
+            this.ranks = new long[items.length];
+        }
+
+        @SuppressWarnings({"unchecked"})
+        public boolean accept(X x)
+        {
+            final long rank = pushed++;
+            if (size < k) {
+                if (size == items.length) {
+                    final int capacity = (int) Math.min(k, 2L * size);
+                    items = Arrays.copyOf(items, capacity);
+                    ranks = Arrays.copyOf(ranks, capacity);
+                }
+                items[size] = x;
+                ranks[size] = rank;
+                siftUp(size++);
+            } else if (size > 0 && compare(comparator, x, (X) items[0]) < 0) {
+                // Equal items are never swapped in, since the one already in the heap was pushed first
+                items[0] = x;
+                ranks[0] = rank;
+                siftDown(items, ranks, 0, size);
+            }
+            return true;
+        }
+
+        /**
+         * @return the items selected so far, in sorted order
+         */
+        @SuppressWarnings({"unchecked"})
+        public List<X> toList()
+        {
+            // Heap sort a copy: repeatedly moving the head to the end leaves the items in sorted order
+            final Object[] sorted = Arrays.copyOf(items, size);
+            final long[] sortedRanks = Arrays.copyOf(ranks, size);
+            for (int end = size - 1; end > 0; end--) {
+                swap(sorted, sortedRanks, 0, end);
+                siftDown(sorted, sortedRanks, 0, end);
+            }
+
+            return (List<X>) Arrays.asList(sorted);
+        }
+
+        private void siftUp(int i)
+        {
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (!after(items, ranks, i, parent)) {
+                    break;
+                }
+                swap(items, ranks, i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(Object[] items, long[] ranks, int i, int n)
+        {
+            while (true) {
+                final int left = 2 * i + 1;
+                if (left >= n) {
+                    break;
+                }
+                final int child = left + 1 < n && after(items, ranks, left + 1, left) ? left + 1 : left;
+                if (!after(items, ranks, child, i)) {
+                    break;
+                }
+                swap(items, ranks, i, child);
+                i = child;
+            }
+        }
+
+        /**
+         * @return {@code true} if the item at {@code i} comes after the one at {@code j} in the selection
+         */
+        @SuppressWarnings({"unchecked"})
+        private boolean after(Object[] items, long[] ranks, int i, int j)
+        {
+            final int c = compare(comparator, (X) items[i], (X) items[j]);
+            return c > 0 || c == 0 && ranks[i] > ranks[j];
+        }
+
+        private static void swap(Object[] items, long[] ranks, int i, int j)
+        {
+            final Object item = items[i];
+            items[i] = items[j];
+            items[j] = item;
+            final long rank = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = rank;
+        }
+    }
+}
@@ -24,8 +24,6 @@ import java.util.Iterator;
 
 public class UntilIterable<X> extends FilterIterable<X>
 {
-    private boolean done = false;
-
     public UntilIterable(Iterable<X> items, Condition<? super X> condition)
     {
         super(items, condition);
@@ -39,6 +37,8 @@ public class UntilIterable<X> extends FilterIterable<X>
 
     private class UntilIterator extends FilterIterator
     {
+        private boolean done = false;
+
         @SuppressWarnings({"RefusedBequest"})
         @Override
         protected X findNext()
@@ -0,0 +1,814 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.iterable.AbstractIterator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code double} specialization of {@link Iterate}.  Items flow through {@code where}, {@code map}, and {@code
+ * until} stages, and into terminal operations such as {@link #sum()} and {@link #toArray()}, as primitive {@code
+ * double}s, so numeric pipelines do not pay for a {@link Double} allocation per item.
+ * <p/>
+ * {@link #boxed()} and {@link #unbox(Iterable)} (or {@link Iterate#mapToDouble(ToDoubleFunction)}) are the explicit
+ * bridges to and from the generic {@link Iterate} API, and are the only places where items are boxed or unboxed.
+ *
+ * @author Brian Cavalier
+ */
+public abstract class DoubleIterate implements HasSize
+{
+    /**
+     * @param items items over which to iterate.  The array is not copied.
+     *
+     * @return a {@link DoubleIterate} over {@code items}
+     */
+    public static DoubleIterate of(final double... items)
+    {
+        return new ArrayDoubles(items, 0, items.length);
+    }
+
+    /**
+     * Unboxes the items of {@code items}.  This is the bridge from a generic {@link Iterable} to a {@link
+     * DoubleIterate} and, as with any {@code Double} to {@code double} conversion, throws {@link NullPointerException}
+     * for a {@code null} item.
+     *
+     * @param items items over which to iterate
+     *
+     * @return a {@link DoubleIterate} over the unboxed {@code items}
+     */
+    public static DoubleIterate unbox(final Iterable<Double> items)
+    {
+        return map(items, new ToDoubleFunction<Double>()
+        {
+            public double apply(Double x)
+            {
+                return x;
+            }
+        });
+    }
+
+    /**
+     * @param items items over which to iterate
+     * @param f     {@link ToDoubleFunction} to apply to each item
+     *
+     * @return a {@link DoubleIterate} over the results of applying {@code f} to each item in {@code items}
+     */
+    public static <X> DoubleIterate map(final Iterable<X> items, final ToDoubleFunction<? super X> f)
+    {
+        return new MappedDoubles<X>(items, f);
+    }
+
+    /**
+     * @return a {@link DoubleIterator} over the items
+     */
+    public abstract DoubleIterator iterator();
+
+    /**
+     * Pushes each item into {@code sink}.  All terminal operations are driven by this method rather than by {@link
+     * #iterator()}, so subclasses that can push their items more efficiently than a {@link DoubleIterator} can pull
+     * them should override it.
+     *
+     * @param sink {@link DoubleSink} to which to push items
+     *
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    public boolean traverse(DoubleSink sink)
+    {
+        final DoubleIterator i = iterator();
+        while (i.hasNext()) {
+            if (!sink.accept(i.nextDouble())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@link Size#unknown()}.  Subclasses that know, or can derive, the number of items override this.
+     */
+    public Size getSize()
+    {
+        return Size.unknown();
+    }
+
+    public int getEstimatedSize()
+    {
+        return getSize().capacity(Iterate.DEFAULT_ESTIMATED_SIZE);
+    }
+
+    /**
+     * Narrow the scope of iteration to items for which {@code c.eval(item) == true}
+     *
+     * @param c {@link DoubleCondition} to evaluate for each item.
+     *
+     * @return {@link DoubleIterate} that will only iterate over items for which {@code c.eval(item) == true}
+     */
+    public DoubleIterate where(DoubleCondition c)
+    {
+        return new WhereDoubles(this, c);
+    }
+
+    /**
+     * @param c {@link DoubleCondition} to evaluate for each item.
+     *
+     * @return {@link DoubleIterate} that will iterate over items until, but not including, the first item for which
+     *         {@code c.eval(item) == true}
+     */
+    public DoubleIterate until(DoubleCondition c)
+    {
+        return new UntilDoubles(this, c);
+    }
+
+    /**
+     * @param f {@link DoubleFunction} to apply to each item
+     *
+     * @return {@link DoubleIterate} that will iterate over the results of applying {@code f} to each item
+     */
+    public DoubleIterate map(DoubleFunction f)
+    {
+        return new MapDoubles(this, f);
+    }
+
+    /**
+     * @return {@link DoubleIterate} that will iterate over the items in ascending order.  Each pass collects and sorts
+     *         the items anew, as {@link Arrays#sort(double[])} orders them
+     */
+    public DoubleIterate sorted()
+    {
+        return new SortedDoubles(this);
+    }
+
+    /**
+     * Boxes each item.  This is the bridge from a {@link DoubleIterate} back to the generic {@link Iterate} API.
+     *
+     * @return an {@link Iterate} over the items, boxed as {@link Double}s
+     */
+    public Iterate<Double> boxed()
+    {
+        return new BoxedDoubles(this);
+    }
+
+    /**
+     * @return a {@link LongIterate} over the items, converted to {@code long}s by a {@code (long)} cast, i.e.
+     *         rounded toward zero
+     */
+    public LongIterate toLongs()
+    {
+        final DoubleIterate source = this;
+        return new LongIterate()
+        {
+            @Override
+            public LongIterator iterator()
+            {
+                final DoubleIterator iterator = source.iterator();
+                return new LongIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    public long nextLong()
+                    {
+                        return (long) iterator.nextDouble();
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(final LongSink sink)
+            {
+                return source.traverse(new DoubleSink()
+                {
+                    public boolean accept(double x)
+                    {
+                        return sink.accept((long) x);
+                    }
+                });
+            }
+
+            @Override
+            public Size getSize()
+            {
+                return source.getSize();
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntIterate} over the items, converted to {@code int}s by an {@code (int)} cast, i.e.
+     *         rounded toward zero
+     */
+    public IntIterate toInts()
+    {
+        final DoubleIterate source = this;
+        return new IntIterate()
+        {
+            @Override
+            public IntIterator iterator()
+            {
+                final DoubleIterator iterator = source.iterator();
+                return new IntIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    public int nextInt()
+                    {
+                        return (int) iterator.nextDouble();
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(final IntSink sink)
+            {
+                return source.traverse(new DoubleSink()
+                {
+                    public boolean accept(double x)
+                    {
+                        return sink.accept((int) x);
+                    }
+                });
+            }
+
+            @Override
+            public Size getSize()
+            {
+                return source.getSize();
+            }
+        };
+    }
+
+    public <V extends DoubleVisitor> V visit(final V visitor)
+    {
+        traverse(new DoubleSink()
+        {
+            public boolean accept(double x)
+            {
+                visitor.visit(x);
+                return true;
+            }
+        });
+
+        return visitor;
+    }
+
+    /**
+     * Left-folds the items, starting with {@code startingValue}, i.e. {@code f(xn, ... f(x1, f(x0, startingValue)))}
+     *
+     * @param f             {@link DoubleBinaryFunction} to apply to each item and the result so far
+     * @param startingValue result for no items
+     *
+     * @return the result of folding all items into {@code startingValue}
+     */
+    public double reduce(DoubleBinaryFunction f, double startingValue)
+    {
+        final DoubleFold fold = new DoubleFold(f, startingValue, false);
+        traverse(fold);
+        return fold.result;
+    }
+
+    /**
+     * Left-folds the items, using the first item as the starting value.
+     *
+     * @param f {@link DoubleBinaryFunction} to apply to each item and the result so far
+     *
+     * @return the result of folding all items
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public double reduce(DoubleBinaryFunction f)
+    {
+        final DoubleFold fold = new DoubleFold(f, 0, true);
+        traverse(fold);
+        if (fold.empty) {
+            throw new NoSuchElementException("reduce of no items");
+        }
+        return fold.result;
+    }
+
+    /**
+     * @return the sum of the items.  Since floating point addition is not associative, the result may differ very
+     *         slightly from the sum of the same items in another order.
+     */
+    public double sum()
+    {
+        final double[] sum = new double[1];
+        traverse(new DoubleSink()
+        {
+            public boolean accept(double x)
+            {
+                sum[0] += x;
+                return true;
+            }
+        });
+        return sum[0];
+    }
+
+    /**
+     * @return the count, sum, min, max, mean, and variance of the items, computed in a single pass
+     */
+    public DoubleStatistics statistics()
+    {
+        return visit(new DoubleStatistics());
+    }
+
+    /**
+     * @return the smallest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public double min()
+    {
+        return reduce(new DoubleBinaryFunction()
+        {
+            public double apply(double x, double y)
+            {
+                return Math.min(x, y);
+            }
+        });
+    }
+
+    /**
+     * @return the largest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public double max()
+    {
+        return reduce(new DoubleBinaryFunction()
+        {
+            public double apply(double x, double y)
+            {
+                return Math.max(x, y);
+            }
+        });
+    }
+
+    /**
+     * @return the number of items
+     */
+    public long count()
+    {
+        final Size size = getSize();
+        if (size.isExact()) {
+            return size.getCount();
+        }
+
+        final long[] count = new long[1];
+        traverse(new DoubleSink()
+        {
+            public boolean accept(double x)
+            {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * @return a new array containing the items, in iteration order
+     */
+    public double[] toArray()
+    {
+        final DoubleArraySink sink = new DoubleArraySink(getSize().capacity(Iterate.DEFAULT_ESTIMATED_SIZE));
+        traverse(sink);
+        return sink.toArray();
+    }
+
+    /**
+     * {@link DoubleSink} that left-folds each item into {@code result}.  If {@code empty} is initially {@code true},
+     * the first item becomes the starting value.
+     */
+    private static class DoubleFold implements DoubleSink
+    {
+        private final DoubleBinaryFunction f;
+        private double result;
+        private boolean empty;
+
+        private DoubleFold(DoubleBinaryFunction f, double startingValue, boolean empty)
+        {
+            this.f = f;
+            this.result = startingValue;
+            this.empty = empty;
+        }
+
+        public boolean accept(double x)
+        {
+            if (empty) {
+                result = x;
+                empty = false;
+            } else {
+                result = f.apply(x, result);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@link DoubleSink} that appends each item to a growable {@code double[]}
+     */
+    static class DoubleArraySink implements DoubleSink
+    {
+        private double[] items;
+        private int size;
+
+        DoubleArraySink(int capacity)
+        {
+            items = new double[Math.max(capacity, 1)];
+        }
+
+        public boolean accept(double x)
+        {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, (int) Math.min(Integer.MAX_VALUE - 8, items.length * 2L));
+            }
+            items[size++] = x;
+            return true;
+        }
+
+        double[] toArray()
+        {
+            return size == items.length ? items : Arrays.copyOf(items, size);
+        }
+    }
+
+    private static class ArrayDoubles extends DoubleIterate
+    {
+        private final double[] items;
+        private final int start;
+        private final int end;
+
+        private ArrayDoubles(double[] items, int start, int end)
+        {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public DoubleIterator iterator()
+        {
+            return new DoubleIterator()
+            {
+                private int index = start;
+
+                public boolean hasNext()
+                {
+                    return index < end;
+                }
+
+                public double nextDouble()
+                {
+                    if (index >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return items[index++];
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(DoubleSink sink)
+        {
+            final double[] items = this.items;
+            for (int i = start; i < end; i++) {
+                if (!sink.accept(items[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return Size.exactly(end - start);
+        }
+
+        @Override
+        public double[] toArray()
+        {
+            return Arrays.copyOfRange(items, start, end);
+        }
+
+        @Override
+        public DoubleStatistics statistics()
+        {
+            return DoubleStatistics.of(items, start, end);
+        }
+    }
+
+    private static class MappedDoubles<X> extends DoubleIterate
+    {
+        private final Iterable<X> items;
+        private final ToDoubleFunction<? super X> f;
+
+        private MappedDoubles(Iterable<X> items, ToDoubleFunction<? super X> f)
+        {
+            this.items = items;
+            this.f = f;
+        }
+
+        @Override
+        public DoubleIterator iterator()
+        {
+            final Iterator<X> iterator = items.iterator();
+            return new DoubleIterator()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public double nextDouble()
+                {
+                    return f.apply(iterator.next());
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final DoubleSink sink)
+        {
+            return Iterables.traverse(items, new Sink<X>()
+            {
+                public boolean accept(X x)
+                {
+                    return sink.accept(f.apply(x));
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return Size.of(items);
+        }
+    }
+
+    private static class WhereDoubles extends DoubleIterate
+    {
+        private final DoubleIterate source;
+        private final DoubleCondition condition;
+
+        private WhereDoubles(DoubleIterate source, DoubleCondition condition)
+        {
+            this.source = source;
+            this.condition = condition;
+        }
+
+        @Override
+        public DoubleIterator iterator()
+        {
+            final DoubleIterator iterator = source.iterator();
+            return new LookaheadDoubleIterator()
+            {
+                @Override
+                protected boolean findNext()
+                {
+                    while (iterator.hasNext()) {
+                        final double x = iterator.nextDouble();
+                        if (condition.eval(x)) {
+                            next = x;
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final DoubleSink sink)
+        {
+            return source.traverse(new DoubleSink()
+            {
+                public boolean accept(double x)
+                {
+                    return !condition.eval(x) || sink.accept(x);
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize().atMost();
+        }
+    }
+
+    private static class UntilDoubles extends DoubleIterate
+    {
+        private final DoubleIterate source;
+        private final DoubleCondition condition;
+
+        private UntilDoubles(DoubleIterate source, DoubleCondition condition)
+        {
+            this.source = source;
+            this.condition = condition;
+        }
+
+        @Override
+        public DoubleIterator iterator()
+        {
+            final DoubleIterator iterator = source.iterator();
+            return new LookaheadDoubleIterator()
+            {
+                private boolean done;
+
+                @Override
+                protected boolean findNext()
+                {
+                    if (done || !iterator.hasNext()) {
+                        return false;
+                    }
+                    next = iterator.nextDouble();
+                    done = condition.eval(next);
+                    return !done;
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final DoubleSink sink)
+        {
+            final boolean[] done = new boolean[1];
+            final boolean complete = source.traverse(new DoubleSink()
+            {
+                public boolean accept(double x)
+                {
+                    if (condition.eval(x)) {
+                        done[0] = true;
+                        return false;
+                    }
+                    return sink.accept(x);
+                }
+            });
+            return complete || done[0];
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize().atMost();
+        }
+    }
+
+    private static class MapDoubles extends DoubleIterate
+    {
+        private final DoubleIterate source;
+        private final DoubleFunction f;
+
+        private MapDoubles(DoubleIterate source, DoubleFunction f)
+        {
+            this.source = source;
+            this.f = f;
+        }
+
+        @Override
+        public DoubleIterator iterator()
+        {
+            final DoubleIterator iterator = source.iterator();
+            return new DoubleIterator()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public double nextDouble()
+                {
+                    return f.apply(iterator.nextDouble());
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final DoubleSink sink)
+        {
+            return source.traverse(new DoubleSink()
+            {
+                public boolean accept(double x)
+                {
+                    return sink.accept(f.apply(x));
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+    }
+
+    private static class BoxedDoubles extends Iterate<Double>
+    {
+        private final DoubleIterate source;
+
+        private BoxedDoubles(DoubleIterate source)
+        {
+            super(source.getEstimatedSize());
+            this.source = source;
+        }
+
+        @Override
+        public Iterator<Double> iterator()
+        {
+            final DoubleIterator iterator = source.iterator();
+            return new AbstractIterator<Double>()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public Double next()
+                {
+                    return iterator.nextDouble();
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final Sink<? super Double> sink)
+        {
+            return source.traverse(new DoubleSink()
+            {
+                public boolean accept(double x)
+                {
+                    return sink.accept(x);
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+    }
+
+    private static class SortedDoubles extends DoubleIterate
+    {
+        private final DoubleIterate source;
+
+        private SortedDoubles(DoubleIterate source)
+        {
+            this.source = source;
+        }
+
+        @Override
+        public DoubleIterator iterator()
+        {
+            return of(toArray()).iterator();
+        }
+
+        @Override
+        public boolean traverse(DoubleSink sink)
+        {
+            return of(toArray()).traverse(sink);
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+
+        @Override
+        public double[] toArray()
+        {
+            final double[] items = source.toArray();
+            Arrays.sort(items);
+            return items;
+        }
+    }
+}
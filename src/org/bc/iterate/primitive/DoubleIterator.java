@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+/**
+ * An {@link java.util.Iterator} over {@code double}s, which returns its items from {@link #nextDouble()} without boxing
+ * them.
+ *
+ * @author Brian Cavalier
+ */
+public interface DoubleIterator
+{
+    boolean hasNext();
+
+    /**
+     * @return the next item
+     * @throws java.util.NoSuchElementException if there are no more items
+     */
+    double nextDouble();
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Single-pass summary statistics of {@code double} items: count, sum, min, max, mean, and variance.  The mean and
+ * variance are accumulated with Welford's online algorithm, which, unlike accumulating a sum of squares, does not lose
+ * precision when the variance is small relative to the mean.
+ * <p/>
+ * Partial statistics of disjoint parts of the items, e.g. the chunks of a parallel computation, can be combined with
+ * {@link #merge(DoubleStatistics)}.  {@link DoubleStatistics} are not thread safe; give each thread its own and merge
+ * them afterward.
+ *
+ * @author Brian Cavalier
+ * @see DoubleIterate#statistics()
+ */
+public class DoubleStatistics implements DoubleVisitor
+{
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean;
+    private double m2;
+
+    /**
+     * Computes the statistics of {@code items[from]} to {@code items[to - 1]} in two simple passes, the first for the
+     * count, sum, min, and max, and the second for the sum of squared deviations from the mean.  Unlike a single
+     * Welford pass, whose every step divides by the count so far, both loops are simple enough for the JIT to unroll
+     * and vectorize.
+     *
+     * @param items items
+     * @param from  index of the first item (inclusive)
+     * @param to    index of the last item (exclusive)
+     *
+     * @return the statistics of the items
+     */
+    public static DoubleStatistics of(double[] items, int from, int to)
+    {
+        final DoubleStatistics statistics = new DoubleStatistics();
+        if (from >= to) {
+            return statistics;
+        }
+
+        double sum = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            final double x = items[i];
+            sum += x;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+
+        final double mean = sum / (to - from);
+        double m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            final double delta = items[i] - mean;
+            m2 += delta * delta;
+        }
+
+        return statistics.set(to - from, sum, min, max, mean, m2);
+    }
+
+    /**
+     * @param items items
+     *
+     * @return the statistics of all of {@code items}
+     *
+     * @see #of(double[], int, int)
+     */
+    public static DoubleStatistics of(double... items)
+    {
+        return of(items, 0, items.length);
+    }
+
+    public void visit(double x)
+    {
+        count++;
+        sum += x;
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+
+        final double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    /**
+     * Adds the statistics of {@code other}, which must describe items other than those already described by this
+     * {@link DoubleStatistics}, to this one, using Chan et al.'s pairwise combination of the means and variances.
+     *
+     * @param other statistics of other items
+     *
+     * @return this {@link DoubleStatistics}, now describing the items of both
+     */
+    public DoubleStatistics merge(DoubleStatistics other)
+    {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return set(other.count, other.sum, other.min, other.max, other.mean, other.m2);
+        }
+
+        final long total = count + other.count;
+        final double delta = other.mean - mean;
+        return set(total, sum + other.sum, Math.min(min, other.min), Math.max(max, other.max),
+                   mean + delta * other.count / total,
+                   m2 + other.m2 + delta * delta * ((double) count * other.count / total));
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public double getSum()
+    {
+        return sum;
+    }
+
+    /**
+     * @return the smallest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public double getMin()
+    {
+        if (count == 0) {
+            throw new NoSuchElementException("min of no items");
+        }
+        return min;
+    }
+
+    /**
+     * @return the largest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public double getMax()
+    {
+        if (count == 0) {
+            throw new NoSuchElementException("max of no items");
+        }
+        return max;
+    }
+
+    /**
+     * @return the arithmetic mean of the items, or {@link Double#NaN} if there are no items
+     */
+    public double getMean()
+    {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the population variance of the items, or {@link Double#NaN} if there are no items
+     */
+    public double getVariance()
+    {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /**
+     * @return the sample (Bessel corrected) variance of the items, or {@link Double#NaN} if there are fewer than two
+     *         items
+     */
+    public double getSampleVariance()
+    {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * @return the population standard deviation of the items, or {@link Double#NaN} if there are no items
+     */
+    public double getStandardDeviation()
+    {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString()
+    {
+        return count == 0 ? "count=0"
+               : "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max + ", mean=" + mean +
+                 ", variance=" + getVariance();
+    }
+
+    private DoubleStatistics set(long count, double sum, double min, double max, double mean, double m2)
+    {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.m2 = m2;
+        return this;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.Random;
+
+/**
+ * The {@code double} counterparts of the functions, conditions, and sources in {@link org.bc.iterate.Doubles} and
+ * {@link org.bc.iterate.Conditions}, for use with {@link DoubleIterate}.
+ *
+ * @author Brian Cavalier
+ */
+public class Doubles
+{
+    /**
+     * @return a {@link ToDoubleFunction} that parses a {@link String} into a {@code double}, without the {@link Double}
+     *         that {@link org.bc.iterate.Doubles#parse()} allocates
+     */
+    public static ToDoubleFunction<String> parse()
+    {
+        return new ToDoubleFunction<String>()
+        {
+            public double apply(String s)
+            {
+                return Double.parseDouble(s);
+            }
+        };
+    }
+
+    /**
+     * @param parser {@link NumberParser#STRICT} or {@link NumberParser#LENIENT}
+     *
+     * @return a {@link ToDoubleFunction} that parses any {@link CharSequence}, e.g. a {@link StringBuilder}, into a
+     *         {@code double} without first converting it to a {@link String}
+     */
+    public static ToDoubleFunction<CharSequence> parse(final NumberParser parser)
+    {
+        return new ToDoubleFunction<CharSequence>()
+        {
+            public double apply(CharSequence s)
+            {
+                return parser.parseDouble(s);
+            }
+        };
+    }
+
+    /**
+     * @param parser    {@link NumberParser#STRICT} or {@link NumberParser#LENIENT}
+     * @param delimiter field separator, e.g. {@code ','}
+     * @param field     index of the field, starting at {@code 0}
+     *
+     * @return a {@link ToDoubleFunction} that parses the {@code field}th field of a delimited line in place, without
+     *         splitting the line or allocating a substring for the field
+     */
+    public static ToDoubleFunction<CharSequence> parseField(final NumberParser parser, final char delimiter,
+                                                            final int field)
+    {
+        return new ToDoubleFunction<CharSequence>()
+        {
+            public double apply(CharSequence line)
+            {
+                return parser.parseDoubleField(line, delimiter, field);
+            }
+        };
+    }
+
+    /**
+     * @return a {@link ToDoubleFunction} that unboxes any {@link Number}, e.g. a {@link Float}, as a {@code double}
+     */
+    public static ToDoubleFunction<Number> value()
+    {
+        return new ToDoubleFunction<Number>()
+        {
+            public double apply(Number n)
+            {
+                return n.doubleValue();
+            }
+        };
+    }
+
+    /**
+     * @return a {@link DoubleBinaryFunction} that returns the result of adding its two arguments, i.e. {@code x + y}
+     */
+    public static DoubleBinaryFunction sum()
+    {
+        return new DoubleBinaryFunction()
+        {
+            public double apply(double x, double y)
+            {
+                return x + y;
+            }
+        };
+    }
+
+    /**
+     * @return a {@link DoubleBinaryFunction} that returns the result of multiplying its two arguments, i.e. {@code x *
+     *         y}
+     */
+    public static DoubleBinaryFunction multiply()
+    {
+        return new DoubleBinaryFunction()
+        {
+            public double apply(double x, double y)
+            {
+                return x * y;
+            }
+        };
+    }
+
+    /**
+     * @return a {@link DoubleFunction} that returns the result of squaring its argument, i.e. {@code x * x}
+     */
+    public static DoubleFunction square()
+    {
+        return new DoubleFunction()
+        {
+            public double apply(double x)
+            {
+                return x * x;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link DoubleCondition} that is {@code true} for items greater than {@code value}
+     */
+    public static DoubleCondition gt(final double value)
+    {
+        return new DoubleCondition()
+        {
+            public boolean eval(double x)
+            {
+                return x > value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link DoubleCondition} that is {@code true} for items greater than or equal to {@code value}
+     */
+    public static DoubleCondition gte(final double value)
+    {
+        return new DoubleCondition()
+        {
+            public boolean eval(double x)
+            {
+                return x >= value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link DoubleCondition} that is {@code true} for items less than {@code value}
+     */
+    public static DoubleCondition lt(final double value)
+    {
+        return new DoubleCondition()
+        {
+            public boolean eval(double x)
+            {
+                return x < value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link DoubleCondition} that is {@code true} for items less than or equal to {@code value}
+     */
+    public static DoubleCondition lte(final double value)
+    {
+        return new DoubleCondition()
+        {
+            public boolean eval(double x)
+            {
+                return x <= value;
+            }
+        };
+    }
+
+    /**
+     * @param random {@link Random} to use to generate random doubles.
+     *
+     * @return an inexhaustible {@link DoubleIterate} of random doubles from {@code 0.0} to {@code 1.0}
+     */
+    public static DoubleIterate random(final Random random)
+    {
+        return new DoubleIterate()
+        {
+            @Override
+            public DoubleIterator iterator()
+            {
+                return new DoubleIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public double nextDouble()
+                    {
+                        return random.nextDouble();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Counts items into a fixed number of buckets between a lower and an upper bound, either of equal width ({@link
+ * #linear(double, double, int)}) or of equal ratio ({@link #logarithmic(double, double, int)}), e.g. for latencies
+ * that span several orders of magnitude.  An item's bucket is computed arithmetically rather than by searching the
+ * bucket bounds.  Items below the lower bound are counted as underflow, and items at or above the upper bound, or
+ * {@code NaN}, as overflow.
+ * <p/>
+ * {@link Histogram}s with the same buckets can be combined with {@link #merge(Histogram)}, e.g. those of the chunks of
+ * a parallel computation.  {@link Histogram}s are not thread safe; give each thread its own and merge them afterward.
+ *
+ * @author Brian Cavalier
+ */
+public class Histogram implements IntVisitor, LongVisitor, DoubleVisitor
+{
+    private final double[] bounds;
+    private final boolean logarithmic;
+    private final double origin;
+    private final double width;
+    private final long[] counts;
+    private long underflow;
+    private long overflow;
+
+    private Histogram(double min, double max, int buckets, boolean logarithmic)
+    {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be > 0");
+        }
+        if (!(min < max)) {
+            throw new IllegalArgumentException("min must be < max");
+        }
+
+        this.logarithmic = logarithmic;
+        this.origin = logarithmic ? Math.log(min) : min;
+        this.width = ((logarithmic ? Math.log(max) : max) - origin) / buckets;
+        this.bounds = new double[buckets + 1];
+        for (int i = 0; i < buckets; i++) {
+            // Math.pow of the overall ratio, rather than exp of the log bound, so that e.g. decades are exact
+            bounds[i] = logarithmic ? min * Math.pow(max / min, (double) i / buckets) : min + i * width;
+        }
+        bounds[0] = min;
+        bounds[buckets] = max;
+        this.counts = new long[buckets];
+    }
+
+    /**
+     * @param min     lower bound of the first bucket (inclusive)
+     * @param max     upper bound of the last bucket (exclusive)
+     * @param buckets number of buckets
+     *
+     * @return a new, empty {@link Histogram} with {@code buckets} buckets of equal width from {@code min} to {@code max}
+     */
+    public static Histogram linear(double min, double max, int buckets)
+    {
+        return new Histogram(min, max, buckets, false);
+    }
+
+    /**
+     * @param min     lower bound of the first bucket (inclusive), which must be greater than zero
+     * @param max     upper bound of the last bucket (exclusive)
+     * @param buckets number of buckets
+     *
+     * @return a new, empty {@link Histogram} with {@code buckets} buckets from {@code min} to {@code max}, each of
+     *         whose upper bound is the same multiple of its lower bound
+     */
+    public static Histogram logarithmic(double min, double max, int buckets)
+    {
+        if (!(min > 0.0)) {
+            throw new IllegalArgumentException("min must be > 0");
+        }
+        return new Histogram(min, max, buckets, true);
+    }
+
+    public void visit(int x)
+    {
+        visit((double) x);
+    }
+
+    public void visit(long x)
+    {
+        visit((double) x);
+    }
+
+    public void visit(double x)
+    {
+        final int bucket = bucket(x);
+        if (bucket < 0) {
+            underflow++;
+        } else if (bucket < counts.length) {
+            counts[bucket]++;
+        } else {
+            overflow++;
+        }
+    }
+
+    /**
+     * @param x item
+     *
+     * @return the index of the bucket into which {@code x} falls, {@code -1} for underflow, or the number of buckets
+     *         for overflow
+     */
+    public int bucket(double x)
+    {
+        if (x < bounds[0]) {
+            return -1;
+        }
+        if (!(x < bounds[counts.length])) {
+            // also NaN
+            return counts.length;
+        }
+
+        int bucket = (int) (((logarithmic ? Math.log(x) : x) - origin) / width);
+
+        // correct for rounding error in the arithmetic at the bucket bounds
+        bucket = Math.max(0, Math.min(counts.length - 1, bucket));
+        if (x < bounds[bucket]) {
+            bucket--;
+        } else if (x >= bounds[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Adds the counts of {@code other}, which must have the same buckets, to this {@link Histogram}
+     *
+     * @param other {@link Histogram} with the same buckets
+     *
+     * @return this {@link Histogram}, now counting the items of both
+     *
+     * @throws IllegalArgumentException if {@code other} does not have the same buckets
+     */
+    public Histogram merge(Histogram other)
+    {
+        if (!Arrays.equals(bounds, other.bounds)) {
+            throw new IllegalArgumentException("Cannot merge histograms with different buckets");
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+        return this;
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    public int getBuckets()
+    {
+        return counts.length;
+    }
+
+    /**
+     * @param bucket bucket index
+     *
+     * @return the number of items counted in {@code bucket}
+     */
+    public long getCount(int bucket)
+    {
+        return counts[bucket];
+    }
+
+    /**
+     * @param bucket bucket index
+     *
+     * @return the lower bound (inclusive) of {@code bucket}
+     */
+    public double getLowerBound(int bucket)
+    {
+        return bounds[bucket];
+    }
+
+    /**
+     * @param bucket bucket index
+     *
+     * @return the upper bound (exclusive) of {@code bucket}
+     */
+    public double getUpperBound(int bucket)
+    {
+        return bounds[bucket + 1];
+    }
+
+    /**
+     * @return the number of items below the lower bound of the first bucket
+     */
+    public long getUnderflow()
+    {
+        return underflow;
+    }
+
+    /**
+     * @return the number of items at or above the upper bound of the last bucket, or {@code NaN}
+     */
+    public long getOverflow()
+    {
+        return overflow;
+    }
+
+    /**
+     * @return the total number of items counted, including underflow and overflow
+     */
+    public long getTotal()
+    {
+        long total = underflow + overflow;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder s = new StringBuilder();
+        if (underflow > 0) {
+            s.append("< ").append(bounds[0]).append(": ").append(underflow).append('\n');
+        }
+        for (int i = 0; i < counts.length; i++) {
+            s.append('[').append(bounds[i]).append(", ").append(bounds[i + 1]).append("): ").append(counts[i])
+                    .append('\n');
+        }
+        if (overflow > 0) {
+            s.append(">= ").append(bounds[counts.length]).append(": ").append(overflow).append('\n');
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,824 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.iterable.AbstractIterator;
+import org.bc.iterate.util.Sorting;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code int} specialization of {@link Iterate}.  Items flow through {@code where}, {@code map}, and {@code until}
+ * stages, and into terminal operations such as {@link #sum()} and {@link #toArray()}, as primitive {@code int}s, so
+ * numeric pipelines do not pay for an {@link Integer} allocation per item.
+ * <p/>
+ * {@link #boxed()} and {@link #unbox(Iterable)} (or {@link Iterate#mapToInt(ToIntFunction)}) are the explicit bridges
+ * to and from the generic {@link Iterate} API, and are the only places where items are boxed or unboxed.
+ *
+ * @author Brian Cavalier
+ */
+public abstract class IntIterate implements HasSize
+{
+    /**
+     * @param items items over which to iterate.  The array is not copied.
+     *
+     * @return an {@link IntIterate} over {@code items}
+     */
+    public static IntIterate of(final int... items)
+    {
+        return new ArrayInts(items, 0, items.length);
+    }
+
+    /**
+     * @param start first value (inclusive)
+     * @param end   last value (exclusive)
+     *
+     * @return an {@link IntRange} over the {@code int}s from {@code start} to {@code end}
+     */
+    public static IntRange range(int start, int end)
+    {
+        return new IntRange(start, end);
+    }
+
+    /**
+     * Unboxes the items of {@code items}.  This is the bridge from a generic {@link Iterable} to an {@link IntIterate}
+     * and, as with any {@code Integer} to {@code int} conversion, throws {@link NullPointerException} for a {@code
+     * null} item.
+     *
+     * @param items items over which to iterate
+     *
+     * @return an {@link IntIterate} over the unboxed {@code items}
+     */
+    public static IntIterate unbox(final Iterable<Integer> items)
+    {
+        return map(items, new ToIntFunction<Integer>()
+        {
+            public int apply(Integer x)
+            {
+                return x;
+            }
+        });
+    }
+
+    /**
+     * @param items items over which to iterate
+     * @param f     {@link ToIntFunction} to apply to each item
+     *
+     * @return an {@link IntIterate} over the results of applying {@code f} to each item in {@code items}
+     */
+    public static <X> IntIterate map(final Iterable<X> items, final ToIntFunction<? super X> f)
+    {
+        return new MappedInts<X>(items, f);
+    }
+
+    /**
+     * @return an {@link IntIterator} over the items
+     */
+    public abstract IntIterator iterator();
+
+    /**
+     * Pushes each item into {@code sink}.  All terminal operations are driven by this method rather than by {@link
+     * #iterator()}, so subclasses that can push their items more efficiently than an {@link IntIterator} can pull them
+     * should override it.
+     *
+     * @param sink {@link IntSink} to which to push items
+     *
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    public boolean traverse(IntSink sink)
+    {
+        final IntIterator i = iterator();
+        while (i.hasNext()) {
+            if (!sink.accept(i.nextInt())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@link Size#unknown()}.  Subclasses that know, or can derive, the number of items override this.
+     */
+    public Size getSize()
+    {
+        return Size.unknown();
+    }
+
+    public int getEstimatedSize()
+    {
+        return getSize().capacity(Iterate.DEFAULT_ESTIMATED_SIZE);
+    }
+
+    /**
+     * Narrow the scope of iteration to items for which {@code c.eval(item) == true}
+     *
+     * @param c {@link IntCondition} to evaluate for each item.
+     *
+     * @return {@link IntIterate} that will only iterate over items for which {@code c.eval(item) == true}
+     */
+    public IntIterate where(IntCondition c)
+    {
+        return new WhereInts(this, c);
+    }
+
+    /**
+     * @param c {@link IntCondition} to evaluate for each item.
+     *
+     * @return {@link IntIterate} that will iterate over items until, but not including, the first item for which
+     *         {@code c.eval(item) == true}
+     */
+    public IntIterate until(IntCondition c)
+    {
+        return new UntilInts(this, c);
+    }
+
+    /**
+     * @param f {@link IntFunction} to apply to each item
+     *
+     * @return {@link IntIterate} that will iterate over the results of applying {@code f} to each item
+     */
+    public IntIterate map(IntFunction f)
+    {
+        return new MapInts(this, f);
+    }
+
+    /**
+     * @return {@link IntIterate} that will iterate over the items in ascending order.  Each pass collects and sorts
+     *         the items anew, with a radix sort if there are many of them
+     */
+    public IntIterate sorted()
+    {
+        return new SortedInts(this);
+    }
+
+    /**
+     * Boxes each item.  This is the bridge from an {@link IntIterate} back to the generic {@link Iterate} API.
+     *
+     * @return an {@link Iterate} over the items, boxed as {@link Integer}s
+     */
+    public Iterate<Integer> boxed()
+    {
+        return new BoxedInts(this);
+    }
+
+    /**
+     * @return a {@link LongIterate} over the items, widened to {@code long}s
+     */
+    public LongIterate asLongs()
+    {
+        final IntIterate source = this;
+        return new LongIterate()
+        {
+            @Override
+            public LongIterator iterator()
+            {
+                final IntIterator iterator = source.iterator();
+                return new LongIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    public long nextLong()
+                    {
+                        return iterator.nextInt();
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(final LongSink sink)
+            {
+                return source.traverse(new IntSink()
+                {
+                    public boolean accept(int x)
+                    {
+                        return sink.accept(x);
+                    }
+                });
+            }
+
+            @Override
+            public Size getSize()
+            {
+                return source.getSize();
+            }
+        };
+    }
+
+    /**
+     * @return a {@link DoubleIterate} over the items, widened to {@code double}s
+     */
+    public DoubleIterate asDoubles()
+    {
+        final IntIterate source = this;
+        return new DoubleIterate()
+        {
+            @Override
+            public DoubleIterator iterator()
+            {
+                final IntIterator iterator = source.iterator();
+                return new DoubleIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    public double nextDouble()
+                    {
+                        return iterator.nextInt();
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(final DoubleSink sink)
+            {
+                return source.traverse(new IntSink()
+                {
+                    public boolean accept(int x)
+                    {
+                        return sink.accept(x);
+                    }
+                });
+            }
+
+            @Override
+            public Size getSize()
+            {
+                return source.getSize();
+            }
+        };
+    }
+
+    public <V extends IntVisitor> V visit(final V visitor)
+    {
+        traverse(new IntSink()
+        {
+            public boolean accept(int x)
+            {
+                visitor.visit(x);
+                return true;
+            }
+        });
+
+        return visitor;
+    }
+
+    /**
+     * Left-folds the items, starting with {@code startingValue}, i.e. {@code f(xn, ... f(x1, f(x0, startingValue)))}
+     *
+     * @param f             {@link IntBinaryFunction} to apply to each item and the result so far
+     * @param startingValue result for no items
+     *
+     * @return the result of folding all items into {@code startingValue}
+     */
+    public int reduce(IntBinaryFunction f, int startingValue)
+    {
+        final IntFold fold = new IntFold(f, startingValue, false);
+        traverse(fold);
+        return fold.result;
+    }
+
+    /**
+     * Left-folds the items, using the first item as the starting value.
+     *
+     * @param f {@link IntBinaryFunction} to apply to each item and the result so far
+     *
+     * @return the result of folding all items
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public int reduce(IntBinaryFunction f)
+    {
+        final IntFold fold = new IntFold(f, 0, true);
+        traverse(fold);
+        if (fold.empty) {
+            throw new NoSuchElementException("reduce of no items");
+        }
+        return fold.result;
+    }
+
+    /**
+     * @return the sum of the items, accumulated as a {@code long} so that it does not overflow for any realistic number
+     *         of items
+     */
+    public long sum()
+    {
+        final long[] sum = new long[1];
+        traverse(new IntSink()
+        {
+            public boolean accept(int x)
+            {
+                sum[0] += x;
+                return true;
+            }
+        });
+        return sum[0];
+    }
+
+    /**
+     * @return the count, sum, min, max, mean, and variance of the items, computed in a single pass
+     */
+    public LongStatistics statistics()
+    {
+        return visit(new LongStatistics());
+    }
+
+    /**
+     * @return the smallest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public int min()
+    {
+        return reduce(new IntBinaryFunction()
+        {
+            public int apply(int x, int y)
+            {
+                return x < y ? x : y;
+            }
+        });
+    }
+
+    /**
+     * @return the largest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public int max()
+    {
+        return reduce(new IntBinaryFunction()
+        {
+            public int apply(int x, int y)
+            {
+                return x > y ? x : y;
+            }
+        });
+    }
+
+    /**
+     * @return the number of items
+     */
+    public long count()
+    {
+        final Size size = getSize();
+        if (size.isExact()) {
+            return size.getCount();
+        }
+
+        final long[] count = new long[1];
+        traverse(new IntSink()
+        {
+            public boolean accept(int x)
+            {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * @return a new array containing the items, in iteration order
+     */
+    public int[] toArray()
+    {
+        final IntArraySink sink = new IntArraySink(getSize().capacity(Iterate.DEFAULT_ESTIMATED_SIZE));
+        traverse(sink);
+        return sink.toArray();
+    }
+
+    /**
+     * {@link IntSink} that left-folds each item into {@code result}.  If {@code empty} is initially {@code true}, the
+     * first item becomes the starting value.
+     */
+    private static class IntFold implements IntSink
+    {
+        private final IntBinaryFunction f;
+        private int result;
+        private boolean empty;
+
+        private IntFold(IntBinaryFunction f, int startingValue, boolean empty)
+        {
+            this.f = f;
+            this.result = startingValue;
+            this.empty = empty;
+        }
+
+        public boolean accept(int x)
+        {
+            if (empty) {
+                result = x;
+                empty = false;
+            } else {
+                result = f.apply(x, result);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@link IntSink} that appends each item to a growable {@code int[]}
+     */
+    static class IntArraySink implements IntSink
+    {
+        private int[] items;
+        private int size;
+
+        IntArraySink(int capacity)
+        {
+            items = new int[Math.max(capacity, 1)];
+        }
+
+        public boolean accept(int x)
+        {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, (int) Math.min(Integer.MAX_VALUE - 8, items.length * 2L));
+            }
+            items[size++] = x;
+            return true;
+        }
+
+        int[] toArray()
+        {
+            return size == items.length ? items : Arrays.copyOf(items, size);
+        }
+    }
+
+    private static class ArrayInts extends IntIterate
+    {
+        private final int[] items;
+        private final int start;
+        private final int end;
+
+        private ArrayInts(int[] items, int start, int end)
+        {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public IntIterator iterator()
+        {
+            return new IntIterator()
+            {
+                private int index = start;
+
+                public boolean hasNext()
+                {
+                    return index < end;
+                }
+
+                public int nextInt()
+                {
+                    if (index >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return items[index++];
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(IntSink sink)
+        {
+            final int[] items = this.items;
+            for (int i = start; i < end; i++) {
+                if (!sink.accept(items[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return Size.exactly(end - start);
+        }
+
+        @Override
+        public int[] toArray()
+        {
+            return Arrays.copyOfRange(items, start, end);
+        }
+
+        @Override
+        public LongStatistics statistics()
+        {
+            return LongStatistics.of(items, start, end);
+        }
+    }
+
+    private static class MappedInts<X> extends IntIterate
+    {
+        private final Iterable<X> items;
+        private final ToIntFunction<? super X> f;
+
+        private MappedInts(Iterable<X> items, ToIntFunction<? super X> f)
+        {
+            this.items = items;
+            this.f = f;
+        }
+
+        @Override
+        public IntIterator iterator()
+        {
+            final Iterator<X> iterator = items.iterator();
+            return new IntIterator()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public int nextInt()
+                {
+                    return f.apply(iterator.next());
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final IntSink sink)
+        {
+            return Iterables.traverse(items, new Sink<X>()
+            {
+                public boolean accept(X x)
+                {
+                    return sink.accept(f.apply(x));
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return Size.of(items);
+        }
+    }
+
+    private static class WhereInts extends IntIterate
+    {
+        private final IntIterate source;
+        private final IntCondition condition;
+
+        private WhereInts(IntIterate source, IntCondition condition)
+        {
+            this.source = source;
+            this.condition = condition;
+        }
+
+        @Override
+        public IntIterator iterator()
+        {
+            final IntIterator iterator = source.iterator();
+            return new LookaheadIntIterator()
+            {
+                @Override
+                protected boolean findNext()
+                {
+                    while (iterator.hasNext()) {
+                        final int x = iterator.nextInt();
+                        if (condition.eval(x)) {
+                            next = x;
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final IntSink sink)
+        {
+            return source.traverse(new IntSink()
+            {
+                public boolean accept(int x)
+                {
+                    return !condition.eval(x) || sink.accept(x);
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize().atMost();
+        }
+    }
+
+    private static class UntilInts extends IntIterate
+    {
+        private final IntIterate source;
+        private final IntCondition condition;
+
+        private UntilInts(IntIterate source, IntCondition condition)
+        {
+            this.source = source;
+            this.condition = condition;
+        }
+
+        @Override
+        public IntIterator iterator()
+        {
+            final IntIterator iterator = source.iterator();
+            return new LookaheadIntIterator()
+            {
+                private boolean done;
+
+                @Override
+                protected boolean findNext()
+                {
+                    if (done || !iterator.hasNext()) {
+                        return false;
+                    }
+                    next = iterator.nextInt();
+                    done = condition.eval(next);
+                    return !done;
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final IntSink sink)
+        {
+            final boolean[] done = new boolean[1];
+            final boolean complete = source.traverse(new IntSink()
+            {
+                public boolean accept(int x)
+                {
+                    if (condition.eval(x)) {
+                        done[0] = true;
+                        return false;
+                    }
+                    return sink.accept(x);
+                }
+            });
+            return complete || done[0];
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize().atMost();
+        }
+    }
+
+    private static class MapInts extends IntIterate
+    {
+        private final IntIterate source;
+        private final IntFunction f;
+
+        private MapInts(IntIterate source, IntFunction f)
+        {
+            this.source = source;
+            this.f = f;
+        }
+
+        @Override
+        public IntIterator iterator()
+        {
+            final IntIterator iterator = source.iterator();
+            return new IntIterator()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public int nextInt()
+                {
+                    return f.apply(iterator.nextInt());
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final IntSink sink)
+        {
+            return source.traverse(new IntSink()
+            {
+                public boolean accept(int x)
+                {
+                    return sink.accept(f.apply(x));
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+    }
+
+    private static class BoxedInts extends Iterate<Integer>
+    {
+        private final IntIterate source;
+
+        private BoxedInts(IntIterate source)
+        {
+            super(source.getEstimatedSize());
+            this.source = source;
+        }
+
+        @Override
+        public Iterator<Integer> iterator()
+        {
+            final IntIterator iterator = source.iterator();
+            return new AbstractIterator<Integer>()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public Integer next()
+                {
+                    return iterator.nextInt();
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final Sink<? super Integer> sink)
+        {
+            return source.traverse(new IntSink()
+            {
+                public boolean accept(int x)
+                {
+                    return sink.accept(x);
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+    }
+
+    private static class SortedInts extends IntIterate
+    {
+        private final IntIterate source;
+
+        private SortedInts(IntIterate source)
+        {
+            this.source = source;
+        }
+
+        @Override
+        public IntIterator iterator()
+        {
+            return of(toArray()).iterator();
+        }
+
+        @Override
+        public boolean traverse(IntSink sink)
+        {
+            return of(toArray()).traverse(sink);
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+
+        @Override
+        public int[] toArray()
+        {
+            final int[] items = source.toArray();
+            Sorting.sort(items, 0, items.length);
+            return items;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Size;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link IntIterate} over the {@code int}s from {@code start} (inclusive) to {@code end} (exclusive), counting by
+ * {@code step}.  The range counts down if {@code start > end}.
+ *
+ * @author Brian Cavalier
+ */
+public class IntRange extends IntIterate
+{
+    protected final int start;
+    protected final int end;
+    protected final int step;
+
+    public IntRange(int start, int end)
+    {
+        this(start, end, 1);
+    }
+
+    public IntRange(int start, int end, int step)
+    {
+        if (step <= 0) {
+            throw new IllegalArgumentException("step must be > 0");
+        }
+        this.start = start;
+        this.end = end;
+        this.step = step;
+    }
+
+    /**
+     * @param step distance between successive items
+     *
+     * @return a new {@link IntRange} over the same bounds, counting by {@code step}
+     */
+    public IntRange by(int step)
+    {
+        return new IntRange(start, end, step);
+    }
+
+    public int getStart()
+    {
+        return start;
+    }
+
+    public int getEnd()
+    {
+        return end;
+    }
+
+    public int getStep()
+    {
+        return step;
+    }
+
+    @Override
+    public IntIterator iterator()
+    {
+        return new IntIterator()
+        {
+            // long index so that stepping past Integer.MAX_VALUE or Integer.MIN_VALUE ends the iteration
+            private long index = start;
+
+            public boolean hasNext()
+            {
+                return start <= end ? index < end : index > end;
+            }
+
+            public int nextInt()
+            {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Reached end value " + end);
+                }
+                final int current = (int) index;
+                index += start <= end ? step : -step;
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public boolean traverse(IntSink sink)
+    {
+        // long index so that stepping past Integer.MAX_VALUE or Integer.MIN_VALUE ends the loop instead of wrapping
+        final int end = this.end;
+        final int step = this.step;
+        if (start <= end) {
+            for (long i = start; i < end; i += step) {
+                if (!sink.accept((int) i)) {
+                    return false;
+                }
+            }
+        } else {
+            for (long i = start; i > end; i -= step) {
+                if (!sink.accept((int) i)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public long count()
+    {
+        return (Math.abs((long) end - start) + step - 1) / step;
+    }
+
+    /**
+     * @return the sum of the items, computed in constant time from the first and last items
+     */
+    @Override
+    public long sum()
+    {
+        final long count = count();
+        if (count == 0) {
+            return 0;
+        }
+
+        // exactly one of count and (first + last) is even when count is odd, so divide that one
+        final long firstPlusLast = 2L * start + (count - 1) * signedStep();
+        return count % 2 == 0 ? (count / 2) * firstPlusLast : count * (firstPlusLast / 2);
+    }
+
+    /**
+     * Computes the sum of the squares of the items in constant time, from the closed forms of the sums of {@code k} and
+     * {@code k * k}.  Like adding the squares one at a time in a {@code long}, the result wraps around if it does not
+     * fit in a {@code long}.
+     *
+     * @return the sum of the squares of the items
+     */
+    public long sumOfSquares()
+    {
+        final long n = count();
+        if (n == 0) {
+            return 0;
+        }
+
+        // sum over k = 0 .. n-1 of (a + k * d)^2 = n * a^2 + 2 * a * d * S1 + d^2 * S2, with each of the divisions in
+        // S1 = n(n-1)/2 and S2 = (n-1)n(2n-1)/6 done exactly on a factor before multiplying, so that the result wraps
+        // around exactly as a long sum would
+        final long a = start;
+        final long d = signedStep();
+        long f1 = n - 1;
+        long f2 = n;
+        long f3 = 2 * n - 1;
+        final long s1 = f2 % 2 == 0 ? (f2 / 2) * f1 : f2 * (f1 / 2);
+        if (f1 % 2 == 0) {
+            f1 /= 2;
+        } else {
+            f2 /= 2;
+        }
+        if (f1 % 3 == 0) {
+            f1 /= 3;
+        } else if (f2 % 3 == 0) {
+            f2 /= 3;
+        } else {
+            f3 /= 3;
+        }
+        return n * a * a + 2 * a * d * s1 + d * d * (f1 * f2 * f3);
+    }
+
+    /**
+     * @param x value
+     *
+     * @return {@code true} if {@code x} is one of the items, computed in constant time
+     */
+    public boolean contains(int x)
+    {
+        final long distance = start <= end ? (long) x - start : (long) start - x;
+        return distance >= 0 && distance % step == 0 && (start <= end ? x < end : x > end);
+    }
+
+    @Override
+    public int min()
+    {
+        final long count = count();
+        if (count == 0) {
+            throw new NoSuchElementException("min of no items");
+        }
+        return start <= end ? start : (int) (start - (count - 1) * step);
+    }
+
+    @Override
+    public int max()
+    {
+        final long count = count();
+        if (count == 0) {
+            throw new NoSuchElementException("max of no items");
+        }
+        return start <= end ? (int) (start + (count - 1) * step) : start;
+    }
+
+    /**
+     * @return exactly {@link #count()}, or {@link Size#unknown()} if there are more than {@link Integer#MAX_VALUE} items
+     */
+    @Override
+    public Size getSize()
+    {
+        final long count = count();
+        return count > Integer.MAX_VALUE ? Size.unknown() : Size.exactly((int) count);
+    }
+
+    private long signedStep()
+    {
+        return start <= end ? step : -step;
+    }
+
+    @Override
+    public String toString()
+    {
+        return step == 1 ? "[" + start + ".." + end + ']' : "[" + start + ".." + end + " by " + step + ']';
+    }
+}
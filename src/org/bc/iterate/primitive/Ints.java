@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.Random;
+
+/**
+ * The {@code int} counterparts of the functions, conditions, and sources in {@link org.bc.iterate.Integers} and
+ * {@link org.bc.iterate.Conditions}, for use with {@link IntIterate}.
+ *
+ * @author Brian Cavalier
+ */
+public class Ints
+{
+    /**
+     * @return a {@link ToIntFunction} that parses a {@link String} into an {@code int}, without the {@link Integer}
+     *         that {@link org.bc.iterate.Integers#parse()} allocates
+     */
+    public static ToIntFunction<String> parse()
+    {
+        return new ToIntFunction<String>()
+        {
+            public int apply(String s)
+            {
+                return Integer.parseInt(s);
+            }
+        };
+    }
+
+    /**
+     * @param parser {@link NumberParser#STRICT} or {@link NumberParser#LENIENT}
+     *
+     * @return a {@link ToIntFunction} that parses any {@link CharSequence}, e.g. a {@link StringBuilder}, into an
+     *         {@code int} without first converting it to a {@link String}
+     */
+    public static ToIntFunction<CharSequence> parse(final NumberParser parser)
+    {
+        return new ToIntFunction<CharSequence>()
+        {
+            public int apply(CharSequence s)
+            {
+                return parser.parseInt(s);
+            }
+        };
+    }
+
+    /**
+     * @param parser    {@link NumberParser#STRICT} or {@link NumberParser#LENIENT}
+     * @param delimiter field separator, e.g. {@code ','}
+     * @param field     index of the field, starting at {@code 0}
+     *
+     * @return a {@link ToIntFunction} that parses the {@code field}th field of a delimited line in place, without
+     *         splitting the line or allocating a substring for the field
+     */
+    public static ToIntFunction<CharSequence> parseField(final NumberParser parser, final char delimiter,
+                                                         final int field)
+    {
+        return new ToIntFunction<CharSequence>()
+        {
+            public int apply(CharSequence line)
+            {
+                return parser.parseIntField(line, delimiter, field);
+            }
+        };
+    }
+
+    /**
+     * @return a {@link ToIntFunction} that unboxes any {@link Number}, e.g. a {@link Short}, as an {@code int}
+     */
+    public static ToIntFunction<Number> value()
+    {
+        return new ToIntFunction<Number>()
+        {
+            public int apply(Number n)
+            {
+                return n.intValue();
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntBinaryFunction} that returns the result of adding its two arguments, i.e. {@code x + y}
+     */
+    public static IntBinaryFunction sum()
+    {
+        return new IntBinaryFunction()
+        {
+            public int apply(int x, int y)
+            {
+                return x + y;
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntBinaryFunction} that returns the result of multiplying its two arguments, i.e. {@code x * y}
+     */
+    public static IntBinaryFunction multiply()
+    {
+        return new IntBinaryFunction()
+        {
+            public int apply(int x, int y)
+            {
+                return x * y;
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntFunction} that returns the result of squaring its argument, i.e. {@code x * x}
+     */
+    public static IntFunction square()
+    {
+        return new IntFunction()
+        {
+            public int apply(int x)
+            {
+                return x * x;
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntFunction} that returns the result of cubing its argument, i.e. {@code x * x * x}
+     */
+    public static IntFunction cube()
+    {
+        return new IntFunction()
+        {
+            public int apply(int x)
+            {
+                return x * x * x;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return an {@link IntCondition} that is {@code true} for items equal to {@code value}
+     */
+    public static IntCondition eq(final int value)
+    {
+        return new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return x == value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return an {@link IntCondition} that is {@code true} for items greater than {@code value}
+     */
+    public static IntCondition gt(final int value)
+    {
+        return new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return x > value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return an {@link IntCondition} that is {@code true} for items greater than or equal to {@code value}
+     */
+    public static IntCondition gte(final int value)
+    {
+        return new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return x >= value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return an {@link IntCondition} that is {@code true} for items less than {@code value}
+     */
+    public static IntCondition lt(final int value)
+    {
+        return new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return x < value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return an {@link IntCondition} that is {@code true} for items less than or equal to {@code value}
+     */
+    public static IntCondition lte(final int value)
+    {
+        return new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return x <= value;
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntCondition} that is {@code true} for even items
+     */
+    public static IntCondition even()
+    {
+        return new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return (x & 1) == 0;
+            }
+        };
+    }
+
+    /**
+     * @param random            {@link Random} to use to generate random integers.
+     * @param maxValueExclusive random integers strictly less than this value will be returned
+     *
+     * @return an inexhaustible {@link IntIterate} of random integers from {@code 0} to {@code maxValueExclusive}
+     */
+    public static IntIterate random(final Random random, final int maxValueExclusive)
+    {
+        return new IntIterate()
+        {
+            @Override
+            public IntIterator iterator()
+            {
+                return new IntIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public int nextInt()
+                    {
+                        return random.nextInt(maxValueExclusive);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @param random {@link Random} to use to generate random integers.
+     *
+     * @return an inexhaustible {@link IntIterate} of random integers
+     */
+    public static IntIterate random(final Random random)
+    {
+        return new IntIterate()
+        {
+            @Override
+            public IntIterator iterator()
+            {
+                return new IntIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public int nextInt()
+                    {
+                        return random.nextInt();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,825 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.HasSize;
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Sink;
+import org.bc.iterate.Size;
+import org.bc.iterate.iterable.AbstractIterator;
+import org.bc.iterate.util.Sorting;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code long} specialization of {@link Iterate}.  Items flow through {@code where}, {@code map}, and {@code until}
+ * stages, and into terminal operations such as {@link #sum()} and {@link #toArray()}, as primitive {@code long}s, so
+ * numeric pipelines do not pay for a {@link Long} allocation per item.
+ * <p/>
+ * {@link #boxed()} and {@link #unbox(Iterable)} (or {@link Iterate#mapToLong(ToLongFunction)}) are the explicit bridges
+ * to and from the generic {@link Iterate} API, and are the only places where items are boxed or unboxed.
+ *
+ * @author Brian Cavalier
+ */
+public abstract class LongIterate implements HasSize
+{
+    /**
+     * @param items items over which to iterate.  The array is not copied.
+     *
+     * @return a {@link LongIterate} over {@code items}
+     */
+    public static LongIterate of(final long... items)
+    {
+        return new ArrayLongs(items, 0, items.length);
+    }
+
+    /**
+     * @param start first value (inclusive)
+     * @param end   last value (exclusive)
+     *
+     * @return a {@link LongRange} over the {@code long}s from {@code start} to {@code end}
+     */
+    public static LongRange range(long start, long end)
+    {
+        return new LongRange(start, end);
+    }
+
+    /**
+     * Unboxes the items of {@code items}.  This is the bridge from a generic {@link Iterable} to a {@link LongIterate}
+     * and, as with any {@code Long} to {@code long} conversion, throws {@link NullPointerException} for a {@code null}
+     * item.
+     *
+     * @param items items over which to iterate
+     *
+     * @return a {@link LongIterate} over the unboxed {@code items}
+     */
+    public static LongIterate unbox(final Iterable<Long> items)
+    {
+        return map(items, new ToLongFunction<Long>()
+        {
+            public long apply(Long x)
+            {
+                return x;
+            }
+        });
+    }
+
+    /**
+     * @param items items over which to iterate
+     * @param f     {@link ToLongFunction} to apply to each item
+     *
+     * @return a {@link LongIterate} over the results of applying {@code f} to each item in {@code items}
+     */
+    public static <X> LongIterate map(final Iterable<X> items, final ToLongFunction<? super X> f)
+    {
+        return new MappedLongs<X>(items, f);
+    }
+
+    /**
+     * @return a {@link LongIterator} over the items
+     */
+    public abstract LongIterator iterator();
+
+    /**
+     * Pushes each item into {@code sink}.  All terminal operations are driven by this method rather than by {@link
+     * #iterator()}, so subclasses that can push their items more efficiently than a {@link LongIterator} can pull them
+     * should override it.
+     *
+     * @param sink {@link LongSink} to which to push items
+     *
+     * @return {@code true} if all items were pushed, {@code false} if {@code sink} ended the traversal early
+     */
+    public boolean traverse(LongSink sink)
+    {
+        final LongIterator i = iterator();
+        while (i.hasNext()) {
+            if (!sink.accept(i.nextLong())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@link Size#unknown()}.  Subclasses that know, or can derive, the number of items override this.
+     */
+    public Size getSize()
+    {
+        return Size.unknown();
+    }
+
+    public int getEstimatedSize()
+    {
+        return getSize().capacity(Iterate.DEFAULT_ESTIMATED_SIZE);
+    }
+
+    /**
+     * Narrow the scope of iteration to items for which {@code c.eval(item) == true}
+     *
+     * @param c {@link LongCondition} to evaluate for each item.
+     *
+     * @return {@link LongIterate} that will only iterate over items for which {@code c.eval(item) == true}
+     */
+    public LongIterate where(LongCondition c)
+    {
+        return new WhereLongs(this, c);
+    }
+
+    /**
+     * @param c {@link LongCondition} to evaluate for each item.
+     *
+     * @return {@link LongIterate} that will iterate over items until, but not including, the first item for which
+     *         {@code c.eval(item) == true}
+     */
+    public LongIterate until(LongCondition c)
+    {
+        return new UntilLongs(this, c);
+    }
+
+    /**
+     * @param f {@link LongFunction} to apply to each item
+     *
+     * @return {@link LongIterate} that will iterate over the results of applying {@code f} to each item
+     */
+    public LongIterate map(LongFunction f)
+    {
+        return new MapLongs(this, f);
+    }
+
+    /**
+     * @return {@link LongIterate} that will iterate over the items in ascending order.  Each pass collects and sorts
+     *         the items anew, with a radix sort if there are many of them
+     */
+    public LongIterate sorted()
+    {
+        return new SortedLongs(this);
+    }
+
+    /**
+     * Boxes each item.  This is the bridge from a {@link LongIterate} back to the generic {@link Iterate} API.
+     *
+     * @return an {@link Iterate} over the items, boxed as {@link Long}s
+     */
+    public Iterate<Long> boxed()
+    {
+        return new BoxedLongs(this);
+    }
+
+    /**
+     * @return a {@link DoubleIterate} over the items, converted to the nearest {@code double}s
+     */
+    public DoubleIterate asDoubles()
+    {
+        final LongIterate source = this;
+        return new DoubleIterate()
+        {
+            @Override
+            public DoubleIterator iterator()
+            {
+                final LongIterator iterator = source.iterator();
+                return new DoubleIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    public double nextDouble()
+                    {
+                        return iterator.nextLong();
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(final DoubleSink sink)
+            {
+                return source.traverse(new LongSink()
+                {
+                    public boolean accept(long x)
+                    {
+                        return sink.accept(x);
+                    }
+                });
+            }
+
+            @Override
+            public Size getSize()
+            {
+                return source.getSize();
+            }
+        };
+    }
+
+    /**
+     * @return an {@link IntIterate} over the items, narrowed to {@code int}s by an {@code (int)} cast, i.e.
+     *         keeping only their low 32 bits
+     */
+    public IntIterate toInts()
+    {
+        final LongIterate source = this;
+        return new IntIterate()
+        {
+            @Override
+            public IntIterator iterator()
+            {
+                final LongIterator iterator = source.iterator();
+                return new IntIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    public int nextInt()
+                    {
+                        return (int) iterator.nextLong();
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(final IntSink sink)
+            {
+                return source.traverse(new LongSink()
+                {
+                    public boolean accept(long x)
+                    {
+                        return sink.accept((int) x);
+                    }
+                });
+            }
+
+            @Override
+            public Size getSize()
+            {
+                return source.getSize();
+            }
+        };
+    }
+
+    public <V extends LongVisitor> V visit(final V visitor)
+    {
+        traverse(new LongSink()
+        {
+            public boolean accept(long x)
+            {
+                visitor.visit(x);
+                return true;
+            }
+        });
+
+        return visitor;
+    }
+
+    /**
+     * Left-folds the items, starting with {@code startingValue}, i.e. {@code f(xn, ... f(x1, f(x0, startingValue)))}
+     *
+     * @param f             {@link LongBinaryFunction} to apply to each item and the result so far
+     * @param startingValue result for no items
+     *
+     * @return the result of folding all items into {@code startingValue}
+     */
+    public long reduce(LongBinaryFunction f, long startingValue)
+    {
+        final LongFold fold = new LongFold(f, startingValue, false);
+        traverse(fold);
+        return fold.result;
+    }
+
+    /**
+     * Left-folds the items, using the first item as the starting value.
+     *
+     * @param f {@link LongBinaryFunction} to apply to each item and the result so far
+     *
+     * @return the result of folding all items
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public long reduce(LongBinaryFunction f)
+    {
+        final LongFold fold = new LongFold(f, 0, true);
+        traverse(fold);
+        if (fold.empty) {
+            throw new NoSuchElementException("reduce of no items");
+        }
+        return fold.result;
+    }
+
+    /**
+     * @return the sum of the items.  As with {@code long} arithmetic in general, the sum silently overflows if it does
+     *         not fit in a {@code long}.
+     */
+    public long sum()
+    {
+        final long[] sum = new long[1];
+        traverse(new LongSink()
+        {
+            public boolean accept(long x)
+            {
+                sum[0] += x;
+                return true;
+            }
+        });
+        return sum[0];
+    }
+
+    /**
+     * @return the count, sum, min, max, mean, and variance of the items, computed in a single pass
+     */
+    public LongStatistics statistics()
+    {
+        return visit(new LongStatistics());
+    }
+
+    /**
+     * @return the smallest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public long min()
+    {
+        return reduce(new LongBinaryFunction()
+        {
+            public long apply(long x, long y)
+            {
+                return x < y ? x : y;
+            }
+        });
+    }
+
+    /**
+     * @return the largest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public long max()
+    {
+        return reduce(new LongBinaryFunction()
+        {
+            public long apply(long x, long y)
+            {
+                return x > y ? x : y;
+            }
+        });
+    }
+
+    /**
+     * @return the number of items
+     */
+    public long count()
+    {
+        final Size size = getSize();
+        if (size.isExact()) {
+            return size.getCount();
+        }
+
+        final long[] count = new long[1];
+        traverse(new LongSink()
+        {
+            public boolean accept(long x)
+            {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * @return a new array containing the items, in iteration order
+     */
+    public long[] toArray()
+    {
+        final LongArraySink sink = new LongArraySink(getSize().capacity(Iterate.DEFAULT_ESTIMATED_SIZE));
+        traverse(sink);
+        return sink.toArray();
+    }
+
+    /**
+     * {@link LongSink} that left-folds each item into {@code result}.  If {@code empty} is initially {@code true}, the
+     * first item becomes the starting value.
+     */
+    private static class LongFold implements LongSink
+    {
+        private final LongBinaryFunction f;
+        private long result;
+        private boolean empty;
+
+        private LongFold(LongBinaryFunction f, long startingValue, boolean empty)
+        {
+            this.f = f;
+            this.result = startingValue;
+            this.empty = empty;
+        }
+
+        public boolean accept(long x)
+        {
+            if (empty) {
+                result = x;
+                empty = false;
+            } else {
+                result = f.apply(x, result);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@link LongSink} that appends each item to a growable {@code long[]}
+     */
+    static class LongArraySink implements LongSink
+    {
+        private long[] items;
+        private int size;
+
+        LongArraySink(int capacity)
+        {
+            items = new long[Math.max(capacity, 1)];
+        }
+
+        public boolean accept(long x)
+        {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, (int) Math.min(Integer.MAX_VALUE - 8, items.length * 2L));
+            }
+            items[size++] = x;
+            return true;
+        }
+
+        long[] toArray()
+        {
+            return size == items.length ? items : Arrays.copyOf(items, size);
+        }
+    }
+
+    private static class ArrayLongs extends LongIterate
+    {
+        private final long[] items;
+        private final int start;
+        private final int end;
+
+        private ArrayLongs(long[] items, int start, int end)
+        {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public LongIterator iterator()
+        {
+            return new LongIterator()
+            {
+                private int index = start;
+
+                public boolean hasNext()
+                {
+                    return index < end;
+                }
+
+                public long nextLong()
+                {
+                    if (index >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return items[index++];
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(LongSink sink)
+        {
+            final long[] items = this.items;
+            for (int i = start; i < end; i++) {
+                if (!sink.accept(items[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return Size.exactly(end - start);
+        }
+
+        @Override
+        public long[] toArray()
+        {
+            return Arrays.copyOfRange(items, start, end);
+        }
+
+        @Override
+        public LongStatistics statistics()
+        {
+            return LongStatistics.of(items, start, end);
+        }
+    }
+
+    private static class MappedLongs<X> extends LongIterate
+    {
+        private final Iterable<X> items;
+        private final ToLongFunction<? super X> f;
+
+        private MappedLongs(Iterable<X> items, ToLongFunction<? super X> f)
+        {
+            this.items = items;
+            this.f = f;
+        }
+
+        @Override
+        public LongIterator iterator()
+        {
+            final Iterator<X> iterator = items.iterator();
+            return new LongIterator()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public long nextLong()
+                {
+                    return f.apply(iterator.next());
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final LongSink sink)
+        {
+            return Iterables.traverse(items, new Sink<X>()
+            {
+                public boolean accept(X x)
+                {
+                    return sink.accept(f.apply(x));
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return Size.of(items);
+        }
+    }
+
+    private static class WhereLongs extends LongIterate
+    {
+        private final LongIterate source;
+        private final LongCondition condition;
+
+        private WhereLongs(LongIterate source, LongCondition condition)
+        {
+            this.source = source;
+            this.condition = condition;
+        }
+
+        @Override
+        public LongIterator iterator()
+        {
+            final LongIterator iterator = source.iterator();
+            return new LookaheadLongIterator()
+            {
+                @Override
+                protected boolean findNext()
+                {
+                    while (iterator.hasNext()) {
+                        final long x = iterator.nextLong();
+                        if (condition.eval(x)) {
+                            next = x;
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final LongSink sink)
+        {
+            return source.traverse(new LongSink()
+            {
+                public boolean accept(long x)
+                {
+                    return !condition.eval(x) || sink.accept(x);
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize().atMost();
+        }
+    }
+
+    private static class UntilLongs extends LongIterate
+    {
+        private final LongIterate source;
+        private final LongCondition condition;
+
+        private UntilLongs(LongIterate source, LongCondition condition)
+        {
+            this.source = source;
+            this.condition = condition;
+        }
+
+        @Override
+        public LongIterator iterator()
+        {
+            final LongIterator iterator = source.iterator();
+            return new LookaheadLongIterator()
+            {
+                private boolean done;
+
+                @Override
+                protected boolean findNext()
+                {
+                    if (done || !iterator.hasNext()) {
+                        return false;
+                    }
+                    next = iterator.nextLong();
+                    done = condition.eval(next);
+                    return !done;
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final LongSink sink)
+        {
+            final boolean[] done = new boolean[1];
+            final boolean complete = source.traverse(new LongSink()
+            {
+                public boolean accept(long x)
+                {
+                    if (condition.eval(x)) {
+                        done[0] = true;
+                        return false;
+                    }
+                    return sink.accept(x);
+                }
+            });
+            return complete || done[0];
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize().atMost();
+        }
+    }
+
+    private static class MapLongs extends LongIterate
+    {
+        private final LongIterate source;
+        private final LongFunction f;
+
+        private MapLongs(LongIterate source, LongFunction f)
+        {
+            this.source = source;
+            this.f = f;
+        }
+
+        @Override
+        public LongIterator iterator()
+        {
+            final LongIterator iterator = source.iterator();
+            return new LongIterator()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public long nextLong()
+                {
+                    return f.apply(iterator.nextLong());
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final LongSink sink)
+        {
+            return source.traverse(new LongSink()
+            {
+                public boolean accept(long x)
+                {
+                    return sink.accept(f.apply(x));
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+    }
+
+    private static class BoxedLongs extends Iterate<Long>
+    {
+        private final LongIterate source;
+
+        private BoxedLongs(LongIterate source)
+        {
+            super(source.getEstimatedSize());
+            this.source = source;
+        }
+
+        @Override
+        public Iterator<Long> iterator()
+        {
+            final LongIterator iterator = source.iterator();
+            return new AbstractIterator<Long>()
+            {
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                public Long next()
+                {
+                    return iterator.nextLong();
+                }
+            };
+        }
+
+        @Override
+        public boolean traverse(final Sink<? super Long> sink)
+        {
+            return source.traverse(new LongSink()
+            {
+                public boolean accept(long x)
+                {
+                    return sink.accept(x);
+                }
+            });
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+    }
+
+    private static class SortedLongs extends LongIterate
+    {
+        private final LongIterate source;
+
+        private SortedLongs(LongIterate source)
+        {
+            this.source = source;
+        }
+
+        @Override
+        public LongIterator iterator()
+        {
+            return of(toArray()).iterator();
+        }
+
+        @Override
+        public boolean traverse(LongSink sink)
+        {
+            return of(toArray()).traverse(sink);
+        }
+
+        @Override
+        public Size getSize()
+        {
+            return source.getSize();
+        }
+
+        @Override
+        public long[] toArray()
+        {
+            final long[] items = source.toArray();
+            Sorting.sort(items, 0, items.length);
+            return items;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.util.HashChains;
+
+/**
+ * An immutable multimap from {@code long} keys to values, built in one pass over an {@link Iterable}, for the build
+ * side of hash joins on numeric keys.  Unlike a {@code HashMap<Long, List<V>>}, it allocates no {@code Long} keys, map
+ * entries, or per-key lists: the values and their keys are held in two arrays, and the values with the same key are
+ * chained, in the order they were added, by a {@link HashChains} table.
+ * <p/>
+ * Values are addressed by their index, from {@code 0} to {@link #size()} (exclusive), in the order in which they were
+ * added:
+ * <pre>
+ * for (int i = multimap.first(key); i >= 0; i = multimap.next(i)) {
+ *     V value = multimap.get(i);
+ * }
+ * </pre>
+ * A {@link LongMultimap} is never modified after it is built, so it can be shared by any number of threads.
+ *
+ * @author Brian Cavalier
+ * @param <V> value type
+ */
+public final class LongMultimap<V>
+{
+    private final Object[] values;
+    private final long[] keys;
+    private final HashChains chains;
+
+    private LongMultimap(Object[] values, final long[] keys)
+    {
+        this.values = values;
+        this.keys = keys;
+        final int[] hashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i]);
+        }
+        this.chains = new HashChains(hashes, new HashChains.Keys()
+        {
+            public boolean equal(int i, int j)
+            {
+                return keys[i] == keys[j];
+            }
+        });
+    }
+
+    /**
+     * @param items  values
+     * @param key    {@link ToLongFunction} that computes the key of each value
+     * @param expect expected number of values, which only sizes the initial array
+     *
+     * @return a {@link LongMultimap} of {@code items} by {@code key}
+     * @throws IllegalArgumentException if there are more values, or distinct keys, than a {@link LongMultimap} can hold
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <V> LongMultimap<V> of(Iterable<? extends V> items, ToLongFunction<? super V> key, int expect)
+    {
+        final Object[] values = HashChains.toArray(items, expect);
+        final long[] keys = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = key.apply((V) values[i]);
+        }
+        return new LongMultimap<V>(values, keys);
+    }
+
+    /**
+     * @return the number of values
+     */
+    public int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * @param key key
+     *
+     * @return index of the first value with {@code key}, or {@code -1} if there are none
+     */
+    public int first(long key)
+    {
+        final int hash = hash(key);
+        for (int slot = chains.home(hash), first; (first = chains.first(slot)) >= 0; slot = chains.probe(slot)) {
+            if (keys[first] == key) {
+                return first;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return index of the next value with the same key, or {@code -1} if there are no more
+     */
+    public int next(int index)
+    {
+        return chains.next(index);
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return the value
+     */
+    @SuppressWarnings({"unchecked"})
+    public V get(int index)
+    {
+        return (V) values[index];
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return the key of the value
+     */
+    public long getKey(int index)
+    {
+        return keys[index];
+    }
+
+    private static int hash(long key)
+    {
+        // Fibonacci hashing: the multiplication spreads every bit of the key into the high bits
+        return (int) ((key * 0x9e3779b97f4a7c15L) >>> 32);
+    }
+}
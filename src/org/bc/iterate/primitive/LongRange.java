@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Size;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link LongIterate} over the {@code long}s from {@code start} (inclusive) to {@code end} (exclusive), counting by
+ * {@code step}.  The range counts down if {@code start > end}.  Unlike {@link org.bc.iterate.iterable.IntegerRange},
+ * a {@link LongRange} can span more than {@link Integer#MAX_VALUE} items, e.g. a range of timestamps.
+ *
+ * @author Brian Cavalier
+ */
+public class LongRange extends LongIterate
+{
+    protected final long start;
+    protected final long end;
+    protected final long step;
+
+    public LongRange(long start, long end)
+    {
+        this(start, end, 1);
+    }
+
+    public LongRange(long start, long end, long step)
+    {
+        if (step <= 0) {
+            throw new IllegalArgumentException("step must be > 0");
+        }
+        this.start = start;
+        this.end = end;
+        this.step = step;
+    }
+
+    /**
+     * @param step distance between successive items
+     *
+     * @return a new {@link LongRange} over the same bounds, counting by {@code step}
+     */
+    public LongRange by(long step)
+    {
+        return new LongRange(start, end, step);
+    }
+
+    public long getStart()
+    {
+        return start;
+    }
+
+    public long getEnd()
+    {
+        return end;
+    }
+
+    public long getStep()
+    {
+        return step;
+    }
+
+    @Override
+    public LongIterator iterator()
+    {
+        return new LongIterator()
+        {
+            private long index = start;
+            private boolean done = start == end;
+
+            public boolean hasNext()
+            {
+                return !done;
+            }
+
+            public long nextLong()
+            {
+                if (done) {
+                    throw new NoSuchElementException("Reached end value " + end);
+                }
+                final long current = index;
+                done = !hasMore(current);
+                index = start <= end ? current + step : current - step;
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public boolean traverse(LongSink sink)
+    {
+        if (start == end) {
+            return true;
+        }
+
+        // There is no wider type to count in, so test the remaining distance rather than the index itself, which
+        // would wrap around past Long.MAX_VALUE or Long.MIN_VALUE
+        final long step = this.step;
+        if (start < end) {
+            for (long i = start; ; i += step) {
+                if (!sink.accept(i)) {
+                    return false;
+                }
+                if (!hasMore(i)) {
+                    return true;
+                }
+            }
+        } else {
+            for (long i = start; ; i -= step) {
+                if (!sink.accept(i)) {
+                    return false;
+                }
+                if (!hasMore(i)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of items, or {@link Long#MAX_VALUE} if there are more than that
+     */
+    @Override
+    public long count()
+    {
+        // distance as an unsigned long, since it may exceed Long.MAX_VALUE
+        final long distance = start <= end ? end - start : start - end;
+        if (distance >= 0) {
+            return distance / step + (distance % step == 0 ? 0 : 1);
+        }
+
+        // unsigned division by halving first, then correcting the quotient
+        long quotient = ((distance >>> 1) / step) << 1;
+        long remainder = distance - quotient * step;
+        if (remainder + Long.MIN_VALUE >= step + Long.MIN_VALUE) {
+            quotient++;
+            remainder -= step;
+        }
+        final long count = quotient + (remainder == 0 ? 0 : 1);
+        return count < 0 ? Long.MAX_VALUE : count;
+    }
+
+    /**
+     * @return exactly {@link #count()}, or {@link Size#unknown()} if there are more than {@link Integer#MAX_VALUE} items
+     */
+    @Override
+    public Size getSize()
+    {
+        final long count = count();
+        return count > Integer.MAX_VALUE ? Size.unknown() : Size.exactly((int) count);
+    }
+
+    @Override
+    public String toString()
+    {
+        return step == 1 ? "[" + start + ".." + end + ']' : "[" + start + ".." + end + " by " + step + ']';
+    }
+
+    /**
+     * @param current an item of this range
+     *
+     * @return {@code true} if there is another item after {@code current}, i.e. if the distance from {@code current}
+     *         to {@code end}, compared as unsigned longs, is more than {@code step}
+     */
+    private boolean hasMore(long current)
+    {
+        final long remaining = start <= end ? end - current : current - end;
+        return remaining + Long.MIN_VALUE > step + Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Single-pass summary statistics of {@code int} or {@code long} items: count, exact sum, min, max, mean, and variance.
+ * The mean and variance are accumulated with Welford's online algorithm, which, unlike accumulating a sum of squares,
+ * does not lose precision when the variance is small relative to the mean.
+ * <p/>
+ * Partial statistics of disjoint parts of the items, e.g. the chunks of a parallel computation, can be combined with
+ * {@link #merge(LongStatistics)}.  {@link LongStatistics} are not thread safe; give each thread its own and merge them
+ * afterward.
+ *
+ * @author Brian Cavalier
+ * @see IntIterate#statistics()
+ * @see LongIterate#statistics()
+ */
+public class LongStatistics implements IntVisitor, LongVisitor
+{
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double mean;
+    private double m2;
+
+    /**
+     * Computes the statistics of {@code items[from]} to {@code items[to - 1]} in two simple passes, the first for the
+     * count, sum, min, and max, and the second for the sum of squared deviations from the mean.  Unlike a single
+     * Welford pass, whose every step divides by the count so far, both loops are simple enough for the JIT to unroll
+     * and vectorize.
+     *
+     * @param items items
+     * @param from  index of the first item (inclusive)
+     * @param to    index of the last item (exclusive)
+     *
+     * @return the statistics of the items
+     */
+    public static LongStatistics of(int[] items, int from, int to)
+    {
+        final LongStatistics statistics = new LongStatistics();
+        if (from >= to) {
+            return statistics;
+        }
+
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            final int x = items[i];
+            sum += x;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+
+        final double mean = (double) sum / (to - from);
+        double m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            final double delta = items[i] - mean;
+            m2 += delta * delta;
+        }
+
+        return statistics.set(to - from, sum, min, max, mean, m2);
+    }
+
+    /**
+     * @param items items
+     *
+     * @return the statistics of all of {@code items}
+     *
+     * @see #of(int[], int, int)
+     */
+    public static LongStatistics of(int... items)
+    {
+        return of(items, 0, items.length);
+    }
+
+    /**
+     * The {@code long} counterpart of {@link #of(int[], int, int)}
+     *
+     * @param items items
+     * @param from  index of the first item (inclusive)
+     * @param to    index of the last item (exclusive)
+     *
+     * @return the statistics of the items
+     */
+    public static LongStatistics of(long[] items, int from, int to)
+    {
+        final LongStatistics statistics = new LongStatistics();
+        if (from >= to) {
+            return statistics;
+        }
+
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            final long x = items[i];
+            sum += x;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+
+        final double mean = (double) sum / (to - from);
+        double m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            final double delta = items[i] - mean;
+            m2 += delta * delta;
+        }
+
+        return statistics.set(to - from, sum, min, max, mean, m2);
+    }
+
+    /**
+     * @param items items
+     *
+     * @return the statistics of all of {@code items}
+     *
+     * @see #of(long[], int, int)
+     */
+    public static LongStatistics of(long... items)
+    {
+        return of(items, 0, items.length);
+    }
+
+    public void visit(int x)
+    {
+        visit((long) x);
+    }
+
+    public void visit(long x)
+    {
+        count++;
+        sum += x;
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+
+        final double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    /**
+     * Adds the statistics of {@code other}, which must describe items other than those already described by this
+     * {@link LongStatistics}, to this one, using Chan et al.'s pairwise combination of the means and variances.
+     *
+     * @param other statistics of other items
+     *
+     * @return this {@link LongStatistics}, now describing the items of both
+     */
+    public LongStatistics merge(LongStatistics other)
+    {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return set(other.count, other.sum, other.min, other.max, other.mean, other.m2);
+        }
+
+        final long total = count + other.count;
+        final double delta = other.mean - mean;
+        return set(total, sum + other.sum, Math.min(min, other.min), Math.max(max, other.max),
+                   mean + delta * other.count / total,
+                   m2 + other.m2 + delta * delta * ((double) count * other.count / total));
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the sum of the items, which, as with {@code long} arithmetic in general, silently overflows if it does
+     *         not fit in a {@code long}
+     */
+    public long getSum()
+    {
+        return sum;
+    }
+
+    /**
+     * @return the smallest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public long getMin()
+    {
+        if (count == 0) {
+            throw new NoSuchElementException("min of no items");
+        }
+        return min;
+    }
+
+    /**
+     * @return the largest item
+     *
+     * @throws NoSuchElementException if there are no items
+     */
+    public long getMax()
+    {
+        if (count == 0) {
+            throw new NoSuchElementException("max of no items");
+        }
+        return max;
+    }
+
+    /**
+     * @return the arithmetic mean of the items, or {@link Double#NaN} if there are no items
+     */
+    public double getMean()
+    {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the population variance of the items, or {@link Double#NaN} if there are no items
+     */
+    public double getVariance()
+    {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /**
+     * @return the sample (Bessel corrected) variance of the items, or {@link Double#NaN} if there are fewer than two
+     *         items
+     */
+    public double getSampleVariance()
+    {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * @return the population standard deviation of the items, or {@link Double#NaN} if there are no items
+     */
+    public double getStandardDeviation()
+    {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString()
+    {
+        return count == 0 ? "count=0"
+               : "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max + ", mean=" + mean +
+                 ", variance=" + getVariance();
+    }
+
+    private LongStatistics set(long count, long sum, long min, long max, double mean, double m2)
+    {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.m2 = m2;
+        return this;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.Random;
+
+/**
+ * The {@code long} counterparts of the functions, conditions, and sources in {@link org.bc.iterate.Longs} and {@link
+ * org.bc.iterate.Conditions}, for use with {@link LongIterate}.
+ *
+ * @author Brian Cavalier
+ */
+public class Longs
+{
+    /**
+     * @return a {@link ToLongFunction} that parses a {@link String} into a {@code long}, without the {@link Long}
+     *         that {@link org.bc.iterate.Longs#parse()} allocates
+     */
+    public static ToLongFunction<String> parse()
+    {
+        return new ToLongFunction<String>()
+        {
+            public long apply(String s)
+            {
+                return Long.parseLong(s);
+            }
+        };
+    }
+
+    /**
+     * @param parser {@link NumberParser#STRICT} or {@link NumberParser#LENIENT}
+     *
+     * @return a {@link ToLongFunction} that parses any {@link CharSequence}, e.g. a {@link StringBuilder}, into a
+     *         {@code long} without first converting it to a {@link String}
+     */
+    public static ToLongFunction<CharSequence> parse(final NumberParser parser)
+    {
+        return new ToLongFunction<CharSequence>()
+        {
+            public long apply(CharSequence s)
+            {
+                return parser.parseLong(s);
+            }
+        };
+    }
+
+    /**
+     * @param parser    {@link NumberParser#STRICT} or {@link NumberParser#LENIENT}
+     * @param delimiter field separator, e.g. {@code ','}
+     * @param field     index of the field, starting at {@code 0}
+     *
+     * @return a {@link ToLongFunction} that parses the {@code field}th field of a delimited line in place, without
+     *         splitting the line or allocating a substring for the field
+     */
+    public static ToLongFunction<CharSequence> parseField(final NumberParser parser, final char delimiter,
+                                                          final int field)
+    {
+        return new ToLongFunction<CharSequence>()
+        {
+            public long apply(CharSequence line)
+            {
+                return parser.parseLongField(line, delimiter, field);
+            }
+        };
+    }
+
+    /**
+     * @return a {@link ToLongFunction} that unboxes any {@link Number}, e.g. an {@link Integer}, as a {@code long}
+     */
+    public static ToLongFunction<Number> value()
+    {
+        return new ToLongFunction<Number>()
+        {
+            public long apply(Number n)
+            {
+                return n.longValue();
+            }
+        };
+    }
+
+    /**
+     * @return a {@link LongBinaryFunction} that returns the result of adding its two arguments, i.e. {@code x + y}
+     */
+    public static LongBinaryFunction sum()
+    {
+        return new LongBinaryFunction()
+        {
+            public long apply(long x, long y)
+            {
+                return x + y;
+            }
+        };
+    }
+
+    /**
+     * @return a {@link LongBinaryFunction} that returns the result of multiplying its two arguments, i.e. {@code x * y}
+     */
+    public static LongBinaryFunction multiply()
+    {
+        return new LongBinaryFunction()
+        {
+            public long apply(long x, long y)
+            {
+                return x * y;
+            }
+        };
+    }
+
+    /**
+     * @return a {@link LongFunction} that returns the result of squaring its argument, i.e. {@code x * x}
+     */
+    public static LongFunction square()
+    {
+        return new LongFunction()
+        {
+            public long apply(long x)
+            {
+                return x * x;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link LongCondition} that is {@code true} for items equal to {@code value}
+     */
+    public static LongCondition eq(final long value)
+    {
+        return new LongCondition()
+        {
+            public boolean eval(long x)
+            {
+                return x == value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link LongCondition} that is {@code true} for items greater than {@code value}
+     */
+    public static LongCondition gt(final long value)
+    {
+        return new LongCondition()
+        {
+            public boolean eval(long x)
+            {
+                return x > value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link LongCondition} that is {@code true} for items greater than or equal to {@code value}
+     */
+    public static LongCondition gte(final long value)
+    {
+        return new LongCondition()
+        {
+            public boolean eval(long x)
+            {
+                return x >= value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link LongCondition} that is {@code true} for items less than {@code value}
+     */
+    public static LongCondition lt(final long value)
+    {
+        return new LongCondition()
+        {
+            public boolean eval(long x)
+            {
+                return x < value;
+            }
+        };
+    }
+
+    /**
+     * @param value value to compare
+     *
+     * @return a {@link LongCondition} that is {@code true} for items less than or equal to {@code value}
+     */
+    public static LongCondition lte(final long value)
+    {
+        return new LongCondition()
+        {
+            public boolean eval(long x)
+            {
+                return x <= value;
+            }
+        };
+    }
+
+    /**
+     * @return a {@link LongCondition} that is {@code true} for even items
+     */
+    public static LongCondition even()
+    {
+        return new LongCondition()
+        {
+            public boolean eval(long x)
+            {
+                return (x & 1) == 0;
+            }
+        };
+    }
+
+    /**
+     * @param random {@link Random} to use to generate random longs.
+     *
+     * @return an inexhaustible {@link LongIterate} of random longs
+     */
+    public static LongIterate random(final Random random)
+    {
+        return new LongIterate()
+        {
+            @Override
+            public LongIterator iterator()
+            {
+                return new LongIterator()
+                {
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public long nextLong()
+                    {
+                        return random.nextLong();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code long} specialization of {@link org.bc.iterate.iterable.LookaheadIterator}.  Since every {@code long} is a
+ * valid item, {@link #findNext()} signals the end of iteration by returning {@code false} rather than a sentinel.
+ *
+ * @author Brian Cavalier
+ */
+abstract class LookaheadLongIterator implements LongIterator
+{
+    /**
+     * Set by {@link #findNext()} to the next item
+     */
+    protected long next;
+    private boolean ready;
+    private boolean done;
+
+    public final boolean hasNext()
+    {
+        if (!ready && !done) {
+            ready = findNext();
+            done = !ready;
+        }
+
+        return ready;
+    }
+
+    public final long nextLong()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        ready = false;
+        return next;
+    }
+
+    /**
+     * Subclasses should implement this method to set {@link #next} to the next available item and return {@code true},
+     * or to return {@code false} if no more items are available.
+     *
+     * @return {@code true} if {@link #next} was set to the next item
+     */
+    protected abstract boolean findNext();
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.primitive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses {@code int}s, {@code long}s, and {@code double}s directly from a range of a {@link CharSequence}, such as a
+ * line from {@link org.bc.iterate.Iterate#lines(java.io.Reader)}, or of a {@link ByteBuffer} of ASCII text, such as
+ * a chunk from {@link org.bc.iterate.Iterate#bytes(java.io.InputStream, int)}, without first copying the range into
+ * a {@link String}.
+ * <p/>
+ * Integers are read with a loop over ASCII digits.  Decimal {@code double}s with at most 15 significant digits and a
+ * small exponent, which covers nearly all numbers found in CSV files and logs, are converted exactly with a single
+ * multiplication or division; only the rest fall back to {@link Double#parseDouble(String)}, and so allocate.
+ * <p/>
+ * {@link #STRICT} accepts an optional sign followed by digits, and for {@code double}s, an optional fraction,
+ * exponent, {@code NaN}, or {@code Infinity}.  {@link #LENIENT} additionally ignores leading and trailing whitespace,
+ * and parses an empty or blank range, e.g. a missing CSV field, as zero.  Neither accepts the hexadecimal and type
+ * suffix forms that {@link Double#parseDouble(String)} does.  Both throw {@link NumberFormatException} for anything
+ * else, including values out of range.
+ *
+ * @author Brian Cavalier
+ * @see Ints#parse(NumberParser)
+ * @see Ints#parseField(NumberParser, char, int)
+ */
+public enum NumberParser
+{
+    STRICT, LENIENT;
+
+    // 2^53 and below are represented exactly by a double, as are the powers of ten up to 10^22
+    private static final int MAX_DIGITS = 15;
+    private static final int MAX_EXACT_POWER = 22;
+    private static final int MAX_EXPONENT = 100000;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public int parseInt(CharSequence s)
+    {
+        return parseInt(s, 0, s.length());
+    }
+
+    /**
+     * @param s    characters
+     * @param from index of the first character (inclusive)
+     * @param to   index of the last character (exclusive)
+     *
+     * @return the {@code int} represented by the characters from {@code from} to {@code to}
+     *
+     * @throws NumberFormatException if the characters are not an {@code int}
+     */
+    public int parseInt(CharSequence s, int from, int to)
+    {
+        return (int) parseLong(s, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public long parseLong(CharSequence s)
+    {
+        return parseLong(s, 0, s.length());
+    }
+
+    /**
+     * @param s    characters
+     * @param from index of the first character (inclusive)
+     * @param to   index of the last character (exclusive)
+     *
+     * @return the {@code long} represented by the characters from {@code from} to {@code to}
+     *
+     * @throws NumberFormatException if the characters are not a {@code long}
+     */
+    public long parseLong(CharSequence s, int from, int to)
+    {
+        return parseLong(s, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public double parseDouble(CharSequence s)
+    {
+        return parseDouble(s, 0, s.length());
+    }
+
+    /**
+     * @param s    characters
+     * @param from index of the first character (inclusive)
+     * @param to   index of the last character (exclusive)
+     *
+     * @return the {@code double} represented by the characters from {@code from} to {@code to}, rounded as {@link
+     *         Double#parseDouble(String)} would round it
+     *
+     * @throws NumberFormatException if the characters are not a decimal number
+     */
+    public double parseDouble(CharSequence s, int from, int to)
+    {
+        return parseDecimal(s, from, to);
+    }
+
+    /**
+     * @param bytes ASCII text
+     * @param from  absolute index of the first byte (inclusive)
+     * @param to    absolute index of the last byte (exclusive)
+     *
+     * @return the {@code int} represented by the bytes from {@code from} to {@code to}.  The position of {@code bytes}
+     *         does not change.
+     *
+     * @throws NumberFormatException if the bytes are not an {@code int}
+     */
+    public int parseInt(ByteBuffer bytes, int from, int to)
+    {
+        return (int) parseLong(new AsciiChars(bytes), from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param bytes ASCII text
+     * @param from  absolute index of the first byte (inclusive)
+     * @param to    absolute index of the last byte (exclusive)
+     *
+     * @return the {@code long} represented by the bytes from {@code from} to {@code to}.  The position of {@code
+     *         bytes} does not change.
+     *
+     * @throws NumberFormatException if the bytes are not a {@code long}
+     */
+    public long parseLong(ByteBuffer bytes, int from, int to)
+    {
+        return parseLong(new AsciiChars(bytes), from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param bytes ASCII text
+     * @param from  absolute index of the first byte (inclusive)
+     * @param to    absolute index of the last byte (exclusive)
+     *
+     * @return the {@code double} represented by the bytes from {@code from} to {@code to}.  The position of {@code
+     *         bytes} does not change.
+     *
+     * @throws NumberFormatException if the bytes are not a decimal number
+     */
+    public double parseDouble(ByteBuffer bytes, int from, int to)
+    {
+        return parseDecimal(new AsciiChars(bytes), from, to);
+    }
+
+    /**
+     * Parses one field of a delimited line, e.g. the third column of a CSV line, in place.
+     *
+     * @param line      characters
+     * @param delimiter field separator
+     * @param field     index of the field, starting at {@code 0}
+     *
+     * @return the {@code int} represented by the field
+     *
+     * @throws NumberFormatException if the field is not an {@code int}, or, for {@link #STRICT}, if {@code line} has
+     *                               fewer fields
+     */
+    public int parseIntField(CharSequence line, char delimiter, int field)
+    {
+        final int start = fieldStart(line, delimiter, field);
+        return start < 0 ? (int) missing(line, field) : parseInt(line, start, fieldEnd(line, delimiter, start));
+    }
+
+    /**
+     * @param line      characters
+     * @param delimiter field separator
+     * @param field     index of the field, starting at {@code 0}
+     *
+     * @return the {@code long} represented by the field
+     *
+     * @throws NumberFormatException if the field is not a {@code long}, or, for {@link #STRICT}, if {@code line} has
+     *                               fewer fields
+     * @see #parseIntField(CharSequence, char, int)
+     */
+    public long parseLongField(CharSequence line, char delimiter, int field)
+    {
+        final int start = fieldStart(line, delimiter, field);
+        return start < 0 ? missing(line, field) : parseLong(line, start, fieldEnd(line, delimiter, start));
+    }
+
+    /**
+     * @param line      characters
+     * @param delimiter field separator
+     * @param field     index of the field, starting at {@code 0}
+     *
+     * @return the {@code double} represented by the field
+     *
+     * @throws NumberFormatException if the field is not a decimal number, or, for {@link #STRICT}, if {@code line} has
+     *                               fewer fields
+     * @see #parseIntField(CharSequence, char, int)
+     */
+    public double parseDoubleField(CharSequence line, char delimiter, int field)
+    {
+        final int start = fieldStart(line, delimiter, field);
+        return start < 0 ? missing(line, field) : parseDouble(line, start, fieldEnd(line, delimiter, start));
+    }
+
+    private long missing(CharSequence line, int field)
+    {
+        if (this == LENIENT) {
+            return 0;
+        }
+        throw new NumberFormatException("No field " + field + " in \"" + line + '"');
+    }
+
+    /**
+     * @return the index of the first character of the {@code field}th field, or {@code -1} if {@code line} has fewer
+     *         fields
+     */
+    private static int fieldStart(CharSequence line, char delimiter, int field)
+    {
+        int start = 0;
+        for (int f = 0; f < field; f++) {
+            final int end = fieldEnd(line, delimiter, start);
+            if (end == line.length()) {
+                return -1;
+            }
+            start = end + 1;
+        }
+        return start;
+    }
+
+    private static int fieldEnd(CharSequence line, char delimiter, int start)
+    {
+        final int length = line.length();
+        int i = start;
+        while (i < length && line.charAt(i) != delimiter) {
+            i++;
+        }
+        return i;
+    }
+
+    private long parseLong(CharSequence s, int from, int to, long min, long max)
+    {
+        if (this == LENIENT) {
+            while (from < to && isSpace(s.charAt(from))) {
+                from++;
+            }
+            while (to > from && isSpace(s.charAt(to - 1))) {
+                to--;
+            }
+            if (from == to) {
+                return 0;
+            }
+        }
+
+        int i = from;
+        final char sign = i < to ? s.charAt(i) : 0;
+        final boolean negative = sign == '-';
+        if (negative || sign == '+') {
+            i++;
+        }
+        if (i == to) {
+            throw invalid(s, from, to);
+        }
+
+        // accumulate negatively, as Long.parseLong does, so that the most negative value does not overflow
+        final long limit = negative ? min : -max;
+        final long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < to; i++) {
+            final int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw invalid(s, from, to);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalid(s, from, to);
+            }
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    private double parseDecimal(CharSequence s, int from, int to)
+    {
+        if (this == LENIENT) {
+            while (from < to && isSpace(s.charAt(from))) {
+                from++;
+            }
+            while (to > from && isSpace(s.charAt(to - 1))) {
+                to--;
+            }
+            if (from == to) {
+                return 0.0;
+            }
+        }
+
+        int i = from;
+        final char sign = i < to ? s.charAt(i) : 0;
+        final boolean negative = sign == '-';
+        if (negative || sign == '+') {
+            i++;
+        }
+        if (i < to && (s.charAt(i) == 'N' || s.charAt(i) == 'I')) {
+            return slowParseDouble(s, from, to);
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean inexact = false;
+        boolean any = false;
+        for (; i < to; i++) {
+            final int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            any = true;
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                digits += mantissa == 0 ? 0 : 1;
+            } else {
+                exponent++;
+                inexact |= digit != 0;
+            }
+        }
+        if (i < to && s.charAt(i) == '.') {
+            for (i++; i < to; i++) {
+                final int digit = s.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                any = true;
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + digit;
+                    digits += mantissa == 0 ? 0 : 1;
+                    exponent--;
+                } else {
+                    inexact |= digit != 0;
+                }
+            }
+        }
+        if (!any) {
+            throw invalid(s, from, to);
+        }
+        if (i < to && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            final char exponentSign = i < to ? s.charAt(i) : 0;
+            if (exponentSign == '-' || exponentSign == '+') {
+                i++;
+            }
+            if (i == to) {
+                throw invalid(s, from, to);
+            }
+            int explicit = 0;
+            for (; i < to; i++) {
+                final int digit = s.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw invalid(s, from, to);
+                }
+                explicit = Math.min(explicit * 10 + digit, MAX_EXPONENT);
+            }
+            exponent += exponentSign == '-' ? -explicit : explicit;
+        }
+        if (i != to) {
+            throw invalid(s, from, to);
+        }
+
+        return fastPath(mantissa, exponent, inexact) ? exact(mantissa, exponent, negative)
+                                                                : slowParseDouble(s, from, to);
+    }
+
+    private static boolean fastPath(long mantissa, int exponent, boolean inexact)
+    {
+        return !inexact && (mantissa == 0 || (exponent >= -MAX_EXACT_POWER && exponent <= MAX_EXACT_POWER));
+    }
+
+    /**
+     * Clinger's fast path: both the mantissa, of at most 15 digits, and the power of ten are exactly representable, so
+     * the one rounding of the multiplication or division is the correct rounding of the decimal number.
+     */
+    private static double exact(long mantissa, int exponent, boolean negative)
+    {
+        double value = mantissa;
+        if (mantissa != 0) {
+            value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(CharSequence s, int from, int to)
+    {
+        return Double.parseDouble(s.subSequence(from, to).toString());
+    }
+
+    private static boolean isSpace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static NumberFormatException invalid(CharSequence s, int from, int to)
+    {
+        return new NumberFormatException("For input string: \"" + s.subSequence(from, to) + '"');
+    }
+
+    /**
+     * A {@link ByteBuffer} of ASCII text as a {@link CharSequence} indexed by absolute position, so that it is parsed
+     * by the same code as any other {@link CharSequence}.  Its position is neither used nor changed.
+     */
+    private static final class AsciiChars implements CharSequence
+    {
+        private final ByteBuffer bytes;
+
+        private AsciiChars(ByteBuffer bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        public int length()
+        {
+            return bytes.limit();
+        }
+
+        public char charAt(int index)
+        {
+            return (char) (bytes.get(index) & 0xff);
+        }
+
+        public CharSequence subSequence(int start, int end)
+        {
+            final char[] chars = new char[end - start];
+            for (int i = start; i < end; i++) {
+                chars[i - start] = charAt(i);
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public String toString()
+        {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.primitive;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast, splittable pseudo-random number generator: Steele, Lea, and Flood's SplitMix64, the algorithm behind
+ * {@code java.util.SplittableRandom}.  Each value is a strong 64-bit mix of a counter that advances by a fixed odd
+ * {@code gamma}, so generating a value is a handful of arithmetic instructions, and, unlike {@link java.util.Random},
+ * there is no shared seed to update atomically.
+ * <p/>
+ * Two properties make it suitable for parallel pipelines:
+ * <ul>
+ * <li>{@link #split()} creates a new generator whose values are, in practice, independent of this one's, so each
+ * thread can be given its own generator</li>
+ * <li>each value consumes exactly one step of the counter, so {@link #jump(long)} can position a generator at any
+ * point of its sequence in constant time.  {@link org.bc.iterate.iterable.RandomIterable} uses this to split a random
+ * source into chunks that produce exactly the same items, in the same positions, as iterating it sequentially</li>
+ * </ul>
+ * Generators created with the same seed produce the same values.  A {@link SplitMix64} is not thread safe; use
+ * {@link #split()} to give each thread its own.
+ *
+ * @author Brian Cavalier
+ */
+public final class SplitMix64
+{
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private static final AtomicLong defaultSeeds =
+            new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+    private long seed;
+    private final long gamma;
+
+    /**
+     * Creates a generator whose values are, in practice, different from those of any other generator created by this
+     * constructor, in this or any other JVM.
+     */
+    public SplitMix64()
+    {
+        this(mix64(defaultSeeds.getAndAdd(2 * GOLDEN_GAMMA)), GOLDEN_GAMMA);
+    }
+
+    /**
+     * @param seed seed.  Generators created with the same seed produce the same values.
+     */
+    public SplitMix64(long seed)
+    {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplitMix64(long seed, long gamma)
+    {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * @return a new generator, whose values are, in practice, independent of this generator's.  This generator
+     *         advances by one step.
+     */
+    public SplitMix64 split()
+    {
+        return new SplitMix64(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * @param n number of values to skip, which may be negative
+     *
+     * @return a new generator that produces the values this generator would produce after its next {@code n} values.
+     *         This generator does not advance.
+     */
+    public SplitMix64 jump(long n)
+    {
+        return new SplitMix64(seed + n * gamma, gamma);
+    }
+
+    /**
+     * @return a uniformly distributed {@code long}
+     */
+    public long nextLong()
+    {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * @return a uniformly distributed {@code int}
+     */
+    public int nextInt()
+    {
+        return mix32(nextSeed());
+    }
+
+    /**
+     * @param bound exclusive upper bound, which must be positive
+     *
+     * @return a uniformly distributed {@code int} from {@code 0} (inclusive) to {@code bound} (exclusive)
+     */
+    public int nextInt(int bound)
+    {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        return bounded(nextLong(), bound);
+    }
+
+    /**
+     * @return a uniformly distributed {@code double} from {@code 0.0} (inclusive) to {@code 1.0} (exclusive)
+     */
+    public double nextDouble()
+    {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Fills {@code items} with uniformly distributed {@code int}s, the same values that as many calls to {@link
+     * #nextInt()} would return.
+     *
+     * @param items array to fill
+     *
+     * @return {@code items}
+     */
+    public int[] fill(int[] items)
+    {
+        long s = seed;
+        for (int i = 0; i < items.length; i++) {
+            s += gamma;
+            items[i] = mix32(s);
+        }
+        seed = s;
+        return items;
+    }
+
+    /**
+     * Fills {@code items} with uniformly distributed {@code int}s from {@code 0} (inclusive) to {@code bound}
+     * (exclusive), the same values that as many calls to {@link #nextInt(int)} would return.
+     *
+     * @param items array to fill
+     * @param bound exclusive upper bound, which must be positive
+     *
+     * @return {@code items}
+     */
+    public int[] fill(int[] items, int bound)
+    {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+
+        long s = seed;
+        for (int i = 0; i < items.length; i++) {
+            s += gamma;
+            items[i] = bounded(mix64(s), bound);
+        }
+        seed = s;
+        return items;
+    }
+
+    /**
+     * Fills {@code items} with uniformly distributed {@code long}s, the same values that as many calls to {@link
+     * #nextLong()} would return.
+     *
+     * @param items array to fill
+     *
+     * @return {@code items}
+     */
+    public long[] fill(long[] items)
+    {
+        long s = seed;
+        for (int i = 0; i < items.length; i++) {
+            s += gamma;
+            items[i] = mix64(s);
+        }
+        seed = s;
+        return items;
+    }
+
+    /**
+     * Fills {@code items} with uniformly distributed {@code double}s from {@code 0.0} (inclusive) to {@code 1.0}
+     * (exclusive), the same values that as many calls to {@link #nextDouble()} would return.
+     *
+     * @param items array to fill
+     *
+     * @return {@code items}
+     */
+    public double[] fill(double[] items)
+    {
+        long s = seed;
+        for (int i = 0; i < items.length; i++) {
+            s += gamma;
+            items[i] = (mix64(s) >>> 11) * DOUBLE_UNIT;
+        }
+        seed = s;
+        return items;
+    }
+
+    /**
+     * @return an inexhaustible {@link IntIterate} of the values that {@link #nextInt()} would return from this
+     *         generator's current position.  Every pass over it produces the same values, and none of them advance
+     *         this generator.
+     */
+    public IntIterate ints()
+    {
+        final long origin = seed;
+        return new IntIterate()
+        {
+            @Override
+            public IntIterator iterator()
+            {
+                return new IntIterator()
+                {
+                    private long s = origin;
+
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public int nextInt()
+                    {
+                        return mix32(s += gamma);
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(IntSink sink)
+            {
+                long s = origin;
+                while (sink.accept(mix32(s += gamma))) {
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param bound exclusive upper bound, which must be positive
+     *
+     * @return an inexhaustible {@link IntIterate} of the values that {@link #nextInt(int)} would return from this
+     *         generator's current position.  Every pass over it produces the same values, and none of them advance
+     *         this generator.
+     */
+    public IntIterate ints(final int bound)
+    {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+
+        final long origin = seed;
+        return new IntIterate()
+        {
+            @Override
+            public IntIterator iterator()
+            {
+                return new IntIterator()
+                {
+                    private long s = origin;
+
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public int nextInt()
+                    {
+                        return bounded(mix64(s += gamma), bound);
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(IntSink sink)
+            {
+                long s = origin;
+                while (sink.accept(bounded(mix64(s += gamma), bound))) {
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return an inexhaustible {@link LongIterate} of the values that {@link #nextLong()} would return from this
+     *         generator's current position.  Every pass over it produces the same values, and none of them advance
+     *         this generator.
+     */
+    public LongIterate longs()
+    {
+        final long origin = seed;
+        return new LongIterate()
+        {
+            @Override
+            public LongIterator iterator()
+            {
+                return new LongIterator()
+                {
+                    private long s = origin;
+
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public long nextLong()
+                    {
+                        return mix64(s += gamma);
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(LongSink sink)
+            {
+                long s = origin;
+                while (sink.accept(mix64(s += gamma))) {
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return an inexhaustible {@link DoubleIterate} of the values that {@link #nextDouble()} would return from this
+     *         generator's current position.  Every pass over it produces the same values, and none of them advance
+     *         this generator.
+     */
+    public DoubleIterate doubles()
+    {
+        final long origin = seed;
+        return new DoubleIterate()
+        {
+            @Override
+            public DoubleIterator iterator()
+            {
+                return new DoubleIterator()
+                {
+                    private long s = origin;
+
+                    public boolean hasNext()
+                    {
+                        return true;
+                    }
+
+                    public double nextDouble()
+                    {
+                        return (mix64(s += gamma) >>> 11) * DOUBLE_UNIT;
+                    }
+                };
+            }
+
+            @Override
+            public boolean traverse(DoubleSink sink)
+            {
+                long s = origin;
+                while (sink.accept((mix64(s += gamma) >>> 11) * DOUBLE_UNIT)) {
+                }
+                return false;
+            }
+        };
+    }
+
+    private long nextSeed()
+    {
+        return seed += gamma;
+    }
+
+    /**
+     * Maps 64 random bits to {@code [0, bound)} with Lemire's multiply-shift, rejecting the few values that would bias
+     * the result.  Instead of drawing again, a rejected value is re-mixed, so that every bounded value consumes exactly
+     * one step of the generator and {@link #jump(long)} stays exact.
+     */
+    private static int bounded(long bits, int bound)
+    {
+        long product = (bits >>> 32) * bound;
+        if ((product & 0xffffffffL) < bound) {
+            final long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xffffffffL) < threshold) {
+                bits = mix64(bits + GOLDEN_GAMMA);
+                product = (bits >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        // gammas with too few bit transitions make poorly mixed sequences
+        return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+/**
+ * A {@link org.bc.iterate.Function} whose result is an unboxed {@code double}.  Used to move from an {@link
+ * org.bc.iterate.Iterate} into a {@link DoubleIterate}.
+ *
+ * @author Brian Cavalier
+ * @param <X> argument (domain) type
+ * @see org.bc.iterate.Iterate#mapToDouble(ToDoubleFunction)
+ */
+public interface ToDoubleFunction<X>
+{
+    double apply(X x);
+}
@@ -17,14 +17,37 @@
 package org.bc.iterate.relational;
 
 import org.bc.iterate.Function;
+import org.bc.iterate.io.Serializer;
+import org.bc.iterate.iterable.FullIncrementalHashJoinIterable;
+import org.bc.iterate.iterable.HashJoinIterable;
 import org.bc.iterate.iterable.InnerIncrementalHashJoinIterable;
 import org.bc.iterate.iterable.LeftIncrementalHashJoinIterable;
+import org.bc.iterate.iterable.MergeJoinIterable;
+import org.bc.iterate.iterable.PrimitiveHashJoinIterable;
 import org.bc.iterate.iterable.RightIncrementalHashJoinIterable;
+import org.bc.iterate.iterable.SpillingHashJoinIterable;
+import org.bc.iterate.primitive.ToIntFunction;
+import org.bc.iterate.primitive.ToLongFunction;
+
+import java.util.Comparator;
 
 /**
  * Factory methods for easy creation of {@link JoinStrategy} instances for use with
  * {@link org.bc.iterate.Iterate#join(JoinStrategy, Iterable)}.
- * 
+ * <p/>
+ * The hash joins build their table from the smaller side when the sizes of both are known exactly, so the order of
+ * their results depends on the sizes, see {@link HashJoinIterable}.  Use {@link #ordered(JoinType, Function,
+ * Function)} when the results must be in the order of one side.
+ * <p/>
+ * The {@code Int} and {@code Long} variants, e.g. {@link #innerInt(ToIntFunction, ToIntFunction)}, take {@link
+ * ToIntFunction} or {@link ToLongFunction} key functions and join on unboxed keys, using a {@link
+ * PrimitiveHashJoinIterable}, and are preferable for joins on numeric ids.
+ * <p/>
+ * The {@code merge} variants stream both sides in key order rather than building a hash table of one side, see {@link
+ * MergeJoinIterable}, and are preferable for joining sides that are already sorted by key.  The {@code spilling}
+ * variants bound the memory used by a hash join, see {@link SpillingHashJoinIterable}.  The {@code indexed} variant
+ * joins with a prebuilt, shareable {@link JoinIndex} rather than building a hash table for every join.
+ *
  * @author Brian Cavalier
  */
 public class Join
@@ -76,4 +99,314 @@ public class Join
     {
         return inner(keyFunction, keyFunction);
     }
+
+    public static <K, X, Y> JoinStrategy<K, X, Y> full(final Function<? super X, K> xKeyFunction, final Function<? super Y, K> yKeyFunction)
+    {
+        return new JoinStrategy<K, X, Y>()
+        {
+            public Iterable<JoinResult<K, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return new FullIncrementalHashJoinIterable<K, X, Y>(left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <K, X> JoinStrategy<K, X, X> full(final Function<? super X, K> keyFunction)
+    {
+        return full(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Integer, X, Y> innerInt(final ToIntFunction<? super X> xKeyFunction,
+                                                           final ToIntFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Integer, X, Y>()
+        {
+            public Iterable<JoinResult<Integer, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.ints(JoinType.INNER, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Integer, X, X> innerInt(final ToIntFunction<? super X> keyFunction)
+    {
+        return innerInt(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Long, X, Y> innerLong(final ToLongFunction<? super X> xKeyFunction,
+                                                        final ToLongFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Long, X, Y>()
+        {
+            public Iterable<JoinResult<Long, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.longs(JoinType.INNER, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Long, X, X> innerLong(final ToLongFunction<? super X> keyFunction)
+    {
+        return innerLong(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Integer, X, Y> leftInt(final ToIntFunction<? super X> xKeyFunction,
+                                                          final ToIntFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Integer, X, Y>()
+        {
+            public Iterable<JoinResult<Integer, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.ints(JoinType.LEFT, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Integer, X, X> leftInt(final ToIntFunction<? super X> keyFunction)
+    {
+        return leftInt(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Long, X, Y> leftLong(final ToLongFunction<? super X> xKeyFunction,
+                                                       final ToLongFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Long, X, Y>()
+        {
+            public Iterable<JoinResult<Long, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.longs(JoinType.LEFT, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Long, X, X> leftLong(final ToLongFunction<? super X> keyFunction)
+    {
+        return leftLong(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Integer, X, Y> rightInt(final ToIntFunction<? super X> xKeyFunction,
+                                                           final ToIntFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Integer, X, Y>()
+        {
+            public Iterable<JoinResult<Integer, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.ints(JoinType.RIGHT, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Integer, X, X> rightInt(final ToIntFunction<? super X> keyFunction)
+    {
+        return rightInt(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Long, X, Y> rightLong(final ToLongFunction<? super X> xKeyFunction,
+                                                        final ToLongFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Long, X, Y>()
+        {
+            public Iterable<JoinResult<Long, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.longs(JoinType.RIGHT, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Long, X, X> rightLong(final ToLongFunction<? super X> keyFunction)
+    {
+        return rightLong(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Integer, X, Y> fullInt(final ToIntFunction<? super X> xKeyFunction,
+                                                          final ToIntFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Integer, X, Y>()
+        {
+            public Iterable<JoinResult<Integer, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.ints(JoinType.FULL, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Integer, X, X> fullInt(final ToIntFunction<? super X> keyFunction)
+    {
+        return fullInt(keyFunction, keyFunction);
+    }
+
+    public static <X, Y> JoinStrategy<Long, X, Y> fullLong(final ToLongFunction<? super X> xKeyFunction,
+                                                       final ToLongFunction<? super Y> yKeyFunction)
+    {
+        return new JoinStrategy<Long, X, Y>()
+        {
+            public Iterable<JoinResult<Long, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return PrimitiveHashJoinIterable.longs(JoinType.FULL, left, xKeyFunction, right, yKeyFunction);
+            }
+        };
+    }
+
+    public static <X> JoinStrategy<Long, X, X> fullLong(final ToLongFunction<? super X> keyFunction)
+    {
+        return fullLong(keyFunction, keyFunction);
+    }
+
+    /**
+     * A sort-merge join, which streams both sides in key order, holding only runs of items with equal keys, so it can
+     * join sides too large to fit in memory as long as they are already sorted by key.  It fails with an {@link
+     * IllegalStateException} if they are not, see {@link #merge(JoinType, Function, Function, Comparator, boolean)}.
+     *
+     * @param type         kind of join
+     * @param xKeyFunction computes the keys of the left items
+     * @param yKeyFunction computes the keys of the right items
+     * @return a sort-merge {@link JoinStrategy} on keys in their natural order
+     * @see MergeJoinIterable
+     */
+    public static <K extends Comparable<? super K>, X, Y> JoinStrategy<K, X, Y> merge(
+            final JoinType type, final Function<? super X, K> xKeyFunction, final Function<? super Y, K> yKeyFunction)
+    {
+        return merge(type, xKeyFunction, yKeyFunction, null);
+    }
+
+    public static <K extends Comparable<? super K>, X> JoinStrategy<K, X, X> merge(
+            final JoinType type, final Function<? super X, K> keyFunction)
+    {
+        return merge(type, keyFunction, keyFunction);
+    }
+
+    /**
+     * @param comparator ordering of the keys by which both sides are sorted
+     * @return a sort-merge {@link JoinStrategy} on keys in the order of {@code comparator}
+     * @see #merge(JoinType, Function, Function)
+     */
+    public static <K, X, Y> JoinStrategy<K, X, Y> merge(final JoinType type,
+                                                        final Function<? super X, K> xKeyFunction,
+                                                        final Function<? super Y, K> yKeyFunction,
+                                                        final Comparator<? super K> comparator)
+    {
+        return new JoinStrategy<K, X, Y>()
+        {
+            public Iterable<JoinResult<K, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return new MergeJoinIterable<K, X, Y>(type, left, xKeyFunction, right, yKeyFunction, comparator);
+            }
+        };
+    }
+
+    /**
+     * @param comparator   ordering of the keys, or {@code null} for their natural ordering
+     * @param sortIfNeeded {@code true} to read each side once before joining, and sort it first if it is not sorted by
+     *                     key, which requires that both sides can be iterated more than once
+     * @return a sort-merge {@link JoinStrategy} that, optionally, sorts unsorted sides
+     * @see #merge(JoinType, Function, Function)
+     */
+    public static <K, X, Y> JoinStrategy<K, X, Y> merge(final JoinType type,
+                                                        final Function<? super X, K> xKeyFunction,
+                                                        final Function<? super Y, K> yKeyFunction,
+                                                        final Comparator<? super K> comparator,
+                                                        final boolean sortIfNeeded)
+    {
+        return new JoinStrategy<K, X, Y>()
+        {
+            public Iterable<JoinResult<K, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return new MergeJoinIterable<K, X, Y>(type, left, xKeyFunction, right, yKeyFunction, comparator,
+                                                      sortIfNeeded);
+            }
+        };
+    }
+
+    /**
+     * A hybrid hash join that holds at most {@code memoryBudget} items of its build side (the right side, or the left
+     * side of a right join) in memory, and spills the rest, hash partitioned, to temporary files.
+     *
+     * @param type         kind of join
+     * @param xKeyFunction computes the keys of the left items
+     * @param yKeyFunction computes the keys of the right items
+     * @param xSerializer  serializes left items that are spilled
+     * @param ySerializer  serializes right items that are spilled
+     * @param memoryBudget maximum number of build items to hold in memory
+     * @return a {@link JoinStrategy} that spills to disk
+     * @see SpillingHashJoinIterable
+     */
+    public static <K, X, Y> JoinStrategy<K, X, Y> spilling(final JoinType type,
+                                                           final Function<? super X, K> xKeyFunction,
+                                                           final Function<? super Y, K> yKeyFunction,
+                                                           final Serializer<X> xSerializer,
+                                                           final Serializer<Y> ySerializer,
+                                                           final int memoryBudget)
+    {
+        return new JoinStrategy<K, X, Y>()
+        {
+            public Iterable<JoinResult<K, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return new SpillingHashJoinIterable<K, X, Y>(type, left, xKeyFunction, xSerializer,
+                                                             right, yKeyFunction, ySerializer, memoryBudget, null);
+            }
+        };
+    }
+
+    public static <K, X> JoinStrategy<K, X, X> spilling(final JoinType type, final Function<? super X, K> keyFunction,
+                                                        final Serializer<X> serializer, final int memoryBudget)
+    {
+        return spilling(type, keyFunction, keyFunction, serializer, serializer, memoryBudget);
+    }
+
+    /**
+     * A hash join that always builds its table from the right items, or the left items for a right join, rather than
+     * from whichever side is smaller, so that its pairs are produced in the order of the left items, or the right items
+     * for a right join.
+     *
+     * @param type         kind of join
+     * @param xKeyFunction computes the keys of the left items
+     * @param yKeyFunction computes the keys of the right items
+     * @return a {@link JoinStrategy} whose results are in the order of one side
+     * @see HashJoinIterable
+     */
+    public static <K, X, Y> JoinStrategy<K, X, Y> ordered(final JoinType type,
+                                                          final Function<? super X, K> xKeyFunction,
+                                                          final Function<? super Y, K> yKeyFunction)
+    {
+        return new JoinStrategy<K, X, Y>()
+        {
+            public Iterable<JoinResult<K, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                return new HashJoinIterable<K, X, Y>(type, left, xKeyFunction, right, yKeyFunction, true);
+            }
+        };
+    }
+
+    /**
+     * A hash join whose build side is a prebuilt {@link JoinIndex}, which is the right side of every join, e.g.
+     * <pre>
+     * JoinIndex&lt;Integer, Product&gt; products = JoinIndex.of(allProducts, productId);
+     * JoinStrategy&lt;Integer, Order, Product&gt; strategy = Join.indexed(JoinType.LEFT, orderProductId, products);
+     * Iterate.each(orders).join(strategy, products);
+     * </pre>
+     * The right side passed to {@link JoinStrategy#join(Iterable, Iterable)} must be {@code index} itself.  The index
+     * is not rebuilt by any join, so one index can be joined with any number of left sides, concurrently.  The pairs
+     * are produced in the order of the left items.
+     *
+     * @param type         kind of join
+     * @param xKeyFunction computes the keys of the left items
+     * @param index        right items, by key
+     * @return a {@link JoinStrategy} that joins its left side with {@code index}
+     * @throws IllegalArgumentException by {@link JoinStrategy#join(Iterable, Iterable)} if the right side is not
+     *                                  {@code index}
+     */
+    public static <K, X, Y> JoinStrategy<K, X, Y> indexed(final JoinType type, final Function<? super X, K> xKeyFunction,
+                                                          final JoinIndex<K, Y> index)
+    {
+        return new JoinStrategy<K, X, Y>()
+        {
+            public Iterable<JoinResult<K, X, Y>> join(final Iterable<X> left, final Iterable<Y> right)
+            {
+                if (right != index) {
+                    throw new IllegalArgumentException("right side must be the JoinIndex of this join");
+                }
+                return new HashJoinIterable<K, X, Y>(type, left, xKeyFunction, index.getItems());
+            }
+        };
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.relational;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.util.Multimap;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable hash table of items by key, built once and then used as the build side of any number of joins, see
+ * {@link Join#indexed(JoinType, Function, JoinIndex)}.  The hash joins build a table of their build side for every
+ * join, which is wasteful when the same items, e.g. a small table of reference data, are joined with many other {@link
+ * Iterable}s, one after another or concurrently.  A {@link JoinIndex} is never modified after it is built, so it can be
+ * shared by any number of threads.
+ * <p/>
+ * A {@link JoinIndex} is also an {@link Iterable} of its items, in the order they were indexed.
+ *
+ * @author Brian Cavalier
+ * @param <K> key type
+ * @param <Y> item type
+ */
+public final class JoinIndex<K, Y> implements Iterable<Y>
+{
+    private final Multimap<K, Y> items;
+
+    private JoinIndex(Multimap<K, Y> items)
+    {
+        this.items = items;
+    }
+
+    /**
+     * @param items       items to index, which are iterated once
+     * @param keyFunction computes the key of each item
+     *
+     * @return a {@link JoinIndex} of {@code items} by {@code keyFunction}
+     */
+    public static <K, Y> JoinIndex<K, Y> of(Iterable<? extends Y> items, Function<? super Y, K> keyFunction)
+    {
+        return new JoinIndex<K, Y>(Multimap.<K, Y>of(items, keyFunction, 0));
+    }
+
+    /**
+     * @return the items, by key
+     */
+    public Multimap<K, Y> getItems()
+    {
+        return items;
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int size()
+    {
+        return items.size();
+    }
+
+    public Iterator<Y> iterator()
+    {
+        return new Iterator<Y>()
+        {
+            private int i;
+
+            public boolean hasNext()
+            {
+                return i < items.size();
+            }
+
+            public Y next()
+            {
+                if (i >= items.size()) {
+                    throw new NoSuchElementException();
+                }
+                return items.get(i++);
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.relational;
+
+/**
+ * The kinds of relational join.  Each pairs the items of the left and right sides that have equal keys; they differ
+ * in which unpaired items they also produce, paired with {@code null}.
+ *
+ * @author Brian Cavalier
+ */
+public enum JoinType
+{
+    /**
+     * Only the pairs of left and right items with equal keys
+     */
+    INNER,
+
+    /**
+     * The pairs of an {@link #INNER} join, and each left item without a matching right item
+     */
+    LEFT,
+
+    /**
+     * The pairs of an {@link #INNER} join, and each right item without a matching left item
+     */
+    RIGHT,
+
+    /**
+     * The pairs of an {@link #INNER} join, and each left or right item without a matching item on the other side
+     */
+    FULL
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.util;
+
+import java.util.Arrays;
+
+/**
+ * The hash table shared by {@link Multimap} and {@link org.bc.iterate.primitive.LongMultimap}, whatever the type of
+ * their keys.  The values are addressed by index, and each value is given by the hash code of its key: the distinct
+ * keys are held, as the index of their first value and their hash code, in an open-addressing table with linear
+ * probing, and the values with the same key are chained, in index order, by an array of {@code int} indexes.
+ * <p/>
+ * Probing for a key:
+ * <pre>
+ * for (int slot = chains.home(hash), first; (first = chains.first(slot)) >= 0; slot = chains.probe(slot)) {
+ *     if (chains.hash(slot) == hash &amp;&amp; key equals the key of value first) {
+ *         return first;
+ *     }
+ * }
+ * </pre>
+ * A {@link HashChains} is never modified after it is built, so it can be shared by any number of threads.
+ *
+ * @author Brian Cavalier
+ */
+public final class HashChains
+{
+    /**
+     * Most slots in the table.  One is always left empty, so that probes for missing keys end.
+     */
+    private static final int MAX_SLOTS = 1 << 30;
+
+    /**
+     * Most values, the largest array most VMs can allocate
+     */
+    private static final int MAX_VALUES = Integer.MAX_VALUE - 8;
+
+    private final int[] next;
+    private final int[] slotFirst;
+    private final int[] slotHashes;
+    private final int shift;
+    private final int mask;
+    private final int keyCount;
+
+    /**
+     * Compares the keys of two values by index
+     */
+    public interface Keys
+    {
+        boolean equal(int i, int j);
+    }
+
+    /**
+     * @param hashes the hash code of the key of each value, whose high bits must be well mixed, e.g. by Fibonacci
+     *               hashing, since they choose the slot
+     * @param keys   compares the keys of two values
+     *
+     * @throws IllegalArgumentException if there are more distinct keys than the table can hold
+     */
+    public HashChains(int[] hashes, Keys keys)
+    {
+        final int size = hashes.length;
+        this.next = new int[size];
+
+        // at most half full, so that probes for missing keys stay short
+        final int bits = Math.min(30, 33 - Integer.numberOfLeadingZeros(Math.max(1, size - 1)));
+        this.shift = 32 - bits;
+        this.mask = (1 << bits) - 1;
+        this.slotFirst = new int[1 << bits];
+        this.slotHashes = new int[1 << bits];
+        Arrays.fill(slotFirst, -1);
+
+        final int[] slotLast = new int[1 << bits];
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            final int hash = hashes[i];
+            int slot = hash >>> shift;
+            while (slotFirst[slot] >= 0 && !(slotHashes[slot] == hash && keys.equal(slotFirst[slot], i))) {
+                slot = (slot + 1) & mask;
+            }
+            next[i] = -1;
+            if (slotFirst[slot] < 0) {
+                if (++distinct == MAX_SLOTS) {
+                    throw new IllegalArgumentException("More than " + (MAX_SLOTS - 1) + " distinct keys");
+                }
+                slotHashes[slot] = hash;
+                slotFirst[slot] = i;
+            } else {
+                next[slotLast[slot]] = i;
+            }
+            slotLast[slot] = i;
+        }
+        this.keyCount = distinct;
+    }
+
+    /**
+     * @param items  items
+     * @param expect expected number of items, which only sizes the initial array
+     *
+     * @return an array of exactly the {@code items}, in order
+     * @throws IllegalArgumentException if there are more items than an array can hold
+     */
+    public static Object[] toArray(Iterable<?> items, int expect)
+    {
+        Object[] values = new Object[Math.max(16, Math.min(MAX_VALUES, expect))];
+        int size = 0;
+        for (Object item : items) {
+            if (size == values.length) {
+                if (size == MAX_VALUES) {
+                    throw new IllegalArgumentException("More than " + MAX_VALUES + " items");
+                }
+                values = Arrays.copyOf(values, (int) Math.min(MAX_VALUES, size * 2L));
+            }
+            values[size++] = item;
+        }
+        return values.length == size ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @return the number of distinct keys
+     */
+    public int keyCount()
+    {
+        return keyCount;
+    }
+
+    /**
+     * @param hash hash code of a key
+     *
+     * @return the first slot to probe for the key
+     */
+    public int home(int hash)
+    {
+        return hash >>> shift;
+    }
+
+    /**
+     * @param slot a slot
+     *
+     * @return the slot to probe after {@code slot}
+     */
+    public int probe(int slot)
+    {
+        return (slot + 1) & mask;
+    }
+
+    /**
+     * @param slot a slot
+     *
+     * @return index of the first value with the key in {@code slot}, or {@code -1} if the slot is empty, which ends
+     *         the probe
+     */
+    public int first(int slot)
+    {
+        return slotFirst[slot];
+    }
+
+    /**
+     * @param slot a full slot
+     *
+     * @return hash code of the key in {@code slot}
+     */
+    public int hash(int slot)
+    {
+        return slotHashes[slot];
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return index of the next value with the same key, or {@code -1} if there are no more
+     */
+    public int next(int index)
+    {
+        return next[index];
+    }
+}
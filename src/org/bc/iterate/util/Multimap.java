@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.util;
+
+import org.bc.iterate.Function;
+
+/**
+ * An immutable multimap from keys to values, built in one pass over an {@link Iterable}, for the build side of hash
+ * joins.  Unlike a {@code HashMap<K, List<V>>}, it allocates no map entries or per-key lists: the values and their
+ * keys are held in two arrays, and the values with the same key are chained, in the order they were added, by a
+ * {@link HashChains} table.  Keys are compared with {@link Object#equals(Object)}, and may be {@code null}.
+ * <p/>
+ * Values are addressed by their index, from {@code 0} to {@link #size()} (exclusive), in the order in which they were
+ * added:
+ * <pre>
+ * for (int i = multimap.first(key); i >= 0; i = multimap.next(i)) {
+ *     V value = multimap.get(i);
+ * }
+ * </pre>
+ * A {@link Multimap} is never modified after it is built, so it can be shared by any number of threads.
+ *
+ * @author Brian Cavalier
+ * @param <K> key type
+ * @param <V> value type
+ * @see org.bc.iterate.primitive.LongMultimap
+ */
+public final class Multimap<K, V>
+{
+    private final Object[] values;
+    private final Object[] keys;
+    private final HashChains chains;
+
+    private Multimap(Object[] values, final Object[] keys)
+    {
+        this.values = values;
+        this.keys = keys;
+        final int[] hashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i]);
+        }
+        this.chains = new HashChains(hashes, new HashChains.Keys()
+        {
+            public boolean equal(int i, int j)
+            {
+                return Multimap.equal(keys[i], keys[j]);
+            }
+        });
+    }
+
+    /**
+     * @param items  values
+     * @param key    {@link Function} that computes the key of each value
+     * @param expect expected number of values, which only sizes the initial array
+     *
+     * @return a {@link Multimap} of {@code items} by {@code key}
+     * @throws IllegalArgumentException if there are more values, or distinct keys, than a {@link Multimap} can hold
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <K, V> Multimap<K, V> of(Iterable<? extends V> items, Function<? super V, ? extends K> key,
+                                           int expect)
+    {
+        final Object[] values = HashChains.toArray(items, expect);
+        final Object[] keys = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = key.apply((V) values[i]);
+        }
+        return new Multimap<K, V>(values, keys);
+    }
+
+    /**
+     * @return the number of values
+     */
+    public int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * @return the number of distinct keys
+     */
+    public int keyCount()
+    {
+        return chains.keyCount();
+    }
+
+    /**
+     * @param key key
+     *
+     * @return index of the first value with {@code key}, or {@code -1} if there are none
+     */
+    public int first(Object key)
+    {
+        final int hash = hash(key);
+        for (int slot = chains.home(hash), first; (first = chains.first(slot)) >= 0; slot = chains.probe(slot)) {
+            if (chains.hash(slot) == hash && equal(keys[first], key)) {
+                return first;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return index of the next value with the same key, or {@code -1} if there are no more
+     */
+    public int next(int index)
+    {
+        return chains.next(index);
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return the value
+     */
+    @SuppressWarnings({"unchecked"})
+    public V get(int index)
+    {
+        return (V) values[index];
+    }
+
+    /**
+     * @param index index of a value
+     *
+     * @return the key of the value
+     */
+    @SuppressWarnings({"unchecked"})
+    public K getKey(int index)
+    {
+        return (K) keys[index];
+    }
+
+    private static int hash(Object key)
+    {
+        // Fibonacci hashing: the multiplication spreads every bit of the hash code into the high bits
+        return (key == null ? 0 : key.hashCode()) * 0x9e3779b9;
+    }
+
+    private static boolean equal(Object k1, Object k2)
+    {
+        return k1 == null ? k2 == null : k1.equals(k2);
+    }
+}
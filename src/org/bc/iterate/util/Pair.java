@@ -66,7 +66,7 @@ public class Pair<X, Y>
     @Override
     public String toString()
     {
-        return x.toString() + ',' + y;
+        return String.valueOf(x) + ',' + y;
     }
 
     @Override
@@ -0,0 +1,664 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.util;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Sorting algorithms specialized by item type and size, used by the {@code sort} operators:
+ * <ul>
+ * <li>{@code int}s and {@code long}s, and {@link Integer}s and {@link Long}s in their natural order, are sorted with an
+ * LSD radix sort, which makes a fixed number of linear passes instead of {@code O(n log n)} comparisons, and skips the
+ * passes for bytes that all items share</li>
+ * <li>{@link String}s in their natural order are sorted with Bentley and Sedgewick's multikey quicksort, which
+ * examines each character of a common prefix once, rather than once per comparison</li>
+ * <li>large inputs of any other type can be sorted in parallel, when an {@link Executor} is supplied: chunks are sorted
+ * concurrently, and then merged pairwise, each round of merges also running concurrently</li>
+ * </ul>
+ * Small inputs, for which none of these pay off, are sorted with {@link Arrays#sort} or {@link Collections#sort}.
+ * Every path produces exactly the order that {@link Collections#sort} would, and the generic paths are stable.
+ *
+ * @author Brian Cavalier
+ */
+public final class Sorting
+{
+    /**
+     * Below this size, radix and multikey sorts lose to a comparison sort
+     */
+    static final int SPECIALIZED_THRESHOLD = 1 << 10;
+
+    /**
+     * Below this size, a comparison sort is not worth splitting among threads
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private Sorting()
+    {
+    }
+
+    /**
+     * Sorts {@code items} in their natural order, in place, choosing the algorithm from the type of the items and
+     * their number.
+     *
+     * @param items items to sort, none of which may be {@code null}
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <X extends Comparable<? super X>> void sort(List<X> items)
+    {
+        final int n = items.size();
+        final Class<?> type = n < SPECIALIZED_THRESHOLD ? null : commonClass(items);
+        if (type == Integer.class) {
+            final int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = (Integer) items.get(i);
+            }
+            radixSort(keys, 0, n);
+            for (int i = 0; i < n; i++) {
+                items.set(i, (X) Integer.valueOf(keys[i]));
+            }
+        } else if (type == Long.class) {
+            final long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = (Long) items.get(i);
+            }
+            radixSort(keys, 0, n);
+            for (int i = 0; i < n; i++) {
+                items.set(i, (X) Long.valueOf(keys[i]));
+            }
+        } else if (type == String.class) {
+            final String[] strings = items.toArray(new String[n]);
+            multikeySort(strings, 0, n);
+            for (int i = 0; i < n; i++) {
+                items.set(i, (X) strings[i]);
+            }
+        } else {
+            sort(items, null);
+        }
+    }
+
+    /**
+     * Sorts {@code items} in the order defined by {@code comparator}, in place, on the calling thread.  The sort is
+     * stable.
+     *
+     * @param items      items to sort
+     * @param comparator ordering, or {@code null} for the items' natural order
+     */
+    public static <X> void sort(List<X> items, Comparator<? super X> comparator)
+    {
+        Collections.sort(items, comparator);
+    }
+
+    /**
+     * Sorts {@code items} in the order defined by {@code comparator}, in place, in parallel on {@code executor} if
+     * there are enough of them, see {@link #parallelSort(Object[], Comparator, Executor, int)}.  {@code comparator} is
+     * then called by several threads at once, so it must be thread-safe.  The sort is stable.
+     *
+     * @param items       items to sort
+     * @param comparator  ordering, or {@code null} for the items' natural order
+     * @param executor    {@link Executor} on which to sort and merge
+     * @param parallelism number of chunks to sort concurrently
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <X> void sort(List<X> items, Comparator<? super X> comparator, Executor executor, int parallelism)
+    {
+        if (items.size() < PARALLEL_THRESHOLD || parallelism < 2) {
+            Collections.sort(items, comparator);
+            return;
+        }
+
+        final Object[] array = items.toArray();
+        parallelSort(array, (Comparator<Object>) comparator, executor, parallelism);
+        for (int i = 0; i < array.length; i++) {
+            items.set(i, (X) array[i]);
+        }
+    }
+
+    /**
+     * Sorts {@code items[from]} to {@code items[to - 1]}, with a radix sort if there are enough of them.
+     */
+    public static void sort(int[] items, int from, int to)
+    {
+        if (to - from < SPECIALIZED_THRESHOLD) {
+            Arrays.sort(items, from, to);
+        } else {
+            radixSort(items, from, to);
+        }
+    }
+
+    /**
+     * Sorts {@code items[from]} to {@code items[to - 1]}, with a radix sort if there are enough of them.
+     */
+    public static void sort(long[] items, int from, int to)
+    {
+        if (to - from < SPECIALIZED_THRESHOLD) {
+            Arrays.sort(items, from, to);
+        } else {
+            radixSort(items, from, to);
+        }
+    }
+
+    /**
+     * Sorts {@code items[from]} to {@code items[to - 1]} with a least significant digit first radix sort, one byte per
+     * pass.
+     */
+    public static void radixSort(int[] items, int from, int to)
+    {
+        final int n = to - from;
+        if (n < 2) {
+            return;
+        }
+
+        int[] source = items;
+        int sourceOffset = from;
+        int[] target = new int[n];
+        int targetOffset = 0;
+        final int[] offsets = new int[256];
+        for (int shift = 0; shift < 32; shift += 8) {
+            // flip the sign bit of the most significant byte, so that negative items come first
+            final int flip = shift == 24 ? 0x80 : 0;
+            Arrays.fill(offsets, 0);
+            for (int i = sourceOffset, end = sourceOffset + n; i < end; i++) {
+                offsets[((source[i] >>> shift) & 0xff) ^ flip]++;
+            }
+            if (offsets[((source[sourceOffset] >>> shift) & 0xff) ^ flip] == n) {
+                continue;
+            }
+
+            for (int b = 0, total = targetOffset; b < 256; b++) {
+                final int count = offsets[b];
+                offsets[b] = total;
+                total += count;
+            }
+            for (int i = sourceOffset, end = sourceOffset + n; i < end; i++) {
+                final int x = source[i];
+                target[offsets[((x >>> shift) & 0xff) ^ flip]++] = x;
+            }
+
+            final int[] swap = source;
+            source = target;
+            target = swap;
+            final int swapOffset = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = swapOffset;
+        }
+
+        if (source != items) {
+            System.arraycopy(source, sourceOffset, items, from, n);
+        }
+    }
+
+    /**
+     * Sorts {@code items[from]} to {@code items[to - 1]} with a least significant digit first radix sort, one byte per
+     * pass.
+     */
+    public static void radixSort(long[] items, int from, int to)
+    {
+        final int n = to - from;
+        if (n < 2) {
+            return;
+        }
+
+        long[] source = items;
+        int sourceOffset = from;
+        long[] target = new long[n];
+        int targetOffset = 0;
+        final int[] offsets = new int[256];
+        for (int shift = 0; shift < 64; shift += 8) {
+            final int flip = shift == 56 ? 0x80 : 0;
+            Arrays.fill(offsets, 0);
+            for (int i = sourceOffset, end = sourceOffset + n; i < end; i++) {
+                offsets[((int) (source[i] >>> shift) & 0xff) ^ flip]++;
+            }
+            if (offsets[((int) (source[sourceOffset] >>> shift) & 0xff) ^ flip] == n) {
+                continue;
+            }
+
+            for (int b = 0, total = targetOffset; b < 256; b++) {
+                final int count = offsets[b];
+                offsets[b] = total;
+                total += count;
+            }
+            for (int i = sourceOffset, end = sourceOffset + n; i < end; i++) {
+                final long x = source[i];
+                target[offsets[((int) (x >>> shift) & 0xff) ^ flip]++] = x;
+            }
+
+            final long[] swap = source;
+            source = target;
+            target = swap;
+            final int swapOffset = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = swapOffset;
+        }
+
+        if (source != items) {
+            System.arraycopy(source, sourceOffset, items, from, n);
+        }
+    }
+
+    /**
+     * Sorts {@code items[from]} to {@code items[to - 1]} in their natural order with a multikey (three-way radix)
+     * quicksort.
+     */
+    public static void multikeySort(String[] items, int from, int to)
+    {
+        multikeySort(items, from, to, 0);
+    }
+
+    private static void multikeySort(String[] items, int from, int to, int depth)
+    {
+        // recurse into the two smaller partitions and loop on the largest, so the stack stays shallow even for long
+        // common prefixes, which make the partition of items equal to the pivot character the largest
+        while (to - from > INSERTION_THRESHOLD) {
+            swap(items, from, from + (to - from) / 2);
+            final int pivot = charAt(items[from], depth);
+            int less = from;
+            int greater = to - 1;
+            int i = from + 1;
+            while (i <= greater) {
+                final int c = charAt(items[i], depth);
+                if (c < pivot) {
+                    swap(items, less++, i++);
+                } else if (c > pivot) {
+                    swap(items, i, greater--);
+                } else {
+                    i++;
+                }
+            }
+
+            // items[from, less) < pivot == items[less, greater] < items(greater, to)
+            final int lessSize = less - from;
+            final int equalSize = pivot < 0 ? 0 : greater + 1 - less;
+            final int greaterSize = to - greater - 1;
+            if (pivot >= 0 && equalSize >= lessSize && equalSize >= greaterSize) {
+                multikeySort(items, from, less, depth);
+                multikeySort(items, greater + 1, to, depth);
+                from = less;
+                to = greater + 1;
+                depth++;
+            } else if (lessSize >= greaterSize) {
+                if (pivot >= 0) {
+                    multikeySort(items, less, greater + 1, depth + 1);
+                }
+                multikeySort(items, greater + 1, to, depth);
+                to = less;
+            } else {
+                multikeySort(items, from, less, depth);
+                if (pivot >= 0) {
+                    multikeySort(items, less, greater + 1, depth + 1);
+                }
+                from = greater + 1;
+            }
+        }
+
+        // the items share their first depth characters, so the full comparison orders them correctly
+        for (int i = from + 1; i < to; i++) {
+            final String x = items[i];
+            int j = i;
+            while (j > from && items[j - 1].compareTo(x) > 0) {
+                items[j] = items[j - 1];
+                j--;
+            }
+            items[j] = x;
+        }
+    }
+
+    private static int charAt(String s, int index)
+    {
+        return index < s.length() ? s.charAt(index) : -1;
+    }
+
+    private static void swap(Object[] items, int i, int j)
+    {
+        final Object x = items[i];
+        items[i] = items[j];
+        items[j] = x;
+    }
+
+    /**
+     * Computes the permutation that sorts {@code keys}, without moving them: the index of the smallest key, then the
+     * index of the next smallest, and so on.  Equal keys keep their relative order.
+     *
+     * @param keys       keys
+     * @param comparator ordering, or {@code null} for the keys' natural order
+     *
+     * @return the indexes of {@code keys} in sorted order
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <K> int[] order(K[] keys, Comparator<? super K> comparator)
+    {
+        final Comparator<Object> order = comparator != null ? (Comparator<Object>) comparator : NATURAL;
+        final int n = keys.length;
+        int[] indexes = identity(n);
+        int[] buffer = new int[n];
+
+        // a bottom-up merge sort of the indexes, comparing the keys to which they refer, starting from runs that are
+        // sorted by insertion
+        for (int start = 0; start < n; start += INSERTION_THRESHOLD) {
+            final int end = Math.min(n, start + INSERTION_THRESHOLD);
+            for (int i = start + 1; i < end; i++) {
+                final int x = indexes[i];
+                int j = i;
+                while (j > start && order.compare(keys[indexes[j - 1]], keys[x]) > 0) {
+                    indexes[j] = indexes[j - 1];
+                    j--;
+                }
+                indexes[j] = x;
+            }
+        }
+        for (int width = INSERTION_THRESHOLD; width < n; width = (int) Math.min(n, 2L * width)) {
+            for (int start = 0, end; start < n; start = end) {
+                final int middle = (int) Math.min(n, (long) start + width);
+                end = (int) Math.min(n, start + 2L * width);
+                int i = start;
+                int j = middle;
+                int k = start;
+                while (i < middle && j < end) {
+                    buffer[k++] = order.compare(keys[indexes[j]], keys[indexes[i]]) < 0 ? indexes[j++] : indexes[i++];
+                }
+                System.arraycopy(indexes, i, buffer, k, middle - i);
+                System.arraycopy(indexes, j, buffer, k + middle - i, end - j);
+            }
+            final int[] swap = indexes;
+            indexes = buffer;
+            buffer = swap;
+        }
+
+        return indexes;
+    }
+
+    /**
+     * @param keys keys
+     *
+     * @return the indexes of {@code keys} in ascending order of the keys, equal keys keeping their relative order
+     */
+    public static int[] order(int[] keys)
+    {
+        // each key and its index packed into one long sort by key, then by index, so one radix sort does it all
+        final int n = keys.length;
+        final long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        sort(packed, 0, n);
+
+        final int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = (int) packed[i];
+        }
+        return indexes;
+    }
+
+    /**
+     * @param keys keys
+     *
+     * @return the indexes of {@code keys} in ascending order of the keys, equal keys keeping their relative order
+     */
+    public static int[] order(long[] keys)
+    {
+        return radixOrder(keys.clone());
+    }
+
+    /**
+     * @param keys keys
+     *
+     * @return the indexes of {@code keys} in the ascending order of {@link Double#compare(double, double)}, equal keys
+     *         keeping their relative order
+     */
+    public static int[] order(double[] keys)
+    {
+        // flipping the other bits of negative doubles makes their bits, as signed longs, order as Double.compare does
+        final long[] bits = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            final long x = Double.doubleToLongBits(keys[i]);
+            bits[i] = x ^ ((x >> 63) & Long.MAX_VALUE);
+        }
+        return radixOrder(bits);
+    }
+
+    /**
+     * An LSD radix sort of {@code keys} that moves the indexes along with them, and so is stable
+     */
+    private static int[] radixOrder(long[] keys)
+    {
+        final int n = keys.length;
+        long[] source = keys;
+        long[] target = new long[n];
+        int[] indexes = identity(n);
+        int[] targetIndexes = new int[n];
+        final int[] offsets = new int[256];
+        for (int shift = 0; n > 1 && shift < 64; shift += 8) {
+            final int flip = shift == 56 ? 0x80 : 0;
+            Arrays.fill(offsets, 0);
+            for (int i = 0; i < n; i++) {
+                offsets[((int) (source[i] >>> shift) & 0xff) ^ flip]++;
+            }
+            if (offsets[((int) (source[0] >>> shift) & 0xff) ^ flip] == n) {
+                continue;
+            }
+
+            for (int b = 0, total = 0; b < 256; b++) {
+                final int count = offsets[b];
+                offsets[b] = total;
+                total += count;
+            }
+            for (int i = 0; i < n; i++) {
+                final long x = source[i];
+                final int position = offsets[((int) (x >>> shift) & 0xff) ^ flip]++;
+                target[position] = x;
+                targetIndexes[position] = indexes[i];
+            }
+
+            final long[] swap = source;
+            source = target;
+            target = swap;
+            final int[] swapIndexes = indexes;
+            indexes = targetIndexes;
+            targetIndexes = swapIndexes;
+        }
+
+        return indexes;
+    }
+
+    private static int[] identity(int n)
+    {
+        final int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    /**
+     * Stable parallel merge sort: sorts {@code parallelism} chunks of {@code items} concurrently, and then merges
+     * pairs of adjacent runs, concurrently, until one run remains.  The calling thread takes part, running any chunk or
+     * merge that no thread of {@code executor} has started yet, so the sort completes even if it is itself running on
+     * {@code executor} and every thread of it is busy.
+     *
+     * @param items       items to sort
+     * @param comparator  ordering, or {@code null} for the items' natural order
+     * @param executor    {@link Executor} on which to sort and merge
+     * @param parallelism number of chunks to sort concurrently
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <X> void parallelSort(final X[] items, Comparator<? super X> comparator, Executor executor,
+                                        int parallelism)
+    {
+        final Comparator<? super X> order;
+        if (comparator != null) {
+            order = comparator;
+        } else {
+            order = (Comparator<? super X>) NATURAL;
+        }
+        final int n = items.length;
+        final int chunks = Math.max(1, Math.min(parallelism, n / INSERTION_THRESHOLD));
+        int[] bounds = new int[chunks + 1];
+        for (int i = 0; i <= chunks; i++) {
+            bounds[i] = (int) ((long) n * i / chunks);
+        }
+
+        final List<Callable<Object>> sorts = new ArrayList<Callable<Object>>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int from = bounds[i];
+            final int to = bounds[i + 1];
+            sorts.add(new Callable<Object>()
+            {
+                public Object call()
+                {
+                    Arrays.sort(items, from, to, order);
+                    return null;
+                }
+            });
+        }
+        runAll(executor, sorts);
+
+        X[] source = items;
+        X[] target = (X[]) new Object[n];
+        while (bounds.length > 2) {
+            final int runs = bounds.length - 1;
+            final int[] merged = new int[(runs + 1) / 2 + 1];
+            final List<Callable<Object>> merges = new ArrayList<Callable<Object>>(merged.length);
+            for (int r = 0; r < runs; r += 2) {
+                final X[] from = source;
+                final X[] to = target;
+                final int start = bounds[r];
+                final int middle = bounds[r + 1];
+                final int end = r + 2 < bounds.length ? bounds[r + 2] : middle;
+                merged[r / 2 + 1] = end;
+                merges.add(new Callable<Object>()
+                {
+                    public Object call()
+                    {
+                        merge(from, start, middle, end, to, order);
+                        return null;
+                    }
+                });
+            }
+            runAll(executor, merges);
+
+            bounds = merged;
+            final X[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != items) {
+            System.arraycopy(source, 0, items, 0, n);
+        }
+    }
+
+    /**
+     * Merges the runs {@code source[start, middle)} and {@code source[middle, end)} into {@code target[start, end)},
+     * taking the item from the first run when items are equal, so that the merge is stable.
+     */
+    private static <X> void merge(X[] source, int start, int middle, int end, X[] target,
+                                  Comparator<? super X> comparator)
+    {
+        int i = start;
+        int j = middle;
+        int k = start;
+        while (i < middle && j < end) {
+            target[k++] = comparator.compare(source[j], source[i]) < 0 ? source[j++] : source[i++];
+        }
+        System.arraycopy(source, i, target, k, middle - i);
+        System.arraycopy(source, j, target, k + middle - i, end - j);
+    }
+
+    /**
+     * Runs all but the last task on {@code executor} and the last in the calling thread, then runs in the calling
+     * thread any that {@code executor} has not yet started, and waits for the rest.  Waiting only for tasks that are
+     * already running means the calling thread never blocks on tasks queued behind it, e.g. when it is a thread of
+     * {@code executor} itself.
+     */
+    private static void runAll(Executor executor, List<Callable<Object>> tasks)
+    {
+        final List<FutureTask<Object>> futures = new ArrayList<FutureTask<Object>>(tasks.size());
+        try {
+            for (int i = 0; i < tasks.size() - 1; i++) {
+                final FutureTask<Object> future = new FutureTask<Object>(tasks.get(i));
+                executor.execute(future);
+                futures.add(future);
+            }
+            if (!tasks.isEmpty()) {
+                tasks.get(tasks.size() - 1).call();
+            }
+            for (FutureTask<Object> future : futures) {
+                // Does nothing if the executor has already started the task
+                future.run();
+            }
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sorting in parallel", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            for (Future<Object> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return the class of all of {@code items}, or {@code null} if they are not all of the same class, or any is
+     *         {@code null}
+     */
+    private static Class<?> commonClass(List<?> items)
+    {
+        Class<?> type = null;
+        for (Object item : items) {
+            if (item == null || (type != null && item.getClass() != type)) {
+                return null;
+            }
+            type = item.getClass();
+        }
+        return type;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private static final Comparator<Object> NATURAL = new Comparator<Object>()
+    {
+        public int compare(Object x, Object y)
+        {
+            return ((Comparable<Object>) x).compareTo(y);
+        }
+    };
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchTest
+{
+    @Test
+    public void stages()
+    {
+        final Batch<Integer> batch = new Batch<Integer>(8);
+        for (int i = 0; i < 7; i++) {
+            assertTrue(batch.add(i));
+        }
+        assertFalse(batch.add(7));
+        assertEquals(8, batch.size());
+
+        final Batch<String> strings = batch.where(Conditions.gt(2)).map(Strings.<Integer>string());
+        assertEquals(5, strings.size());
+        assertEquals("3", strings.get(0));
+        assertFalse(strings.until(Conditions.eq("6")));
+        assertEquals(Arrays.asList("3", "4", "5"), collect(strings));
+        assertTrue(strings.until(Conditions.eq("6")));
+
+        strings.clear();
+        assertEquals(0, strings.size());
+        assertFalse(strings.isFilled());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addAfterWhere()
+    {
+        final Batch<Integer> batch = new Batch<Integer>(8);
+        batch.add(1);
+        batch.add(2);
+        batch.where(Conditions.gt(1)).add(3);
+    }
+
+    private static <X> List<X> collect(Batch<X> batch)
+    {
+        final List<X> items = new ArrayList<X>();
+        batch.traverse(new Sink<X>()
+        {
+            public boolean accept(X x)
+            {
+                return items.add(x);
+            }
+        });
+        return items;
+    }
+}
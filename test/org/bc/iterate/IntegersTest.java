@@ -42,12 +42,14 @@ public class IntegersTest
     public void sum()
     {
         assertEquals(Integer.valueOf(3), Integers.sum().apply(1, 2));
+        assertEquals(Integer.valueOf(0), Integers.sum().identity());
     }
 
     @Test
     public void multiply()
     {
         assertEquals(Integer.valueOf(12), Integers.multiply().apply(3, 4));
+        assertEquals(Integer.valueOf(1), Integers.multiply().identity());
     }
 
     @Test
@@ -29,6 +29,31 @@ import static org.junit.Assert.assertEquals;
  */
 public class IterablesTest
 {
+    @Test
+    public void traverse()
+    {
+        final List<Integer> pushed = new ArrayList<Integer>();
+        final Sink<Integer> firstThree = new Sink<Integer>()
+        {
+            public boolean accept(Integer i)
+            {
+                pushed.add(i);
+                return pushed.size() < 3;
+            }
+        };
+
+        assertFalse(Iterables.traverse(Arrays.asList(1, 2, 3, 4, 5), firstThree));
+        assertEquals(Arrays.asList(1, 2, 3), pushed);
+
+        pushed.clear();
+        assertFalse(Iterables.traverse(new LinkedList<Integer>(Arrays.asList(5, 6, 7, 8)), firstThree));
+        assertEquals(Arrays.asList(5, 6, 7), pushed);
+
+        pushed.clear();
+        assertTrue(Iterables.traverse(Integers.range(10, 12), firstThree));
+        assertEquals(Arrays.asList(10, 11), pushed);
+    }
+
     @Test
     public void concat()
     {
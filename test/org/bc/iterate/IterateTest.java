@@ -16,6 +16,9 @@
 
 package org.bc.iterate;
 
+import org.bc.iterate.iterable.FusedIterable;
+import org.bc.iterate.relational.Join;
+import org.bc.iterate.relational.JoinResult;
 import org.bc.iterate.visitor.AppendWithSeparator;
 import org.junit.Assert;
 import static org.junit.Assert.*;
@@ -27,6 +30,10 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @SuppressWarnings({"ImplicitNumericConversion"})
 public class IterateTest
@@ -121,6 +128,111 @@ public class IterateTest
         }, new StringBuilder(16)).toString());
     }
 
+    @Test
+    public void fusion()
+    {
+        final Iterate<Integer> pipeline = Iterate.each(Arrays.asList(1, 2, 3, 4, 5, 6))
+                .where(Conditions.gt(1)).map(Integers.square()).where(Conditions.lt(30));
+        assertEquals(Arrays.asList(4, 9, 16, 25), pipeline.list());
+
+        // Adjacent where/map stages are appended to one fused iterable rather than wrapping the previous stage
+        assertEquals(3, ((FusedIterable) ((BasicIterateImpl) pipeline).iterable).getStageCount());
+    }
+
+    @Test
+    public void optimizer()
+    {
+        final List<Integer> items = Arrays.asList(5, 3, 9, 1, 7, 3, 8);
+
+        // slice of a sort is a top-k selection
+        final Iterate<Integer> top = Iterate.each(items).transform(Iterables.<Integer>sort()).slice(1, 4);
+        assertEquals(Arrays.asList(3, 3, 5), top.list());
+        assertTrue(top.explain().getOperator().startsWith("slice"));
+        assertEquals("top(4)", top.explain().getInputs().get(0).getOperator());
+
+        // sorting items that are already sorted the same way is a no-op
+        final Iterate<Integer> sorted = Iterate.each(items).transform(Iterables.<Integer>sort());
+        final Plan resorted = sorted.transform(Iterables.<Integer>sort()).explain();
+        assertEquals("sort", resorted.getOperator());
+        assertTrue(resorted.getInputs().get(0).getOperator().startsWith("source"));
+
+        // likewise in natural order, given as a null comparator
+        final Iterate<Integer> natural = Iterate.each(items).transform(Iterables.sort((Comparator<Integer>) null));
+        final Iterate<Integer> renatural = natural.transform(Iterables.sort((Comparator<Integer>) null));
+        assertEquals(Arrays.asList(1, 3, 3, 5, 7, 8, 9), renatural.list());
+        assertTrue(renatural.explain().getInputs().get(0).getOperator().startsWith("source"));
+
+        // slice is pushed below map stages
+        final int[] mapped = { 0 };
+        final Iterate<Integer> sliced = Iterate.each(items).map(new Function<Integer, Integer>()
+        {
+            public Integer apply(Integer i)
+            {
+                mapped[0]++;
+                return -i;
+            }
+        }).slice(2, 4);
+        assertEquals(Arrays.asList(-9, -1), sliced.list());
+        assertEquals(2, mapped[0]);
+        assertEquals("slice(2, 4)", sliced.explain().getInputs().get(0).getOperator());
+    }
+
+    @Test
+    public void explain()
+    {
+        final Plan plan = Integers.range(0, 100).parallel().where(Conditions.gt(10)).map(Integers.square()).explain();
+        assertEquals("parallel(" + Runtime.getRuntime().availableProcessors() + ", ordered)", plan.getOperator());
+        assertEquals(Size.atMost(100), plan.getSize());
+        final Plan fused = plan.getInputs().get(0);
+        assertTrue(fused.getOperator().startsWith("fused("));
+        assertEquals(Size.exactly(100), fused.getInputs().get(0).getSize());
+        assertEquals("source [0..100]", fused.getInputs().get(0).getOperator());
+        assertEquals(3, plan.toString().split("\n").length);
+    }
+
+    @Test
+    public void batched()
+    {
+        final Iterate<Integer> pipeline = Integers.range(0, 1000).where(Conditions.gt(3)).map(Integers.square())
+                .until(Conditions.gt(500000)).where(Conditions.lt(400000));
+        final List<Integer> expected = pipeline.list();
+        for (int batchSize : new int[] { 1, 3, 7, 1024 }) {
+            assertEquals(expected, pipeline.batched(batchSize).list());
+            assertEquals(expected, pipeline.batched(batchSize).optimize().list());
+            assertEquals(expected, pipeline.batched(batchSize).slice(0, 1000).list());
+        }
+        assertEquals(pipeline.reduce(Integers.sum()), pipeline.parallel().batched().reduce(Integers.sum()));
+        assertEquals(expected, Integers.range(0, 1000).parallel().batched(10).where(Conditions.gt(3))
+                .map(Integers.square()).where(Conditions.lt(400000)).list());
+        assertTrue(pipeline.batched().explain().getOperator().endsWith("batched(1024)"));
+
+        final int[] batches = { 0 };
+        final List<Integer> visited = new ArrayList<Integer>();
+        pipeline.batched(100).visit(new BatchVisitor<Integer>()
+        {
+            public void visit(Batch<? extends Integer> batch)
+            {
+                batches[0]++;
+                for (int i = 0; i < batch.size(); i++) {
+                    visited.add(batch.get(i));
+                }
+            }
+        });
+        assertEquals(expected, visited);
+        assertEquals(7, batches[0]);
+    }
+
+    @Test
+    public void pushTerminals()
+    {
+        assertEquals(Arrays.asList(0, 3, 6, 9), Integers.range(0, 20).by(3).until(Conditions.gt(10)).list());
+        assertEquals(Arrays.asList(2, 3, 4), Iterate.each(1, 2, 3, 4, 5, 6).slice(1, 4).list());
+        assertEquals(Integer.valueOf(15), Iterate.each(1, 2, 3, 4, 5).reduce(Integers.sum()));
+        assertNull(Iterate.each(new ArrayList<Integer>()).reduce(Integers.sum()));
+        assertEquals(new HashSet<Integer>(Arrays.asList(1, 4)),
+                     Iterables.generate(3, Integers.square()).where(Conditions.gt(0)).set());
+    }
+
     private static File generateTempFile(String name, String content, String... charset) throws IOException
     {
         String[] prefixSuffix = name.split("\\.");
@@ -270,6 +382,51 @@ public class IterateTest
         assertEquals(1, Iterate.estimateSize(new Object()));
     }
 
+    @Test
+    public void after()
+    {
+        final Iterate<Integer> after = Integers.range(0, 10).after(Conditions.gt(6));
+        assertEquals(Arrays.asList(7, 8, 9), after.list());
+        assertEquals(Arrays.asList(7, 8, 9), after.list());
+        assertTrue(Integers.range(0, 10).after(Conditions.gt(20)).list().isEmpty());
+    }
+
+    @Test
+    public void concurrentReuse() throws Exception
+    {
+        final List<Integer> items = new ArrayList<Integer>();
+        final Random random = new Random(31);
+        for (int i = 0; i < 5000; i++) {
+            items.add(random.nextInt(1000));
+        }
+
+        // one cached pipeline, whose sort and join build table are computed once and shared by every iteration
+        final Iterate<JoinResult<Integer, Integer, Integer>> pipeline = Iterate.each(items)
+                .transform(Iterables.<Integer>sort()).until(Conditions.gt(900))
+                .join(Join.inner(Integers.identity()), Integers.range(0, 1000).by(7));
+        final List<JoinResult<Integer, Integer, Integer>> expected = pipeline.list();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<JoinResult<Integer, Integer, Integer>>>> results =
+                    new ArrayList<Future<List<JoinResult<Integer, Integer, Integer>>>>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(new Callable<List<JoinResult<Integer, Integer, Integer>>>()
+                {
+                    public List<JoinResult<Integer, Integer, Integer>> call()
+                    {
+                        return pipeline.list();
+                    }
+                }));
+            }
+            for (Future<List<JoinResult<Integer, Integer, Integer>>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static class Counter<X> implements Visitor<X>
     {
         private int count = 0;
@@ -38,12 +38,14 @@ public class LongsTest
     public void sum()
     {
         assertEquals(Long.valueOf(3L), Longs.sum().apply(1L, 2L));
+        assertEquals(Long.valueOf(0L), Longs.sum().identity());
     }
 
     @Test
     public void multiply()
     {
         assertEquals(Long.valueOf(12L), Longs.multiply().apply(3L, 4L));
+        assertEquals(Long.valueOf(1L), Longs.multiply().identity());
     }
 
     @Test
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate;
+
+import org.bc.iterate.iterable.IntegerRange;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelIterateTest
+{
+    private static final Function<Integer, Integer> SLOW_SQUARE = new Function<Integer, Integer>()
+    {
+        public Integer apply(Integer i)
+        {
+            if (i % 97 == 0) {
+                Thread.yield();
+            }
+            return i * i;
+        }
+    };
+
+    @Test
+    public void ordered()
+    {
+        final List<Integer> expected = Integers.range(0, 10000).where(Conditions.gt(10)).map(SLOW_SQUARE).list();
+
+        assertEquals(expected, Integers.range(0, 10000).parallel().where(Conditions.gt(10)).map(SLOW_SQUARE).list());
+        assertEquals(expected, Integers.range(0, 10000).where(Conditions.gt(10)).map(SLOW_SQUARE).parallel().list());
+
+        final List<Integer> source = Integers.range(0, 10000).list();
+        assertEquals(expected, Iterate.each(source).parallel().where(Conditions.gt(10)).map(SLOW_SQUARE).list());
+        assertEquals(expected, Iterate.each(source.toArray(new Integer[source.size()])).parallel()
+                .where(Conditions.gt(10)).map(SLOW_SQUARE).list());
+        assertEquals(expected, Iterate.each(new LinkedList<Integer>(source)).parallel()
+                .where(Conditions.gt(10)).map(SLOW_SQUARE).list());
+        assertEquals(expected, Iterables.generate(10000, Integers.identity()).parallel()
+                .where(Conditions.gt(10)).map(SLOW_SQUARE).list());
+    }
+
+    @Test
+    public void orderedStepRange()
+    {
+        assertEquals(Integers.range(1000, -7).by(3).list(), Integers.range(1000, -7).by(3).parallel().list());
+    }
+
+    @Test
+    public void unordered()
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<Integer> results = Integers.range(0, 5000).parallel(executor, 3).unordered().map(SLOW_SQUARE)
+                    .list();
+            assertEquals(5000, results.size());
+            assertEquals(new HashSet<Integer>(Integers.range(0, 5000).map(SLOW_SQUARE).list()),
+                         new HashSet<Integer>(results));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void reduce()
+    {
+        assertEquals(Integers.range(0, 3000).map(Integers.square()).reduce(Integers.sum(), 0),
+                     Integers.range(0, 3000).parallel().map(Integers.square()).reduce(Integers.sum(), 0));
+    }
+
+    @Test
+    public void reduceCombiner()
+    {
+        assertEquals(Integer.valueOf(49994955), Integers.range(0, 10000).parallel().where(Conditions.gt(10))
+                .reduce(Integers.sum(), 10));
+        assertEquals(Integer.valueOf(49994945), Integers.range(0, 10000).parallel().where(Conditions.gt(10))
+                .reduce(Integers.sum()));
+        assertEquals(Integer.valueOf(7), Integers.range(0, 0).parallel().reduce(Integers.sum(), 7));
+        assertEquals(null, Integers.range(0, 0).parallel().reduce(Integers.sum()));
+
+        // Associative but not commutative: partial results must be combined in encounter order
+        final Combiner<String> concat = new Combiner<String>()
+        {
+            public String identity()
+            {
+                return "";
+            }
+
+            public String apply(String s, String result)
+            {
+                return result + s;
+            }
+        };
+        final Iterate<String> strings = Integers.range(0, 2000).map(Strings.<Integer>string());
+        assertEquals(strings.reduce(concat, ">"), strings.parallel().unordered().reduce(concat, ">"));
+        assertEquals(strings.reduce(concat), strings.parallel().reduce(concat));
+    }
+
+    @Test
+    public void map()
+    {
+        final Map<String, Integer> m = new HashMap<String, Integer>();
+        for (int i = 0; i < 3000; i++) {
+            m.put(String.valueOf(i), i);
+        }
+
+        final Set<Integer> values = Iterate.each(m).parallel().map(new Function<Map.Entry<String, Integer>, Integer>()
+        {
+            public Integer apply(Map.Entry<String, Integer> entry)
+            {
+                return entry.getValue();
+            }
+        }).set();
+        assertEquals(new HashSet<Integer>(m.values()), values);
+    }
+
+    @Test
+    public void until()
+    {
+        // An until stage before parallel() must see the items in order, not each chunk separately
+        final Iterate<Integer> first10 = Iterate.each(new IntegerRange(0, 100)).until(Conditions.eq(10));
+        assertEquals(Integers.range(0, 10).list(), first10.parallel().list());
+        assertEquals(Integer.valueOf(45), first10.parallel().reduce(Integers.sum()));
+
+        // Stages after the last until stage still run in parallel
+        assertEquals(Arrays.asList(16, 25, 36, 49, 64), Iterate.each(new IntegerRange(0, 100))
+                .map(SLOW_SQUARE).until(Conditions.gt(80)).where(Conditions.gt(10)).parallel().list());
+        assertEquals(Arrays.asList(6, 7, 8, 9), Iterate.each(new IntegerRange(0, 100)).parallel()
+                .until(Conditions.eq(10)).parallel().where(Conditions.gt(5)).list());
+    }
+
+    @Test
+    public void longerThanMaxInt()
+    {
+        // More than Integer.MAX_VALUE items cannot be split by index, so they are batched instead, and none are lost
+        final IntegerRange range = new IntegerRange(-5, Integer.MAX_VALUE);
+        assertEquals(-1, range.size());
+        assertEquals(Arrays.asList(-5, -4, -3, -2, -1, Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1),
+                     range.parallel().where(Conditions.or(Conditions.lt(0), Conditions.gte(Integer.MAX_VALUE - 2)))
+                             .list());
+    }
+
+    @Test
+    public void select()
+    {
+        final List<Integer> items = new ArrayList<Integer>();
+        final Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            items.add(random.nextInt(1000));
+        }
+        final List<Integer> sorted = new ArrayList<Integer>(items);
+        Collections.sort(sorted);
+
+        assertEquals(sorted.subList(0, 100), Iterate.each(items).parallel().select(null, 100));
+        assertEquals(sorted.subList(0, 100), Iterate.each(items).parallel().transform(Iterables.<Integer>sort())
+                .slice(0, 100).list());
+        assertEquals(sorted.subList(0, 10), Iterate.each(items).parallel().transform(Iterables.<Integer>bottom(10))
+                .list());
+
+        Collections.reverse(sorted);
+        assertEquals(sorted.subList(0, 50), Iterate.each(items).parallel().transform(Iterables.<Integer>top(50))
+                .list());
+        assertEquals(sorted.subList(0, 50), Iterate.each(items).transform(Iterables.<Integer>top(50)).list());
+        assertEquals(0, Iterate.each(items).transform(Iterables.<Integer>top(0)).list().size());
+
+        assertEquals(0, Iterate.each(items).parallel().select(null, 0).size());
+        assertEquals(Integers.range(0, 10).list(), Iterate.each(new IntegerRange(0, 100)).until(Conditions.eq(10))
+                .parallel().select(null, 20));
+        try {
+            Iterate.each(items).parallel().select(null, -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void exceptionsPropagate()
+    {
+        try {
+            Integers.range(0, 1000).parallel().map(new Function<Integer, Integer>()
+            {
+                public Integer apply(Integer i)
+                {
+                    if (i == 500) {
+                        throw new IllegalArgumentException("500");
+                    }
+                    return i;
+                }
+            }).list();
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("500"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate;
+
+import org.bc.iterate.relational.Join;
+import org.bc.iterate.relational.JoinResult;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class PipelineTest
+{
+    private static final Pipeline<Integer, Integer> EVEN_SQUARES = Pipeline.of(Integer.class)
+            .where(Conditions.in(Integers.range(0, 1000).by(2).set())).map(Integers.square());
+
+    @Test
+    public void bind()
+    {
+        assertEquals(Arrays.asList(4, 16, 36), EVEN_SQUARES.list(Arrays.asList(1, 2, 3, 4, 5, 6)));
+        assertEquals(Arrays.asList(100), EVEN_SQUARES.each(Arrays.asList(9, 10, 11)).list());
+        assertEquals(Arrays.asList(4, 16, 36), Iterate.each(Arrays.asList(1, 2, 3, 4, 5, 6))
+                .where(Conditions.in(Integers.range(0, 1000).by(2).set())).map(Integers.square()).list());
+
+        // Stages added to a template are fused with the ones before them
+        final Plan plan = EVEN_SQUARES.map(Strings.<Integer>string()).each(Integers.range(0, 10)).explain();
+        assertEquals(Size.exactly(10), plan.getInputs().get(0).getSize());
+        assertEquals("source [0..10]", plan.getInputs().get(0).getOperator());
+    }
+
+    @Test
+    public void transformAndJoin()
+    {
+        final Pipeline<Integer, Integer> top = EVEN_SQUARES.transform(Iterables.<Integer>sort(
+                Collections.<Integer>reverseOrder())).slice(0, 2);
+        assertEquals(Arrays.asList(64, 36), top.list(Arrays.asList(3, 8, 2, 6, 1)));
+        assertEquals(Arrays.asList(100, 16), top.list(Arrays.asList(4, 10)));
+
+        final Pipeline<Integer, JoinResult<Integer, Integer, Integer>> joined = EVEN_SQUARES
+                .join(Join.<Integer, Integer>inner(Functions.<Integer>identity()), Arrays.asList(4, 16, 25));
+        assertEquals(2, joined.list(Arrays.asList(1, 2, 3, 4, 5)).size());
+        assertEquals(1, joined.list(Arrays.asList(2)).size());
+    }
+
+    @Test
+    public void parallel()
+    {
+        final Pipeline<Integer, Integer> parallel = Pipeline.of(Integer.class).parallel().where(Conditions.gt(10))
+                .map(Integers.square());
+        assertEquals(Integers.range(11, 2000).map(Integers.square()).list(),
+                     parallel.list(Integers.range(0, 2000)));
+        assertEquals(Integers.range(11, 2000).map(Integers.square()).reduce(Integers.sum()),
+                     parallel.each(Integers.range(0, 2000)).reduce(Integers.sum()));
+    }
+
+    @Test
+    public void parallelUntil()
+    {
+        final Pipeline<Integer, Integer> first10 = Pipeline.of(Integer.class).until(Conditions.eq(10)).parallel();
+        assertEquals(Integers.range(0, 10).list(), first10.list(Integers.range(0, 100)));
+        assertEquals(Integer.valueOf(45), first10.each(Integers.range(0, 100)).reduce(Integers.sum()));
+        assertEquals(Arrays.asList(36, 49, 64, 81), first10.where(Conditions.gt(5)).map(Integers.square())
+                .list(Integers.range(0, 100)));
+    }
+
+    @Test
+    public void shared() throws Exception
+    {
+        final Pipeline<Integer, Integer> pipeline = EVEN_SQUARES.until(Conditions.gt(1000000)).optimize();
+        final List<Integer> expected = pipeline.list(Integers.range(0, 5000));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<Integer>>> results = new ArrayList<Future<List<Integer>>>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(new Callable<List<Integer>>()
+                {
+                    public List<Integer> call()
+                    {
+                        return pipeline.list(Integers.range(0, 5000));
+                    }
+                }));
+            }
+            for (Future<List<Integer>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SizeTest
+{
+    @Test
+    public void of()
+    {
+        assertEquals(Size.exactly(3), Size.of(Arrays.asList(1, 2, 3)));
+        assertEquals(Size.exactly(2), Size.of(new int[2]));
+        assertEquals(Size.exactly(0), Size.of(null));
+        assertEquals(Size.unknown(), Size.of(Iterables.of(Arrays.asList(1, 2, 3).iterator())));
+    }
+
+    @Test
+    public void operations()
+    {
+        assertEquals(Size.atMost(10), Size.exactly(10).atMost());
+        assertEquals(Size.exactly(5), Size.exactly(10).slice(5, 20));
+        assertEquals(Size.exactly(0), Size.exactly(10).slice(15, 20));
+        assertEquals(Size.atMost(5), Size.unknown().slice(5, 10));
+        assertEquals(Size.unknown(), Size.unknown().slice(5, -1));
+        assertEquals(Size.exactly(7), Size.exactly(3).plus(Size.exactly(4)));
+        assertEquals(Size.atMost(7), Size.exactly(3).plus(Size.atMost(4)));
+        assertEquals(Size.unknown(), Size.exactly(3).plus(Size.unknown()));
+        assertEquals(Size.unknown(), Size.exactly(Integer.MAX_VALUE).plus(Size.exactly(1)));
+        assertEquals(Size.exactly(4), Size.exactly(10).groups(3));
+        assertTrue(Size.atMost(1).isBounded());
+        assertFalse(Size.atMost(1).isExact());
+    }
+
+    @Test
+    public void capacity()
+    {
+        assertEquals(1000, Size.exactly(1000).capacity(1));
+        assertEquals(10, Size.atMost(10).capacity(1));
+        assertEquals(Iterate.DEFAULT_ESTIMATED_SIZE, Size.atMost(1000).capacity(1));
+        assertEquals(1, Size.unknown().capacity(1));
+        assertTrue(Size.hashCapacity(12) * 3 / 4 >= 12);
+    }
+
+    @Test
+    public void propagation()
+    {
+        final Iterate<Integer> range = Integers.range(0, 100);
+        assertEquals(Size.exactly(100), range.getSize());
+        assertEquals(Size.exactly(100), range.map(Integers.square()).getSize());
+        assertEquals(Size.atMost(100), range.where(Conditions.neq(10)).map(Integers.square()).getSize());
+        assertEquals(Size.exactly(89), range.where(Conditions.gt(10)).map(Integers.square()).getSize());
+        assertEquals(Size.exactly(10), range.map(Integers.square()).slice(90, 200).getSize());
+        assertEquals(Size.exactly(150), Size.of(Iterables.concat(range, Integers.range(0, 50))));
+        assertEquals(Size.exactly(100), Size.of(Iterables.sorted(range)));
+        assertEquals(Size.exactly(34), Iterate.group(range, 3).getSize());
+        assertEquals(Size.exactly(100), range.parallel().map(Integers.square()).getSize());
+        assertEquals(Size.atMost(5), Iterate.each(new LinkedList<Integer>(range.list()).iterator()).slice(0, 5)
+                .getSize());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.io;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SerializersTest
+{
+    @Test
+    public void roundTrip() throws IOException
+    {
+        final StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            longString.append('\u00e9');
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        Serializers.strings().write("abc", out);
+        Serializers.strings().write(null, out);
+        Serializers.strings().write(longString.toString(), out);
+        Serializers.integers().write(-7, out);
+        Serializers.longs().write(Long.MIN_VALUE, out);
+        Serializers.<Date>java().write(new Date(12345L), out);
+        Serializers.<ArrayList<String>>java().write(new ArrayList<String>(Arrays.asList("x", "y")), out);
+        out.close();
+
+        final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("abc", Serializers.strings().read(in));
+        assertNull(Serializers.strings().read(in));
+        assertEquals(longString.toString(), Serializers.strings().read(in));
+        assertEquals(Integer.valueOf(-7), Serializers.integers().read(in));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), Serializers.longs().read(in));
+        assertEquals(new Date(12345L), Serializers.<Date>java().read(in));
+        assertEquals(Arrays.asList("x", "y"), Serializers.<ArrayList<String>>java().read(in));
+    }
+
+    @Test(expected = IOException.class)
+    public void javaNeedsObjectStreams() throws IOException
+    {
+        Serializers.<Date>java().write(new Date(), new DataOutputStream(new ByteArrayOutputStream()));
+    }
+}
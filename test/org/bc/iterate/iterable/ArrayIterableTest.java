@@ -62,4 +62,19 @@ public class ArrayIterableTest
             fail("Should throw IllegalArgumentException when end > array.length");
         } catch(IllegalArgumentException ignored) {}
     }
+
+    @Test
+    public void split()
+    {
+        Integer[] items = { 1, 3, 5, 7, 9 };
+        ArrayIterable<Integer> view = new ArrayIterable<Integer>(items, 1, 5).split(1, 3);
+        assertEquals(2, view.size());
+
+        Integer[] expected = { 5, 7 };
+        int i = 0;
+        for (Integer val : view) {
+            assertEquals(expected[i++], val);
+        }
+        assertEquals(expected.length, i);
+    }
 }
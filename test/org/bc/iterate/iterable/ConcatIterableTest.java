@@ -41,4 +41,21 @@ public class ConcatIterableTest
         assertEquals(src, results);
 
     }
+
+    @Test
+    public void split()
+    {
+        ConcatIterable<Integer> c = new ConcatIterable<Integer>(
+                asList(asList(0, 1, 2), new ArrayList<Integer>(0), asList(3, 4), new IntegerRange(5, 9)));
+        assertEquals(9, c.size());
+
+        List<Integer> results = new ArrayList<Integer>();
+        for (Integer i : c.split(2, 6)) {
+            results.add(i);
+        }
+        assertEquals(asList(2, 3, 4, 5), results);
+
+        assertFalse(c.split(4, 4).iterator().hasNext());
+        assertEquals(-1, new ConcatIterable<Integer>(asList(1, 2), new LinkedList<Integer>(asList(3))).size());
+    }
 }
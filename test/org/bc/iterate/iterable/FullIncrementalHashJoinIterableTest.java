@@ -19,8 +19,11 @@ import org.bc.iterate.Integers;
 import org.bc.iterate.relational.JoinResult;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -54,4 +57,36 @@ public class FullIncrementalHashJoinIterableTest
         assertEquals(Integer.valueOf(5), results.get(5).getX());
         assertNull(results.get(5).getY());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reentrant()
+    {
+        FullIncrementalHashJoinIterable<Integer, Integer, Integer> j =
+                new FullIncrementalHashJoinIterable<Integer, Integer, Integer>(
+                        Arrays.asList(1, 2, 2, 5), Integers.identity(),
+                        Arrays.asList(1, 2, 3), Integers.identity());
+
+        // Interleave two iterations over the same join, which share its hash table but nothing else
+        final Iterator<JoinResult<Integer, Integer, Integer>> first = j.iterator();
+        final Iterator<JoinResult<Integer, Integer, Integer>> second = j.iterator();
+        final List<JoinResult<Integer, Integer, Integer>> firstResults =
+                new ArrayList<JoinResult<Integer, Integer, Integer>>();
+        final List<JoinResult<Integer, Integer, Integer>> secondResults =
+                new ArrayList<JoinResult<Integer, Integer, Integer>>();
+        while (first.hasNext() || second.hasNext()) {
+            if (first.hasNext()) {
+                firstResults.add(first.next());
+            }
+            if (second.hasNext()) {
+                secondResults.add(second.next());
+            }
+        }
+
+        assertEquals(Arrays.asList(new JoinResult<Integer, Integer, Integer>(1, 1, 1),
+                                   new JoinResult<Integer, Integer, Integer>(2, 2, 2),
+                                   new JoinResult<Integer, Integer, Integer>(2, 2, 2),
+                                   new JoinResult<Integer, Integer, Integer>(5, 5, null),
+                                   new JoinResult<Integer, Integer, Integer>(3, null, 3)), firstResults);
+        assertEquals(firstResults, secondResults);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Condition;
+import org.bc.iterate.Conditions;
+import org.bc.iterate.Integers;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Strings;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FusedIterableTest
+{
+    @Test(expected = UnsupportedOperationException.class)
+    public void remove()
+    {
+        // once hasNext() has looked ahead, the source iterator is past the item next() returned
+        final List<Integer> items = new ArrayList<Integer>(Arrays.asList(1, 2, 3));
+        final Iterator<Integer> iterator =
+                new FusedIterable<Integer, Integer>(items).where(Conditions.gt(1)).iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test
+    public void stages()
+    {
+        FusedIterable<Integer, String> fused = new FusedIterable<Integer, Integer>(Integers.range(0, 20))
+                .where(Conditions.gt(3))
+                .map(Integers.square())
+                .until(Conditions.gt(100))
+                .map(Strings.string());
+        assertEquals(4, fused.getStageCount());
+
+        List<String> results = new ArrayList<String>();
+        for (String s : fused) {
+            results.add(s);
+        }
+        assertEquals(Arrays.asList("16", "25", "36", "49", "64", "81", "100"), results);
+    }
+
+    @Test
+    public void immutable()
+    {
+        FusedIterable<Integer, Integer> source = new FusedIterable<Integer, Integer>(Arrays.asList(1, 2, 3, 4));
+        FusedIterable<Integer, Integer> even = source.where(Conditions.in(Arrays.asList(2, 4)));
+        assertEquals(0, source.getStageCount());
+        assertEquals(1, even.getStageCount());
+        assertEquals(Arrays.asList(1, 2, 3, 4), Iterate.each(source).list());
+        assertEquals(Arrays.asList(2, 4), Iterate.each(even).list());
+    }
+
+    @Test
+    public void adaptive()
+    {
+        final int[] evaluated = { 0 };
+        final Condition<Integer> acceptsAll = new Condition<Integer>()
+        {
+            public boolean eval(Integer i)
+            {
+                evaluated[0]++;
+                return true;
+            }
+        };
+
+        final FusedIterable<Integer, Integer> fused = new FusedIterable<Integer, Integer>(Integers.range(0, 10000))
+                .where(acceptsAll).where(Conditions.lt(1000));
+        final List<Integer> expected = Integers.range(0, 1000).list();
+        assertEquals(expected, Iterate.each(fused).list());
+        assertEquals(10000, evaluated[0]);
+
+        // Once sampled, the selective condition is evaluated first
+        evaluated[0] = 0;
+        assertEquals(expected, Iterate.each(fused.adaptive()).list());
+        assertEquals(FusedIterable.SAMPLE_SIZE, evaluated[0]);
+
+        evaluated[0] = 0;
+        final List<Integer> results = new ArrayList<Integer>();
+        for (Integer i : fused.adaptive()) {
+            results.add(i);
+        }
+        assertEquals(expected, results);
+        assertEquals(FusedIterable.SAMPLE_SIZE, evaluated[0]);
+    }
+}
@@ -17,9 +17,12 @@
 package org.bc.iterate.iterable;
 
 import org.bc.iterate.Functions;
+import org.bc.iterate.Iterate;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 /**
  * @author bcavalier
  */
@@ -35,4 +38,12 @@ public class GeneratorIterableTest
 
         Assert.assertEquals(10, count);
     }
+
+    @Test
+    public void split()
+    {
+        GeneratorIterable<Integer> view = new GeneratorIterable<Integer>(10, Functions.<Integer>identity()).split(3, 6);
+        Assert.assertEquals(3, view.size());
+        Assert.assertEquals(Arrays.asList(3, 4, 5), Iterate.each(view).list());
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Conditions;
+import org.bc.iterate.Function;
+import org.bc.iterate.Integers;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.relational.Join;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashJoinIterableTest
+{
+    /**
+     * Items are "key/index", so that items with equal keys can be told apart
+     */
+    private static final Function<String, Integer> KEY = new Function<String, Integer>()
+    {
+        public Integer apply(String s)
+        {
+            return Integer.valueOf(s.substring(0, s.indexOf('/')));
+        }
+    };
+
+    @Test
+    public void buildsOnSmallerSide()
+    {
+        final List<String> left = Arrays.asList("2/a", "1/b");
+        final List<String> right = Arrays.asList("1/w", "3/x", "2/y", "1/z");
+
+        // Building on the smaller left side, the pairs follow the order of the right items
+        assertEquals("[1:1/b,1/w, 2:2/a,2/y, 1:1/b,1/z]", join(JoinType.INNER, left, right, false).toString());
+        assertEquals("[2:2/a,2/y, 1:1/b,1/w, 1:1/b,1/z]", join(JoinType.INNER, left, right, true).toString());
+
+        // A left join built on the left side produces its unmatched left items last
+        assertEquals("[1:1/b,1/w, 1:1/b,1/z, 4:4/c,null]",
+                     join(JoinType.LEFT, Arrays.asList("4/c", "1/b"), right, false).toString());
+
+        // A right join built on the right side produces its unmatched right items last
+        final List<String> fewer = Arrays.asList("5/c", "2/a");
+        assertEquals("[2:2/y,2/a, 5:null,5/c]", join(JoinType.RIGHT, right, fewer, false).toString());
+        assertEquals("[5:null,5/c, 2:2/y,2/a]", join(JoinType.RIGHT, right, fewer, true).toString());
+    }
+
+    @Test
+    public void sameResultsEitherWay()
+    {
+        final Random random = new Random(31);
+        for (int round = 0; round < 20; round++) {
+            final List<String> left = items(random, random.nextInt(30));
+            final List<String> right = items(random, random.nextInt(30));
+            for (JoinType type : JoinType.values()) {
+                assertEquals(sorted(join(type, left, right, true)), sorted(join(type, left, right, false)));
+            }
+        }
+    }
+
+    @Test
+    public void unknownSizesKeepDefaultSide()
+    {
+        final List<String> left = Arrays.asList("2/a", "1/b");
+        final List<String> right = Arrays.asList("1/w", "3/x", "2/y", "1/z");
+        final Iterable<String> unsized = new Iterable<String>()
+        {
+            public Iterator<String> iterator()
+            {
+                return right.iterator();
+            }
+        };
+        assertEquals("[2:2/a,2/y, 1:1/b,1/w, 1:1/b,1/z]", Iterate.each(left).join(
+                Join.inner(KEY, KEY), unsized).list().toString());
+    }
+
+    @Test
+    public void upperBoundsKeepDefaultSide()
+    {
+        // An upper bound on the size of a filtered side says little about the actual size
+        final Iterable<Integer> filtered = Iterate.each(new IntegerRange(0, 50000000)).where(Conditions.lt(3));
+        final List<Integer> small = Arrays.asList(1, 2);
+        assertFalse(HashJoinIterable.isBuildLeft(JoinType.INNER, filtered, small));
+        assertFalse(HashJoinIterable.isBuildLeft(JoinType.INNER, small, filtered));
+        assertTrue(HashJoinIterable.isBuildLeft(JoinType.INNER, small, Integers.range(0, 10)));
+        assertEquals(2, Iterate.each(new HashJoinIterable<Integer, Integer, Integer>(
+                JoinType.INNER, small, Integers.identity(), filtered, Integers.identity(), false)).list().size());
+    }
+
+    private static List<JoinResult<Integer, String, String>> join(JoinType type, List<String> left,
+                                                                  List<String> right, boolean ordered)
+    {
+        return Iterate.each(new HashJoinIterable<Integer, String, String>(type, left, KEY, right, KEY, ordered))
+                .list();
+    }
+
+    private static List<String> items(Random random, int count)
+    {
+        final List<String> items = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(random.nextInt(15) + "/" + i);
+        }
+        return items;
+    }
+
+    private static List<String> sorted(List<?> items)
+    {
+        final List<String> strings = new ArrayList<String>();
+        for (Object item : items) {
+            strings.add(String.valueOf(item));
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+}
@@ -16,9 +16,18 @@
 
 package org.bc.iterate.iterable;
 
+import static org.bc.iterate.Conditions.gt;
+import static org.bc.iterate.Conditions.lte;
+import static org.bc.iterate.Iterate.each;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 public class IntegerRangeTest
 {
     @SuppressWarnings({"UnusedDeclaration"})
@@ -50,4 +59,47 @@ public class IntegerRangeTest
 
         assertEquals(start - end, count);
     }
+
+    @Test
+    public void split()
+    {
+        assertEquals(Arrays.asList(12, 13, 14), new IntegerRange(10, 20).split(2, 5).list());
+        assertEquals(Arrays.asList(18, 17, 16), new IntegerRange(20, 10).split(2, 5).list());
+        assertEquals(10, new IntegerRange(20, 10).size());
+    }
+
+    @Test
+    public void sum()
+    {
+        assertEquals(5050L, new IntegerRange(1, 101).sum());
+        assertEquals(338350L, new IntegerRange(1, 101).sumOfSquares());
+        assertEquals(5050L, new IntegerRange(100, 0).sum());
+        assertEquals(0L, new IntegerRange(7, 7).sumOfSquares());
+
+        long sum = 0;
+        for (long i = Integer.MIN_VALUE; i < Integer.MAX_VALUE; i += 65537) {
+            sum += i * i;
+        }
+        assertEquals(sum, new StepIntegerRange(Integer.MIN_VALUE, Integer.MAX_VALUE, 65537).sumOfSquares());
+    }
+
+    @Test
+    public void where()
+    {
+        final Iterate<Integer> narrowed = new IntegerRange(0, 100).where(gt(10)).where(lte(15));
+        assertTrue(narrowed instanceof IntegerRange);
+        assertEquals(Arrays.asList(11, 12, 13, 14, 15), narrowed.list());
+        assertEquals(Arrays.asList(15, 14, 13, 12, 11), new IntegerRange(100, 0).where(gt(10)).where(lte(15)).list());
+    }
+
+    @Test
+    public void pipeline()
+    {
+        assertEquals(Arrays.asList(4, 3, 2),
+                     each(new IntegerRange(0, 5)).transform(Iterables.<Integer>reverse()).slice(0, 3).list());
+        assertEquals(Arrays.asList(1, 2, 3),
+                     each(new IntegerRange(5, 0)).transform(Iterables.<Integer>sort()).slice(0, 3).list());
+        assertEquals(Arrays.asList(Integer.MIN_VALUE + 1, Integer.MIN_VALUE),
+                     new IntegerRange(Integer.MIN_VALUE, Integer.MIN_VALUE + 2).reverse().list());
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.primitive.ToDoubleFunction;
+import org.bc.iterate.primitive.ToIntFunction;
+import org.bc.iterate.primitive.ToLongFunction;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeySortIterableTest
+{
+    private static final List<String> ITEMS = Arrays.asList("ccc", "b", "dddd", "a", "ee", "f", "gg");
+    private static final List<String> BY_LENGTH = Arrays.asList("b", "a", "f", "ee", "gg", "ccc", "dddd");
+
+    @Test
+    public void keysComputedOnce()
+    {
+        final int[] calls = new int[1];
+        final Function<String, Integer> length = new Function<String, Integer>()
+        {
+            public Integer apply(String s)
+            {
+                calls[0]++;
+                return s.length();
+            }
+        };
+
+        final Iterable<String> sorted = KeySortIterable.of(ITEMS, length, null);
+        assertEquals(BY_LENGTH, Iterate.each(sorted).list());
+        assertEquals(BY_LENGTH, Iterate.each(sorted).list());
+        assertEquals(ITEMS.size(), calls[0]);
+
+        assertEquals(Arrays.asList("dddd", "ccc", "ee", "gg", "b", "a", "f"), Iterate.each(ITEMS).transform(
+                Iterables.sortBy(length, Collections.<Integer>reverseOrder())).list());
+    }
+
+    @Test
+    public void primitiveKeys()
+    {
+        assertEquals(BY_LENGTH, Iterate.each(ITEMS).transform(Iterables.sortByInt(new ToIntFunction<String>()
+        {
+            public int apply(String s)
+            {
+                return s.length();
+            }
+        })).list());
+        assertEquals(Arrays.asList("dddd", "ccc", "ee", "gg", "b", "a", "f"), Iterate.each(ITEMS).transform(
+                Iterables.sortByLong(new ToLongFunction<String>()
+                {
+                    public long apply(String s)
+                    {
+                        return s.length() * -1000000000000L;
+                    }
+                })).list());
+        assertEquals(Arrays.asList("gg", "f", "ee", "dddd", "ccc", "b", "a"), Iterate.each(ITEMS).transform(
+                Iterables.sortByDouble(new ToDoubleFunction<String>()
+                {
+                    public double apply(String s)
+                    {
+                        return -s.charAt(0);
+                    }
+                })).list());
+    }
+
+    @Test
+    public void large()
+    {
+        final Random random = new Random(3);
+        final List<Long> items = new ArrayList<Long>();
+        for (int i = 0; i < 5000; i++) {
+            items.add(random.nextLong());
+        }
+        final List<Long> expected = new ArrayList<Long>(items);
+        Collections.sort(expected);
+
+        assertEquals(expected, Iterate.each(KeySortIterable.ofLongs(items, new ToLongFunction<Long>()
+        {
+            public long apply(Long x)
+            {
+                return x;
+            }
+        })).list());
+        assertEquals(expected, Iterate.each(KeySortIterable.of(items, new Function<Long, Long>()
+        {
+            public Long apply(Long x)
+            {
+                return x;
+            }
+        }, null)).list());
+    }
+
+    @Test
+    public void empty()
+    {
+        assertEquals(0, Iterate.each(KeySortIterable.ofInts(Collections.<String>emptyList(),
+                                                            new ToIntFunction<String>()
+                                                            {
+                                                                public int apply(String s)
+                                                                {
+                                                                    return s.length();
+                                                                }
+                                                            })).list().size());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.relational.Join;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MergeJoinIterableTest
+{
+    /**
+     * Items are "key/index", so that items with equal keys can be told apart
+     */
+    private static final Function<String, Integer> KEY = new Function<String, Integer>()
+    {
+        public Integer apply(String s)
+        {
+            return Integer.valueOf(s.substring(0, s.indexOf('/')));
+        }
+    };
+
+    @Test
+    public void sameAsHashJoins()
+    {
+        final Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            final List<String> left = sortedItems(random, 1 + random.nextInt(40));
+            final List<String> right = sortedItems(random, 1 + random.nextInt(40));
+
+            for (JoinType type : Arrays.asList(JoinType.INNER, JoinType.LEFT, JoinType.RIGHT)) {
+                assertEquals(Iterate.each(new HashJoinIterable<Integer, String, String>(
+                        type, left, KEY, right, KEY, true)).list(), merge(type, left, right));
+            }
+            assertEquals(sorted(Iterate.each(new FullIncrementalHashJoinIterable<Integer, String, String>(
+                    left, KEY, right, KEY)).list()), sorted(merge(JoinType.FULL, left, right)));
+        }
+    }
+
+    @Test
+    public void full()
+    {
+        final List<String> left = Arrays.asList("1/a", "2/b", "2/c", "4/d");
+        final List<String> right = Arrays.asList("0/w", "2/x", "2/y", "3/z");
+        assertEquals("[0:null,0/w, 1:1/a,null, 2:2/b,2/x, 2:2/b,2/y, 2:2/c,2/x, 2:2/c,2/y, 3:null,3/z, 4:4/d,null]",
+                     merge(JoinType.FULL, left, right).toString());
+        assertEquals("[2:2/b,2/x, 2:2/c,2/x, 2:2/b,2/y, 2:2/c,2/y, 3:null,3/z]",
+                     merge(JoinType.RIGHT, left, right).subList(1, 6).toString());
+    }
+
+    @Test
+    public void empty()
+    {
+        final List<String> items = Arrays.asList("1/a", "2/b");
+        final List<String> none = Collections.emptyList();
+        for (JoinType type : JoinType.values()) {
+            assertEquals(0, merge(type, none, none).size());
+        }
+        assertEquals(0, merge(JoinType.INNER, items, none).size());
+        assertEquals("[1:1/a,null, 2:2/b,null]", merge(JoinType.LEFT, items, none).toString());
+        assertEquals(0, merge(JoinType.RIGHT, items, none).size());
+        assertEquals("[1:null,1/a, 2:null,2/b]", merge(JoinType.FULL, none, items).toString());
+    }
+
+    @Test
+    public void sortsUnsortedSides()
+    {
+        final Random random = new Random(12);
+        for (JoinType type : JoinType.values()) {
+            final List<String> left = sortedItems(random, 30);
+            final List<String> right = sortedItems(random, 30);
+            final List<String> shuffled = new ArrayList<String>(right);
+            Collections.shuffle(shuffled, random);
+
+            // The sort is stable, so items with equal keys stay in their shuffled order
+            final List<String> resorted = new ArrayList<String>(shuffled);
+            Collections.sort(resorted, new Comparator<String>()
+            {
+                public int compare(String s1, String s2)
+                {
+                    return KEY.apply(s1).compareTo(KEY.apply(s2));
+                }
+            });
+            assertEquals(merge(type, left, resorted), sortAndMerge(type, left, shuffled));
+            assertEquals(merge(type, resorted, left), sortAndMerge(type, shuffled, left));
+        }
+    }
+
+    @Test
+    public void streams()
+    {
+        // Sides that can only be iterated once are never read ahead of the join
+        final Function<String, Character> first = new Function<String, Character>()
+        {
+            public Character apply(String s)
+            {
+                return s.charAt(0);
+            }
+        };
+        assertEquals("[a:a1,a2, b:b1,b2, c:c1,c2]", Iterate.lines(new StringReader("a1\nb1\nc1")).join(
+                Join.merge(JoinType.INNER, first, first), Iterate.lines(new StringReader("a2\nb2\nc2"))).list()
+                .toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unsortedSidesFail()
+    {
+        merge(JoinType.INNER, Arrays.asList("2/a", "1/b"), Arrays.asList("1/x", "2/y"));
+    }
+
+    @Test
+    public void comparator()
+    {
+        final List<String> left = Arrays.asList("3/a", "2/b", "1/c");
+        final List<String> right = Arrays.asList("3/x", "1/y", "1/z");
+        assertEquals("[3:3/a,3/x, 1:1/c,1/y, 1:1/c,1/z]", Iterate.each(left).join(
+                Join.merge(JoinType.INNER, KEY, KEY, Collections.<Integer>reverseOrder()), right).list().toString());
+    }
+
+    @Test
+    public void sidesThatStopBeingSortedFail()
+    {
+        final List<String> left = new ArrayList<String>(Arrays.asList("1/a", "2/b", "3/c"));
+        final List<String> right = Arrays.asList("1/x", "3/y");
+        final Iterable<JoinResult<Integer, String, String>> join =
+                new MergeJoinIterable<Integer, String, String>(JoinType.LEFT, left, KEY, right, KEY, null);
+        assertEquals(3, Iterate.each(join).list().size());
+
+        Collections.swap(left, 0, 2);
+        try {
+            Iterate.each(join).list();
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    private static List<JoinResult<Integer, String, String>> merge(JoinType type, List<String> left,
+                                                                   List<String> right)
+    {
+        return Iterate.each(left).join(Join.merge(type, KEY, KEY), right).list();
+    }
+
+    private static List<JoinResult<Integer, String, String>> sortAndMerge(JoinType type, List<String> left,
+                                                                          List<String> right)
+    {
+        return Iterate.each(left).join(Join.merge(type, KEY, KEY, null, true), right).list();
+    }
+
+    private static List<String> sortedItems(Random random, int count)
+    {
+        final int[] keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextInt(20);
+        }
+        Arrays.sort(keys);
+
+        final List<String> items = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(keys[i] + "/" + i);
+        }
+        return items;
+    }
+
+    private static List<String> sorted(List<?> items)
+    {
+        final List<String> strings = new ArrayList<String>();
+        for (Object item : items) {
+            strings.add(String.valueOf(item));
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+}
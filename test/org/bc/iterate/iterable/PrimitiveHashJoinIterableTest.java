@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Integers;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.primitive.Ints;
+import org.bc.iterate.primitive.Longs;
+import org.bc.iterate.relational.Join;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrimitiveHashJoinIterableTest
+{
+    @Test
+    public void sameAsBoxedJoins()
+    {
+        final Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            final List<Integer> left = randomKeys(random, 1 + random.nextInt(50));
+            final List<Integer> right = randomKeys(random, 1 + random.nextInt(50));
+
+            assertEquals(Iterate.each(new InnerIncrementalHashJoinIterable<Integer, Integer, Integer>(
+                    left, Integers.identity(), right, Integers.identity())).list(),
+                         join(JoinType.INNER, left, right));
+            assertEquals(Iterate.each(new LeftIncrementalHashJoinIterable<Integer, Integer, Integer>(
+                    left, Integers.identity(), right, Integers.identity())).list(),
+                         join(JoinType.LEFT, left, right));
+            assertEquals(Iterate.each(new RightIncrementalHashJoinIterable<Integer, Integer, Integer>(
+                    left, Integers.identity(), right, Integers.identity())).list(),
+                         join(JoinType.RIGHT, left, right));
+
+            assertEquals(Iterate.each(new FullIncrementalHashJoinIterable<Integer, Integer, Integer>(
+                    left, Integers.identity(), right, Integers.identity())).list(),
+                         join(JoinType.FULL, left, right));
+        }
+    }
+
+    private static List<JoinResult<Integer, Integer, Integer>> join(JoinType type, List<Integer> left,
+                                                                    List<Integer> right)
+    {
+        return Iterate.each(PrimitiveHashJoinIterable.ints(type, left, Ints.value(), right, Ints.value())).list();
+    }
+
+    private static List<Integer> randomKeys(Random random, int count)
+    {
+        final List<Integer> keys = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(random.nextInt(30) - 10);
+        }
+        return keys;
+    }
+
+    @Test
+    public void longKeys()
+    {
+        final List<Long> left = Arrays.asList(1L, Long.MAX_VALUE, -5L, 1L << 40);
+        final List<Long> right = Arrays.asList(1L << 40, 1L, 1L, 7L);
+        assertEquals(Arrays.asList(new JoinResult<Long, Long, Long>(1L, 1L, 1L),
+                                   new JoinResult<Long, Long, Long>(1L, 1L, 1L),
+                                   new JoinResult<Long, Long, Long>(1L << 40, 1L << 40, 1L << 40)),
+                     Iterate.each(left).join(Join.<Long>innerLong(Longs.value()), right).list());
+        assertEquals(Arrays.asList(new JoinResult<Long, Long, Long>(1L, 1L, 1L),
+                                   new JoinResult<Long, Long, Long>(1L, 1L, 1L),
+                                   new JoinResult<Long, Long, Long>(Long.MAX_VALUE, Long.MAX_VALUE, null),
+                                   new JoinResult<Long, Long, Long>(-5L, -5L, null),
+                                   new JoinResult<Long, Long, Long>(1L << 40, 1L << 40, 1L << 40),
+                                   new JoinResult<Long, Long, Long>(7L, null, 7L)),
+                     Iterate.each(left).join(Join.<Long>fullLong(Longs.value()), right).list());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Doubles;
+import org.bc.iterate.Integers;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Longs;
+import org.bc.iterate.primitive.SplitMix64;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RandomIterableTest
+{
+    @Test
+    public void reproducible()
+    {
+        final RandomIterable<Integer> random = RandomIterable.ints(new SplitMix64(17), 1000, 50);
+        final List<Integer> first = Iterate.each(random).list();
+        Assert.assertEquals(50, first.size());
+        Assert.assertEquals(first, Iterate.each(random).list());
+        Assert.assertEquals(first, Iterate.each(RandomIterable.ints(new SplitMix64(17), 1000, 50)).list());
+    }
+
+    @Test
+    public void split()
+    {
+        final RandomIterable<Long> random = RandomIterable.longs(new SplitMix64(23), 100);
+        final List<Long> all = Iterate.each(random).list();
+        final List<Long> pieces = new ArrayList<Long>();
+        pieces.addAll(Iterate.each(random.split(0, 37)).list());
+        pieces.addAll(Iterate.each(random.split(37, 90)).list());
+        pieces.addAll(Iterate.each(random.split(90, 100)).list());
+        Assert.assertEquals(all, pieces);
+    }
+
+    @Test
+    public void parallel()
+    {
+        final Iterate<Integer> random = Integers.random(new SplitMix64(31), 1000, 10000);
+        Assert.assertEquals(random.list(), random.parallel().list());
+    }
+
+    @Test
+    public void inexhaustible()
+    {
+        final RandomIterable<Double> random = RandomIterable.doubles(new SplitMix64(29), -1);
+        Assert.assertEquals(-1, random.size());
+        Assert.assertEquals(1000, Iterate.each(random).slice(0, 1000).list().size());
+    }
+
+    @Test
+    public void unseededPassesDiffer()
+    {
+        final Iterable<Integer> ints = Integers.random();
+        Assert.assertFalse(Iterate.each(ints).slice(0, 10).list().equals(Iterate.each(ints).slice(0, 10).list()));
+        final Iterable<Integer> bounded = Integers.random(1000000);
+        Assert.assertFalse(Iterate.each(bounded).slice(0, 10).list().equals(
+                Iterate.each(bounded).slice(0, 10).list()));
+        final Iterate<Long> longs = Longs.random();
+        Assert.assertFalse(longs.slice(0, 10).list().equals(longs.slice(0, 10).list()));
+        final Iterate<Double> doubles = Doubles.random();
+        Assert.assertFalse(doubles.slice(0, 10).list().equals(doubles.slice(0, 10).list()));
+    }
+}
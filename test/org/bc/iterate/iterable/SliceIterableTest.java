@@ -15,11 +15,13 @@
  */
 package org.bc.iterate.iterable;
 
+import org.bc.iterate.Iterate;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 
 public class SliceIterableTest
@@ -73,4 +75,13 @@ public class SliceIterableTest
         //noinspection ImplicitNumericConversion
         Assert.assertEquals(expectedCount, count);
     }
+
+    @Test
+    public void split()
+    {
+        SliceIterable<Integer> slice = new SliceIterable<Integer>(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), 2, 20);
+        Assert.assertEquals(8, slice.size());
+        Assert.assertEquals(Arrays.asList(4, 5, 6), Iterate.each(slice.split(2, 5)).list());
+        Assert.assertEquals(-1, new SliceIterable<Integer>(new LinkedList<Integer>(Arrays.asList(1, 2)), 1).size());
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.io.Serializers;
+import org.bc.iterate.relational.Join;
+import org.bc.iterate.relational.JoinResult;
+import org.bc.iterate.relational.JoinType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingHashJoinIterableTest
+{
+    /**
+     * Items are "key/index", so that items with equal keys can be told apart
+     */
+    private static final Function<String, Integer> KEY = new Function<String, Integer>()
+    {
+        public Integer apply(String s)
+        {
+            return Integer.valueOf(s.substring(0, s.indexOf('/')));
+        }
+    };
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = File.createTempFile("SpillingHashJoinIterableTest", "");
+        assertTrue(directory.delete() && directory.mkdir());
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File file : directory.listFiles()) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+        //noinspection ResultOfMethodCallIgnored
+        directory.delete();
+    }
+
+    @Test
+    public void sameAsMergeJoin()
+    {
+        final Random random = new Random(21);
+        for (int budget : new int[]{0, 1, 7, 100, 10000}) {
+            for (JoinType type : JoinType.values()) {
+                final List<String> left = items(random, 300, 200);
+                final List<String> right = items(random, 400, 200);
+                final List<JoinResult<Integer, String, String>> merged =
+                        Iterate.each(left).join(Join.merge(type, KEY, KEY, null, true), right).list();
+                assertEquals(type + " within " + budget, sorted(merged), sorted(spill(type, left, right, budget)));
+                assertEquals(0, directory.listFiles().length);
+            }
+        }
+    }
+
+    @Test
+    public void sameKey()
+    {
+        // Items that all have the same key can't be partitioned, so they are eventually joined in memory
+        final Random random = new Random(22);
+        final List<String> left = items(random, 20, 1);
+        final List<String> right = items(random, 30, 1);
+        assertEquals(600, spill(JoinType.INNER, left, right, 2).size());
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void closeAbandoned() throws IOException
+    {
+        final Random random = new Random(23);
+        final List<String> left = items(random, 300, 200);
+        final List<String> right = items(random, 400, 200);
+        final int count = spill(JoinType.FULL, left, right, 7).size();
+
+        // stop while joining the spilled partitions, when files and the streams reading them are open
+        final SpillingHashJoinIterable<Integer, String, String> join = new SpillingHashJoinIterable<Integer, String,
+                String>(JoinType.FULL, left, KEY, Serializers.strings(), right, KEY, Serializers.strings(), 7,
+                        directory);
+        final Iterator<JoinResult<Integer, String, String>> results = join.iterator();
+        for (int i = 0; i < count - 10; i++) {
+            results.next();
+        }
+        assertTrue(directory.listFiles().length > 0);
+        ((Closeable) results).close();
+        assertEquals(0, directory.listFiles().length);
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void empty()
+    {
+        final List<String> items = Arrays.asList("1/a", "2/b");
+        final List<String> none = Collections.emptyList();
+        for (JoinType type : JoinType.values()) {
+            assertEquals(0, spill(type, none, none, 0).size());
+        }
+        assertEquals(0, spill(JoinType.INNER, items, none, 0).size());
+        assertEquals(2, spill(JoinType.LEFT, items, none, 0).size());
+        assertEquals(2, spill(JoinType.FULL, none, items, 0).size());
+    }
+
+    @Test
+    public void strategy()
+    {
+        final List<Integer> left = Arrays.asList(1, 2, 3, 4);
+        final List<Integer> right = Arrays.asList(4, 3, 3, 5);
+        final Function<Integer, Integer> identity = new Function<Integer, Integer>()
+        {
+            public Integer apply(Integer i)
+            {
+                return i;
+            }
+        };
+        assertEquals("[3:3,3, 3:3,3, 4:4,4]", sorted(Iterate.each(left).join(
+                Join.spilling(JoinType.INNER, identity, Serializers.integers(), 1), right).list()).toString());
+        assertEquals("[3:3,3, 3:3,3, 4:4,4]", sorted(Iterate.each(left).join(
+                Join.spilling(JoinType.INNER, identity, Serializers.<Integer>java(), 0), right).list()).toString());
+    }
+
+    private List<JoinResult<Integer, String, String>> spill(JoinType type, List<String> left, List<String> right,
+                                                            int budget)
+    {
+        return Iterate.each(new SpillingHashJoinIterable<Integer, String, String>(
+                type, left, KEY, Serializers.strings(), right, KEY, Serializers.strings(), budget, directory)).list();
+    }
+
+    private static List<String> items(Random random, int count, int keys)
+    {
+        final List<String> items = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(random.nextInt(keys) + "/" + i);
+        }
+        return items;
+    }
+
+    private static List<String> sorted(List<?> items)
+    {
+        final List<String> strings = new ArrayList<String>();
+        for (Object item : items) {
+            strings.add(String.valueOf(item));
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+}
@@ -16,8 +16,17 @@
 
 package org.bc.iterate.iterable;
 
+import org.bc.iterate.Condition;
+import org.bc.iterate.Conditions;
+import org.bc.iterate.Iterate;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class StepIntegerRangeTest
 {
@@ -68,4 +77,122 @@ public class StepIntegerRangeTest
 
         assertEquals(4, count);
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroStep()
+    {
+        new IntegerRange(0, 10).by(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeStep()
+    {
+        new StepIntegerRange(10, 0, -2);
+    }
+
+    @Test
+    public void split()
+    {
+        final StepIntegerRange ascending = new StepIntegerRange(10, 23, 3);
+        assertEquals(5, ascending.size());
+        assertEquals(Arrays.asList(13, 16, 19), ascending.split(1, 4).list());
+        assertEquals(Arrays.asList(22), ascending.split(4, 5).list());
+
+        final StepIntegerRange descending = new StepIntegerRange(20, 10, 3);
+        assertEquals(4, descending.size());
+        assertEquals(Arrays.asList(17, 14, 11), descending.split(1, 4).list());
+    }
+
+    @Test
+    public void closedForms()
+    {
+        final int[][] ranges = {{10, 23, 3}, {20, 10, 3}, {-7, 8, 4}, {5, 5, 2}, {Integer.MAX_VALUE - 10, 10, 7}};
+        for (int[] r : ranges) {
+            final StepIntegerRange range = new StepIntegerRange(r[0], r[1], r[2]);
+            long sum = 0;
+            long sumOfSquares = 0;
+            for (int i : range) {
+                sum += i;
+                sumOfSquares += (long) i * i;
+                assertTrue(range.contains(i));
+                assertFalse(range.contains(i + 1));
+            }
+            assertEquals(range.toString(), sum, range.sum());
+            assertEquals(range.toString(), sumOfSquares, range.sumOfSquares());
+        }
+    }
+
+    @Test
+    public void whereNarrows()
+    {
+        final int[][] ranges = {{10, 23, 3}, {20, 10, 3}, {0, 10, 1}, {10, 0, 1}, {3, 3, 2}};
+        for (int[] r : ranges) {
+            final StepIntegerRange range = new StepIntegerRange(r[0], r[1], r[2]);
+            for (int value = -2; value < 26; value++) {
+                check(range, Conditions.<Integer>eq(value));
+                check(range, Conditions.<Integer>gt(value));
+                check(range, Conditions.<Integer>gte(value));
+                check(range, Conditions.<Integer>lt(value));
+                check(range, Conditions.<Integer>lte(value));
+            }
+        }
+    }
+
+    private static void check(StepIntegerRange range, Condition<Integer> c)
+    {
+        final List<Integer> expected = new ArrayList<Integer>();
+        for (int i : range) {
+            if (c.eval(i)) {
+                expected.add(i);
+            }
+        }
+        final Iterate<Integer> narrowed = range.where(c);
+        assertTrue(narrowed instanceof IntegerRange);
+        assertEquals(range + " where " + c, expected, narrowed.list());
+    }
+
+    @Test
+    public void reverse()
+    {
+        assertEquals(Arrays.asList(22, 19, 16, 13, 10), new StepIntegerRange(10, 23, 3).reverse().list());
+        assertEquals(Arrays.asList(11, 14, 17, 20), new StepIntegerRange(20, 10, 3).reverse().list());
+        assertEquals(Arrays.asList(11, 14, 17, 20), new StepIntegerRange(20, 10, 3).sorted().list());
+        assertEquals(Arrays.asList(Integer.MIN_VALUE + 4, Integer.MIN_VALUE),
+                     new StepIntegerRange(Integer.MIN_VALUE, Integer.MIN_VALUE + 5, 4).reverse().list());
+    }
+
+    @Test
+    public void slice()
+    {
+        final Iterate<Integer> slice = new StepIntegerRange(10, 23, 3).slice(1, 3);
+        assertTrue(slice instanceof StepIntegerRange);
+        assertEquals(Arrays.asList(13, 16), slice.list());
+        assertEquals(Arrays.asList(19, 22), new StepIntegerRange(10, 23, 3).slice(3).list());
+        assertEquals(Arrays.asList(), new StepIntegerRange(10, 23, 3).slice(7).list());
+    }
+
+    @Test
+    public void overflow()
+    {
+        final StepIntegerRange ascending = new StepIntegerRange(Integer.MAX_VALUE - 10, Integer.MAX_VALUE, 3);
+        final List<Integer> up = Arrays.asList(Integer.MAX_VALUE - 10, Integer.MAX_VALUE - 7, Integer.MAX_VALUE - 4,
+                                               Integer.MAX_VALUE - 1);
+        assertEquals(up, ascending.list());
+        assertEquals(up, pulled(ascending));
+
+        final StepIntegerRange descending = new StepIntegerRange(Integer.MIN_VALUE + 10, Integer.MIN_VALUE, 3);
+        final List<Integer> down = Arrays.asList(Integer.MIN_VALUE + 10, Integer.MIN_VALUE + 7, Integer.MIN_VALUE + 4,
+                                                 Integer.MIN_VALUE + 1);
+        assertEquals(down, descending.list());
+        assertEquals(down, pulled(descending));
+    }
+
+    private static List<Integer> pulled(Iterable<Integer> items)
+    {
+        final List<Integer> pulled = new ArrayList<Integer>();
+        for (Integer item : items) {
+            pulled.add(item);
+        }
+        return pulled;
+    }
 }
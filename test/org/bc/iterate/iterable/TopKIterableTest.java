@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.iterable;
+
+import org.bc.iterate.Iterate;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class TopKIterableTest
+{
+    @Test
+    public void top()
+    {
+        final Random random = new Random(17);
+        final List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(random.nextInt(100));
+        }
+
+        final List<Integer> sorted = new ArrayList<Integer>(items);
+        Collections.sort(sorted);
+        assertEquals(sorted.subList(0, 10), Iterate.each(new TopKIterable<Integer>(items, null, 10)).list());
+        assertEquals(sorted, Iterate.each(new TopKIterable<Integer>(items, null, 5000)).list());
+
+        Collections.sort(sorted, Collections.reverseOrder());
+        assertEquals(sorted.subList(0, 25), Iterate.each(
+                new TopKIterable<Integer>(items, Collections.<Integer>reverseOrder(), 25)).list());
+    }
+
+    @Test
+    public void stable()
+    {
+        // Compare only by length, so that ties are kept in encounter order as in a stable sort
+        final Comparator<String> byLength = new Comparator<String>()
+        {
+            public int compare(String s1, String s2)
+            {
+                return s1.length() - s2.length();
+            }
+        };
+
+        final List<String> items = Arrays.asList("ccc", "b", "a", "dd", "e", "ff");
+        assertEquals(Arrays.asList("b", "a", "e", "dd"), Iterate.each(new TopKIterable<String>(items, byLength, 4))
+                .list());
+    }
+
+    @Test
+    public void merge()
+    {
+        final Comparator<String> byLength = new Comparator<String>()
+        {
+            public int compare(String s1, String s2)
+            {
+                return s1.length() - s2.length();
+            }
+        };
+
+        final List<String> items = Arrays.asList("ccc", "b", "a", "dd", "e", "ff", "g", "hhh");
+        final TopKIterable.Selector<String> first = new TopKIterable.Selector<String>(byLength, 5);
+        final TopKIterable.Selector<String> second = new TopKIterable.Selector<String>(byLength, 5);
+        for (String s : items.subList(0, 4)) {
+            first.accept(s);
+        }
+        for (String s : items.subList(4, items.size())) {
+            second.accept(s);
+        }
+
+        assertEquals(Arrays.asList("b", "a", "dd", "ccc"), first.toList());
+        assertEquals(Iterate.each(new TopKIterable<String>(items, byLength, 5)).list(),
+                     TopKIterable.merge(first.toList(), second.toList(), byLength, 5));
+        assertEquals(Arrays.asList("b", "a", "e", "g", "dd", "ff", "ccc", "hhh"),
+                     TopKIterable.merge(first.toList(), second.toList(), byLength, 100));
+
+        final TopKIterable.Selector<String> none = new TopKIterable.Selector<String>(byLength, 0);
+        for (String s : items) {
+            none.accept(s);
+        }
+        assertEquals(0, none.toList().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSelector()
+    {
+        new TopKIterable.Selector<String>(null, -1);
+    }
+}
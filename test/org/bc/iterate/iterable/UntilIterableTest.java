@@ -21,6 +21,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 public class UntilIterableTest
@@ -44,4 +45,27 @@ public class UntilIterableTest
 
         Assert.assertEquals(2, i);
     }
+
+    @Test
+    public void reentrant()
+    {
+        final UntilIterable<Integer> iter = new UntilIterable<Integer>(Arrays.asList(1, 2, 3, 4), new Condition<Integer>()
+        {
+            public boolean eval(Integer i)
+            {
+                return i == 3;
+            }
+        });
+
+        final Iterator<Integer> first = iter.iterator();
+        Assert.assertEquals(Integer.valueOf(1), first.next());
+        Assert.assertEquals(Integer.valueOf(2), first.next());
+        Assert.assertFalse(first.hasNext());
+
+        // A second iteration is not affected by the first reaching the condition
+        final Iterator<Integer> second = iter.iterator();
+        Assert.assertEquals(Integer.valueOf(1), second.next());
+        Assert.assertEquals(Integer.valueOf(2), second.next());
+        Assert.assertFalse(second.hasNext());
+    }
 }
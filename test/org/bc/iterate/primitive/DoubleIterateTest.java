@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Iterate;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DoubleIterateTest
+{
+    @Test
+    public void stages()
+    {
+        final DoubleIterate items = DoubleIterate.of(0.5, 1.5, 2.5, 3.5).where(Doubles.gt(1.0)).map(Doubles.square());
+        assertArrayEquals(new double[] { 2.25, 6.25, 12.25 }, items.toArray(), 0.0);
+        assertArrayEquals(new double[] { 2.25 }, items.until(Doubles.gte(5.0)).toArray(), 0.0);
+    }
+
+    @Test
+    public void terminal()
+    {
+        final DoubleIterate items = DoubleIterate.of(3, -1, 4, 1, -5, 9);
+        assertEquals(11.0, items.sum(), 0.0);
+        assertEquals(-5.0, items.min(), 0.0);
+        assertEquals(9.0, items.max(), 0.0);
+        assertEquals(6, items.count());
+        assertEquals(540.0, items.reduce(Doubles.multiply()), 0.0);
+    }
+
+    @Test
+    public void bridges()
+    {
+        assertEquals(Arrays.asList(0.25, 1.0), DoubleIterate.of(0.5, 1.0).map(Doubles.square()).boxed().list());
+        assertEquals(6.0, DoubleIterate.unbox(Arrays.asList(1.0, 2.0, 3.0)).sum(), 0.0);
+        assertEquals(3.75, Iterate.each(1.25f, 2.5f).mapToDouble(Doubles.value()).sum(), 0.0);
+        assertEquals(3.5, Iterate.each("1.25", "2.25").mapToDouble(Doubles.parse()).sum(), 0.0);
+        assertArrayEquals(new double[] { 1, 2 }, IntIterate.of(1, 2).asDoubles().toArray(), 0.0);
+        assertArrayEquals(new int[] { 1, -1 }, DoubleIterate.of(1.9, -1.9).toInts().toArray());
+    }
+
+    @Test
+    public void random()
+    {
+        for (double d : Doubles.random(new Random(3)).until(Doubles.lt(0.01)).toArray()) {
+            assertTrue(d >= 0.01 && d < 1.0);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DoubleStatisticsTest
+{
+    @Test
+    public void pipeline()
+    {
+        final DoubleStatistics statistics = DoubleIterate.of(2, 4, 4, 4, 5, 5, 7, 9).map(new DoubleFunction()
+        {
+            public double apply(double x)
+            {
+                return x / 2;
+            }
+        }).statistics();
+        assertEquals(8, statistics.getCount());
+        assertEquals(20.0, statistics.getSum(), 0.0);
+        assertEquals(1.0, statistics.getMin(), 0.0);
+        assertEquals(4.5, statistics.getMax(), 0.0);
+        assertEquals(2.5, statistics.getMean(), 1e-12);
+        assertEquals(1.0, statistics.getStandardDeviation(), 1e-12);
+    }
+
+    @Test
+    public void merge()
+    {
+        final double[] items = new double[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = 1e9 + Math.sin(i);
+        }
+
+        final DoubleStatistics whole = DoubleStatistics.of(items);
+        final DoubleStatistics merged = DoubleStatistics.of(items, 0, 10).merge(DoubleStatistics.of(items, 10, 1000));
+        final DoubleStatistics streamed = DoubleIterate.of(items).where(Doubles.gt(0)).statistics();
+        assertEquals(whole.getMean(), merged.getMean(), 1e-6);
+        assertEquals(whole.getVariance(), merged.getVariance(), 1e-6);
+        assertEquals(whole.getVariance(), streamed.getVariance(), 1e-6);
+        assertEquals(0.5, whole.getVariance(), 0.01);
+    }
+}
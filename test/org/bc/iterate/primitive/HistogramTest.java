@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest
+{
+    @Test
+    public void linear()
+    {
+        final Histogram histogram = IntIterate.range(-5, 105).visit(Histogram.linear(0, 100, 10));
+        assertEquals(10, histogram.getBuckets());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(10, histogram.getCount(i));
+            assertEquals(i * 10.0, histogram.getLowerBound(i), 1e-9);
+        }
+        assertEquals(5, histogram.getUnderflow());
+        assertEquals(5, histogram.getOverflow());
+        assertEquals(110, histogram.getTotal());
+    }
+
+    @Test
+    public void logarithmic()
+    {
+        final Histogram histogram = Histogram.logarithmic(1, 10000, 4);
+        assertEquals(10.0, histogram.getUpperBound(0), 1e-9);
+        assertEquals(1000.0, histogram.getLowerBound(3), 1e-9);
+
+        LongIterate.of(1, 9, 10, 99, 100, 999, 1000, 9999, 10000, 0).visit(histogram);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(2, histogram.getCount(i));
+        }
+        assertEquals(1, histogram.getUnderflow());
+        assertEquals(1, histogram.getOverflow());
+    }
+
+    @Test
+    public void bounds()
+    {
+        final Histogram histogram = Histogram.linear(0.0, 1.0, 10);
+        for (int i = 0; i < 10; i++) {
+            // every bucket's lower bound falls into that bucket, despite rounding in the bucket arithmetic
+            assertEquals(i, histogram.bucket(histogram.getLowerBound(i)));
+            assertEquals(i, histogram.bucket(Math.nextAfter(histogram.getUpperBound(i), 0.0)));
+        }
+        assertEquals(10, histogram.bucket(Double.NaN));
+    }
+
+    @Test
+    public void merge()
+    {
+        final Histogram evens = IntIterate.range(0, 100).where(Ints.even()).visit(Histogram.linear(0, 100, 5));
+        final Histogram odds = IntIterate.range(0, 100).where(new IntCondition()
+        {
+            public boolean eval(int x)
+            {
+                return (x & 1) == 1;
+            }
+        }).visit(Histogram.linear(0, 100, 5));
+        evens.merge(odds);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(20, evens.getCount(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeDifferentBuckets()
+    {
+        Histogram.linear(0, 100, 5).merge(Histogram.linear(0, 100, 4));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Integers;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.Size;
+import org.bc.iterate.Strings;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntIterateTest
+{
+    @Test
+    public void stages()
+    {
+        final IntIterate evenSquares = IntIterate.range(0, 20).where(Ints.even()).map(Ints.square());
+        assertArrayEquals(new int[] { 0, 4, 16, 36, 64, 100, 144, 196, 256, 324 }, evenSquares.toArray());
+        assertEquals(Size.atMost(20), evenSquares.getSize());
+
+        final IntIterate until = IntIterate.of(3, 1, 4, 1, 5, 9, 2, 6).until(Ints.gt(8));
+        assertArrayEquals(new int[] { 3, 1, 4, 1, 5 }, until.toArray());
+        assertEquals(5, until.count());
+    }
+
+    @Test
+    public void iterator()
+    {
+        final IntIterator i = IntIterate.of(1, 2, 3, 4, 5, 6).where(Ints.even()).until(Ints.eq(6)).iterator();
+        assertEquals(2, i.nextInt());
+        assertTrue(i.hasNext());
+        assertEquals(4, i.nextInt());
+        assertFalse(i.hasNext());
+        try {
+            i.nextInt();
+            fail();
+        } catch (NoSuchElementException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void terminal()
+    {
+        final IntIterate items = IntIterate.of(3, -1, 4, 1, -5, 9);
+        assertEquals(11, items.sum());
+        assertEquals(-5, items.min());
+        assertEquals(9, items.max());
+        assertEquals(6, items.count());
+        assertEquals(11, items.reduce(Ints.sum(), 0));
+        assertEquals(540, items.reduce(Ints.multiply()));
+
+        // sum is accumulated as a long
+        assertEquals(2L * Integer.MAX_VALUE, IntIterate.of(Integer.MAX_VALUE, Integer.MAX_VALUE).sum());
+
+        final StringBuilder visited = new StringBuilder();
+        items.visit(new IntVisitor()
+        {
+            public void visit(int x)
+            {
+                visited.append(x);
+            }
+        });
+        assertEquals("3-141-59", visited.toString());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void minOfNothing()
+    {
+        IntIterate.of().min();
+    }
+
+    @Test
+    public void bridges()
+    {
+        assertEquals(Arrays.asList(1, 4, 9), IntIterate.of(1, 2, 3).map(Ints.square()).boxed().list());
+        assertEquals(Integers.range(0, 10).map(Integers.square()).list(),
+                     Integers.range(0, 10).ints().map(Ints.square()).boxed().list());
+        assertEquals(6, IntIterate.unbox(Arrays.asList(1, 2, 3)).sum());
+        assertEquals(8, Iterate.each("a", "bcd", "efgh").mapToInt(new ToIntFunction<String>()
+        {
+            public int apply(String s)
+            {
+                return s.length();
+            }
+        }).sum());
+        assertEquals(60, Iterate.each("10", "20", "30").mapToInt(Ints.parse()).sum());
+        assertEquals(3, Iterate.each("a", "bcd").map(Strings.length()).mapToInt(new ToIntFunction<Integer>()
+        {
+            public int apply(Integer i)
+            {
+                return i;
+            }
+        }).max());
+    }
+
+    @Test
+    public void random()
+    {
+        final int[] items = Ints.random(new Random(7), 10).until(Ints.eq(9)).toArray();
+        for (int item : items) {
+            assertTrue(item >= 0 && item < 9);
+        }
+    }
+}
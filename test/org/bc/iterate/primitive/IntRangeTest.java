@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Integers;
+import org.bc.iterate.Size;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IntRangeTest
+{
+    @Test
+    public void ascending()
+    {
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, IntIterate.range(0, 5).toArray());
+        assertArrayEquals(new int[] { 0, 3, 6, 9 }, IntIterate.range(0, 10).by(3).toArray());
+        assertEquals(Size.exactly(4), IntIterate.range(0, 10).by(3).getSize());
+    }
+
+    @Test
+    public void longerThanMaxInt()
+    {
+        // the count does not fit the int of a Size, so it is unknown rather than capped, and derived pipelines count
+        final IntRange range = IntIterate.range(-5, Integer.MAX_VALUE);
+        assertEquals(Size.unknown(), range.getSize());
+        assertEquals(Integer.MAX_VALUE + 5L, range.count());
+        assertEquals(Integer.MAX_VALUE + 5L, range.map(new IntFunction()
+        {
+            public int apply(int x)
+            {
+                return -x;
+            }
+        }).count());
+    }
+
+    @Test
+    public void descending()
+    {
+        assertArrayEquals(new int[] { 5, 4, 3, 2, 1 }, IntIterate.range(5, 0).toArray());
+        assertArrayEquals(new int[] { 10, 7, 4, 1 }, IntIterate.range(10, 0).by(3).toArray());
+    }
+
+    @Test
+    public void iterator()
+    {
+        final IntIterator i = IntIterate.range(3, 0).iterator();
+        int sum = 0;
+        while (i.hasNext()) {
+            sum += i.nextInt();
+        }
+        assertEquals(6, sum);
+    }
+
+    @Test
+    public void bounds()
+    {
+        // stepping past Integer.MAX_VALUE ends the range rather than wrapping around
+        assertArrayEquals(new int[] { Integer.MAX_VALUE - 3, Integer.MAX_VALUE - 1 },
+                          IntIterate.range(Integer.MAX_VALUE - 3, Integer.MAX_VALUE).by(2).toArray());
+        assertEquals((1L << 32) - 1, IntIterate.range(Integer.MIN_VALUE, Integer.MAX_VALUE).count());
+    }
+
+    @Test
+    public void fromIntegerRange()
+    {
+        assertArrayEquals(new int[] { 2, 4, 6 }, Integers.range(2, 8).by(2).ints().toArray());
+        assertEquals(Integers.range(0, 1000).reduce(Integers.sum()).longValue(), Integers.range(0, 1000).ints().sum());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Iterate;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class LongIterateTest
+{
+    @Test
+    public void stages()
+    {
+        final long base = 1L << 40;
+        final LongIterate items = LongIterate.range(base, base + 10).where(Longs.even()).map(new LongFunction()
+        {
+            public long apply(long x)
+            {
+                return x - base;
+            }
+        });
+        assertArrayEquals(new long[] { 0, 2, 4, 6, 8 }, items.toArray());
+        assertArrayEquals(new long[] { 0, 2 }, items.until(Longs.gte(3)).toArray());
+    }
+
+    @Test
+    public void terminal()
+    {
+        final LongIterate items = LongIterate.of(3, -1, 4, 1, -5, 9);
+        assertEquals(11, items.sum());
+        assertEquals(-5, items.min());
+        assertEquals(9, items.max());
+        assertEquals(6, items.count());
+        assertEquals(-540, items.reduce(Longs.multiply(), -1));
+        assertEquals(3L * Integer.MAX_VALUE, LongIterate.of(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE)
+                .reduce(Longs.sum()));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void maxOfNothing()
+    {
+        LongIterate.of().max();
+    }
+
+    @Test
+    public void conversions()
+    {
+        assertArrayEquals(new long[] { 1, 2, 3 }, IntIterate.of(1, 2, 3).asLongs().toArray());
+        assertArrayEquals(new int[] { 1, 0 }, LongIterate.of((1L << 32) + 1, 1L << 32).toInts().toArray());
+        assertEquals(5.0, LongIterate.of(1, 2).asDoubles().map(Doubles.square()).sum(), 0.0);
+        assertArrayEquals(new long[] { 1, -1 }, DoubleIterate.of(1.9, -1.9).toLongs().toArray());
+    }
+
+    @Test
+    public void bridges()
+    {
+        assertEquals(Arrays.asList(1L, 4L, 9L), LongIterate.of(1, 2, 3).map(Longs.square()).boxed().list());
+        assertEquals(6, LongIterate.unbox(Arrays.asList(1L, 2L, 3L)).sum());
+        assertEquals(6, Iterate.each(1, 2, 3).mapToLong(Longs.value()).sum());
+        assertEquals(12345678901L, Iterate.each("12345678900", "1").mapToLong(Longs.parse()).sum());
+    }
+}
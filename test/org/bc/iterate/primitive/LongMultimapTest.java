@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.primitive;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LongMultimapTest
+{
+    @Test
+    public void chains()
+    {
+        final List<Long> items = Arrays.asList(3L, 7L, 3L, -1L, 3L, Long.MIN_VALUE);
+        final LongMultimap<Long> multimap = LongMultimap.of(items, Longs.value(), 0);
+        assertEquals(6, multimap.size());
+        assertEquals(Arrays.asList(0, 2, 4), indexes(multimap, 3L));
+        assertEquals(Arrays.asList(1), indexes(multimap, 7L));
+        assertEquals(Arrays.asList(5), indexes(multimap, Long.MIN_VALUE));
+        assertEquals(Arrays.<Integer>asList(), indexes(multimap, 4L));
+        assertEquals(Long.valueOf(-1L), multimap.get(3));
+        assertEquals(-1L, multimap.getKey(3));
+    }
+
+    @Test
+    public void many()
+    {
+        final List<Long> items = new ArrayList<Long>();
+        for (long i = 0; i < 100000; i++) {
+            items.add(i * 1024);
+        }
+        final LongMultimap<Long> multimap = LongMultimap.of(items, Longs.value(), 16);
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i, multimap.first(items.get(i)));
+            assertEquals(-1, multimap.next(i));
+        }
+        assertEquals(-1, multimap.first(1));
+    }
+
+    @Test
+    public void empty()
+    {
+        final LongMultimap<Long> multimap = LongMultimap.of(new ArrayList<Long>(), Longs.value(), 0);
+        assertEquals(0, multimap.size());
+        assertEquals(-1, multimap.first(0));
+    }
+
+    private static List<Integer> indexes(LongMultimap<?> multimap, long key)
+    {
+        final List<Integer> indexes = new ArrayList<Integer>();
+        for (int i = multimap.first(key); i >= 0; i = multimap.next(i)) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
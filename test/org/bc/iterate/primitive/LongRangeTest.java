@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Size;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongRangeTest
+{
+    @Test
+    public void ascending()
+    {
+        assertArrayEquals(new long[] { 0, 1, 2, 3, 4 }, LongIterate.range(0, 5).toArray());
+        assertArrayEquals(new long[] { 0, 3, 6, 9 }, LongIterate.range(0, 10).by(3).toArray());
+        assertEquals(4, LongIterate.range(0, 10).by(3).count());
+        assertEquals(0, LongIterate.range(5, 5).count());
+        assertArrayEquals(new long[0], LongIterate.range(5, 5).toArray());
+    }
+
+    @Test
+    public void descending()
+    {
+        assertArrayEquals(new long[] { 5, 4, 3, 2, 1 }, LongIterate.range(5, 0).toArray());
+        assertArrayEquals(new long[] { 10, 7, 4, 1 }, LongIterate.range(10, 0).by(3).toArray());
+    }
+
+    @Test
+    public void longerThanMaxInt()
+    {
+        assertEquals(Size.unknown(), LongIterate.range(0, Integer.MAX_VALUE + 1L).getSize());
+        assertEquals(Size.exactly(Integer.MAX_VALUE), LongIterate.range(0, Integer.MAX_VALUE).getSize());
+    }
+
+    @Test
+    public void iterator()
+    {
+        final LongIterator i = LongIterate.range(3, 0).iterator();
+        long sum = 0;
+        while (i.hasNext()) {
+            sum += i.nextLong();
+        }
+        assertEquals(6, sum);
+        assertFalse(LongIterate.range(3, 3).iterator().hasNext());
+    }
+
+    @Test
+    public void beyondIntegers()
+    {
+        final long start = 3L * Integer.MAX_VALUE;
+        assertEquals(3L * Integer.MAX_VALUE, LongIterate.range(0, start).count());
+        assertEquals(Size.unknown(), LongIterate.range(0, start).getSize());
+        assertArrayEquals(new long[] { start, start + 1 }, LongIterate.range(start, start + 2).toArray());
+    }
+
+    @Test
+    public void bounds()
+    {
+        // stepping past Long.MAX_VALUE ends the range rather than wrapping around
+        assertArrayEquals(new long[] { Long.MAX_VALUE - 3, Long.MAX_VALUE - 1 },
+                          LongIterate.range(Long.MAX_VALUE - 3, Long.MAX_VALUE).by(2).toArray());
+        assertArrayEquals(new long[] { Long.MIN_VALUE + 3, Long.MIN_VALUE + 1 },
+                          LongIterate.range(Long.MIN_VALUE + 3, Long.MIN_VALUE).by(2).toArray());
+        assertEquals(Long.MAX_VALUE, LongIterate.range(Long.MIN_VALUE, Long.MAX_VALUE).count());
+        assertEquals(1L << 62, LongIterate.range(Long.MIN_VALUE, Long.MAX_VALUE).by(4).count());
+    }
+}
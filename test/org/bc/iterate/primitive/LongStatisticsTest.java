@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.primitive;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class LongStatisticsTest
+{
+    @Test
+    public void pipeline()
+    {
+        final LongStatistics statistics = IntIterate.range(1, 101).statistics();
+        assertEquals(100, statistics.getCount());
+        assertEquals(5050, statistics.getSum());
+        assertEquals(1, statistics.getMin());
+        assertEquals(100, statistics.getMax());
+        assertEquals(50.5, statistics.getMean(), 1e-12);
+        assertEquals(833.25, statistics.getVariance(), 1e-9);
+        assertEquals(841.6666666666666, statistics.getSampleVariance(), 1e-9);
+    }
+
+    @Test
+    public void arrays()
+    {
+        final int[] items = { 2, 4, 4, 4, 5, 5, 7, 9 };
+        final LongStatistics statistics = LongStatistics.of(items);
+        assertEquals(8, statistics.getCount());
+        assertEquals(5.0, statistics.getMean(), 0.0);
+        assertEquals(2.0, statistics.getStandardDeviation(), 1e-12);
+
+        // the two pass array kernel agrees with the streaming pipeline
+        final LongStatistics streamed = IntIterate.of(items).where(Ints.gte(0)).statistics();
+        assertEquals(statistics.getSum(), streamed.getSum());
+        assertEquals(statistics.getVariance(), streamed.getVariance(), 1e-12);
+
+        assertEquals(3, LongStatistics.of(new long[] { 1, 2, 3, 4 }, 1, 3).getSum() - 2);
+    }
+
+    @Test
+    public void precision()
+    {
+        // a small variance around a large mean, which a naive sum of squares loses entirely
+        final long base = 1L << 40;
+        final LongStatistics statistics = LongIterate.of(base + 4, base + 7, base + 13, base + 16).statistics();
+        assertEquals(22.5, statistics.getVariance(), 1e-6);
+    }
+
+    @Test
+    public void merge()
+    {
+        final LongStatistics whole = IntIterate.range(0, 1000).map(Ints.square()).statistics();
+        final LongStatistics merged = new LongStatistics();
+        for (int chunk = 0; chunk < 1000; chunk += 300) {
+            merged.merge(IntIterate.range(chunk, Math.min(chunk + 300, 1000)).map(Ints.square()).statistics());
+        }
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getSum(), merged.getSum());
+        assertEquals(whole.getMin(), merged.getMin());
+        assertEquals(whole.getMax(), merged.getMax());
+        assertEquals(whole.getMean(), merged.getMean(), 1e-9);
+        assertEquals(whole.getVariance(), merged.getVariance(), whole.getVariance() * 1e-12);
+    }
+
+    @Test
+    public void empty()
+    {
+        final LongStatistics statistics = IntIterate.of().statistics();
+        assertEquals(0, statistics.getCount());
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.getVariance()));
+        assertTrue(Double.isNaN(LongStatistics.of(1).getSampleVariance()));
+        try {
+            statistics.getMin();
+            fail();
+        } catch (NoSuchElementException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.primitive;
+
+import org.bc.iterate.Iterate;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NumberParserTest
+{
+    @Test
+    public void ints()
+    {
+        final NumberParser parser = NumberParser.STRICT;
+        assertEquals(0, parser.parseInt("0"));
+        assertEquals(-42, parser.parseInt("-42"));
+        assertEquals(42, parser.parseInt("+42"));
+        assertEquals(Integer.MAX_VALUE, parser.parseInt("2147483647"));
+        assertEquals(Integer.MIN_VALUE, parser.parseInt("-2147483648"));
+        assertEquals(123, parser.parseInt("x123y", 1, 4));
+        assertEquals(Long.MIN_VALUE, parser.parseLong("-9223372036854775808"));
+        assertEquals(Long.MAX_VALUE, parser.parseLong("9223372036854775807"));
+    }
+
+    @Test
+    public void invalid()
+    {
+        final String[] invalid = {"", "-", "+", "1a", " 1", "2147483648", "-2147483649", "1.0", "99999999999"};
+        for (String s : invalid) {
+            try {
+                NumberParser.STRICT.parseInt(s);
+                fail(s);
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void lenient()
+    {
+        assertEquals(17, NumberParser.LENIENT.parseInt("  17\t"));
+        assertEquals(0, NumberParser.LENIENT.parseInt("   "));
+        assertEquals(-2.5, NumberParser.LENIENT.parseDouble(" -2.5 "), 0.0);
+        assertEquals(0.0, NumberParser.LENIENT.parseDouble(""), 0.0);
+    }
+
+    @Test
+    public void doubles()
+    {
+        final String[] values = {"0", "-0", "1", "1.5", "-1.5", ".25", "3.", "1e10", "1E-5", "12.345e+2", "0.1",
+                                 "123456789012345678901234567890", "0.30000000000000004", "4.9e-324",
+                                 "1.7976931348623157e308",
+                                 "1e400", "-1e-400", "NaN", "Infinity", "-Infinity", "0.000000000000000000000123"};
+        for (String value : values) {
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                         Double.doubleToLongBits(NumberParser.STRICT.parseDouble(value)));
+        }
+
+        final Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            final String value = Long.toString(random.nextInt(1000000)) + '.' + random.nextInt(100000) + 'e'
+                                 + (random.nextInt(60) - 30);
+            assertEquals(value, Double.parseDouble(value), NumberParser.STRICT.parseDouble(value), 0.0);
+            final String d = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+            assertEquals(d, Double.parseDouble(d), NumberParser.STRICT.parseDouble(d), 0.0);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void invalidDouble()
+    {
+        NumberParser.STRICT.parseDouble("1.0e");
+    }
+
+    @Test
+    public void bytes()
+    {
+        final ByteBuffer bytes = ByteBuffer.wrap("12,-34,5.75".getBytes());
+        assertEquals(12, NumberParser.STRICT.parseInt(bytes, 0, 2));
+        assertEquals(-34L, NumberParser.STRICT.parseLong(bytes, 3, 6));
+        assertEquals(5.75, NumberParser.STRICT.parseDouble(bytes, 7, 11), 0.0);
+        assertEquals(0, bytes.position());
+
+        // the slow path, lenient whitespace, and errors read the bytes just as the characters are read
+        final String text = "x 0.12345678901234567 ,NaN,1e";
+        final ByteBuffer textBytes = ByteBuffer.wrap(text.getBytes());
+        assertEquals(NumberParser.LENIENT.parseDouble(text, 1, 22), NumberParser.LENIENT.parseDouble(textBytes, 1, 22),
+                     0.0);
+        assertTrue(Double.isNaN(NumberParser.STRICT.parseDouble(textBytes, 23, 26)));
+        try {
+            NumberParser.STRICT.parseDouble(textBytes, 27, 29);
+            fail();
+        } catch (NumberFormatException e) {
+            assertEquals("For input string: \"1e\"", e.getMessage());
+        }
+    }
+
+    @Test
+    public void fields()
+    {
+        assertEquals(34, NumberParser.STRICT.parseIntField("12,34,56", ',', 1));
+        assertEquals(56L, NumberParser.STRICT.parseLongField("12,34,56", ',', 2));
+        assertEquals(0.0, NumberParser.LENIENT.parseDoubleField("12,34", ',', 2), 0.0);
+        try {
+            NumberParser.STRICT.parseIntField("12,34", ',', 2);
+            fail();
+        } catch (NumberFormatException expected) {
+        }
+    }
+
+    @Test
+    public void pipeline()
+    {
+        final String csv = "a,1,2.5\nb,2,3.5\nc,3,4.0\n";
+        assertEquals(6, IntIterate.map(Iterate.lines(new StringReader(csv)),
+                                       Ints.parseField(NumberParser.STRICT, ',', 1)).sum());
+        assertEquals(10.0, DoubleIterate.map(Iterate.lines(new StringReader(csv)),
+                                             Doubles.parseField(NumberParser.STRICT, ',', 2)).sum(), 0.0);
+    }
+}
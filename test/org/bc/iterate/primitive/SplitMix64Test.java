@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.primitive;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SplitMix64Test
+{
+    @Test
+    public void matchesSplittableRandom()
+    {
+        // the first values of java.util.SplittableRandom(42)
+        final SplitMix64 random = new SplitMix64(42);
+        assertEquals(-4767286540954276203L, random.nextLong());
+        assertEquals(2949826092126892291L, random.nextLong());
+        assertEquals(-1877322334, random.nextInt());
+        assertEquals(0.34419071652363753, random.nextDouble(), 0.0);
+    }
+
+    @Test
+    public void bounded()
+    {
+        final SplitMix64 random = new SplitMix64(1);
+        final int[] counts = new int[7];
+        for (int i = 0; i < 70000; i++) {
+            counts[random.nextInt(7)]++;
+        }
+        for (int count : counts) {
+            assertTrue(Arrays.toString(counts), Math.abs(count - 10000) < 500);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundMustBePositive()
+    {
+        new SplitMix64(1).nextInt(0);
+    }
+
+    @Test
+    public void fill()
+    {
+        final SplitMix64 a = new SplitMix64(3);
+        final SplitMix64 b = new SplitMix64(3);
+
+        final int[] ints = a.fill(new int[100], 10);
+        for (int x : ints) {
+            assertEquals(b.nextInt(10), x);
+        }
+        final long[] longs = a.fill(new long[100]);
+        for (long x : longs) {
+            assertEquals(b.nextLong(), x);
+        }
+        final double[] doubles = a.fill(new double[100]);
+        for (double x : doubles) {
+            assertEquals(b.nextDouble(), x, 0.0);
+        }
+        assertEquals(b.nextInt(), a.nextInt());
+    }
+
+    @Test
+    public void jump()
+    {
+        final SplitMix64 random = new SplitMix64(5);
+        final SplitMix64 ahead = random.jump(10);
+        final long[] longs = random.fill(new long[11]);
+        assertEquals(longs[10], ahead.nextLong());
+    }
+
+    @Test
+    public void split()
+    {
+        final SplitMix64 a = new SplitMix64(9);
+        final SplitMix64 b = new SplitMix64(9);
+        assertEquals(a.split().nextLong(), b.split().nextLong());
+        assertFalse(a.split().nextLong() == a.nextLong());
+    }
+
+    @Test
+    public void sources()
+    {
+        final SplitMix64 random = new SplitMix64(11);
+        final IntIterate ints = random.ints(100);
+        final IntIterator first = ints.iterator();
+        final IntIterator second = ints.iterator();
+        final SplitMix64 expected = new SplitMix64(11);
+        for (int i = 0; i < 100; i++) {
+            final int x = expected.nextInt(100);
+            assertEquals(x, first.nextInt());
+            assertEquals(x, second.nextInt());
+        }
+
+        // sources do not advance the generator
+        assertEquals(new SplitMix64(11).nextLong(), random.longs().iterator().nextLong());
+        assertEquals(new SplitMix64(11).nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.relational;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.iterable.HashJoinIterable;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class JoinIndexTest
+{
+    /**
+     * Items are "key/index", so that items with equal keys can be told apart
+     */
+    private static final Function<String, Integer> KEY = new Function<String, Integer>()
+    {
+        public Integer apply(String s)
+        {
+            return Integer.valueOf(s.substring(0, s.indexOf('/')));
+        }
+    };
+
+    @Test
+    public void iteratesItems()
+    {
+        final List<String> items = Arrays.asList("1/a", "2/b", "1/c");
+        final JoinIndex<Integer, String> index = JoinIndex.of(items, KEY);
+        assertEquals(3, index.size());
+        assertEquals(items, Iterate.each(index).list());
+    }
+
+    @Test
+    public void sameResultsAsHashJoin()
+    {
+        final Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            final List<String> left = items(random, random.nextInt(30));
+            final List<String> right = items(random, random.nextInt(30));
+            final JoinIndex<Integer, String> index = JoinIndex.of(right, KEY);
+            for (JoinType type : JoinType.values()) {
+                final List<JoinResult<Integer, String, String>> expected = Iterate.each(
+                        new HashJoinIterable<Integer, String, String>(type, left, KEY, right, KEY, true)).list();
+                final List<JoinResult<Integer, String, String>> actual =
+                        Iterate.each(left).join(Join.indexed(type, KEY, index), index).list();
+                if (type == JoinType.RIGHT) {
+                    assertEquals(sorted(expected), sorted(actual));
+                } else {
+                    assertEquals(expected.toString(), actual.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sharedByConcurrentJoins() throws Exception
+    {
+        final Random random = new Random(5);
+        final JoinIndex<Integer, String> index = JoinIndex.of(items(random, 200), KEY);
+        final JoinStrategy<Integer, String, String> strategy = Join.indexed(JoinType.FULL, KEY, index);
+        final List<List<String>> lefts = new ArrayList<List<String>>();
+        for (int i = 0; i < 16; i++) {
+            lefts.add(items(random, 100));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (final List<String> left : lefts) {
+                futures.add(executor.submit(new Callable<String>()
+                {
+                    public String call()
+                    {
+                        return Iterate.each(left).join(strategy, index).list().toString();
+                    }
+                }));
+            }
+            for (int i = 0; i < lefts.size(); i++) {
+                assertEquals(Iterate.each(lefts.get(i)).join(Join.ordered(JoinType.FULL, KEY, KEY), index)
+                                     .list().toString(), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresIndex()
+    {
+        final JoinIndex<Integer, String> index = JoinIndex.of(Arrays.asList("1/a"), KEY);
+        Iterate.each(Arrays.asList("1/a")).join(Join.indexed(JoinType.INNER, KEY, index), Arrays.asList("1/b"));
+    }
+
+    private static List<String> items(Random random, int count)
+    {
+        final List<String> items = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(random.nextInt(15) + "/" + i);
+        }
+        return items;
+    }
+
+    private static List<String> sorted(List<?> items)
+    {
+        final List<String> strings = new ArrayList<String>();
+        for (Object item : items) {
+            strings.add(String.valueOf(item));
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+}
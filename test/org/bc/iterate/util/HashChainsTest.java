@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bc.iterate.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HashChainsTest
+{
+    @Test
+    public void collidingHashes()
+    {
+        // every key has the same hash code, so distinct keys are told apart only by comparing them
+        final int[] keys = {5, 7, 5, 9, 7, 5};
+        final HashChains chains = new HashChains(new int[keys.length], new HashChains.Keys()
+        {
+            public boolean equal(int i, int j)
+            {
+                return keys[i] == keys[j];
+            }
+        });
+        assertEquals(3, chains.keyCount());
+        assertEquals(Arrays.asList(0, 2, 5), chain(chains, 0));
+        assertEquals(Arrays.asList(1, 4), chain(chains, 1));
+        assertEquals(Arrays.asList(3), chain(chains, 3));
+    }
+
+    @Test
+    public void toArray()
+    {
+        final List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+        assertArrayEquals(items.toArray(), HashChains.toArray(items, 0));
+        assertArrayEquals(items.toArray(), HashChains.toArray(items, 1000));
+        assertArrayEquals(new Object[0], HashChains.toArray(new ArrayList<Object>(), 0));
+    }
+
+    private static List<Integer> chain(HashChains chains, int first)
+    {
+        final List<Integer> chain = new ArrayList<Integer>();
+        for (int i = first; i >= 0; i = chains.next(i)) {
+            chain.add(i);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.util;
+
+import org.bc.iterate.Function;
+import org.bc.iterate.Functions;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MultimapTest
+{
+    private static final Function<String, Object> FIRST = new Function<String, Object>()
+    {
+        public Object apply(String s)
+        {
+            return s == null ? null : s.charAt(0);
+        }
+    };
+
+    @Test
+    public void chains()
+    {
+        final List<String> items = Arrays.asList("a1", "b1", "a2", null, "a3", "c1");
+        final Multimap<Object, String> multimap = Multimap.of(items, FIRST, 0);
+        assertEquals(6, multimap.size());
+        assertEquals(4, multimap.keyCount());
+        assertEquals(Arrays.asList(0, 2, 4), indexes(multimap, 'a'));
+        assertEquals(Arrays.asList(1), indexes(multimap, 'b'));
+        assertEquals(Arrays.asList(3), indexes(multimap, null));
+        assertEquals(Arrays.<Integer>asList(), indexes(multimap, 'd'));
+        assertEquals("a2", multimap.get(2));
+        assertEquals('a', multimap.getKey(2));
+        assertNull(multimap.get(3));
+        assertNull(multimap.getKey(3));
+    }
+
+    @Test
+    public void collisions()
+    {
+        // "Aa" and "BB" have the same hash code
+        final List<String> items = Arrays.asList("Aa", "BB", "Aa", "BB");
+        final Multimap<String, String> multimap = Multimap.of(items, Functions.<String>identity(), 0);
+        assertEquals(2, multimap.keyCount());
+        assertEquals(Arrays.asList(0, 2), indexes(multimap, "Aa"));
+        assertEquals(Arrays.asList(1, 3), indexes(multimap, "BB"));
+    }
+
+    @Test
+    public void many()
+    {
+        final List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            items.add(i * 1024);
+        }
+        final Multimap<Integer, Integer> multimap = Multimap.of(items, Functions.<Integer>identity(), 16);
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i, multimap.first(items.get(i)));
+            assertEquals(-1, multimap.next(i));
+        }
+        assertEquals(-1, multimap.first(1));
+    }
+
+    @Test
+    public void empty()
+    {
+        final Multimap<Object, String> multimap = Multimap.of(new ArrayList<String>(), FIRST, 0);
+        assertEquals(0, multimap.size());
+        assertEquals(0, multimap.keyCount());
+        assertEquals(-1, multimap.first('a'));
+        assertEquals(-1, multimap.first(null));
+    }
+
+    private static List<Integer> indexes(Multimap<?, ?> multimap, Object key)
+    {
+        final List<Integer> indexes = new ArrayList<Integer>();
+        for (int i = multimap.first(key); i >= 0; i = multimap.next(i)) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
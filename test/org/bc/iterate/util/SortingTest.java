@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2007-2010 Brian Cavalier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bc.iterate.util;
+
+import org.bc.iterate.Iterables;
+import org.bc.iterate.Iterate;
+import org.bc.iterate.ParallelIterate;
+import org.bc.iterate.primitive.IntIterate;
+import org.bc.iterate.primitive.LongIterate;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SortingTest
+{
+    @Test
+    public void radixInts()
+    {
+        final Random random = new Random(1);
+        final int[] items = new int[5000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i % 7 == 0 ? random.nextInt(10) : random.nextInt();
+        }
+        items[0] = Integer.MIN_VALUE;
+        items[1] = Integer.MAX_VALUE;
+        final int[] expected = items.clone();
+        Arrays.sort(expected);
+        Sorting.radixSort(items, 0, items.length);
+        assertArrayEquals(expected, items);
+    }
+
+    @Test
+    public void radixSubrange()
+    {
+        final int[] items = {9, 8, 7, 6, 5, 4};
+        Sorting.radixSort(items, 1, 5);
+        assertArrayEquals(new int[]{9, 5, 6, 7, 8, 4}, items);
+
+        // every item shares its high bytes, so those passes are skipped
+        final int[] small = {300, 2, 1, 256};
+        Sorting.radixSort(small, 0, small.length);
+        assertArrayEquals(new int[]{1, 2, 256, 300}, small);
+    }
+
+    @Test
+    public void radixLongs()
+    {
+        final Random random = new Random(2);
+        final long[] items = new long[5000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = random.nextLong() >> random.nextInt(64);
+        }
+        items[0] = Long.MIN_VALUE;
+        items[1] = Long.MAX_VALUE;
+        final long[] expected = items.clone();
+        Arrays.sort(expected);
+        Sorting.radixSort(items, 0, items.length);
+        assertArrayEquals(expected, items);
+    }
+
+    @Test
+    public void multikeyStrings()
+    {
+        final Random random = new Random(3);
+        final String[] prefixes = {"", "a", "abc", "abcabcabcabcabcabcabcabc", "\u00e9t\u00e9", "zzz"};
+        final String[] items = new String[5000];
+        for (int i = 0; i < items.length; i++) {
+            final StringBuilder s = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+            for (int j = random.nextInt(5); j > 0; j--) {
+                s.append((char) ('a' + random.nextInt(4)));
+            }
+            items[i] = s.toString();
+        }
+        final String[] expected = items.clone();
+        Arrays.sort(expected);
+        Sorting.multikeySort(items, 0, items.length);
+        assertArrayEquals(expected, items);
+    }
+
+    @Test
+    public void naturalLists()
+    {
+        final Random random = new Random(4);
+        final List<Integer> ints = new ArrayList<Integer>();
+        final List<Long> longs = new ArrayList<Long>();
+        final List<String> strings = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            ints.add(random.nextInt());
+            longs.add(random.nextLong());
+            strings.add(Integer.toString(random.nextInt(100000), 36));
+        }
+        assertSorted(ints);
+        assertSorted(longs);
+        assertSorted(strings);
+    }
+
+    private static <X extends Comparable<X>> void assertSorted(List<X> items)
+    {
+        final List<X> expected = new ArrayList<X>(items);
+        Collections.sort(expected);
+        Sorting.sort(items);
+        assertEquals(expected, items);
+    }
+
+    @Test
+    public void parallelIsStable()
+    {
+        final Random random = new Random(5);
+        final Integer[][] items = new Integer[10000][];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Integer[]{random.nextInt(100), i};
+        }
+        final Integer[][] expected = items.clone();
+        final Comparator<Integer[]> byFirst = new Comparator<Integer[]>()
+        {
+            public int compare(Integer[] x, Integer[] y)
+            {
+                return x[0].compareTo(y[0]);
+            }
+        };
+        Arrays.sort(expected, byFirst);
+        Sorting.parallelSort(items, byFirst, ParallelIterate.defaultExecutor(), 7);
+        assertArrayEquals(expected, items);
+    }
+
+    @Test
+    public void nestedParallelSortsComplete() throws Exception
+    {
+        // Sorts running on every thread of the pool they sort on would wait forever for tasks queued behind them
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<Integer[]>> sorts = new ArrayList<Future<Integer[]>>();
+            for (int t = 0; t < 2; t++) {
+                final Random random = new Random(t);
+                sorts.add(pool.submit(new Callable<Integer[]>()
+                {
+                    public Integer[] call()
+                    {
+                        final Integer[] items = new Integer[100000];
+                        for (int i = 0; i < items.length; i++) {
+                            items[i] = random.nextInt();
+                        }
+                        Sorting.parallelSort(items, null, pool, 2);
+                        return items;
+                    }
+                }));
+            }
+            for (Future<Integer[]> sort : sorts) {
+                final Integer[] items = sort.get(60, TimeUnit.SECONDS);
+                final Integer[] expected = items.clone();
+                Arrays.sort(expected);
+                assertArrayEquals(expected, items);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void parallelOnlyForParallelSources()
+    {
+        final List<Integer> items = new ArrayList<Integer>();
+        final Random random = new Random(9);
+        for (int i = 0; i < Sorting.PARALLEL_THRESHOLD * 2; i++) {
+            items.add(random.nextInt(1000));
+        }
+        final List<Integer> expected = new ArrayList<Integer>(items);
+        Collections.sort(expected, Collections.reverseOrder());
+
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final Comparator<Integer> reverse = new Comparator<Integer>()
+        {
+            public int compare(Integer x, Integer y)
+            {
+                threads.add(Thread.currentThread());
+                return y.compareTo(x);
+            }
+        };
+        assertEquals(expected, Iterate.each(items).transform(Iterables.sort(reverse)).list());
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+        assertEquals(expected, Iterate.each(items).parallel().transform(Iterables.sort(reverse)).list());
+    }
+
+    @Test
+    public void primitivePipelines()
+    {
+        assertArrayEquals(new int[]{-3, 1, 2, 5}, IntIterate.of(5, 1, -3, 2).sorted().toArray());
+        assertArrayEquals(new long[]{-3, 1, 2, 5}, LongIterate.of(5, 1, -3, 2).sorted().toArray());
+        assertEquals(-3, IntIterate.of(5, 1, -3, 2).sorted().iterator().nextInt());
+    }
+
+    @Test
+    public void orderIsStable()
+    {
+        final Random random = new Random(7);
+        final int n = 3000;
+        final int[] ints = new int[n];
+        final long[] longs = new long[n];
+        final double[] doubles = new double[n];
+        final Integer[] boxed = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            ints[i] = random.nextInt(50) - 25;
+            longs[i] = (long) ints[i] << 40;
+            doubles[i] = ints[i] / 4.0;
+            boxed[i] = ints[i];
+        }
+        ints[0] = Integer.MIN_VALUE;
+        ints[1] = Integer.MAX_VALUE;
+        longs[0] = Long.MIN_VALUE;
+        longs[1] = Long.MAX_VALUE;
+        doubles[0] = Double.NaN;
+        doubles[1] = -0.0;
+        doubles[2] = 0.0;
+        doubles[3] = Double.NEGATIVE_INFINITY;
+
+        assertOrdered(Sorting.order(ints), new Comparator<Integer>()
+        {
+            public int compare(Integer a, Integer b)
+            {
+                return ints[a] < ints[b] ? -1 : ints[a] > ints[b] ? 1 : 0;
+            }
+        });
+        assertOrdered(Sorting.order(longs), new Comparator<Integer>()
+        {
+            public int compare(Integer a, Integer b)
+            {
+                return longs[a] < longs[b] ? -1 : longs[a] > longs[b] ? 1 : 0;
+            }
+        });
+        assertOrdered(Sorting.order(doubles), new Comparator<Integer>()
+        {
+            public int compare(Integer a, Integer b)
+            {
+                return Double.compare(doubles[a], doubles[b]);
+            }
+        });
+        assertOrdered(Sorting.order(boxed, null), new Comparator<Integer>()
+        {
+            public int compare(Integer a, Integer b)
+            {
+                return boxed[a].compareTo(boxed[b]);
+            }
+        });
+        assertOrdered(Sorting.order(boxed, Collections.reverseOrder()), new Comparator<Integer>()
+        {
+            public int compare(Integer a, Integer b)
+            {
+                return boxed[b].compareTo(boxed[a]);
+            }
+        });
+    }
+
+    @Test
+    public void orderEmpty()
+    {
+        assertEquals(0, Sorting.order(new int[0]).length);
+        assertEquals(0, Sorting.order(new long[0]).length);
+        assertEquals(0, Sorting.order(new String[0], null).length);
+        assertArrayEquals(new int[]{0}, Sorting.order(new double[]{1.0}));
+    }
+
+    /**
+     * Checks that {@code order} is a permutation in which equal items appear in ascending index order
+     */
+    private static void assertOrdered(int[] order, Comparator<Integer> comparator)
+    {
+        final Integer[] expected = new Integer[order.length];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i;
+        }
+        Arrays.sort(expected, comparator);
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(expected[i].intValue(), order[i]);
+        }
+    }
+}